@@ -1,11 +1,30 @@
 package com.atlassian.migration.app.zephyr;
 
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import com.atlassian.migration.app.zephyr.common.ApiMetrics;
+import com.atlassian.migration.app.zephyr.common.ApiConcurrencyLimits;
 import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
+import com.atlassian.migration.app.zephyr.common.ApiFamily;
+import com.atlassian.migration.app.zephyr.common.AuthStrategy;
+import com.atlassian.migration.app.zephyr.common.AuthenticationType;
+import com.atlassian.migration.app.zephyr.common.BasicAuth;
 import com.atlassian.migration.app.zephyr.common.DataSourceFactory;
+import com.atlassian.migration.app.zephyr.common.HttpCassette;
+import com.atlassian.migration.app.zephyr.common.HttpTransport;
 import com.atlassian.migration.app.zephyr.common.PropertySanitizer;
+import com.atlassian.migration.app.zephyr.common.ResponseCache;
+import com.atlassian.migration.app.zephyr.common.RetryPolicy;
+import com.atlassian.migration.app.zephyr.common.SnapshotReader;
+import com.atlassian.migration.app.zephyr.common.SnapshotWriter;
 import com.atlassian.migration.app.zephyr.common.TimeUtils;
 import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
 import com.atlassian.migration.app.zephyr.migration.*;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Cache;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Concurrency;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Http;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Journal;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Metrics;
+import com.atlassian.migration.app.zephyr.migration.MigrationConfiguration.Retry;
 import com.atlassian.migration.app.zephyr.migration.execution.TestExecutionCsvExporter;
 import com.atlassian.migration.app.zephyr.migration.execution.TestExecutionPostMigrator;
 import com.atlassian.migration.app.zephyr.migration.testcase.TestCaseCsvExporter;
@@ -17,13 +36,35 @@ import org.slf4j.LoggerFactory;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 public class ApplicationMain {
 
     private static final Logger logger = LoggerFactory.getLogger(ApplicationMain.class);
+    private static final String RESUME_FLAG = "--resume";
+    private static final String EXTRACT_OPTION = "--extract";
+    private static final String LOAD_OPTION = "--load";
+    private static final String RECORD_OPTION = "--record";
+    private static final String REPLAY_OPTION = "--replay";
 
-    public static void main(String[] args) {
+    public static void main(String[] arguments) {
+
+        var argumentList = new ArrayList<>(Arrays.asList(arguments));
+        var resume = argumentList.remove(RESUME_FLAG);
+        var extractFolder = removeOption(argumentList, EXTRACT_OPTION);
+        var loadFolder = removeOption(argumentList, LOAD_OPTION);
+        var recordFolder = removeOption(argumentList, RECORD_OPTION);
+        var replayFolder = removeOption(argumentList, REPLAY_OPTION);
+        var args = argumentList.toArray(String[]::new);
+
+        if (recordFolder != null && replayFolder != null) {
+            logger.error(RECORD_OPTION + " and " + REPLAY_OPTION + " can't be used together.");
+            System.exit(1);
+        }
 
         if (args.length < 2) {
             logger.error("Username and password are required as command line arguments.");
@@ -33,23 +74,98 @@ public class ApplicationMain {
         logger.info("Loading properties file...");
         try (FileInputStream input = new FileInputStream("app.properties")) {
 
-            var migrationConfig = loadMigrationConfiguration(args, input);
+            var migrationConfig = loadMigrationConfiguration(args, resume, input);
+            if (resume && migrationConfig.journal().directory().isBlank()) {
+                logger.error(RESUME_FLAG + " needs the journalDirectory of the interrupted migration in app.properties.");
+                System.exit(1);
+            }
+            var projectKey = args.length == 3 ? args[2].toUpperCase() : null;
+
+            var transport = createTransport(migrationConfig);
+            var jiraApi = new JiraApi(migrationConfig.apiConfiguration(), transport);
+            var squadApi = new SquadApi(migrationConfig.apiConfiguration(), transport);
+            var concurrencyLimits = migrationConfig.concurrency().adaptiveConcurrency()
+                    ? new ApiConcurrencyLimits(migrationConfig.concurrency().maxConcurrentRequests()) : null;
+            var retryPolicy = RetryPolicy.withDefaults(migrationConfig.retry().maxAttempts(),
+                    migrationConfig.retry().baseDelayMillis()).withEndpoints(migrationConfig.retry().endpoints());
+            var cassette = createCassette(recordFolder, replayFolder, migrationConfig);
+            //a replay doesn't reach the server, there is no session to log in to
+            var authStrategy = cassette != null && cassette.isReplaying()
+                    ? new BasicAuth(migrationConfig.apiConfiguration()) : createAuthStrategy(migrationConfig, transport, cassette);
+            jiraApi.useCassette(cassette);
+            squadApi.useCassette(cassette);
+            jiraApi.authenticateWith(authStrategy);
+            jiraApi.limitConcurrency(concurrencyLimits);
+            jiraApi.retryWith(retryPolicy);
+            jiraApi.streamResponses(migrationConfig.http().streamingResponses());
+            jiraApi.expandRenderedFields(migrationConfig.renderedDescriptions());
+            jiraApi.compressResponses(ApiFamily.parseList(migrationConfig.http().compressedResponses()));
+            var responseCache = migrationConfig.cache().entries() > 0
+                    ? new ResponseCache(migrationConfig.cache().entries(),
+                    migrationConfig.cache().ttlSeconds() * 1000) : null;
+            jiraApi.cacheResponses(responseCache);
+            squadApi.authenticateWith(authStrategy);
+            squadApi.limitConcurrency(concurrencyLimits);
+            squadApi.retryWith(retryPolicy);
+            squadApi.streamResponses(migrationConfig.http().streamingResponses());
+            squadApi.compressResponses(ApiFamily.parseList(migrationConfig.http().compressedResponses()));
+            var apiMetrics = migrationConfig.metrics().directory().isBlank()
+                    ? null : new ApiMetrics(Path.of(migrationConfig.metrics().directory()));
+            if (apiMetrics != null) {
+                jiraApi.recordMetricsIn(apiMetrics);
+                squadApi.recordMetricsIn(apiMetrics);
+                apiMetrics.dumpPeriodically(migrationConfig.metrics().intervalSeconds());
+            }
+
+            if (extractFolder != null) {
+                logger.info("Extracting Squad data to snapshot " + extractFolder + "...");
+                runExtract(migrationConfig, jiraApi, squadApi, Path.of(extractFolder), projectKey);
+                if (apiMetrics != null) {
+                    apiMetrics.close();
+                }
+                closeCassette(cassette);
+                logger.info("Extract completed.");
+                return;
+            }
 
             // updating default time format in utils may be not best way
             if(migrationConfig.jiraDateTimeFormat() != null && !migrationConfig.jiraDateTimeFormat().isEmpty()) {
                 TimeUtils.updateDefaultSquadFormat(migrationConfig.jiraDateTimeFormat());
             }
-            logger.info("Starting migration...");
 
-            SquadToScaleMigrator migrator = createSquadToScaleMigrator(migrationConfig);
+            try (var snapshot = loadFolder == null ? null : new SnapshotReader(Path.of(loadFolder))) {
+                if (snapshot != null) {
+                    logger.info("Loading " + snapshot.size() + " Jira and Squad responses from snapshot " + loadFolder + "...");
+                    jiraApi.replayFrom(snapshot);
+                    squadApi.replayFrom(snapshot);
+                }
 
-            if (args.length == 3) {
-                var projectKey = args[2].toUpperCase();
-                migrator.runMigration(projectKey);
-            } else {
-                migrator.getProjectListAndRunMigration();
+                logger.info("Starting migration...");
+
+                SquadToScaleMigrator migrator = createSquadToScaleMigrator(migrationConfig, jiraApi, squadApi,
+                        transport, concurrencyLimits, retryPolicy, authStrategy, apiMetrics, cassette);
+
+                if (projectKey != null) {
+                    migrator.runMigration(projectKey);
+                } else {
+                    migrator.getProjectListAndRunMigration();
+                }
+
+                if (snapshot != null) {
+                    logger.info((jiraApi.getSnapshotMisses() + squadApi.getSnapshotMisses())
+                            + " requests were not in the snapshot and were sent to the server.");
+                }
             }
 
+            if (responseCache != null) {
+                logger.info(responseCache.getHits() + " Jira reads were answered from the response cache and "
+                        + responseCache.getCoalesced() + " shared an identical read in flight.");
+            }
+            if (apiMetrics != null) {
+                apiMetrics.close();
+                logger.info("API metrics written to " + migrationConfig.metrics().directory() + ".");
+            }
+            closeCassette(cassette);
             logger.info("Migration completed.");
 
         } catch (Exception ex) {
@@ -58,7 +174,36 @@ public class ApplicationMain {
         }
     }
 
-    private static MigrationConfiguration loadMigrationConfiguration(String[] args, FileInputStream input) throws IOException {
+    private static String removeOption(List<String> arguments, String option) {
+        var position = arguments.indexOf(option);
+        if (position < 0) {
+            return null;
+        }
+        if (position + 1 >= arguments.size()) {
+            logger.error("A folder is required after " + option + ".");
+            System.exit(1);
+        }
+        arguments.remove(position);
+        return arguments.remove(position);
+    }
+
+    private static void runExtract(MigrationConfiguration migrationConfig, JiraApi jiraApi, SquadApi squadApi,
+                                   Path snapshotFolder, String projectKey) throws IOException {
+        try (var snapshot = new SnapshotWriter(snapshotFolder)) {
+            jiraApi.recordTo(snapshot);
+            squadApi.recordTo(snapshot);
+
+            var extractor = new SnapshotExtractor(jiraApi, squadApi, migrationConfig);
+            if (projectKey != null) {
+                extractor.extractProject(projectKey);
+            } else {
+                extractor.extractAllProjects();
+            }
+            logger.info(snapshot.size() + " Jira and Squad responses written to the snapshot.");
+        }
+    }
+
+    private static MigrationConfiguration loadMigrationConfiguration(String[] args, boolean resume, FileInputStream input) throws IOException {
         Properties prop = new Properties();
         prop.load(input);
 
@@ -73,6 +218,9 @@ public class ApplicationMain {
         var httpVersion = prop.getProperty("httpVersion");
         var updateDatabaseFieldsPostMigration = Boolean.parseBoolean(prop.getProperty("updateDatabaseFieldsPostMigration"));
         var attachmentsBaseFolder = PropertySanitizer.sanitizeAttachmentsBaseFolder(prop.getProperty("attachmentsBaseFolder"));
+        var issuePagination = prop.getProperty("issuePagination", MigrationConfiguration.DEFAULT_ISSUE_PAGINATION);
+        var renderedDescriptions = booleanProperty(prop, "renderedDescriptions",
+                MigrationConfiguration.DEFAULT_RENDERED_DESCRIPTIONS);
 
         var username = args[0];
         var password = args[1];
@@ -81,13 +229,143 @@ public class ApplicationMain {
 
         return new MigrationConfiguration(apiConfig, pageSteps, cycleNamePlaceHolder,
                 attachmentsMappedCsvFile, testCaseCSVFile, testExecutionCSVFile, jiraDateTimeFormat,
-                databaseType, updateDatabaseFieldsPostMigration, attachmentsBaseFolder);
+                databaseType, updateDatabaseFieldsPostMigration, attachmentsBaseFolder,
+                issuePagination, renderedDescriptions, loadConcurrency(prop), loadJournal(prop, resume),
+                loadHttp(prop), loadRetry(prop), loadCache(prop), loadMetrics(prop));
     }
 
-    private static SquadToScaleMigrator createSquadToScaleMigrator(MigrationConfiguration migrationConfig) throws IOException {
-        var jiraApi = new JiraApi(migrationConfig.apiConfiguration());
-        var squadApi = new SquadApi(migrationConfig.apiConfiguration());
-        var scaleApi = new ScaleApi(migrationConfig.apiConfiguration());
+    private static Concurrency loadConcurrency(Properties prop) {
+        return new Concurrency(
+                intProperty(prop, "pagePrefetchDepth", Concurrency.DEFAULT_PAGE_PREFETCH_DEPTH),
+                intProperty(prop, "testCaseCreationThreads", Concurrency.DEFAULT_TEST_CASE_CREATION_THREADS),
+                intProperty(prop, "migrationThreads", Concurrency.DEFAULT_MIGRATION_THREADS),
+                prop.getProperty("executorType", Concurrency.DEFAULT_EXECUTOR_TYPE),
+                intProperty(prop, "projectConcurrency", Concurrency.DEFAULT_PROJECT_CONCURRENCY),
+                intProperty(prop, "extractThreads", Concurrency.DEFAULT_EXTRACT_THREADS),
+                intProperty(prop, "transformThreads", Concurrency.DEFAULT_TRANSFORM_THREADS),
+                intProperty(prop, "loadThreads", Concurrency.DEFAULT_LOAD_THREADS),
+                intProperty(prop, "stageQueueCapacity", Concurrency.DEFAULT_STAGE_QUEUE_CAPACITY),
+                booleanProperty(prop, "adaptiveConcurrency", Concurrency.DEFAULT_ADAPTIVE_CONCURRENCY),
+                intProperty(prop, "maxConcurrentRequests", Concurrency.DEFAULT_MAX_CONCURRENT_REQUESTS));
+    }
+
+    private static Journal loadJournal(Properties prop, boolean resume) {
+        return new Journal(
+                prop.getProperty("journalDirectory", Journal.DEFAULT_DIRECTORY),
+                resume,
+                prop.getProperty("entityMapBackend", Journal.DEFAULT_ENTITY_MAP_BACKEND),
+                prop.getProperty("entityMapSpillDirectory", Journal.DEFAULT_ENTITY_MAP_SPILL_DIRECTORY),
+                booleanProperty(prop, "incrementalPostMigration", Journal.DEFAULT_INCREMENTAL_POST_MIGRATION));
+    }
+
+    private static Http loadHttp(Properties prop) {
+        return new Http(
+                prop.getProperty("authentication", Http.DEFAULT_AUTHENTICATION),
+                intProperty(prop, "httpExecutorThreads", Http.DEFAULT_EXECUTOR_THREADS),
+                intProperty(prop, "httpMaxConnections", Http.DEFAULT_MAX_CONNECTIONS),
+                intProperty(prop, "httpMaxStreams", Http.DEFAULT_MAX_STREAMS),
+                longProperty(prop, "httpKeepAliveSeconds", Http.DEFAULT_KEEP_ALIVE_SECONDS),
+                longProperty(prop, "httpConnectTimeoutSeconds", Http.DEFAULT_CONNECT_TIMEOUT_SECONDS),
+                longProperty(prop, "httpRequestTimeoutSeconds", Http.DEFAULT_REQUEST_TIMEOUT_SECONDS),
+                booleanProperty(prop, "streamingResponses", Http.DEFAULT_STREAMING_RESPONSES),
+                prop.getProperty("compressedResponses", Http.DEFAULT_COMPRESSED_RESPONSES),
+                booleanProperty(prop, "compressScaleRequests", Http.DEFAULT_COMPRESS_SCALE_REQUESTS),
+                longProperty(prop, "cassetteLatencyMillis", Http.DEFAULT_CASSETTE_LATENCY_MILLIS));
+    }
+
+    private static Retry loadRetry(Properties prop) {
+        return new Retry(
+                intProperty(prop, "retryMaxAttempts", Retry.DEFAULT_MAX_ATTEMPTS),
+                intProperty(prop, "retryBaseDelayMillis", Retry.DEFAULT_BASE_DELAY_MILLIS),
+                prop.getProperty("retryEndpoints", Retry.DEFAULT_ENDPOINTS));
+    }
+
+    private static Cache loadCache(Properties prop) {
+        return new Cache(
+                intProperty(prop, "responseCacheEntries", Cache.DEFAULT_ENTRIES),
+                longProperty(prop, "responseCacheTtlSeconds", Cache.DEFAULT_TTL_SECONDS));
+    }
+
+    private static Metrics loadMetrics(Properties prop) {
+        return new Metrics(
+                prop.getProperty("metricsDirectory", Metrics.DEFAULT_DIRECTORY),
+                longProperty(prop, "metricsIntervalSeconds", Metrics.DEFAULT_INTERVAL_SECONDS));
+    }
+
+    private static int intProperty(Properties prop, String name, int defaultValue) {
+        return Integer.parseInt(prop.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static long longProperty(Properties prop, String name, long defaultValue) {
+        return Long.parseLong(prop.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static boolean booleanProperty(Properties prop, String name, boolean defaultValue) {
+        return Boolean.parseBoolean(prop.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static HttpTransport createTransport(MigrationConfiguration migrationConfig) {
+        return HttpTransport.create(new HttpTransport.Settings(migrationConfig.apiConfiguration().httpVersion(),
+                migrationConfig.http().executorThreads(), migrationConfig.http().maxConnections(),
+                migrationConfig.http().maxStreams(), migrationConfig.http().keepAliveSeconds(),
+                migrationConfig.http().connectTimeoutSeconds(), migrationConfig.http().requestTimeoutSeconds()));
+    }
+
+    private static AuthStrategy createAuthStrategy(MigrationConfiguration migrationConfig, HttpTransport transport,
+                                                   HttpCassette cassette) throws ApiException {
+        var authenticationType = AuthenticationType.getAuthenticationTypeByName(migrationConfig.http().authentication())
+                .orElseGet(() -> {
+                    logger.warn("Unknown authentication '" + migrationConfig.http().authentication() + "', using "
+                            + AuthenticationType.BASIC);
+                    return AuthenticationType.BASIC;
+                });
+        logger.info("Authenticating with " + authenticationType + " authentication...");
+        return authenticationType.createStrategy(migrationConfig.apiConfiguration(), transport, cassette);
+    }
+
+    private static HttpCassette createCassette(String recordFolder, String replayFolder,
+                                               MigrationConfiguration migrationConfig) throws IOException {
+        if (recordFolder != null) {
+            logger.info("Recording every HTTP exchange to cassette " + recordFolder + "...");
+            return HttpCassette.recordingTo(new SnapshotWriter(Path.of(recordFolder)));
+        }
+        if (replayFolder != null) {
+            logger.info("Replaying HTTP exchanges from cassette " + replayFolder + ", nothing is sent to the server...");
+            return HttpCassette.replayingFrom(new SnapshotReader(Path.of(replayFolder)),
+                    migrationConfig.http().cassetteLatencyMillis());
+        }
+        return null;
+    }
+
+    private static void closeCassette(HttpCassette cassette) throws IOException {
+        if (cassette == null) {
+            return;
+        }
+        cassette.close();
+        if (cassette.isReplaying()) {
+            logger.info(cassette.getMisses() + " requests were not in the cassette and "
+                    + cassette.getApproximateMatches() + " were answered with a recording of a different body.");
+        }
+    }
+
+    private static SquadToScaleMigrator createSquadToScaleMigrator(MigrationConfiguration migrationConfig, JiraApi jiraApi,
+                                                                   SquadApi squadApi, HttpTransport transport,
+                                                                   ApiConcurrencyLimits concurrencyLimits,
+                                                                   RetryPolicy retryPolicy,
+                                                                   AuthStrategy authStrategy,
+                                                                   ApiMetrics apiMetrics,
+                                                                   HttpCassette cassette) throws IOException {
+        var scaleApi = new ScaleApi(migrationConfig.apiConfiguration(), transport);
+        scaleApi.useCassette(cassette);
+        scaleApi.authenticateWith(authStrategy);
+        if (apiMetrics != null) {
+            scaleApi.recordMetricsIn(apiMetrics);
+        }
+        scaleApi.limitConcurrency(concurrencyLimits);
+        scaleApi.retryWith(retryPolicy);
+        scaleApi.streamResponses(migrationConfig.http().streamingResponses());
+        scaleApi.compressResponses(ApiFamily.parseList(migrationConfig.http().compressedResponses()));
+        scaleApi.compressRequestBodies(migrationConfig.http().compressScaleRequests());
         var csvExporter = new AttachmentsCsvExporter(migrationConfig.attachmentsMappedCsvFile());
         var testCaseCsvExporter = new TestCaseCsvExporter(migrationConfig.testCaseCSVFile());
         var testExecutionCsvExporter = new TestExecutionCsvExporter(migrationConfig.testExecutionCSVFile());
@@ -101,9 +379,11 @@ public class ApplicationMain {
         var testCaseMigrator = new TestCasePostMigrator(jiraApi, testCaseCsvExporter);
         var testExecutionMigrator = new TestExecutionPostMigrator(jiraApi, testExecutionCsvExporter);
 
-        return new SquadToScaleMigrator(jiraApi, squadApi, scaleApi, attachmentsCsvExporter,
+        var migrator = new SquadToScaleMigrator(jiraApi, squadApi, scaleApi, attachmentsCsvExporter,
                 testCaseMigrator,
                 testExecutionMigrator,
                 migrationConfig);
+        migrator.reportMetricsTo(apiMetrics);
+        return migrator;
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caps the requests in flight to a server and adapts the cap to how the server copes: additive increase while
+ * responses come back about as fast as the quickest ones seen, multiplicative decrease when the server signals
+ * overload with 429, 503 or any other retried status, or a timeout.
+ * <p>
+ * Requests that were already in flight when the cap was cut are likely to report overload too, so the cap is
+ * cut at most once per smoothed round trip. Other failures, like a 404, say nothing about the load and leave the
+ * cap as it is.
+ * <p>
+ * A request over the cap waits for a permit: {@link #acquire()} returns a future completed once it has one,
+ * without holding a thread, and {@link #acquireBlocking()} waits on it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double BACKOFF_RATIO = 0.7;
+    //a response up to this many times slower than the quickest one is still healthy
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private final String name;
+    private final int maxLimit;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight = 0;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private double smoothedLatencyNanos = 0;
+    private boolean backedOff = false;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int maxLimit) {
+        this.name = name;
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.limit = Math.min(Math.max(initialLimit, 1), this.maxLimit);
+    }
+
+    public synchronized CompletableFuture<Void> acquire() {
+        if (waiters.isEmpty() && inFlight < getLimit()) {
+            inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        var waiter = new CompletableFuture<Void>();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    public void acquireBlocking() throws InterruptedException {
+        var permit = acquire();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            //the permit may have been granted in the meantime, it must not leak
+            if (!permit.cancel(false)) {
+                release(0, Outcome.IGNORED);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void release(long latencyNanos, Outcome outcome) {
+        CompletableFuture<Void> nextWaiter;
+        synchronized (this) {
+            inFlight--;
+            adapt(latencyNanos, outcome);
+            nextWaiter = nextWaiter();
+            if (nextWaiter != null) {
+                inFlight++;
+            }
+        }
+        //completed outside the lock, the waiter may run its request on this thread
+        while (nextWaiter != null) {
+            if (nextWaiter.complete(null)) {
+                break;
+            }
+            synchronized (this) {
+                inFlight--;
+                nextWaiter = nextWaiter();
+                if (nextWaiter != null) {
+                    inFlight++;
+                }
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private CompletableFuture<Void> nextWaiter() {
+        if (inFlight >= getLimit()) {
+            return null;
+        }
+        CompletableFuture<Void> waiter;
+        do {
+            waiter = waiters.poll();
+        } while (waiter != null && waiter.isCancelled());
+        return waiter;
+    }
+
+    private void adapt(long latencyNanos, Outcome outcome) {
+        var now = System.nanoTime();
+        switch (outcome) {
+            case OVERLOADED -> {
+                if (!backedOff || now - lastBackoffNanos >= smoothedLatencyNanos) {
+                    limit = Math.max(1, limit * BACKOFF_RATIO);
+                    backedOff = true;
+                    lastBackoffNanos = now;
+                    logger.info("Server of " + name + " is overloaded, allowing " + getLimit() + " requests in flight.");
+                }
+            }
+            case SUCCESS -> {
+                baselineLatencyNanos = Math.min(baselineLatencyNanos, latencyNanos);
+                smoothedLatencyNanos = smoothedLatencyNanos == 0 ? latencyNanos
+                        : smoothedLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+                //only grows when the cap is what holds requests back, not when the callers are slower
+                var limited = inFlight + 1 >= getLimit() || !waiters.isEmpty();
+                if (limited && latencyNanos <= baselineLatencyNanos * LATENCY_TOLERANCE) {
+                    var previous = getLimit();
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                    if (getLimit() > previous) {
+                        logger.debug("Allowing " + getLimit() + " requests in flight to " + name + ".");
+                    }
+                }
+            }
+            case IGNORED -> {
+            }
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        OVERLOADED,
+        IGNORED
+    }
+}
@@ -0,0 +1,31 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per {@link ApiFamily}, shared by every API talking to it: throttling
+ * by ZAPI doesn't slow down the Jira core or Scale requests.
+ */
+public class ApiConcurrencyLimits {
+
+    private static final int INITIAL_LIMIT = 4;
+
+    private final Map<ApiFamily, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(ApiFamily.class);
+
+    public ApiConcurrencyLimits(int maxConcurrentRequests) {
+        for (var apiFamily : ApiFamily.values()) {
+            limiters.put(apiFamily, new AdaptiveConcurrencyLimiter(apiFamily.toString(),
+                    Math.min(INITIAL_LIMIT, maxConcurrentRequests), maxConcurrentRequests));
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter limiterFor(URI uri) {
+        return limiters.get(ApiFamily.of(uri));
+    }
+
+    public AdaptiveConcurrencyLimiter limiterFor(ApiFamily apiFamily) {
+        return limiters.get(apiFamily);
+    }
+}
@@ -0,0 +1,58 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The groups of endpoints that share a server-side bottleneck: Jira core REST, the Zephyr Squad ZAPI and the
+ * Zephyr Scale REST. They are throttled, retried and measured separately.
+ */
+public enum ApiFamily {
+    JIRA("jira"),
+    ZAPI("zapi"),
+    SCALE("scale");
+
+    private final String apiFamilyName;
+
+    ApiFamily(String value) {
+        this.apiFamilyName = value;
+    }
+
+    public static ApiFamily of(URI uri) {
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        if (path.contains("/rest/zapi/")) {
+            return ZAPI;
+        }
+        if (path.contains("/rest/atm/") || path.contains("/rest/tests/")) {
+            return SCALE;
+        }
+        return JIRA;
+    }
+
+    public static Optional<ApiFamily> getApiFamilyByName(String name) {
+        return Arrays.stream(values()).filter(apiFamily -> apiFamily.apiFamilyName.equalsIgnoreCase(name)).findFirst();
+    }
+
+    /**
+     * Reads a comma separated list of API family names, such as {@code jira,zapi}.
+     */
+    public static Set<ApiFamily> parseList(String names) {
+        var apiFamilies = EnumSet.noneOf(ApiFamily.class);
+        if (names == null || names.isBlank()) {
+            return apiFamilies;
+        }
+        for (var name : names.split(",")) {
+            apiFamilies.add(getApiFamilyByName(name.trim()).orElseThrow(() -> new IllegalArgumentException(
+                    "Unknown API '" + name.trim() + "', supported values: " + Arrays.toString(values()))));
+        }
+        return apiFamilies;
+    }
+
+    @Override
+    public String toString() {
+        return apiFamilyName;
+    }
+}
@@ -0,0 +1,242 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Counts the exchanges of every API per endpoint template: requests, their status codes, failures without a
+ * response, retries, bytes sent and received, and a latency histogram. An exchange is a single attempt, its
+ * latency runs from handing the request to the transport, a wait for a free connection included, to receiving
+ * the response headers.
+ * <p>
+ * The metrics are meant to be shared by every API of the migration. They add up from the start of the run and are
+ * written as a table to {@value #METRICS_FILE} in the metrics directory, periodically and when asked, and to a file
+ * of its own at the end of each project.
+ */
+public class ApiMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiMetrics.class);
+
+    public static final String METRICS_FILE = "api-metrics.txt";
+    private static final String ROW_FORMAT = "%-58s %9s %8s %7s %10s %10s %9s %9s %9s %9s %9s  %s%n";
+
+    private final Path directory;
+    private final Instant startedAt = Instant.now();
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ApiMetrics(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The metrics of the given method and endpoint template, like {@code GET SCALE_TEST_STEP_ENDPOINT}.
+     */
+    public EndpointMetrics endpoint(String method, String template) {
+        return endpoints.computeIfAbsent(method + " " + template, key -> new EndpointMetrics());
+    }
+
+    public synchronized void dumpPeriodically(long intervalSeconds) {
+        if (scheduler != null || intervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "api-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void dump() {
+        write(directory.resolve(METRICS_FILE));
+    }
+
+    public void dumpForProject(String projectKey) {
+        write(directory.resolve("api-metrics-" + projectKey + ".txt"));
+    }
+
+    /**
+     * Stops the periodic dumps and writes the metrics one last time.
+     */
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        dump();
+    }
+
+    public String format() {
+        var table = new StringBuilder();
+        table.append("API metrics from ").append(startedAt).append(" to ").append(Instant.now()).append('\n');
+        table.append(String.format(ROW_FORMAT, "endpoint", "requests", "retries", "failed", "bytes in", "bytes out",
+                "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms", "statuses"));
+
+        List<Map.Entry<String, EndpointMetrics>> rows = endpoints.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, EndpointMetrics> entry) -> entry.getValue().totalMicros())
+                        .reversed())
+                .toList();
+        for (var row : rows) {
+            var metrics = row.getValue();
+            var latencies = metrics.latencies;
+            table.append(String.format(ROW_FORMAT, row.getKey(), metrics.requests.sum(), metrics.retries.sum(),
+                    metrics.failures.sum(), metrics.bytesIn.sum(), metrics.bytesOut.sum(),
+                    millis(latencies.getMeanMicros()), millis(latencies.getPercentileMicros(0.5)),
+                    millis(latencies.getPercentileMicros(0.9)), millis(latencies.getPercentileMicros(0.99)),
+                    millis(latencies.getMaxMicros()), metrics.statuses()));
+        }
+        return table.toString();
+    }
+
+    private void write(Path file) {
+        try {
+            Files.createDirectories(directory);
+            var partial = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(partial, format(), UTF_8);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write the API metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    public static class EndpointMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        public void recordResponse(HttpRequest request, int statusCode, long latencyNanos) {
+            recordExchange(request, latencyNanos);
+            statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        }
+
+        /**
+         * An exchange that failed without a response, like a timeout.
+         */
+        public void recordFailure(HttpRequest request, long latencyNanos) {
+            recordExchange(request, latencyNanos);
+            failures.increment();
+        }
+
+        public void recordRetry() {
+            retries.increment();
+        }
+
+        /**
+         * Counts the bytes of the response bodies read with the given handler, as received, before decompression.
+         */
+        public <B> HttpResponse.BodyHandler<B> countingBytesIn(HttpResponse.BodyHandler<B> bodyHandler) {
+            return responseInfo -> new CountingSubscriber<>(bodyHandler.apply(responseInfo), bytesIn);
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getBytesIn() {
+            return bytesIn.sum();
+        }
+
+        public long getBytesOut() {
+            return bytesOut.sum();
+        }
+
+        public long getStatusCount(int statusCode) {
+            var count = statusCounts.get(statusCode);
+            return count == null ? 0 : count.sum();
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        private void recordExchange(HttpRequest request, long latencyNanos) {
+            requests.increment();
+            latencies.record(latencyNanos);
+            request.bodyPublisher().ifPresent(body -> bytesOut.add(Math.max(body.contentLength(), 0)));
+        }
+
+        private long totalMicros() {
+            return latencies.getMeanMicros() * latencies.getCount();
+        }
+
+        private String statuses() {
+            var sorted = new TreeMap<Integer, Long>();
+            statusCounts.forEach((status, count) -> sorted.put(status, count.sum()));
+            var statuses = new StringBuilder();
+            sorted.forEach((status, count) -> statuses.append(status).append(':').append(count).append(' '));
+            return statuses.toString().trim();
+        }
+    }
+
+    private record CountingSubscriber<B>(HttpResponse.BodySubscriber<B> delegate, LongAdder bytes)
+            implements HttpResponse.BodySubscriber<B> {
+
+        @Override
+        public CompletionStage<B> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (var buffer : buffers) {
+                bytes.add(buffer.remaining());
+            }
+            delegate.onNext(buffers);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+    }
+}
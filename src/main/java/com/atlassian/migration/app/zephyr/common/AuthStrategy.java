@@ -0,0 +1,20 @@
+package com.atlassian.migration.app.zephyr.common;
+
+/**
+ * How requests prove who they come from. The header is computed once and reused by every request rather than
+ * rebuilt for each of them.
+ */
+public interface AuthStrategy {
+
+    String headerName();
+
+    String headerValue();
+
+    /**
+     * Called when the server answered 401 to a request sent with the given header value. Returns true when the
+     * credentials were renewed, or already had been by another request, and the request is worth sending again.
+     */
+    default boolean renewAfterUnauthorized(String rejectedHeaderValue) throws ApiException {
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum AuthenticationType {
+    BASIC("basic"),
+    SESSION("session"),
+    TOKEN("token");
+
+    private final String authenticationTypeName;
+
+    AuthenticationType(String value) {
+        this.authenticationTypeName = value;
+    }
+
+    public static Optional<AuthenticationType> getAuthenticationTypeByName(String name) {
+        return Arrays.stream(values()).filter(authenticationType -> authenticationType.authenticationTypeName.equalsIgnoreCase(name)).findFirst();
+    }
+
+    public AuthStrategy createStrategy(ApiConfiguration config) throws ApiException {
+        return createStrategy(config, HttpTransport.forVersion(config.httpVersion()), null);
+    }
+
+    public AuthStrategy createStrategy(ApiConfiguration config, HttpTransport transport,
+                                       HttpCassette cassette) throws ApiException {
+        return switch (this) {
+            case BASIC -> new BasicAuth(config);
+            case SESSION -> SessionCookieAuth.login(config, transport, cassette);
+            case TOKEN -> new BearerTokenAuth(config);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return authenticationTypeName;
+    }
+}
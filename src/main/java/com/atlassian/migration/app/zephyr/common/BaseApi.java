@@ -1,72 +1,208 @@
 package com.atlassian.migration.app.zephyr.common;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import org.apache.hc.core5.net.URIBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Base64;
+import java.net.http.HttpTimeoutException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public abstract class BaseApi {
     private static final Logger logger = LoggerFactory.getLogger(BaseApi.class);
 
-    private static final List<String> http1Versions = List.of("1.1", "1");
-    private static final List<String> http2Versions = List.of("2", "2.0");
+    //the asynchronous renewals of credentials, kept off the common pool; the renewals of a strategy already wait
+    //for one another, so a single thread is enough
+    private static final ThreadPoolExecutor credentialsRenewalExecutor = createCredentialsRenewalExecutor();
 
     protected final Gson gson;
     protected final HttpClient client;
     protected final ApiConfiguration config;
 
-    private static final long TIMEOUT = 10L;
-    private static final int MAX_RETRIES = 3;
-    private static final int BACKOFF = 1000;
-    private static final int BACKOFF_MULTIPLIER = 2;
-    private static final List<Integer> retryEnabledCodes = List.of(408, 504, 500, 503);
     private static final Map<String, Decoder> decodersMap = Map.of(
             "gzip", new GzipDecoder(),
+            "deflate", new DeflateDecoder(),
             "identity", new IdentityDecoder()
     );
 
+    //set for an extract, which keeps every response read, or for a load, which reads them back instead of calling the server
+    private volatile SnapshotWriter snapshotRecorder;
+    private volatile SnapshotReader snapshotSource;
+    private final AtomicInteger snapshotMisses = new AtomicInteger();
+    private volatile ApiConcurrencyLimits concurrencyLimits;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.defaultPolicy();
+    private volatile boolean streamingResponses = false;
+    private volatile Set<ApiFamily> compressedResponses = EnumSet.noneOf(ApiFamily.class);
+    private volatile AuthStrategy authStrategy;
+    private final HttpTransport transport;
+    private volatile ResponseCache responseCache;
+    private volatile ApiMetrics apiMetrics;
+    private volatile HttpCassette cassette;
+
     public BaseApi(ApiConfiguration config) {
+        this(config, HttpTransport.forVersion(config.httpVersion()));
+    }
+
+    /**
+     * Sends the requests through the given transport instead of a client of this API's own. The transport is meant
+     * to be shared by every API of the migration.
+     */
+    public BaseApi(ApiConfiguration config, HttpTransport transport) {
         this.config = config;
-        this.client = createClientWithVersion(config.httpVersion());
-        this.gson = new Gson();
+        this.transport = transport;
+        this.client = transport.client();
+        this.gson = GsonFactory.gson();
+    }
+
+    /**
+     * Keeps every successful GET and POST response in the given snapshot.
+     */
+    public void recordTo(SnapshotWriter snapshotWriter) {
+        this.snapshotRecorder = snapshotWriter;
+    }
+
+    /**
+     * Answers GET and POST requests from the given snapshot. A request the snapshot doesn't hold, such as a lookup
+     * the extract couldn't foresee, still goes to the server and is counted in {@link #getSnapshotMisses()}.
+     */
+    public void replayFrom(SnapshotReader snapshotReader) {
+        this.snapshotSource = snapshotReader;
+    }
+
+    public int getSnapshotMisses() {
+        return snapshotMisses.get();
+    }
+
+    /**
+     * Caps the requests in flight to each API family, adapting the caps to the responses. The limits are meant to
+     * be shared by every API of the migration.
+     */
+    public void limitConcurrency(ApiConcurrencyLimits concurrencyLimits) {
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    /**
+     * Retries failed requests as the given policy decides. The policy is meant to be shared by every API of the
+     * migration, so its retry budget and circuit breakers see all of their requests.
+     */
+    public void retryWith(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
     }
 
-    private HttpClient createClientWithVersion(String httpVersion) {
+    /**
+     * Reads typed GET responses straight from the connection into Gson, without holding the whole body in memory
+     * first. Snapshots keep whole bodies, so the responses are still read in full while recording or replaying one.
+     */
+    public void streamResponses(boolean streamingResponses) {
+        this.streamingResponses = streamingResponses;
+    }
+
+    /**
+     * Authenticates the requests with the given strategy instead of Basic auth. A session strategy is meant to be
+     * shared by every API of the migration, so they all use the same session.
+     */
+    public void authenticateWith(AuthStrategy authStrategy) {
+        this.authStrategy = authStrategy;
+    }
+
+    /**
+     * Asks the servers of the given API families for gzip or deflate compressed responses. The others, and every
+     * API by default, are asked for uncompressed responses, for proxies that mishandle compression.
+     */
+    public void compressResponses(Set<ApiFamily> apiFamilies) {
+        this.compressedResponses = apiFamilies.isEmpty() ? EnumSet.noneOf(ApiFamily.class) : EnumSet.copyOf(apiFamilies);
+    }
+
+    /**
+     * Records every exchange of this API in the given cassette, or answers them from it without calling the server
+     * when it is replaying. Null, the default, sends the requests as they are.
+     */
+    public void useCassette(HttpCassette cassette) {
+        this.cassette = cassette;
+    }
 
-        if (http1Versions.contains(httpVersion)) {
-            return HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(TIMEOUT)).build();
-        } else if (http2Versions.contains(httpVersion)) {
-            return HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(Duration.ofSeconds(TIMEOUT)).build();
-        } else {
-            throw new IllegalArgumentException("Unsupported HTTP version: "
-                    + httpVersion
-                    + ", Supported values: "
-                    + "Http/1.1: " + http1Versions + " Http/2: " + http2Versions);
+    /**
+     * Counts the exchanges of this API in the given metrics, per endpoint template. The metrics are meant to be
+     * shared by every API of the migration.
+     */
+    public void recordMetricsIn(ApiMetrics apiMetrics) {
+        this.apiMetrics = apiMetrics;
+    }
+
+    private ApiMetrics.EndpointMetrics endpointMetricsOf(HttpRequest request) {
+        var metrics = apiMetrics;
+        if (metrics == null) {
+            return null;
         }
+        return metrics.endpoint(request.method(), EndpointTemplates.of(getClass()).nameOf(request.uri()));
+    }
+
+    /**
+     * Keeps the responses of the {@link #isCacheable(URI) cacheable} GETs in the given cache for a while, and sends
+     * identical ones only once while in flight. Null, the default, sends every GET.
+     */
+    public void cacheResponses(ResponseCache responseCache) {
+        this.responseCache = responseCache;
     }
 
-    private void runBackoffTimer(int tries) throws ApiException {
+    /**
+     * Whether the response of a GET to the given endpoint may be served from the response cache. Only reads whose
+     * result doesn't change during a migration should be. None is by default.
+     */
+    protected boolean isCacheable(URI uri) {
+        return false;
+    }
 
-        var retry_backoff = BACKOFF * Math.max(BACKOFF_MULTIPLIER * tries, 1);
+    private ResponseCache responseCacheFor(URI uri) {
+        var cache = responseCache;
+        return cache != null && isCacheable(uri) ? cache : null;
+    }
 
-        logger.info("New attempt in " + retry_backoff + "ms...");
+    /**
+     * Whether the JSON body sent to the given endpoint is gzip compressed. None is by default.
+     */
+    protected boolean compressesRequestBody(URI uri) {
+        return false;
+    }
+
+    protected boolean isStreamingResponses() {
+        return streamingResponses && snapshotRecorder == null && snapshotSource == null;
+    }
+
+    private void waitBeforeAttempt(long millis, String reason) throws ApiException {
+
+        logger.info(reason + ", new attempt in " + millis + "ms...");
         try {
-            Thread.sleep(retry_backoff);
+            Thread.sleep(millis);
         } catch (InterruptedException e) {
             logger.error("Failed to sleep", e);
             throw new ApiException(e);
@@ -76,48 +212,362 @@ public abstract class BaseApi {
     }
 
     private String sendRequest(HttpRequest request) throws ApiException {
+        return sendRequest(request, HttpResponse.BodyHandlers.ofByteArray(), this::readBody);
+    }
+
+    private <B, R> R sendRequest(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+                                 ResponseReader<B, R> responseReader) throws ApiException {
 
-        HttpResponse<byte[]> response;
+        var attempts = retryPolicy.start(request.uri());
+        var reauthenticated = false;
 
-        for (int tries = 0; tries < MAX_RETRIES; tries++) {
+        while (true) {
 
+            long pause;
+            while ((pause = attempts.pauseMillis()) > 0) {
+                waitBeforeAttempt(pause, "Requests to " + ApiFamily.of(request.uri()) + " are paused");
+            }
+
+            HttpResponse<B> response;
             try {
-                response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-            } catch (HttpConnectTimeoutException e) {
-                logger.info("Http Connection Timed out, retrying...");
-                runBackoffTimer(tries);
-                continue;
+                response = send(request, bodyHandler);
             } catch (IOException | InterruptedException e) {
+                var retryDelay = attempts.retryAfterFailure(e);
+                if (retryDelay.isPresent()) {
+                    recordRetry(request);
+                    waitBeforeAttempt(retryDelay.getAsLong(), "Request failed");
+                    continue;
+                }
+                if (e instanceof HttpConnectTimeoutException) {
+                    throw noAnswer(attempts);
+                }
                 logger.error("Failed to send API request", e);
                 throw new ApiException(e);
             }
 
-            var statusCode = response.statusCode();
+            if (!reauthenticated && response.statusCode() == 401) {
+                HttpRequest renewedRequest;
+                try {
+                    renewedRequest = withRenewedCredentials(request);
+                } catch (ApiException | RuntimeException e) {
+                    attempts.unauthorized();
+                    throw e;
+                }
+                if (renewedRequest != null) {
+                    attempts.unauthorized();
+                    discardBody(response);
+                    request = renewedRequest;
+                    reauthenticated = true;
+                    continue;
+                }
+            }
 
-            if (retryEnabledCodes.contains(statusCode)) {
-                logger.info("Received code " + statusCode + ", retrying...");
-                runBackoffTimer(tries);
+            var retryDelay = attempts.retryAfterResponse(response.statusCode(), response.headers());
+            if (retryDelay.isPresent()) {
+                discardBody(response);
+                recordRetry(request);
+                waitBeforeAttempt(retryDelay.getAsLong(), "Request failed");
                 continue;
             }
 
-            String body = decodeBody(response.body(),
-                    response.headers().firstValue("Content-Encoding").orElse(""));
+            return responseReader.read(response);
+        }
+    }
+
+    /**
+     * Asks the authentication strategy to renew the credentials a request was rejected with, and returns the
+     * request with the new credentials, or null when they can't be renewed.
+     */
+    private AuthStrategy authStrategy() {
+        var strategy = authStrategy;
+        if (strategy == null) {
+            //built on first use, the credentials may not be known yet when the API is created
+            strategy = new BasicAuth(config);
+            authStrategy = strategy;
+        }
+        return strategy;
+    }
+
+    private HttpRequest withRenewedCredentials(HttpRequest request) throws ApiException {
+        var strategy = authStrategy();
+        var headerName = strategy.headerName();
+        if (!strategy.renewAfterUnauthorized(request.headers().firstValue(headerName).orElse(null))) {
+            return null;
+        }
+        logger.info("Credentials rejected by " + ApiFamily.of(request.uri()) + ", sending the request again");
+        return HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase(headerName))
+                .header(headerName, strategy.headerValue())
+                .build();
+    }
+
+    private HttpRequest withRenewedCredentialsUnchecked(HttpRequest request) {
+        try {
+            return withRenewedCredentials(request);
+        } catch (ApiException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static ThreadPoolExecutor createCredentialsRenewalExecutor() {
+        var executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            var thread = new Thread(runnable, "credentials-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ApiException noAnswer(RetryPolicy.Attempts attempts) {
+        return new ApiException(-1, "Failed to execute API request after " + attempts.attempts()
+                + " attempts. No answer from server.");
+    }
+
+    /**
+     * Same as the blocking path, retries included, without holding a thread while the request is in flight or
+     * while waiting for the next attempt: retries are scheduled on a delayed executor instead of sleeping.
+     * The future fails with the {@link ApiException} the blocking path would have thrown.
+     */
+    private CompletableFuture<String> sendRequestAsync(HttpRequest request, RetryPolicy.Attempts attempts) {
+        return sendRequestAsync(request, attempts, false);
+    }
+
+    private CompletableFuture<String> sendRequestAsync(HttpRequest request, RetryPolicy.Attempts attempts,
+                                                       boolean reauthenticated) {
+        var pause = attempts.pauseMillis();
+        if (pause > 0) {
+            return retryAsync(request, attempts, pause, "Requests to " + ApiFamily.of(request.uri()) + " are paused");
+        }
+
+        return sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                        var retryDelay = attempts.retryAfterFailure(cause);
+                        if (retryDelay.isPresent()) {
+                            recordRetry(request);
+                            return retryAsync(request, attempts, retryDelay.getAsLong(), "Request failed");
+                        }
+                        if (cause instanceof HttpConnectTimeoutException) {
+                            return CompletableFuture.<String>failedFuture(noAnswer(attempts));
+                        }
+                        logger.error("Failed to send API request", cause);
+                        return CompletableFuture.<String>failedFuture(new ApiException(
+                                cause instanceof Exception exception ? exception : new Exception(cause)));
+                    }
+
+                    if (!reauthenticated && response.statusCode() == 401) {
+                        //renewing may log in again, which blocks, so not on the thread completing the response
+                        return CompletableFuture.supplyAsync(() -> withRenewedCredentialsUnchecked(request),
+                                        credentialsRenewalExecutor)
+                                .whenComplete((renewedRequest, renewalFailure) -> {
+                                    if (renewedRequest != null || renewalFailure != null) {
+                                        attempts.unauthorized();
+                                    }
+                                })
+                                .thenCompose(renewedRequest -> renewedRequest == null
+                                        ? completeWith(request, response, attempts)
+                                        : sendRequestAsync(renewedRequest, attempts, true));
+                    }
+
+                    return completeWith(request, response, attempts);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<String> completeWith(HttpRequest request, HttpResponse<byte[]> response,
+                                                   RetryPolicy.Attempts attempts) {
+        var retryDelay = attempts.retryAfterResponse(response.statusCode(), response.headers());
+        if (retryDelay.isPresent()) {
+            recordRetry(request);
+            return retryAsync(request, attempts, retryDelay.getAsLong(), "Request failed");
+        }
+
+        try {
+            return CompletableFuture.completedFuture(readBody(response));
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+            throws IOException, InterruptedException {
+        var limits = concurrencyLimits;
+        if (limits == null) {
+            return exchange(request, bodyHandler);
+        }
+
+        var limiter = limits.limiterFor(request.uri());
+        limiter.acquireBlocking();
+        var startNanos = System.nanoTime();
+        var outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+        try {
+            var response = exchange(request, bodyHandler);
+            outcome = outcomeOf(response.statusCode());
+            return response;
+        } catch (HttpTimeoutException e) {
+            outcome = AdaptiveConcurrencyLimiter.Outcome.OVERLOADED;
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - startNanos, outcome);
+        }
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler) {
+        var limits = concurrencyLimits;
+        if (limits == null) {
+            return exchangeAsync(request, bodyHandler);
+        }
+
+        var limiter = limits.limiterFor(request.uri());
+        return limiter.acquire().thenCompose(permit -> {
+            var startNanos = System.nanoTime();
+            return exchangeAsync(request, bodyHandler)
+                    .whenComplete((response, failure) -> {
+                        var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                        var outcome = response != null ? outcomeOf(response.statusCode())
+                                : cause instanceof HttpTimeoutException
+                                ? AdaptiveConcurrencyLimiter.Outcome.OVERLOADED
+                                : AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+                        limiter.release(System.nanoTime() - startNanos, outcome);
+                    });
+        });
+    }
+
+    private <B> HttpResponse<B> exchange(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+            throws IOException, InterruptedException {
+        var endpointMetrics = endpointMetricsOf(request);
+        if (endpointMetrics == null) {
+            return transportSend(request, bodyHandler);
+        }
+
+        var startNanos = System.nanoTime();
+        try {
+            var response = transportSend(request, endpointMetrics.countingBytesIn(bodyHandler));
+            endpointMetrics.recordResponse(request, response.statusCode(), System.nanoTime() - startNanos);
+            return response;
+        } catch (IOException | InterruptedException e) {
+            endpointMetrics.recordFailure(request, System.nanoTime() - startNanos);
+            throw e;
+        }
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> exchangeAsync(HttpRequest request,
+                                                                 HttpResponse.BodyHandler<B> bodyHandler) {
+        var endpointMetrics = endpointMetricsOf(request);
+        if (endpointMetrics == null) {
+            return transportSendAsync(request, bodyHandler);
+        }
+
+        var startNanos = System.nanoTime();
+        return transportSendAsync(request, endpointMetrics.countingBytesIn(bodyHandler))
+                .whenComplete((response, failure) -> {
+                    if (response != null) {
+                        endpointMetrics.recordResponse(request, response.statusCode(), System.nanoTime() - startNanos);
+                    } else {
+                        endpointMetrics.recordFailure(request, System.nanoTime() - startNanos);
+                    }
+                });
+    }
+
+    private <B> HttpResponse<B> transportSend(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+            throws IOException, InterruptedException {
+        var currentCassette = cassette;
+        return currentCassette == null ? transport.send(request, bodyHandler)
+                : currentCassette.send(request, bodyHandler, transport);
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> transportSendAsync(HttpRequest request,
+                                                                      HttpResponse.BodyHandler<B> bodyHandler) {
+        var currentCassette = cassette;
+        return currentCassette == null ? transport.sendAsync(request, bodyHandler)
+                : currentCassette.sendAsync(request, bodyHandler, transport);
+    }
+
+    private void recordRetry(HttpRequest request) {
+        var endpointMetrics = endpointMetricsOf(request);
+        if (endpointMetrics != null) {
+            endpointMetrics.recordRetry();
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter.Outcome outcomeOf(int statusCode) {
+        if (RetryPolicy.isRetryable(statusCode)) {
+            return AdaptiveConcurrencyLimiter.Outcome.OVERLOADED;
+        }
+        return statusCode / 100 == 2 ? AdaptiveConcurrencyLimiter.Outcome.SUCCESS : AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+    }
+
+    private CompletableFuture<String> retryAsync(HttpRequest request, RetryPolicy.Attempts attempts, long delayMillis,
+                                                 String reason) {
+        logger.info(reason + ", new attempt in " + delayMillis + "ms...");
+        var delayedExecutor = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+        return CompletableFuture.runAsync(() -> logger.info("Retry triggered"), delayedExecutor)
+                .thenCompose(ignored -> sendRequestAsync(request, attempts));
+    }
+
+    private String readBody(HttpResponse<byte[]> response) throws ApiException {
+        String body = decodeBody(response.body(),
+                response.headers().firstValue("Content-Encoding").orElse(""));
 
-            if (statusCode / 100 != 2) {
-                logger.error("Failed to send API request with status code: " + response.statusCode() + " and body: " + body);
-                throw new ApiException(response.statusCode(), body);
+        if (response.statusCode() / 100 != 2) {
+            logger.error("Failed to send API request with status code: " + response.statusCode() + " and body: " + body);
+            throw new ApiException(response.statusCode(), body);
+        }
+
+        return body;
+    }
+
+    //the body of a streamed response is read on demand, it must be closed to free the connection
+    private static void discardBody(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream body) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                logger.debug("Failed to discard response body", e);
             }
+        }
+    }
 
-            return body;
+    private static <T> T readJson(HttpResponse<InputStream> response, Class<T> type, Gson reader) throws ApiException {
+        var encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        var decoder = decodersMap.getOrDefault(encoding.trim().toLowerCase(), new IdentityDecoder());
 
+        try (var body = decoder.decodeStream(response.body())) {
+            if (response.statusCode() / 100 != 2) {
+                var error = new String(body.readAllBytes(), UTF_8);
+                logger.error("Failed to send API request with status code: " + response.statusCode() + " and body: " + error);
+                throw new ApiException(response.statusCode(), error);
+            }
+            return reader.fromJson(new JsonReader(new InputStreamReader(body, UTF_8)), type);
+        } catch (ApiException e) {
+            throw e;
+        } catch (IOException | JsonParseException e) {
+            throw new ApiException(e);
         }
+    }
 
-        throw new ApiException(-1, "Failed to execute API request after " + MAX_RETRIES + " retries. No answer from server.");
+    /**
+     * Waits for an asynchronous request, rethrowing its {@link ApiException} as the blocking call would.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            var cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ApiException(cause instanceof Exception exception ? exception : e);
+        }
     }
 
     protected String decodeBody(byte[] encodedBody, String encoding) throws ApiException {
 
-        var decoder = decodersMap.getOrDefault(encoding, new IdentityDecoder());
+        var decoder = decodersMap.getOrDefault(encoding.trim().toLowerCase(), new IdentityDecoder());
         try {
             return decoder.decode(encodedBody);
         } catch (Exception e) {
@@ -131,40 +581,141 @@ public abstract class BaseApi {
             URI uri,
             Object data) {
 
+        var strategy = authStrategy();
         HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .header("Authorization", auth())
+                .header(strategy.headerName(), strategy.headerValue())
                 .header("Accept", "application/json, text/html")
-                .header("Accept-Encoding", "identity;q=1.0");
+                .header("Accept-Encoding", compressedResponses.contains(ApiFamily.of(uri))
+                        ? "gzip, deflate;q=0.9, identity;q=0.5" : "identity;q=1.0");
+
+        var requestTimeout = transport.requestTimeout();
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
 
         if (data != null) {
             builder.header("Content-Type", "application/json;charset=UTF-8");
+            if (compressesRequestBody(uri)) {
+                builder.header("Content-Encoding", "gzip");
+            }
         }
 
         return requestMethod.apply(builder, uri).build();
     }
 
     protected String sendHttpGet(URI uri) throws ApiException {
+        var snapshotKey = "GET " + snapshotPath(uri);
+        var snapshotted = findInSnapshot(snapshotKey);
+        if (snapshotted.isPresent()) {
+            return snapshotted.get();
+        }
+
         var request = httpRequest(
                 (builder, uriParam) -> builder.uri(uriParam).GET(),
                 uri,
                 null
         );
 
-        return sendRequest(request);
+        var cache = responseCacheFor(uri);
+        if (cache != null) {
+            return cache.get(uri.toString(), () -> recordInSnapshot(snapshotKey, sendRequest(request)));
+        }
+        return recordInSnapshot(snapshotKey, sendRequest(request));
+    }
+
+    /**
+     * Sends a GET and reads its JSON response into the given type, streaming it when
+     * {@link #streamResponses(boolean) enabled}.
+     */
+    protected <T> T sendHttpGetJson(URI uri, Class<T> type) throws ApiException {
+        return sendHttpGetJson(uri, type, gson);
+    }
+
+    /**
+     * Same as {@link #sendHttpGetJson(URI, Class)}, reading the response with the given Gson.
+     */
+    protected <T> T sendHttpGetJson(URI uri, Class<T> type, Gson reader) throws ApiException {
+        //a cached response is kept whole, there is nothing to stream
+        if (!isStreamingResponses() || responseCacheFor(uri) != null) {
+            return reader.fromJson(sendHttpGet(uri), type);
+        }
+
+        var request = httpRequest(
+                (builder, uriParam) -> builder.uri(uriParam).GET(),
+                uri,
+                null
+        );
+
+        return sendRequest(request, HttpResponse.BodyHandlers.ofInputStream(), response -> readJson(response, type, reader));
+    }
+
+    protected CompletableFuture<String> sendHttpGetAsync(URI uri) {
+        var snapshotKey = "GET " + snapshotPath(uri);
+        try {
+            var snapshotted = findInSnapshot(snapshotKey);
+            if (snapshotted.isPresent()) {
+                return CompletableFuture.completedFuture(snapshotted.get());
+            }
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var request = httpRequest(
+                (builder, uriParam) -> builder.uri(uriParam).GET(),
+                uri,
+                null
+        );
+
+        var cache = responseCacheFor(uri);
+        if (cache != null) {
+            return cache.getAsync(uri.toString(), () -> sendRequestAsync(request, retryPolicy.start(request.uri()))
+                    .thenApply(body -> recordInSnapshotUnchecked(snapshotKey, body)));
+        }
+        return sendRequestAsync(request, retryPolicy.start(request.uri())).thenApply(body -> recordInSnapshotUnchecked(snapshotKey, body));
     }
 
     protected String sendHttpPost(String query, Object data) throws ApiException {
         URI uri = getUri(urlPath(query));
+        var snapshotKey = "POST " + snapshotPath(uri) + " " + gson.toJson(data);
+        var snapshotted = findInSnapshot(snapshotKey);
+        if (snapshotted.isPresent()) {
+            return snapshotted.get();
+        }
 
         var request = httpRequest(
                 (builder, uriParam) -> builder.uri(uriParam).POST(
-                        HttpRequest.BodyPublishers.ofString(gson.toJson(data), UTF_8)
+                        jsonBody(uriParam, data)
                 ),
                 uri,
                 data
         );
 
-        return sendRequest(request);
+        return recordInSnapshot(snapshotKey, sendRequest(request));
+    }
+
+    protected CompletableFuture<String> sendHttpPostAsync(String query, Object data) {
+        URI uri;
+        String snapshotKey;
+        try {
+            uri = getUri(urlPath(query));
+            snapshotKey = "POST " + snapshotPath(uri) + " " + gson.toJson(data);
+            var snapshotted = findInSnapshot(snapshotKey);
+            if (snapshotted.isPresent()) {
+                return CompletableFuture.completedFuture(snapshotted.get());
+            }
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var request = httpRequest(
+                (builder, uriParam) -> builder.uri(uriParam).POST(
+                        jsonBody(uriParam, data)
+                ),
+                uri,
+                data
+        );
+
+        return sendRequestAsync(request, retryPolicy.start(request.uri())).thenApply(body -> recordInSnapshotUnchecked(snapshotKey, body));
     }
 
     protected void sendHttpPut(String query, Object data) throws ApiException {
@@ -172,7 +723,7 @@ public abstract class BaseApi {
 
         var request = httpRequest(
                 (builder, uriParam) -> builder.uri(uriParam).PUT(
-                        HttpRequest.BodyPublishers.ofString(gson.toJson(data), UTF_8)
+                        jsonBody(uriParam, data)
                 ),
                 uri,
                 data
@@ -181,6 +732,91 @@ public abstract class BaseApi {
         sendRequest(request);
     }
 
+    protected CompletableFuture<Void> sendHttpPutAsync(String query, Object data) {
+        URI uri;
+        try {
+            uri = getUri(urlPath(query));
+        } catch (ApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var request = httpRequest(
+                (builder, uriParam) -> builder.uri(uriParam).PUT(
+                        jsonBody(uriParam, data)
+                ),
+                uri,
+                data
+        );
+
+        return sendRequestAsync(request, retryPolicy.start(request.uri())).thenAccept(body -> {
+        });
+    }
+
+    private HttpRequest.BodyPublisher jsonBody(URI uri, Object data) {
+        var json = gson.toJson(data);
+        if (!compressesRequestBody(uri)) {
+            return HttpRequest.BodyPublishers.ofString(json, UTF_8);
+        }
+
+        var compressed = new ByteArrayOutputStream(json.length() / 4 + 64);
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json.getBytes(UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress request body", e);
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray());
+    }
+
+    private Optional<String> findInSnapshot(String snapshotKey) throws ApiException {
+        var source = snapshotSource;
+        if (source == null) {
+            return Optional.empty();
+        }
+        try {
+            var body = source.find(snapshotKey);
+            if (body.isEmpty()) {
+                snapshotMisses.incrementAndGet();
+                logger.debug("Not in the snapshot, calling the server: " + snapshotKey);
+            }
+            return body;
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+    }
+
+    private String recordInSnapshot(String snapshotKey, String body) throws ApiException {
+        var recorder = snapshotRecorder;
+        if (recorder != null) {
+            try {
+                recorder.write(snapshotKey, body);
+            } catch (IOException e) {
+                throw new ApiException(e);
+            }
+        }
+        return body;
+    }
+
+    private String recordInSnapshotUnchecked(String snapshotKey, String body) {
+        try {
+            return recordInSnapshot(snapshotKey, body);
+        } catch (ApiException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<B, R> {
+        R read(HttpResponse<B> response) throws ApiException;
+    }
+
+    /**
+     * The part of the URI a request is found by in a snapshot. The host is left out so a snapshot still matches when
+     * the instance is reached through another address.
+     */
+    protected String snapshotPath(URI uri) {
+        return uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+    }
+
     protected String urlPath(String query, String... strings) {
         return String.format(config.host() + query, strings);
     }
@@ -201,11 +837,6 @@ public abstract class BaseApi {
         }
     }
 
-    protected String auth() {
-        return "Basic " + Base64.getEncoder().encodeToString((
-                config.username() + ":" + String.valueOf(config.password())).getBytes());
-    }
-
     protected static URI getUri(String a) throws ApiException {
         try {
             return new URIBuilder(a).build();
@@ -0,0 +1,28 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends the username and password with every request. Simple, but Jira verifies the password hash on each of them.
+ */
+public class BasicAuth implements AuthStrategy {
+
+    private final String headerValue;
+
+    public BasicAuth(ApiConfiguration config) {
+        this.headerValue = "Basic " + Base64.getEncoder().encodeToString(
+                (config.username() + ":" + String.valueOf(config.password())).getBytes(UTF_8));
+    }
+
+    @Override
+    public String headerName() {
+        return "Authorization";
+    }
+
+    @Override
+    public String headerValue() {
+        return headerValue;
+    }
+}
@@ -0,0 +1,24 @@
+package com.atlassian.migration.app.zephyr.common;
+
+/**
+ * Authenticates with a Jira Personal Access Token, given in place of the password. The token is checked much more
+ * cheaply than a password by Jira.
+ */
+public class BearerTokenAuth implements AuthStrategy {
+
+    private final String headerValue;
+
+    public BearerTokenAuth(ApiConfiguration config) {
+        this.headerValue = "Bearer " + String.valueOf(config.password());
+    }
+
+    @Override
+    public String headerName() {
+        return "Authorization";
+    }
+
+    @Override
+    public String headerValue() {
+        return headerValue;
+    }
+}
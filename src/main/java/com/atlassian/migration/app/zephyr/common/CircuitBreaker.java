@@ -0,0 +1,128 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Pauses every request to a server once most of its recent responses say it is overloaded, instead of letting each
+ * worker find out on its own and retry into it.
+ * <p>
+ * The breaker opens when at least half of the last {@value #WINDOW} outcomes are failures. While open, requests
+ * wait for the pause to end; then a single probe request goes through, closing the breaker if it succeeds and
+ * opening it again if it doesn't.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    static final int WINDOW = 20;
+    private static final double FAILURE_RATE = 0.5;
+    private static final long PROBE_WAIT_MILLIS = 500;
+
+    private final String name;
+    private final long openMillis;
+    private final LongSupplier clockMillis;
+
+    private final boolean[] failures = new boolean[WINDOW];
+    private int recorded = 0;
+    private int failureCount = 0;
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private boolean probeInFlight = false;
+
+    public CircuitBreaker(String name, long openMillis) {
+        this(name, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(String name, long openMillis, LongSupplier clockMillis) {
+        this.name = name;
+        this.openMillis = openMillis;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * How long a request has to wait before it may be sent, 0 when it can go right away. A request told to go
+     * must report its outcome, as it may be the probe.
+     */
+    public synchronized long pauseMillis() {
+        switch (state) {
+            case OPEN -> {
+                var remaining = openUntilMillis - clockMillis.getAsLong();
+                if (remaining > 0) {
+                    return remaining;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return 0;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    return PROBE_WAIT_MILLIS;
+                }
+                probeInFlight = true;
+                return 0;
+            }
+            default -> {
+                return 0;
+            }
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            logger.info("Requests to " + name + " succeed again, resuming.");
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= WINDOW && failureCount >= WINDOW * FAILURE_RATE) {
+            open();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    private void record(boolean failure) {
+        var slot = recorded % WINDOW;
+        if (recorded >= WINDOW && failures[slot]) {
+            failureCount--;
+        }
+        failures[slot] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        recorded++;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        probeInFlight = false;
+        openUntilMillis = clockMillis.getAsLong() + openMillis;
+        logger.warn("Too many failed requests to " + name + ", pausing them for " + openMillis + "ms.");
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        recorded = 0;
+        failureCount = 0;
+    }
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -1,7 +1,17 @@
 package com.atlassian.migration.app.zephyr.common;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @FunctionalInterface
 public interface Decoder {
 
     String decode(byte[] encodedData) throws Exception;
+
+    /**
+     * Decodes a body while it is being read, for responses streamed rather than read in full.
+     */
+    default InputStream decodeStream(InputStream encodedData) throws IOException {
+        return encodedData;
+    }
 }
@@ -0,0 +1,37 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decodes {@code deflate} bodies. The encoding is meant to be zlib wrapped, but some servers send raw deflate data,
+ * so the zlib header is checked before picking the inflater.
+ */
+public class DeflateDecoder implements Decoder {
+
+    @Override
+    public String decode(byte[] encodedData) throws IOException {
+        try (var decoded = decodeStream(new ByteArrayInputStream(encodedData))) {
+            return new String(decoded.readAllBytes(), UTF_8);
+        } catch (IOException e) {
+            throw new IOException("Failed to decode deflated data", e);
+        }
+    }
+
+    @Override
+    public InputStream decodeStream(InputStream encodedData) throws IOException {
+        var buffered = new BufferedInputStream(encodedData);
+        buffered.mark(2);
+        var header = (buffered.read() << 8) | buffered.read();
+        buffered.reset();
+
+        var zlibWrapped = header >= 0 && (header & 0x0F00) == 0x0800 && header % 31 == 0;
+        return new InflaterInputStream(buffered, new Inflater(!zlibWrapped));
+    }
+}
@@ -0,0 +1,88 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Names the endpoint a request was sent to after the constant of its API it was built from, like
+ * {@code SCALE_TEST_STEP_ENDPOINT} for {@code /rest/tests/1.0/testcase/PRJ-T1}. The templates are the public
+ * {@code String} constants of the API class starting with {@code /rest/}, where {@code %s} matches any path segment
+ * or parameter value. When several match, the one with the most fixed text wins, and a request matching none is
+ * named {@link #OTHER}.
+ */
+public class EndpointTemplates {
+
+    public static final String OTHER = "OTHER";
+
+    private static final ClassValue<EndpointTemplates> templatesByApi = new ClassValue<>() {
+        @Override
+        protected EndpointTemplates computeValue(Class<?> apiClass) {
+            return new EndpointTemplates(apiClass);
+        }
+    };
+
+    private final List<Template> templates;
+
+    private EndpointTemplates(Class<?> apiClass) {
+        List<Template> found = new ArrayList<>();
+        for (Field field : apiClass.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                continue;
+            }
+            try {
+                var value = (String) field.get(null);
+                if (value != null && value.startsWith("/rest/")) {
+                    found.add(Template.of(field.getName(), value));
+                }
+            } catch (IllegalAccessException e) {
+                //public constants are always readable
+            }
+        }
+        found.sort(Comparator.comparingInt(Template::fixedLength).reversed().thenComparing(Template::name));
+        this.templates = List.copyOf(found);
+    }
+
+    public static EndpointTemplates of(Class<?> apiClass) {
+        return templatesByApi.get(apiClass);
+    }
+
+    public String nameOf(URI uri) {
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        var parameters = parameterNames(uri.getRawQuery());
+        for (var template : templates) {
+            if (template.path().matcher(path).matches() && parameters.containsAll(template.parameters())) {
+                return template.name();
+            }
+        }
+        return OTHER;
+    }
+
+    private static Set<String> parameterNames(String query) {
+        if (query == null || query.isEmpty()) {
+            return Set.of();
+        }
+        return Arrays.stream(query.split("&"))
+                .map(parameter -> parameter.contains("=") ? parameter.substring(0, parameter.indexOf('=')) : parameter)
+                .collect(Collectors.toSet());
+    }
+
+    private record Template(String name, Pattern path, Set<String> parameters, int fixedLength) {
+
+        private static Template of(String name, String value) {
+            var separator = value.indexOf('?');
+            var path = separator < 0 ? value : value.substring(0, separator);
+            var query = separator < 0 ? null : value.substring(separator + 1);
+
+            var regex = Arrays.stream(path.split("%s", -1)).map(Pattern::quote).collect(Collectors.joining("[^/]+"));
+            return new Template(name, Pattern.compile(regex), parameterNames(query), value.replace("%s", "").length());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraModelAdapterFactory;
+import com.atlassian.migration.app.zephyr.scale.api.ScaleModelAdapterFactory;
+import com.atlassian.migration.app.zephyr.squad.api.SquadModelAdapterFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Builds the Gson of the APIs, with the hand-written adapters of the model records read and written the most, so
+ * they are bound without reflection. Any other type is handled by Gson as usual.
+ */
+public class GsonFactory {
+
+    private static final Gson GSON = builder().create();
+
+    private GsonFactory() {
+    }
+
+    public static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new JiraModelAdapterFactory())
+                .registerTypeAdapterFactory(new SquadModelAdapterFactory())
+                .registerTypeAdapterFactory(new ScaleModelAdapterFactory());
+    }
+
+    /**
+     * A Gson shared by every API. Gson is thread safe and keeps the adapters it creates, so sharing it creates each
+     * adapter once.
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+}
@@ -3,6 +3,7 @@ package com.atlassian.migration.app.zephyr.common;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -25,4 +26,9 @@ public class GzipDecoder implements Decoder {
             throw new IOException("Failed to decode gzipped data", e);
         }
     }
+
+    @Override
+    public InputStream decodeStream(InputStream encodedData) throws IOException {
+        return new GZIPInputStream(encodedData);
+    }
 }
@@ -0,0 +1,409 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Records every HTTP exchange of the APIs, Scale writes included, or replays them without a server, so a whole
+ * migration can run again offline to measure its CPU, allocations and concurrency apart from the network.
+ * <p>
+ * Unlike a snapshot, which keeps the Jira and Squad reads of a migration, a cassette works at the level of the
+ * exchange: it keeps the status, the latency and the body as received, still compressed, of any request. It is
+ * stored in the same indexed, chunked format, through a {@link SnapshotWriter} and read with a
+ * {@link SnapshotReader}.
+ * <p>
+ * Exchanges are keyed on the method, the URI without its host and with its parameters sorted, and a hash of the
+ * request body. The same request recorded several times is replayed in the same order, the first response
+ * answering any later one. A request whose body differs from every recorded one, like a payload holding the time,
+ * gets the last response recorded for its method and URI. A request the cassette doesn't hold at all fails.
+ */
+public class HttpCassette implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpCassette.class);
+
+    private static final String REFERENCE_PREFIX = "@";
+
+    private final SnapshotWriter recorder;
+    private final SnapshotReader source;
+    private final long latencyMillis;
+    private final Map<String, AtomicInteger> occurrences = new ConcurrentHashMap<>();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger approximateMatches = new AtomicInteger();
+
+    private HttpCassette(SnapshotWriter recorder, SnapshotReader source, long latencyMillis) {
+        this.recorder = recorder;
+        this.source = source;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public static HttpCassette recordingTo(SnapshotWriter recorder) {
+        return new HttpCassette(recorder, null, 0);
+    }
+
+    /**
+     * @param latencyMillis how long each response is delayed, -1 to delay it as long as it took when recorded
+     */
+    public static HttpCassette replayingFrom(SnapshotReader source, long latencyMillis) {
+        return new HttpCassette(null, source, latencyMillis);
+    }
+
+    public boolean isReplaying() {
+        return source != null;
+    }
+
+    public <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+                                    HttpTransport transport) throws IOException, InterruptedException {
+        var key = keyOf(request);
+        if (isReplaying()) {
+            var recording = replay(key);
+            Thread.sleep(delayMillisOf(recording));
+            return recording.toResponse(request, bodyHandler);
+        }
+
+        var startNanos = System.nanoTime();
+        return transport.send(request, recordingHandler(key, startNanos, bodyHandler));
+    }
+
+    public <B> CompletableFuture<HttpResponse<B>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+                                                           HttpTransport transport) {
+        String key;
+        try {
+            key = keyOf(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (isReplaying()) {
+            Recording recording;
+            try {
+                recording = replay(key);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            var delayedExecutor = CompletableFuture.delayedExecutor(delayMillisOf(recording), TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return recording.toResponse(request, bodyHandler);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, delayedExecutor);
+        }
+
+        var startNanos = System.nanoTime();
+        return transport.sendAsync(request, recordingHandler(key, startNanos, bodyHandler));
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getApproximateMatches() {
+        return approximateMatches.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (recorder != null) {
+            recorder.close();
+        } else {
+            source.close();
+        }
+    }
+
+    private Recording replay(String key) throws IOException {
+        var occurrence = occurrences.computeIfAbsent(key, ignored -> new AtomicInteger()).getAndIncrement();
+        var found = source.find(key + "#" + occurrence);
+        if (found.isEmpty() && occurrence > 0) {
+            found = source.find(key + "#0");
+        }
+        if (found.isEmpty()) {
+            var reference = source.find(requestLineOf(key));
+            if (reference.isPresent()) {
+                approximateMatches.incrementAndGet();
+                found = source.find(reference.get().substring(REFERENCE_PREFIX.length()));
+            }
+        }
+        if (found.isEmpty()) {
+            misses.incrementAndGet();
+            throw new IOException("Not in the cassette: " + key);
+        }
+        return Recording.decode(found.get());
+    }
+
+    private long delayMillisOf(Recording recording) {
+        return latencyMillis >= 0 ? latencyMillis : TimeUnit.MICROSECONDS.toMillis(recording.latencyMicros());
+    }
+
+    private <B> HttpResponse.BodyHandler<B> recordingHandler(String key, long startNanos,
+                                                             HttpResponse.BodyHandler<B> bodyHandler) {
+        return responseInfo -> {
+            var latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            return new RecordingSubscriber<>(bodyHandler.apply(responseInfo), body -> {
+                var fullKey = key + "#" + occurrences.computeIfAbsent(key, ignored -> new AtomicInteger()).getAndIncrement();
+                var recording = new Recording(responseInfo.statusCode(), latencyMicros,
+                        responseInfo.headers().firstValue("Content-Encoding").orElse(""),
+                        responseInfo.headers().firstValue("Content-Type").orElse(""), body);
+                try {
+                    recorder.write(fullKey, recording.encode());
+                    recorder.write(requestLineOf(key), REFERENCE_PREFIX + fullKey);
+                } catch (IOException e) {
+                    logger.warn("Failed to record " + fullKey + " in the cassette: " + e.getMessage());
+                }
+            });
+        };
+    }
+
+    static String keyOf(HttpRequest request) throws IOException {
+        return request.method() + " " + normalize(request.uri()) + " " + bodyHashOf(request);
+    }
+
+    private static String requestLineOf(String key) {
+        return key.substring(0, key.lastIndexOf(' '));
+    }
+
+    //the host is left out so a cassette still matches when the instance is reached through another address
+    static String normalize(URI uri) {
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        if (uri.getRawQuery() == null || uri.getRawQuery().isEmpty()) {
+            return path;
+        }
+        return path + "?" + Arrays.stream(uri.getRawQuery().split("&")).sorted().collect(Collectors.joining("&"));
+    }
+
+    private static String bodyHashOf(HttpRequest request) throws IOException {
+        var publisher = request.bodyPublisher();
+        if (publisher.isEmpty() || publisher.get().contentLength() == 0) {
+            return "-";
+        }
+        var collector = new BodyCollector();
+        publisher.get().subscribe(collector);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(collector.body.get()));
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to read the request body", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Recording(int statusCode, long latencyMicros, String contentEncoding, String contentType,
+                             byte[] body) {
+
+        private String encode() {
+            return statusCode + "\n" + latencyMicros + "\n" + contentEncoding + "\n" + contentType + "\n"
+                    + Base64.getEncoder().encodeToString(body);
+        }
+
+        private static Recording decode(String encoded) {
+            var fields = encoded.split("\n", 5);
+            return new Recording(Integer.parseInt(fields[0]), Long.parseLong(fields[1]), fields[2], fields[3],
+                    Base64.getDecoder().decode(fields[4]));
+        }
+
+        private <B> HttpResponse<B> toResponse(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+                throws IOException {
+            Map<String, List<String>> headers = new ConcurrentHashMap<>();
+            if (!contentEncoding.isEmpty()) {
+                headers.put("Content-Encoding", List.of(contentEncoding));
+            }
+            if (!contentType.isEmpty()) {
+                headers.put("Content-Type", List.of(contentType));
+            }
+            var httpHeaders = HttpHeaders.of(headers, (name, value) -> true);
+            var version = request.version().orElse(HttpClient.Version.HTTP_1_1);
+
+            var subscriber = bodyHandler.apply(new HttpResponse.ResponseInfo() {
+                @Override
+                public int statusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public HttpHeaders headers() {
+                    return httpHeaders;
+                }
+
+                @Override
+                public HttpClient.Version version() {
+                    return version;
+                }
+            });
+            subscriber.onSubscribe(new ReplaySubscription(subscriber, body));
+            try {
+                var responseBody = subscriber.getBody().toCompletableFuture().get();
+                return new ReplayedResponse<>(statusCode, request, httpHeaders, responseBody, version);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to read the replayed response", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    //hands the whole body over on the first request for it, as the client would with a single buffer
+    private static class ReplaySubscription implements Flow.Subscription {
+
+        private final HttpResponse.BodySubscriber<?> subscriber;
+        private final byte[] body;
+        private boolean done = false;
+
+        private ReplaySubscription(HttpResponse.BodySubscriber<?> subscriber, byte[] body) {
+            this.subscriber = subscriber;
+            this.body = body;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (done || n <= 0) {
+                    return;
+                }
+                done = true;
+            }
+            if (body.length > 0) {
+                subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+            }
+            subscriber.onComplete();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            done = true;
+        }
+    }
+
+    private record ReplayedResponse<B>(int statusCode, HttpRequest request, HttpHeaders headers, B body,
+                                       HttpClient.Version version) implements HttpResponse<B> {
+
+        @Override
+        public Optional<HttpResponse<B>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+    }
+
+    private static class RecordingSubscriber<B> implements HttpResponse.BodySubscriber<B> {
+
+        private final HttpResponse.BodySubscriber<B> delegate;
+        private final Consumer<byte[]> onBody;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private RecordingSubscriber(HttpResponse.BodySubscriber<B> delegate, Consumer<byte[]> onBody) {
+            this.delegate = delegate;
+            this.onBody = onBody;
+        }
+
+        @Override
+        public CompletionStage<B> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            synchronized (body) {
+                for (var buffer : buffers) {
+                    var copy = buffer.duplicate();
+                    var bytes = new byte[copy.remaining()];
+                    copy.get(bytes);
+                    body.writeBytes(bytes);
+                }
+            }
+            delegate.onNext(buffers);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            byte[] bytes;
+            synchronized (body) {
+                bytes = body.toByteArray();
+            }
+            onBody.accept(bytes);
+            delegate.onComplete();
+        }
+    }
+
+    private static class BodyCollector implements Flow.Subscriber<ByteBuffer> {
+
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public synchronized void onNext(ByteBuffer buffer) {
+            buffers.add(buffer);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            var collected = new ByteArrayOutputStream();
+            for (var buffer : buffers) {
+                var bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                collected.writeBytes(bytes);
+            }
+            body.complete(collected.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link HttpClient} the APIs send their requests with. All of them talk to the same Jira host, so a migration
+ * builds one transport and shares it: a single connection pool and executor rather than one per API competing
+ * with the others.
+ * <p>
+ * The transport caps the exchanges in flight on its connections, the HTTP/1.1 connections or the HTTP/2 streams
+ * depending on the version, and bounds how long a request waits for its response. The {@code jdk.httpclient}
+ * properties sizing the idle pool and its keep-alive are read once by the JDK, so they only apply when set before
+ * the first client of the JVM is built, and never override a value given on the command line.
+ */
+public class HttpTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+
+    private static final List<String> http1Versions = List.of("1.1", "1");
+    private static final List<String> http2Versions = List.of("2", "2.0");
+
+    private static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 10L;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60L;
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final AdaptiveConcurrencyLimiter exchanges;
+
+    private HttpTransport(HttpClient client, Duration requestTimeout, AdaptiveConcurrencyLimiter exchanges) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.exchanges = exchanges;
+    }
+
+    /**
+     * A transport for a single API, as each of them used to build: the JDK defaults and a connect timeout, with
+     * no cap on the exchanges and no request timeout.
+     */
+    public static HttpTransport forVersion(String httpVersion) {
+        return new HttpTransport(HttpClient.newBuilder()
+                .version(versionOf(httpVersion))
+                .connectTimeout(Duration.ofSeconds(DEFAULT_CONNECT_TIMEOUT_SECONDS))
+                .build(), null, null);
+    }
+
+    public static HttpTransport create(Settings settings) {
+        var version = versionOf(settings.httpVersion());
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", settings.maxConnections());
+        setDefaultProperty("jdk.httpclient.keepalive.timeout", settings.keepAliveSeconds());
+        setDefaultProperty("jdk.httpclient.keepalive.timeout.h2", settings.keepAliveSeconds());
+
+        var maxExchanges = version == HttpClient.Version.HTTP_2 ? settings.maxStreams() : settings.maxConnections();
+        logger.info("HTTP/" + (version == HttpClient.Version.HTTP_2 ? "2" : "1.1") + " transport with "
+                + settings.executorThreads() + " threads and at most " + maxExchanges + " exchanges in flight");
+
+        var client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(settings.connectTimeoutSeconds()))
+                .executor(createExecutor(settings.executorThreads()))
+                .build();
+        var requestTimeout = settings.requestTimeoutSeconds() > 0
+                ? Duration.ofSeconds(settings.requestTimeoutSeconds()) : null;
+        //a limiter whose limit starts at its maximum and is only ever released as ignored never adapts
+        var exchanges = maxExchanges > 0 ? new AdaptiveConcurrencyLimiter("transport", maxExchanges, maxExchanges) : null;
+        return new HttpTransport(client, requestTimeout, exchanges);
+    }
+
+    public HttpClient client() {
+        return client;
+    }
+
+    /**
+     * The longest a request waits for the headers of its response, or null to wait as long as it takes.
+     */
+    public Duration requestTimeout() {
+        return requestTimeout;
+    }
+
+    public <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler)
+            throws IOException, InterruptedException {
+        if (exchanges == null) {
+            return client.send(request, bodyHandler);
+        }
+        exchanges.acquireBlocking();
+        try {
+            return client.send(request, bodyHandler);
+        } finally {
+            exchanges.release(0, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+        }
+    }
+
+    public <B> CompletableFuture<HttpResponse<B>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler) {
+        if (exchanges == null) {
+            return client.sendAsync(request, bodyHandler);
+        }
+        return exchanges.acquire().thenCompose(permit -> client.sendAsync(request, bodyHandler)
+                .whenComplete((response, failure) -> exchanges.release(0, AdaptiveConcurrencyLimiter.Outcome.IGNORED)));
+    }
+
+    public int getExchangesInFlight() {
+        return exchanges == null ? 0 : exchanges.getInFlight();
+    }
+
+    static HttpClient.Version versionOf(String httpVersion) {
+        if (http1Versions.contains(httpVersion)) {
+            return HttpClient.Version.HTTP_1_1;
+        } else if (http2Versions.contains(httpVersion)) {
+            return HttpClient.Version.HTTP_2;
+        } else {
+            throw new IllegalArgumentException("Unsupported HTTP version: "
+                    + httpVersion
+                    + ", Supported values: "
+                    + "Http/1.1: " + http1Versions + " Http/2: " + http2Versions);
+        }
+    }
+
+    private static void setDefaultProperty(String name, long value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, String.valueOf(value));
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads) {
+        var threadCounter = new AtomicInteger();
+        var threadPool = new ThreadPoolExecutor(threads, threads,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    var thread = new Thread(runnable, "http-transport-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    /**
+     * @param maxConnections the HTTP/1.1 connections in use, and kept idle in the pool, 0 for no cap
+     * @param maxStreams the HTTP/2 streams in flight on the connection, 0 for no cap
+     * @param requestTimeoutSeconds how long a request waits for its response, 0 for no timeout
+     */
+    public record Settings(String httpVersion, int executorThreads, int maxConnections, int maxStreams,
+                           long keepAliveSeconds, long connectTimeoutSeconds, long requestTimeoutSeconds) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads single values the way Gson's own adapters do, for the hand-written model adapters: numbers and booleans are
+ * read as strings where a string is expected, quoted numbers and booleans as such, and a JSON null is refused for a
+ * primitive.
+ */
+public class JsonUtils {
+
+    private JsonUtils() {
+    }
+
+    /**
+     * Consumes a JSON null, telling whether there was one.
+     */
+    public static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    public static String nextString(JsonReader in) throws IOException {
+        return switch (in.peek()) {
+            case NULL -> {
+                in.nextNull();
+                yield null;
+            }
+            case BOOLEAN -> Boolean.toString(in.nextBoolean());
+            default -> in.nextString();
+        };
+    }
+
+    public static int nextInt(JsonReader in) throws IOException {
+        return in.nextInt();
+    }
+
+    public static Integer nextInteger(JsonReader in) throws IOException {
+        return skipNull(in) ? null : in.nextInt();
+    }
+
+    public static Long nextLong(JsonReader in) throws IOException {
+        return skipNull(in) ? null : in.nextLong();
+    }
+
+    public static boolean nextBoolean(JsonReader in) throws IOException {
+        return in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+    }
+}
@@ -0,0 +1,183 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the bodies of recent GET responses for a short while and coalesces identical GETs: while a response is
+ * being fetched, the same request from another thread waits for it instead of being sent again.
+ * <p>
+ * The cache holds a bounded number of responses and evicts the least recently used one first. A response older
+ * than the time to live is fetched again. Failures are neither cached nor shared beyond the requests already
+ * waiting for them.
+ */
+public class ResponseCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public ResponseCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    ResponseCache(int maxEntries, long ttlMillis, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached response, the one being fetched by another thread, or else fetches it on this thread.
+     */
+    public String get(String key, Loader loader) throws ApiException {
+        var cached = find(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        var promise = new CompletableFuture<String>();
+        var pending = inFlight.putIfAbsent(key, promise);
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return await(pending);
+        }
+        //the previous load may have stored the response and left between the lookup and this one
+        cached = find(key);
+        if (cached != null) {
+            inFlight.remove(key, promise);
+            promise.complete(cached);
+            return cached;
+        }
+
+        try {
+            var body = loader.load();
+            store(key, body);
+            promise.complete(body);
+            return body;
+        } catch (ApiException | RuntimeException e) {
+            promise.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, promise);
+        }
+    }
+
+    /**
+     * Same as {@link #get(String, Loader)} without blocking, the loader sends the request asynchronously.
+     */
+    public CompletableFuture<String> getAsync(String key, Supplier<CompletableFuture<String>> loader) {
+        var cached = find(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        var promise = new CompletableFuture<String>();
+        var pending = inFlight.putIfAbsent(key, promise);
+        //each caller gets a copy, so one cancelling or completing its future leaves the others waiting
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return pending.copy();
+        }
+        cached = find(key);
+        if (cached != null) {
+            inFlight.remove(key, promise);
+            promise.complete(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((body, failure) -> {
+            if (failure == null) {
+                store(key, body);
+            }
+            inFlight.remove(key, promise);
+            if (failure == null) {
+                promise.complete(body);
+            } else {
+                promise.completeExceptionally(failure);
+            }
+        });
+        return promise.copy();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized String find(String key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.storedAtNanos() > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.body();
+    }
+
+    private synchronized void store(String key, String body) {
+        if (maxEntries > 0) {
+            entries.put(key, new Entry(body, nanoClock.getAsLong()));
+        }
+    }
+
+    private static String await(CompletableFuture<String> pending) throws ApiException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ApiException apiException) {
+                throw apiException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ApiException(cause instanceof Exception exception ? exception : new Exception(cause));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        String load() throws ApiException;
+    }
+
+    private record Entry(String body, long storedAtNanos) {
+    }
+}
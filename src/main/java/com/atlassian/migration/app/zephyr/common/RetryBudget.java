@@ -0,0 +1,31 @@
+package com.atlassian.migration.app.zephyr.common;
+
+/**
+ * Bounds the retries of every request sharing it to a fraction of the requests sent. Each request earns a fraction
+ * of a retry and each retry spends a whole one, so a server failing everything sees only a few more requests
+ * than it would without retries, while isolated failures are always retried thanks to the saved up balance.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double capacity;
+    private double balance;
+
+    public RetryBudget(double ratio, int capacity) {
+        this.ratio = ratio;
+        this.capacity = capacity;
+        this.balance = capacity;
+    }
+
+    public synchronized void recordRequest() {
+        balance = Math.min(capacity, balance + ratio);
+    }
+
+    public synchronized boolean tryRetry() {
+        if (balance < 1) {
+            return false;
+        }
+        balance--;
+        return true;
+    }
+}
@@ -0,0 +1,219 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when a failed request is sent again.
+ * <p>
+ * Requests are retried on a connection timeout or a {@link #RETRYABLE_CODES retryable status}, up to the maximum
+ * number of attempts of their endpoint. The wait grows with decorrelated jitter, a random time between the base
+ * delay and three times the previous wait, so parallel workers don't retry in lockstep. A {@code Retry-After}
+ * header sent by the server makes the wait at least that long.
+ * <p>
+ * Retries also spend from a {@link RetryBudget} shared by every request of the policy, and each API family has a
+ * {@link CircuitBreaker} pausing all its requests once most of them fail. A policy is meant to be shared by every
+ * API of the migration.
+ */
+public class RetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    public static final List<Integer> RETRYABLE_CODES = List.of(408, 429, 500, 503, 504);
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 1000;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 30_000;
+    private static final long MAX_RETRY_AFTER_MILLIS = 300_000;
+    private static final double BUDGET_RATIO = 0.2;
+    private static final int BUDGET_CAPACITY = 50;
+    private static final long CIRCUIT_OPEN_MILLIS = 30_000;
+
+    private final Settings defaults;
+    private final Map<String, Settings> endpointSettings = new ConcurrentHashMap<>();
+    private final RetryBudget budget;
+    private final Map<ApiFamily, CircuitBreaker> circuitBreakers = new EnumMap<>(ApiFamily.class);
+
+    public RetryPolicy(Settings defaults, RetryBudget budget, long circuitOpenMillis) {
+        this.defaults = defaults;
+        this.budget = budget;
+        for (var apiFamily : ApiFamily.values()) {
+            circuitBreakers.put(apiFamily, new CircuitBreaker(apiFamily.toString(), circuitOpenMillis));
+        }
+    }
+
+    public static RetryPolicy defaultPolicy() {
+        return withDefaults(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS);
+    }
+
+    public static RetryPolicy withDefaults(int maxAttempts, long baseDelayMillis) {
+        return new RetryPolicy(new Settings(maxAttempts, baseDelayMillis, Math.max(DEFAULT_MAX_DELAY_MILLIS, baseDelayMillis)),
+                new RetryBudget(BUDGET_RATIO, BUDGET_CAPACITY), CIRCUIT_OPEN_MILLIS);
+    }
+
+    /**
+     * Gives the requests whose path starts with the given prefix their own maximum number of attempts. The longest
+     * matching prefix wins.
+     */
+    public RetryPolicy withEndpoint(String pathPrefix, int maxAttempts) {
+        endpointSettings.put(pathPrefix, new Settings(maxAttempts, defaults.baseDelayMillis(), defaults.maxDelayMillis()));
+        return this;
+    }
+
+    /**
+     * Reads endpoint overrides written as {@code pathPrefix=maxAttempts}, separated by commas.
+     */
+    public RetryPolicy withEndpoints(String endpoints) {
+        if (endpoints == null || endpoints.isBlank()) {
+            return this;
+        }
+        for (var endpoint : endpoints.split(",")) {
+            var separator = endpoint.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid retry endpoint '" + endpoint.trim()
+                        + "', expected pathPrefix=maxAttempts");
+            }
+            withEndpoint(endpoint.substring(0, separator).trim(),
+                    Integer.parseInt(endpoint.substring(separator + 1).trim()));
+        }
+        return this;
+    }
+
+    public Settings settingsFor(URI uri) {
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        return endpointSettings.entrySet().stream()
+                .filter(entry -> path.startsWith(entry.getKey()))
+                .max(Comparator.comparingInt(entry -> entry.getKey().length()))
+                .map(Map.Entry::getValue)
+                .orElse(defaults);
+    }
+
+    public CircuitBreaker circuitBreakerFor(URI uri) {
+        return circuitBreakers.get(ApiFamily.of(uri));
+    }
+
+    /**
+     * Starts tracking the attempts of a new request.
+     */
+    public Attempts start(URI uri) {
+        budget.recordRequest();
+        return new Attempts(uri, settingsFor(uri), circuitBreakerFor(uri));
+    }
+
+    public static boolean isRetryable(int statusCode) {
+        return RETRYABLE_CODES.contains(statusCode);
+    }
+
+    static long retryAfterMillis(HttpHeaders headers, long nowMillis) {
+        var retryAfter = headers.firstValue("Retry-After").map(String::trim).orElse("");
+        if (retryAfter.isEmpty()) {
+            return 0;
+        }
+        long millis;
+        try {
+            millis = Long.parseLong(retryAfter) * 1000;
+        } catch (NumberFormatException notSeconds) {
+            try {
+                millis = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                        - nowMillis;
+            } catch (DateTimeParseException notADate) {
+                logger.debug("Ignoring unreadable Retry-After: " + retryAfter);
+                return 0;
+            }
+        }
+        return Math.min(Math.max(millis, 0), MAX_RETRY_AFTER_MILLIS);
+    }
+
+    public record Settings(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+    }
+
+    /**
+     * The attempts of a single request. Every attempt must report its outcome to
+     * {@link #retryAfterResponse(int, HttpHeaders)} or {@link #retryAfterFailure(Throwable)}, which feed the
+     * circuit breaker and return the wait before the next attempt, or nothing when the request must not be retried.
+     */
+    public class Attempts {
+
+        private final URI uri;
+        private final Settings settings;
+        private final CircuitBreaker circuitBreaker;
+        private int attempts = 0;
+        private long previousDelayMillis;
+
+        private Attempts(URI uri, Settings settings, CircuitBreaker circuitBreaker) {
+            this.uri = uri;
+            this.settings = settings;
+            this.circuitBreaker = circuitBreaker;
+            this.previousDelayMillis = settings.baseDelayMillis();
+        }
+
+        /**
+         * How long to wait before sending the next attempt because its API family is paused, 0 to send it now.
+         */
+        public long pauseMillis() {
+            return circuitBreaker.pauseMillis();
+        }
+
+        public OptionalLong retryAfterResponse(int statusCode, HttpHeaders headers) {
+            attempts++;
+            if (!isRetryable(statusCode)) {
+                circuitBreaker.recordSuccess();
+                return OptionalLong.empty();
+            }
+            circuitBreaker.recordFailure();
+            logger.info("Received code " + statusCode + ", retrying...");
+            return nextDelay(retryAfterMillis(headers, System.currentTimeMillis()));
+        }
+
+        public OptionalLong retryAfterFailure(Throwable failure) {
+            attempts++;
+            circuitBreaker.recordFailure();
+            if (!(failure instanceof HttpConnectTimeoutException)) {
+                return OptionalLong.empty();
+            }
+            logger.info("Http Connection Timed out, retrying...");
+            return nextDelay(0);
+        }
+
+        /**
+         * Reports an attempt rejecting the credentials, which is sent again with renewed ones rather than retried.
+         * The server did answer, so the breaker counts it as a success, which also ends the probe this attempt may
+         * have been. Must be reported whether the renewal succeeds or fails.
+         */
+        public void unauthorized() {
+            circuitBreaker.recordSuccess();
+        }
+
+        public int attempts() {
+            return attempts;
+        }
+
+        private OptionalLong nextDelay(long retryAfterMillis) {
+            if (attempts >= settings.maxAttempts()) {
+                return OptionalLong.empty();
+            }
+            if (!budget.tryRetry()) {
+                logger.warn("Retry budget exhausted, not retrying " + uri.getRawPath() + ".");
+                return OptionalLong.empty();
+            }
+            var upperBound = Math.max(previousDelayMillis * 3, settings.baseDelayMillis() + 1);
+            var delay = Math.min(settings.maxDelayMillis(),
+                    ThreadLocalRandom.current().nextLong(settings.baseDelayMillis(), upperBound));
+            previousDelayMillis = delay;
+            return OptionalLong.of(Math.max(delay, retryAfterMillis));
+        }
+    }
+}
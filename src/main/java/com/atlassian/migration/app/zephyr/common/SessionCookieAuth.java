@@ -0,0 +1,125 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Logs in to Jira once and sends the session cookie with every request, so the password is verified once rather
+ * than on each request. When the session expires the server answers 401, and the first request to see it logs in
+ * again while the others wait and reuse the new session.
+ */
+public class SessionCookieAuth implements AuthStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCookieAuth.class);
+
+    public static final String SESSION_ENDPOINT = "/rest/auth/1/session";
+
+    private final ApiConfiguration config;
+    private final HttpTransport transport;
+    private final HttpCassette cassette;
+    private final Gson gson = new Gson();
+    private volatile String headerValue;
+
+    private SessionCookieAuth(ApiConfiguration config, HttpTransport transport, HttpCassette cassette) {
+        this.config = config;
+        this.transport = transport;
+        this.cassette = cassette;
+    }
+
+    /**
+     * Logs in, failing right away when the credentials are rejected.
+     */
+    public static SessionCookieAuth login(ApiConfiguration config) throws ApiException {
+        return login(config, HttpTransport.forVersion(config.httpVersion()), null);
+    }
+
+    /**
+     * Logs in through the transport the APIs send their requests through, keeping the logins in the cassette
+     * when there is one.
+     */
+    public static SessionCookieAuth login(ApiConfiguration config, HttpTransport transport,
+                                         HttpCassette cassette) throws ApiException {
+        var sessionCookieAuth = new SessionCookieAuth(config, transport, cassette);
+        sessionCookieAuth.headerValue = sessionCookieAuth.createSession();
+        return sessionCookieAuth;
+    }
+
+    @Override
+    public String headerName() {
+        return "Cookie";
+    }
+
+    @Override
+    public String headerValue() {
+        return headerValue;
+    }
+
+    @Override
+    public synchronized boolean renewAfterUnauthorized(String rejectedHeaderValue) throws ApiException {
+        if (rejectedHeaderValue == null || !rejectedHeaderValue.equals(headerValue)) {
+            return true;
+        }
+        logger.info("Jira session expired, logging in again...");
+        headerValue = createSession();
+        return true;
+    }
+
+    private String createSession() throws ApiException {
+        var body = gson.toJson(new LoginPayload(config.username(), String.valueOf(config.password())));
+        var builder = HttpRequest.newBuilder()
+                .uri(URI.create(config.host() + SESSION_ENDPOINT))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json;charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body, UTF_8));
+        if (transport.requestTimeout() != null) {
+            builder.timeout(transport.requestTimeout());
+        }
+        var request = builder.build();
+
+        HttpResponse<String> response;
+        try {
+            var bodyHandler = HttpResponse.BodyHandlers.ofString(UTF_8);
+            response = cassette == null ? transport.send(request, bodyHandler)
+                    : cassette.send(request, bodyHandler, transport);
+        } catch (IOException e) {
+            throw new ApiException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(e);
+        }
+
+        if (response.statusCode() / 100 != 2) {
+            logger.error("Failed to log in to Jira with status code: " + response.statusCode());
+            throw new ApiException(response.statusCode(), response.body());
+        }
+
+        LoginResponse loginResponse;
+        try {
+            loginResponse = gson.fromJson(response.body(), LoginResponse.class);
+        } catch (JsonParseException e) {
+            loginResponse = null;
+        }
+        if (loginResponse == null || loginResponse.session() == null || loginResponse.session().value() == null) {
+            throw new ApiException(-1, "Unexpected Jira login response: " + response.body());
+        }
+        return loginResponse.session().name() + "=" + loginResponse.session().value();
+    }
+
+    private record LoginPayload(String username, String password) {
+    }
+
+    private record LoginResponse(Session session) {
+    }
+
+    private record Session(String name, String value) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the responses of a snapshot written by {@link SnapshotWriter}. The index is loaded up front; chunks are
+ * decompressed on demand and the last few are kept, which fits the way the migrator reads: the responses of a
+ * test case, its executions and their step results were written next to each other by the extract.
+ */
+public class SnapshotReader implements Closeable {
+
+    private static final int CACHED_CHUNKS = 8;
+
+    private final Path directory;
+    private final FileChannel records;
+    private final Map<String, Long> index;
+    private final Map<Long, Map<String, String>> cachedChunks = new LinkedHashMap<>(CACHED_CHUNKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Map<String, String>> eldest) {
+            return size() > CACHED_CHUNKS;
+        }
+    };
+
+    public SnapshotReader(Path directory) throws IOException {
+        var indexFile = directory.resolve(SnapshotWriter.INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            throw new FileNotFoundException("No complete snapshot in " + directory
+                    + ", the extract may have been interrupted before it finished");
+        }
+        this.directory = directory;
+        this.index = readIndex(indexFile);
+        this.records = FileChannel.open(directory.resolve(SnapshotWriter.RECORDS_FILE), StandardOpenOption.READ);
+    }
+
+    public synchronized Optional<String> find(String key) throws IOException {
+        var chunkOffset = index.get(key);
+        if (chunkOffset == null) {
+            return Optional.empty();
+        }
+        var chunk = cachedChunks.get(chunkOffset);
+        if (chunk == null) {
+            chunk = readChunk(chunkOffset);
+            cachedChunks.put(chunkOffset, chunk);
+        }
+        return Optional.ofNullable(chunk.get(key));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        cachedChunks.clear();
+        records.close();
+    }
+
+    private Map<String, String> readChunk(long offset) throws IOException {
+        var header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(header, offset);
+        var compressed = ByteBuffer.allocate(header.flip().getInt());
+        readFully(compressed, offset + Integer.BYTES);
+
+        Map<String, String> chunk = new HashMap<>();
+        try (var in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed.array())))) {
+            while (true) {
+                String key;
+                try {
+                    key = SnapshotWriter.readString(in);
+                } catch (EOFException endOfChunk) {
+                    return chunk;
+                }
+                chunk.put(key, SnapshotWriter.readString(in));
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (records.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Snapshot " + directory + " is truncated at offset " + position);
+            }
+        }
+    }
+
+    private static Map<String, Long> readIndex(Path indexFile) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(indexFile))))) {
+            var size = in.readInt();
+            Map<String, Long> index = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                index.put(SnapshotWriter.readString(in), in.readLong());
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the responses read from the source instance into a local snapshot, so later runs can replay them with a
+ * {@link SnapshotReader} instead of calling Jira and Squad again.
+ * <p>
+ * A snapshot is a folder with two files. {@value #RECORDS_FILE} holds the responses as a sequence of chunks, each
+ * one a length prefixed, independently gzip compressed block of (request key, response body) records, so a reader
+ * only decompresses the chunk holding the response it is looking for. {@value #INDEX_FILE} maps every request key
+ * to the file offset of its chunk and is written on close; a snapshot without it is incomplete. Writing the same
+ * key twice keeps the last response.
+ */
+public class SnapshotWriter implements Closeable {
+
+    public static final String RECORDS_FILE = "records.snapshot";
+    public static final String INDEX_FILE = "index.snapshot";
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final Path directory;
+    private final int chunkSize;
+    private final OutputStream records;
+    private final Map<String, Long> index = new HashMap<>();
+
+    private ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+    private DataOutputStream chunkRecords = new DataOutputStream(chunk);
+    private Set<String> chunkKeys = new HashSet<>();
+    private long chunkOffset = 0;
+    private boolean closed = false;
+
+    public SnapshotWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_CHUNK_SIZE);
+    }
+
+    SnapshotWriter(Path directory, int chunkSize) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(INDEX_FILE));
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.records = new BufferedOutputStream(Files.newOutputStream(directory.resolve(RECORDS_FILE)));
+    }
+
+    public synchronized void write(String key, String body) throws IOException {
+        if (closed) {
+            throw new IOException("Snapshot " + directory + " is already closed");
+        }
+        writeString(chunkRecords, key);
+        writeString(chunkRecords, body);
+        chunkKeys.add(key);
+        if (chunk.size() >= chunkSize) {
+            flushChunk();
+        }
+    }
+
+    public synchronized int size() {
+        var pendingKeys = chunkKeys.stream().filter(key -> !index.containsKey(key)).count();
+        return index.size() + (int) pendingKeys;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (records) {
+            flushChunk();
+        }
+
+        try (var indexOut = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(directory.resolve(INDEX_FILE)))))) {
+            indexOut.writeInt(index.size());
+            for (var entry : index.entrySet()) {
+                writeString(indexOut, entry.getKey());
+                indexOut.writeLong(entry.getValue());
+            }
+        }
+    }
+
+    private void flushChunk() throws IOException {
+        if (chunk.size() == 0) {
+            return;
+        }
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            chunk.writeTo(gzip);
+        }
+
+        var header = new DataOutputStream(records);
+        header.writeInt(compressed.size());
+        compressed.writeTo(records);
+
+        for (var key : chunkKeys) {
+            index.put(key, chunkOffset);
+        }
+        chunkOffset += Integer.BYTES + compressed.size();
+
+        chunk = new ByteArrayOutputStream();
+        chunkRecords = new DataOutputStream(chunk);
+        chunkKeys = new HashSet<>();
+    }
+
+    //length prefixed UTF-8 rather than writeUTF, which is capped at 64KB and issue pages are much longer
+    static void writeString(DataOutput out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -3,16 +3,26 @@ package com.atlassian.migration.app.zephyr.jira.api;
 import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
 import com.atlassian.migration.app.zephyr.common.ApiException;
 import com.atlassian.migration.app.zephyr.common.BaseApi;
+import com.atlassian.migration.app.zephyr.common.HttpTransport;
 import com.atlassian.migration.app.zephyr.jira.model.*;
 import com.atlassian.migration.app.zephyr.scale.model.GetProjectResponse;
+import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class JiraApi extends BaseApi {
 
@@ -25,8 +35,79 @@ public class JiraApi extends BaseApi {
     public static final String FETCH_PROJECT_CFS = "/rest/api/2/customFields";
     public static final String FETCH_ISSUE_FIELDS_BY_ISSUE_TYPE = "/rest/api/latest/issue/createmeta/%s/issuetypes/%s?maxResults=200";
 
+    //reads of a project, an issue or a user that the migration repeats, none of them is changed by the migration
+    private static final List<Pattern> CACHEABLE_PATHS = List.of(
+            Pattern.compile("/rest/api/2/project/[^/]+$"),
+            Pattern.compile("/rest/api/2/issue/[^/]+$"),
+            Pattern.compile("/rest/api/2/user/assignable/search$"),
+            Pattern.compile("/rest/api/latest/issue/createmeta/[^/]+/issuetypes/[^/]+$"));
+
+    //the system fields of a test issue read by the migration, the only ones asked for once the custom fields are known
+    public static final List<String> TEST_CASE_FIELDS = List.of("summary", "description", "labels", "components",
+            "priority", "status", "reporter", "creator", "created", "updated", "issuelinks", "attachment");
+
+    //search pages read the custom fields along with the other fields, keeping those set for the project if any
+    private final Gson allCustomFieldsGson;
+    private final Map<String, SearchProjection> searchProjections = new ConcurrentHashMap<>();
+    private volatile boolean expandRenderedFields;
+
     public JiraApi(ApiConfiguration config) {
-        super(config);
+        this(config, HttpTransport.forVersion(config.httpVersion()));
+    }
+
+    public JiraApi(ApiConfiguration config, HttpTransport transport) {
+        super(config, transport);
+        this.allCustomFieldsGson = gson.newBuilder()
+                .registerTypeAdapterFactory(new JiraIssueFieldsAdapterFactory(null))
+                .create();
+    }
+
+    /**
+     * Keeps only the given custom fields in the issues of the project's search pages: the search asks Jira for them
+     * and the {@link #TEST_CASE_FIELDS} only, and the values of any other field are skipped while parsing. Null asks
+     * for all the fields again.
+     */
+    public void keepCustomFields(String projectName, Set<String> customFieldIds) {
+        if (customFieldIds == null) {
+            searchProjections.remove(projectName);
+            return;
+        }
+        var fields = new ArrayList<>(TEST_CASE_FIELDS);
+        //sorted so that the same fields make the same search URL
+        customFieldIds.stream().sorted().forEach(fields::add);
+
+        searchProjections.put(projectName, new SearchProjection(gson.newBuilder()
+                .registerTypeAdapterFactory(new JiraIssueFieldsAdapterFactory(customFieldIds))
+                .create(), String.join(",", fields)));
+    }
+
+    /**
+     * Asks the test issue searches for the HTML rendering of the fields as well, so that the description of a test
+     * case doesn't need a render request of its own.
+     */
+    public void expandRenderedFields(boolean expandRenderedFields) {
+        this.expandRenderedFields = expandRenderedFields;
+    }
+
+    @Override
+    protected boolean isCacheable(URI uri) {
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        return CACHEABLE_PATHS.stream().anyMatch(pattern -> pattern.matcher(path).find());
+    }
+
+    /**
+     * Leaves the {@code fields} of a search out of its snapshot key. The extract asks for all the fields, as it doesn't
+     * know the custom fields a migration keeps, and the page it recorded answers the narrower search of the load.
+     */
+    @Override
+    protected String snapshotPath(URI uri) {
+        if (uri.getRawQuery() == null || !uri.getRawPath().endsWith(JIRA_SEARCH_ISSUES_ENDPOINT)) {
+            return super.snapshotPath(uri);
+        }
+        var query = Arrays.stream(uri.getRawQuery().split("&"))
+                .filter(param -> !param.startsWith("fields="))
+                .collect(Collectors.joining("&"));
+        return query.isEmpty() ? uri.getRawPath() : uri.getRawPath() + "?" + query;
     }
 
     public int fetchTotalIssuesByProjectName(String projectName) throws IOException {
@@ -47,24 +128,32 @@ public class JiraApi extends BaseApi {
     }
 
     public JiraIssuesResponse getIssueById(String id) throws IOException {
-        var response = sendHttpGet(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, id)));
-        return gson.fromJson(response, JiraIssuesResponse.class);
+        return sendHttpGetJson(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, id)), JiraIssuesResponse.class);
     }
 
     public JiraIssuesResponse getIssueByIssueKey(String issueKey) throws IOException {
-        var response = sendHttpGet(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, issueKey)));
-        return gson.fromJson(response, JiraIssuesResponse.class);
+        return sendHttpGetJson(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, issueKey)), JiraIssuesResponse.class);
+    }
+
+    public CompletableFuture<JiraIssuesResponse> getIssueByIssueKeyAsync(String issueKey) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, issueKey)))
+                .thenApply(response -> gson.fromJson(response, JiraIssuesResponse.class));
     }
 
     public FetchJiraIssueTypesResponse getIssueFieldsByIssuetype(String projectId, String issueTypeId) throws IOException {
-        var response = sendHttpGet(getUri(urlPath(FETCH_ISSUE_FIELDS_BY_ISSUE_TYPE, projectId, issueTypeId)));
-        return gson.fromJson(response, FetchJiraIssueTypesResponse.class);
+        return sendHttpGetJson(getUri(urlPath(FETCH_ISSUE_FIELDS_BY_ISSUE_TYPE, projectId, issueTypeId)),
+                FetchJiraIssueTypesResponse.class);
     }
 
     public List<Attachment> getIssueAttachmentsByIssueId(String id) throws IOException {
         return getIssueById(id).fields().attachment;
     }
 
+    public CompletableFuture<List<Attachment>> getIssueAttachmentsByIssueIdAsync(String id) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(GET_ISSUE_BY_ID_ENDPOINT, id)))
+                .thenApply(response -> gson.fromJson(response, JiraIssuesResponse.class).fields().attachment);
+    }
+
     public GetProjectResponse getProject(String idOrKey) throws IOException {
         var response = sendHttpGet(getUri(urlPath(GET_PROJECT_BY_KEY_OR_ID_ENDPOINT, idOrKey)));
         return gson.fromJson(response, GetProjectResponse.class);
@@ -75,7 +164,19 @@ public class JiraApi extends BaseApi {
     }
 
     public FetchJiraIssuesResponse fetchTestCreatedOrderEntry(String projectName, Integer startAt, Integer maxResults) throws IOException {
-        return fetchIssuesByJql(startAt, maxResults, String.format("project = %s AND issuetype = Test ORDER BY createdDate ASC", projectName));
+        return fetchIssuesByJql(projectName, startAt, maxResults, String.format("project = %s AND issuetype = Test ORDER BY createdDate ASC", projectName));
+    }
+
+    /**
+     * Fetches the test issues with an id greater than {@code lastSeenId}, or the first ones when it is null, ordered
+     * by id. Unlike {@code startAt}, the cursor doesn't make Jira skip over the previous pages, and issues created
+     * meanwhile don't shift the following ones. The total of the first page is the number of test issues.
+     */
+    public FetchJiraIssuesResponse fetchTestIssuesAfterId(String projectName, String lastSeenId, Integer maxResults) throws IOException {
+        var jql = lastSeenId == null
+                ? String.format("project = %s AND issuetype = Test ORDER BY id ASC", projectName)
+                : String.format("project = %s AND issuetype = Test AND id > %s ORDER BY id ASC", projectName, lastSeenId);
+        return fetchIssuesByJql(projectName, 0, maxResults, jql);
     }
 
 
@@ -83,6 +184,10 @@ public class JiraApi extends BaseApi {
         return sendHttpPost(RENDER_JIRA_TEXT_FORMATTING, new RenderJiraTextFormatting(textToConvert));
     }
 
+    public CompletableFuture<String> convertJiraTextFormattingToHtmlAsync(String textToConvert) {
+        return sendHttpPostAsync(RENDER_JIRA_TEXT_FORMATTING, new RenderJiraTextFormatting(textToConvert));
+    }
+
     public List<AssignableUserResponse> fetchAssignableUserByUsernameAndProject(String username, String projectKey) throws IOException {
         Map<String, Object> params = new HashMap<>();
         params.put("username", username);
@@ -90,6 +195,18 @@ public class JiraApi extends BaseApi {
 
         var response = sendHttpGet(uri(JIRA_SEARCH_ASSIGNABLE_USERS, params));
 
+        return parseAssignableUsers(response);
+    }
+
+    public CompletableFuture<List<AssignableUserResponse>> fetchAssignableUserByUsernameAndProjectAsync(String username, String projectKey) throws ApiException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("username", username);
+        params.put("project", projectKey);
+
+        return sendHttpGetAsync(uri(JIRA_SEARCH_ASSIGNABLE_USERS, params)).thenApply(this::parseAssignableUsers);
+    }
+
+    private List<AssignableUserResponse> parseAssignableUsers(String response) {
         Type listType = new TypeToken<List<AssignableUserResponse>>() {
         }.getType();
 
@@ -110,48 +227,37 @@ public class JiraApi extends BaseApi {
         return customFieldResponse.values();
     }
 
-    private FetchJiraIssuesResponse fetchIssuesByJql(Integer startAt, Integer maxResults, String jql) throws IOException {
+    private FetchJiraIssuesResponse fetchIssuesByJql(String projectName, Integer startAt, Integer maxResults,
+                                                     String jql) throws IOException {
 
         Map<String, Object> params = new HashMap<>();
         params.put("jql", jql);
         params.put("startAt", startAt);
         params.put("maxResults", maxResults);
+        if (expandRenderedFields) {
+            params.put("expand", "renderedFields");
+        }
+
+        var projection = searchProjections.get(projectName);
+        var searchGson = allCustomFieldsGson;
+        if (projection != null) {
+            params.put("fields", projection.fields());
+            searchGson = projection.gson();
+        }
+
+        if (isStreamingResponses()) {
+            return sendHttpGetJson(uri(JIRA_SEARCH_ISSUES_ENDPOINT, params), FetchJiraIssuesResponse.class, searchGson);
+        }
 
         var response = sendHttpGet(
                 uri(JIRA_SEARCH_ISSUES_ENDPOINT, params)
         );
 
-
-        var jiraIssues = gson.fromJson(response, FetchJiraIssuesResponse.class);
-        return extractCustomFieldsFromResponse(response, jiraIssues);
+        return searchGson.fromJson(response, FetchJiraIssuesResponse.class);
 
     }
 
-    public FetchJiraIssuesResponse extractCustomFieldsFromResponse(String jiraIssuesPayloadResponse, FetchJiraIssuesResponse jiraIssues){
-
-        Map<String, Map<String, Object>> issuesCustomField = new HashMap<>();
-        Map<String, Object> payloadMap = gson.fromJson(jiraIssuesPayloadResponse, Map.class);
-        var issues = (List<Map<String, Object>>) payloadMap.get("issues");
-
-        for(var issueMap: issues){
-            var issueId = (String) issueMap.get("id");
-            var fields = (Map<String, Object>) issueMap.get("fields");
-
-            fields.entrySet().stream()
-                    .filter(entry -> entry.getKey().startsWith("customfield_"))
-                    .forEach(entry -> issuesCustomField.computeIfAbsent(issueId, k -> new HashMap<>())
-                            .put(entry.getKey(), entry.getValue()));
-
-        }
-
-        jiraIssues.issues().forEach(issue -> {
-            var issueCustomField = issuesCustomField.get(issue.id());
-            if(issueCustomField != null)
-                issue.fields().customFields.putAll(issueCustomField);
-
-        });
-
-        return jiraIssues;
+    private record SearchProjection(Gson gson, String fields) {
     }
 
 }
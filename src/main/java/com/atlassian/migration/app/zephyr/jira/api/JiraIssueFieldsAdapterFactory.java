@@ -0,0 +1,134 @@
+package com.atlassian.migration.app.zephyr.jira.api;
+
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssueFieldResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the {@code fields} of a Jira issue in a single pass, binding the known fields as Gson would and collecting
+ * the {@code customfield_*} entries into {@link JiraIssueFieldResponse#customFields}. When given the ids of the
+ * custom fields to keep, the values of the others are skipped while parsing rather than built and thrown away.
+ */
+public class JiraIssueFieldsAdapterFactory implements TypeAdapterFactory {
+
+    private static final String CUSTOM_FIELD_PREFIX = "customfield_";
+
+    private final Set<String> customFieldIds;
+
+    /**
+     * @param customFieldIds the custom fields to keep, or null to keep them all
+     */
+    public JiraIssueFieldsAdapterFactory(Set<String> customFieldIds) {
+        this.customFieldIds = customFieldIds == null ? null : Set.copyOf(customFieldIds);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != JiraIssueFieldResponse.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new FieldsAdapter(gson);
+    }
+
+    private class FieldsAdapter extends TypeAdapter<JiraIssueFieldResponse> {
+
+        private final Map<String, Binding> bindings = new LinkedHashMap<>();
+        private final TypeAdapter<Object> customFieldAdapter;
+
+        private FieldsAdapter(Gson gson) {
+            for (var field : JiraIssueFieldResponse.class.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    bindings.put(field.getName(), new Binding(field, gson.getAdapter(TypeToken.get(field.getGenericType()))));
+                }
+            }
+            this.customFieldAdapter = gson.getAdapter(Object.class);
+        }
+
+        @Override
+        public JiraIssueFieldResponse read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            var fields = new JiraIssueFieldResponse();
+            Map<String, Object> customFields = new HashMap<>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                var name = in.nextName();
+                if (name.startsWith(CUSTOM_FIELD_PREFIX)) {
+                    if (customFieldIds == null || customFieldIds.contains(name)) {
+                        customFields.put(name, customFieldAdapter.read(in));
+                    } else {
+                        in.skipValue();
+                    }
+                    continue;
+                }
+                var binding = bindings.get(name);
+                if (binding == null) {
+                    in.skipValue();
+                    continue;
+                }
+                binding.set(fields, binding.adapter().read(in));
+            }
+            in.endObject();
+
+            if (fields.customFields == null) {
+                fields.customFields = new HashMap<>();
+            }
+            fields.customFields.putAll(customFields);
+            return fields;
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraIssueFieldResponse fields) throws IOException {
+            if (fields == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            for (var binding : bindings.values()) {
+                out.name(binding.field().getName());
+                binding.write(out, fields);
+            }
+            out.endObject();
+        }
+    }
+
+    private record Binding(Field field, TypeAdapter<?> adapter) {
+
+        private void set(JiraIssueFieldResponse fields, Object value) {
+            try {
+                field.set(fields, value);
+            } catch (IllegalAccessException e) {
+                throw new JsonIOException("Unable to set " + field.getName(), e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void write(JsonWriter out, JiraIssueFieldResponse fields) throws IOException {
+            try {
+                ((TypeAdapter<Object>) adapter).write(out, field.get(fields));
+            } catch (IllegalAccessException e) {
+                throw new JsonIOException("Unable to read " + field.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.atlassian.migration.app.zephyr.jira.api;
+
+import com.atlassian.migration.app.zephyr.jira.model.Attachment;
+import com.atlassian.migration.app.zephyr.jira.model.Author;
+import com.atlassian.migration.app.zephyr.jira.model.FetchJiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraCreatorResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssueFieldResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuePriority;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssueStatusResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssueTypeResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraRenderedFieldsResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraReporterResponse;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextBoolean;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextInt;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextString;
+
+/**
+ * Hand-written adapters for the Jira records read with every issue: the search page, the issue and the small
+ * objects of its fields. They bind each property by name without reflection and skip the ones the model doesn't
+ * have, like {@code self} or {@code iconUrl}, without building them. The {@code fields} themselves are left to
+ * {@link JiraIssueFieldsAdapterFactory} or Gson.
+ */
+public class JiraModelAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        var rawType = type.getRawType();
+        TypeAdapter<?> adapter;
+        if (rawType == FetchJiraIssuesResponse.class) {
+            adapter = new SearchPageAdapter(gson.getAdapter(new TypeToken<List<JiraIssuesResponse>>() {
+            }));
+        } else if (rawType == JiraIssuesResponse.class) {
+            adapter = new IssueAdapter(gson.getAdapter(JiraIssueFieldResponse.class),
+                    gson.getAdapter(JiraRenderedFieldsResponse.class));
+        } else if (rawType == JiraRenderedFieldsResponse.class) {
+            adapter = new RenderedFieldsAdapter();
+        } else if (rawType == JiraIssueTypeResponse.class) {
+            adapter = new IssueTypeAdapter();
+        } else if (rawType == JiraIssueStatusResponse.class) {
+            adapter = new IssueStatusAdapter();
+        } else if (rawType == JiraIssuePriority.class) {
+            adapter = new IssuePriorityAdapter();
+        } else if (rawType == JiraReporterResponse.class) {
+            adapter = new ReporterAdapter();
+        } else if (rawType == JiraCreatorResponse.class) {
+            adapter = new CreatorAdapter();
+        } else if (rawType == Attachment.class) {
+            adapter = new AttachmentAdapter(gson.getAdapter(Author.class));
+        } else if (rawType == Author.class) {
+            adapter = new AuthorAdapter();
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    private static class SearchPageAdapter extends TypeAdapter<FetchJiraIssuesResponse> {
+
+        private final TypeAdapter<List<JiraIssuesResponse>> issuesAdapter;
+
+        private SearchPageAdapter(TypeAdapter<List<JiraIssuesResponse>> issuesAdapter) {
+            this.issuesAdapter = issuesAdapter;
+        }
+
+        @Override
+        public FetchJiraIssuesResponse read(JsonReader in) throws IOException {
+            int startAt = 0;
+            int total = 0;
+            List<JiraIssuesResponse> issues = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startAt" -> startAt = nextInt(in);
+                    case "total" -> total = nextInt(in);
+                    case "issues" -> issues = issuesAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FetchJiraIssuesResponse(startAt, total, issues);
+        }
+
+        @Override
+        public void write(JsonWriter out, FetchJiraIssuesResponse page) throws IOException {
+            out.beginObject();
+            out.name("startAt").value(page.startAt());
+            out.name("total").value(page.total());
+            out.name("issues");
+            issuesAdapter.write(out, page.issues());
+            out.endObject();
+        }
+    }
+
+    private static class IssueAdapter extends TypeAdapter<JiraIssuesResponse> {
+
+        private final TypeAdapter<JiraIssueFieldResponse> fieldsAdapter;
+        private final TypeAdapter<JiraRenderedFieldsResponse> renderedFieldsAdapter;
+
+        private IssueAdapter(TypeAdapter<JiraIssueFieldResponse> fieldsAdapter,
+                             TypeAdapter<JiraRenderedFieldsResponse> renderedFieldsAdapter) {
+            this.fieldsAdapter = fieldsAdapter;
+            this.renderedFieldsAdapter = renderedFieldsAdapter;
+        }
+
+        @Override
+        public JiraIssuesResponse read(JsonReader in) throws IOException {
+            String id = null;
+            String key = null;
+            JiraIssueFieldResponse fields = null;
+            JiraRenderedFieldsResponse renderedFields = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "key" -> key = nextString(in);
+                    case "fields" -> fields = fieldsAdapter.read(in);
+                    case "renderedFields" -> renderedFields = renderedFieldsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new JiraIssuesResponse(id, key, fields, renderedFields);
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraIssuesResponse issue) throws IOException {
+            out.beginObject();
+            out.name("id").value(issue.id());
+            out.name("key").value(issue.key());
+            out.name("fields");
+            fieldsAdapter.write(out, issue.fields());
+            out.name("renderedFields");
+            renderedFieldsAdapter.write(out, issue.renderedFields());
+            out.endObject();
+        }
+    }
+
+    //only the description is read from the HTML of the fields, the other rendered fields are skipped
+    private static class RenderedFieldsAdapter extends TypeAdapter<JiraRenderedFieldsResponse> {
+
+        @Override
+        public JiraRenderedFieldsResponse read(JsonReader in) throws IOException {
+            String description = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("description")) {
+                    description = nextString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new JiraRenderedFieldsResponse(description);
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraRenderedFieldsResponse renderedFields) throws IOException {
+            out.beginObject();
+            out.name("description").value(renderedFields.description());
+            out.endObject();
+        }
+    }
+
+    private static class IssueTypeAdapter extends TypeAdapter<JiraIssueTypeResponse> {
+
+        @Override
+        public JiraIssueTypeResponse read(JsonReader in) throws IOException {
+            int id = 0;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "name" -> name = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new JiraIssueTypeResponse(id, name);
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraIssueTypeResponse issueType) throws IOException {
+            out.beginObject();
+            out.name("id").value(issueType.id());
+            out.name("name").value(issueType.name());
+            out.endObject();
+        }
+    }
+
+    private static class IssueStatusAdapter extends TypeAdapter<JiraIssueStatusResponse> {
+
+        @Override
+        public JiraIssueStatusResponse read(JsonReader in) throws IOException {
+            String id = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "name" -> name = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new JiraIssueStatusResponse(id, name);
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraIssueStatusResponse status) throws IOException {
+            out.beginObject();
+            out.name("id").value(status.id());
+            out.name("name").value(status.name());
+            out.endObject();
+        }
+    }
+
+    private static class IssuePriorityAdapter extends TypeAdapter<JiraIssuePriority> {
+
+        @Override
+        public JiraIssuePriority read(JsonReader in) throws IOException {
+            int id = 0;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "name" -> name = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new JiraIssuePriority(id, name);
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraIssuePriority priority) throws IOException {
+            out.beginObject();
+            out.name("id").value(priority.id());
+            out.name("name").value(priority.name());
+            out.endObject();
+        }
+    }
+
+    private static class ReporterAdapter extends TypeAdapter<JiraReporterResponse> {
+
+        @Override
+        public JiraReporterResponse read(JsonReader in) throws IOException {
+            var user = UserFields.read(in);
+            return new JiraReporterResponse(user.id(), user.key(), user.name());
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraReporterResponse reporter) throws IOException {
+            new UserFields(reporter.id(), reporter.key(), reporter.name()).write(out);
+        }
+    }
+
+    private static class CreatorAdapter extends TypeAdapter<JiraCreatorResponse> {
+
+        @Override
+        public JiraCreatorResponse read(JsonReader in) throws IOException {
+            var user = UserFields.read(in);
+            return new JiraCreatorResponse(user.id(), user.key(), user.name());
+        }
+
+        @Override
+        public void write(JsonWriter out, JiraCreatorResponse creator) throws IOException {
+            new UserFields(creator.id(), creator.key(), creator.name()).write(out);
+        }
+    }
+
+    //the reporter and the creator are the same Jira user object
+    private record UserFields(int id, String key, String name) {
+
+        private static UserFields read(JsonReader in) throws IOException {
+            int id = 0;
+            String key = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "key" -> key = nextString(in);
+                    case "name" -> name = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserFields(id, key, name);
+        }
+
+        private void write(JsonWriter out) throws IOException {
+            out.beginObject();
+            out.name("id").value(id);
+            out.name("key").value(key);
+            out.name("name").value(name);
+            out.endObject();
+        }
+    }
+
+    private static class AttachmentAdapter extends TypeAdapter<Attachment> {
+
+        private final TypeAdapter<Author> authorAdapter;
+
+        private AttachmentAdapter(TypeAdapter<Author> authorAdapter) {
+            this.authorAdapter = authorAdapter;
+        }
+
+        @Override
+        public Attachment read(JsonReader in) throws IOException {
+            String self = null;
+            String id = null;
+            String filename = null;
+            Author author = null;
+            String created = null;
+            String size = null;
+            String mimetype = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "self" -> self = nextString(in);
+                    case "id" -> id = nextString(in);
+                    case "filename" -> filename = nextString(in);
+                    case "author" -> author = authorAdapter.read(in);
+                    case "created" -> created = nextString(in);
+                    case "size" -> size = nextString(in);
+                    case "mimetype" -> mimetype = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Attachment(self, id, filename, author, created, size, mimetype);
+        }
+
+        @Override
+        public void write(JsonWriter out, Attachment attachment) throws IOException {
+            out.beginObject();
+            out.name("self").value(attachment.self());
+            out.name("id").value(attachment.id());
+            out.name("filename").value(attachment.filename());
+            out.name("author");
+            authorAdapter.write(out, attachment.author());
+            out.name("created").value(attachment.created());
+            out.name("size").value(attachment.size());
+            out.name("mimetype").value(attachment.mimetype());
+            out.endObject();
+        }
+    }
+
+    private static class AuthorAdapter extends TypeAdapter<Author> {
+
+        @Override
+        public Author read(JsonReader in) throws IOException {
+            String self = null;
+            String name = null;
+            String key = null;
+            String emailAddress = null;
+            String displayName = null;
+            boolean active = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "self" -> self = nextString(in);
+                    case "name" -> name = nextString(in);
+                    case "key" -> key = nextString(in);
+                    case "emailAddress" -> emailAddress = nextString(in);
+                    case "displayName" -> displayName = nextString(in);
+                    case "active" -> active = nextBoolean(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Author(self, name, key, emailAddress, displayName, active);
+        }
+
+        @Override
+        public void write(JsonWriter out, Author author) throws IOException {
+            out.beginObject();
+            out.name("self").value(author.self());
+            out.name("name").value(author.name());
+            out.name("key").value(author.key());
+            out.name("emailAddress").value(author.emailAddress());
+            out.name("displayName").value(author.displayName());
+            out.name("active").value(author.active());
+            out.endObject();
+        }
+    }
+}
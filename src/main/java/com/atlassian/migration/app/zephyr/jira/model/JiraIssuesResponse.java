@@ -3,5 +3,11 @@ package com.atlassian.migration.app.zephyr.jira.model;
 public record JiraIssuesResponse(
     String id,
     String key,
-    JiraIssueFieldResponse fields
-) { }
\ No newline at end of file
+    JiraIssueFieldResponse fields,
+    JiraRenderedFieldsResponse renderedFields
+) {
+
+    public JiraIssuesResponse(String id, String key, JiraIssueFieldResponse fields) {
+        this(id, key, fields, null);
+    }
+}
@@ -0,0 +1,5 @@
+package com.atlassian.migration.app.zephyr.jira.model;
+
+public record JiraRenderedFieldsResponse(
+        String description
+) { }
@@ -10,9 +10,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -28,7 +28,7 @@ public class AttachmentsCopier {
     private static final String FILES_FULL_PERMISSION = "rwxrwxrwx";
     private final String DESTINATION_DIR_PATH;
     private final String baseDir;
-    private final Map<String, ProjectHistoricalKeys> projectHistoricalKeysMap = new HashMap<>();
+    private final Map<String, ProjectHistoricalKeys> projectHistoricalKeysMap = new ConcurrentHashMap<>();
     private static final Logger logger = LoggerFactory.getLogger(AttachmentsCopier.class);
 
     public AttachmentsCopier(String baseDir) {
@@ -27,7 +27,7 @@ public class AttachmentsCsvExporter {
 
     }
 
-    public void dump(List<AttachmentAssociationData> attachmentAssociationData, String[] headers, String[] headerMapping)
+    public synchronized void dump(List<AttachmentAssociationData> attachmentAssociationData, String[] headers, String[] headerMapping)
             throws URISyntaxException, IOException {
 
         if (destinationPath == null) {
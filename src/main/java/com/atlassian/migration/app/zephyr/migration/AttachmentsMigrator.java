@@ -20,10 +20,10 @@ import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -42,7 +42,7 @@ public class AttachmentsMigrator {
 
     private final AttachmentsCopier attachmentsCopier;
 
-    private final Map<String, GetProjectResponse> projectMetadata = new HashMap<>();
+    private final Map<String, GetProjectResponse> projectMetadata = new ConcurrentHashMap<>();
 
     private static final String[] csvHeader = {"FILE_NAME", "FILE_SIZE", "NAME", "PROJECT_ID", "USER_KEY", "TEMPORARY",
             "CREATED_ON", "MIME_TYPE", "TEST_CASE_ID", "STEP_ID", "TEST_RESULT_ID", "TEST_SCRIPT_RESULT_ID"};
@@ -0,0 +1,113 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleEntitiesMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs the post migration of a project page by page instead of once at the end: every migrated page is handed
+ * over as a delta and exported by a background thread while the following pages are still being migrated, so
+ * copying attachments and writing the mapping CSV files overlap with the API calls.
+ * <p>
+ * Pages are exported one at a time, in the order they were submitted. At most {@code queueCapacity} pages wait
+ * for their export; submitting more blocks until one is done. The first failed export stops the exporter and is
+ * rethrown by the next {@link #submit} or by {@link #awaitCompletion}.
+ */
+public class IncrementalPostMigrationExporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalPostMigrationExporter.class);
+    private static final SquadToScaleEntitiesMap END_OF_PAGES = new SquadToScaleEntitiesMap(null, null, null, null);
+
+    private final String projectKey;
+    private final PageExport pageExport;
+    private final BlockingQueue<SquadToScaleEntitiesMap> pendingPages;
+    private final Thread exportThread;
+
+    private volatile IOException failure;
+    private boolean completed = false;
+
+    public IncrementalPostMigrationExporter(String projectKey, int queueCapacity, PageExport pageExport) {
+        this.projectKey = projectKey;
+        this.pageExport = pageExport;
+        this.pendingPages = new ArrayBlockingQueue<>(queueCapacity);
+        this.exportThread = new Thread(this::exportAllPages, "post-migration-export-" + projectKey);
+        this.exportThread.setDaemon(true);
+        this.exportThread.start();
+    }
+
+    public void submit(SquadToScaleEntitiesMap pageEntities) throws IOException {
+        throwIfFailed();
+        try {
+            pendingPages.put(pageEntities);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while handing a page over to the post migration of " + projectKey, e);
+        }
+    }
+
+    /**
+     * Waits until every submitted page has been exported.
+     */
+    public void awaitCompletion() throws IOException {
+        if (!completed) {
+            completed = true;
+            try {
+                pendingPages.put(END_OF_PAGES);
+                exportThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the post migration of " + projectKey, e);
+            }
+        }
+        throwIfFailed();
+    }
+
+    @Override
+    public void close() {
+        exportThread.interrupt();
+    }
+
+    private void throwIfFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("Post migration of " + projectKey + " failed", failure);
+        }
+    }
+
+    private void exportAllPages() {
+        try {
+            while (true) {
+                var pageEntities = pendingPages.take();
+                if (pageEntities == END_OF_PAGES) {
+                    return;
+                }
+                pageExport.export(pageEntities);
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Post migration export for project " + projectKey + " stopped.");
+        } catch (IOException | RuntimeException e) {
+            failure = e instanceof IOException ioException ? ioException : new IOException(e);
+            //drains what is left so the migration thread is never blocked on a full queue
+            pendingPages.clear();
+            drainUntilEnd();
+        }
+    }
+
+    private void drainUntilEnd() {
+        try {
+            while (pendingPages.take() != END_OF_PAGES) {
+                logger.debug("Skipping post migration of a page of " + projectKey + " after a failed export.");
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Post migration export for project " + projectKey + " stopped.");
+        }
+    }
+
+    @FunctionalInterface
+    public interface PageExport {
+        void export(SquadToScaleEntitiesMap pageEntities) throws IOException;
+    }
+}
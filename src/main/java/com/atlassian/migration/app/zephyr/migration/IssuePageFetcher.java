@@ -0,0 +1,177 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Iterates over the Jira search pages of a project's Test issues.
+ * <p>
+ * With a prefetch depth of zero, every page is fetched on the caller thread when requested, exactly as before.
+ * With a positive depth, a background thread keeps fetching the following pages while the current one is being
+ * migrated, holding at most {@code prefetchDepth} fetched pages in memory at any time.
+ * <p>
+ * With {@link IssuePagination#KEYSET}, pages are requested by id after the last issue of the previous page rather
+ * than by offset. The first page is fetched up front by {@link #countIssues}, whose total replaces the separate
+ * count request, and the fetcher starts from it. A page shorter than {@code pageSteps} is the last one.
+ */
+public class IssuePageFetcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssuePageFetcher.class);
+
+    private final JiraApi jiraApi;
+    private final String projectKey;
+    private final int total;
+    private final int pageSteps;
+    private final IssuePagination pagination;
+
+    private final BlockingQueue<FetchedPage> prefetchedPages;
+    private final Thread prefetchThread;
+
+    //where the consumer is, and where the fetching is, which runs ahead of it when prefetching
+    private int nextStartAt = 0;
+    private boolean lastPageTaken = false;
+    private int fetchStartAt = 0;
+    private boolean lastPageFetched = false;
+    private String lastSeenId;
+    private List<JiraIssuesResponse> firstKeysetPage;
+
+    public IssuePageFetcher(JiraApi jiraApi, String projectKey, int total, int pageSteps, int prefetchDepth) {
+        this(jiraApi, projectKey, new IssueCount(IssuePagination.OFFSET, total, null), pageSteps, prefetchDepth);
+    }
+
+    public IssuePageFetcher(JiraApi jiraApi, String projectKey, IssueCount issueCount, int pageSteps, int prefetchDepth) {
+        this.jiraApi = jiraApi;
+        this.projectKey = projectKey;
+        this.total = issueCount.total();
+        this.pageSteps = pageSteps;
+        this.pagination = issueCount.pagination();
+        this.firstKeysetPage = issueCount.firstKeysetPage();
+
+        if (prefetchDepth > 0) {
+            this.prefetchedPages = new ArrayBlockingQueue<>(prefetchDepth);
+            this.prefetchThread = new Thread(this::prefetchAllPages, "issue-page-prefetch-" + projectKey);
+            this.prefetchThread.setDaemon(true);
+            this.prefetchThread.start();
+        } else {
+            this.prefetchedPages = null;
+            this.prefetchThread = null;
+        }
+    }
+
+    /**
+     * Counts the Test issues of a project. With keyset pagination the count comes with the first page, which the
+     * fetcher created from the returned count starts from.
+     */
+    public static IssueCount countIssues(JiraApi jiraApi, String projectKey, IssuePagination pagination,
+                                         int pageSteps) throws IOException {
+        if (pagination == IssuePagination.KEYSET) {
+            var firstPage = jiraApi.fetchTestIssuesAfterId(projectKey, null, pageSteps);
+            return new IssueCount(pagination, firstPage.total(), firstPage.issues());
+        }
+        return new IssueCount(pagination, jiraApi.fetchTotalIssuesByProjectName(projectKey), null);
+    }
+
+    public boolean hasNext() {
+        return !lastPageTaken && nextStartAt < total;
+    }
+
+    public IssuePage next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more issue pages for project " + projectKey);
+        }
+
+        IssuePage page = prefetchedPages == null ? fetchNextPage() : takePrefetchedPage();
+        if (pagination == IssuePagination.KEYSET) {
+            nextStartAt += page.issues().size();
+            lastPageTaken = page.issues().size() < pageSteps;
+        } else {
+            nextStartAt += pageSteps;
+        }
+        return page;
+    }
+
+    @Override
+    public void close() {
+        if (prefetchThread != null) {
+            prefetchThread.interrupt();
+        }
+    }
+
+    private IssuePage takePrefetchedPage() throws IOException {
+        try {
+            var fetchedPage = prefetchedPages.take();
+            if (fetchedPage.failure() != null) {
+                throw fetchedPage.failure();
+            }
+            return fetchedPage.page();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for issue page starting at " + nextStartAt, e);
+        }
+    }
+
+    private void prefetchAllPages() {
+        try {
+            while (hasMoreToFetch()) {
+                try {
+                    prefetchedPages.put(new FetchedPage(fetchNextPage(), null));
+                } catch (IOException | RuntimeException e) {
+                    var failure = e instanceof IOException ioException ? ioException : new IOException(e);
+                    prefetchedPages.put(new FetchedPage(null, failure));
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Issue page prefetch for project " + projectKey + " stopped.");
+        }
+    }
+
+    private boolean hasMoreToFetch() {
+        return !lastPageFetched && fetchStartAt < total;
+    }
+
+    //only ever called by one thread at a time: the caller without prefetch, the prefetch thread otherwise
+    private IssuePage fetchNextPage() throws IOException {
+        var startAt = fetchStartAt;
+        List<JiraIssuesResponse> issues;
+        if (pagination == IssuePagination.KEYSET) {
+            if (firstKeysetPage != null) {
+                issues = firstKeysetPage;
+                firstKeysetPage = null;
+            } else {
+                logger.info("Fetching issues after id " + lastSeenId + "...");
+                issues = jiraApi.fetchTestIssuesAfterId(projectKey, lastSeenId, pageSteps).issues();
+            }
+            if (!issues.isEmpty()) {
+                lastSeenId = issues.get(issues.size() - 1).id();
+            }
+            //a short page ends the keyset, even if issues were deleted since the total was counted
+            fetchStartAt += issues.size();
+            lastPageFetched = issues.size() < pageSteps;
+        } else {
+            logger.info("Fetching issues starting at " + startAt + "...");
+            issues = jiraApi.fetchIssuesOrderedByCreatedDate(projectKey, startAt, pageSteps);
+            fetchStartAt += pageSteps;
+        }
+
+        logger.info("Fetched " + issues.size() + " issues.");
+        return new IssuePage(startAt, issues);
+    }
+
+    public record IssuePage(int startAt, List<JiraIssuesResponse> issues) {
+    }
+
+    public record IssueCount(IssuePagination pagination, int total, List<JiraIssuesResponse> firstKeysetPage) {
+    }
+
+    private record FetchedPage(IssuePage page, IOException failure) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum IssuePagination {
+    OFFSET("offset"),
+    KEYSET("keyset");
+
+    private final String issuePaginationName;
+
+    IssuePagination(String value) {
+        this.issuePaginationName = value;
+    }
+
+    public static Optional<IssuePagination> getIssuePaginationByName(String name) {
+        return Arrays.stream(values()).filter(issuePagination -> issuePagination.issuePaginationName.equalsIgnoreCase(name)).findFirst();
+    }
+
+    @Override
+    public String toString() {
+        return issuePaginationName;
+    }
+}
@@ -2,6 +2,10 @@ package com.atlassian.migration.app.zephyr.migration;
 
 import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
 
+/**
+ * Settings of a migration, read from app.properties. The tuning settings are grouped by what they tune, and each
+ * group falls back to its defaults when app.properties leaves them out.
+ */
 public record MigrationConfiguration(
         ApiConfiguration apiConfiguration,
         int pageSteps,
@@ -12,5 +16,296 @@ public record MigrationConfiguration(
         String jiraDateTimeFormat,
         String databaseType,
         Boolean updateDatabaseFieldsPostMigration,
-        String attachmentsBaseFolder) {
+        String attachmentsBaseFolder,
+        String issuePagination,
+        boolean renderedDescriptions,
+        Concurrency concurrency,
+        Journal journal,
+        Http http,
+        Retry retry,
+        Cache cache,
+        Metrics metrics) {
+
+    /**
+     * Pages through the Jira issues by offset.
+     */
+    public static final String DEFAULT_ISSUE_PAGINATION = "offset";
+    /**
+     * Reads the descriptions as stored rather than rendered to HTML.
+     */
+    public static final boolean DEFAULT_RENDERED_DESCRIPTIONS = false;
+
+    public MigrationConfiguration(
+            ApiConfiguration apiConfiguration,
+            int pageSteps,
+            String cycleNamePlaceHolder,
+            String attachmentsMappedCsvFile,
+            String testCaseCSVFile,
+            String testExecutionCSVFile,
+            String jiraDateTimeFormat,
+            String databaseType,
+            Boolean updateDatabaseFieldsPostMigration,
+            String attachmentsBaseFolder) {
+        this(apiConfiguration,
+                pageSteps,
+                cycleNamePlaceHolder,
+                attachmentsMappedCsvFile,
+                testCaseCSVFile,
+                testExecutionCSVFile,
+                jiraDateTimeFormat,
+                databaseType,
+                updateDatabaseFieldsPostMigration,
+                attachmentsBaseFolder,
+                DEFAULT_ISSUE_PAGINATION,
+                DEFAULT_RENDERED_DESCRIPTIONS,
+                Concurrency.defaults(),
+                Journal.defaults(),
+                Http.defaults(),
+                Retry.defaults(),
+                Cache.defaults(),
+                Metrics.defaults());
+    }
+
+    /**
+     * How many pages, test cases and projects are worked on at once, and on which threads.
+     */
+    public record Concurrency(
+            int pagePrefetchDepth,
+            int testCaseCreationThreads,
+            int migrationThreads,
+            String executorType,
+            int projectConcurrency,
+            int extractThreads,
+            int transformThreads,
+            int loadThreads,
+            int stageQueueCapacity,
+            boolean adaptiveConcurrency,
+            int maxConcurrentRequests) {
+
+        /**
+         * Fetches the next page only once the current one is migrated.
+         */
+        public static final int DEFAULT_PAGE_PREFETCH_DEPTH = 0;
+        /**
+         * Creates the test cases of a page one after the other.
+         */
+        public static final int DEFAULT_TEST_CASE_CREATION_THREADS = 1;
+        /**
+         * Migrates the test cases of a page one after the other.
+         */
+        public static final int DEFAULT_MIGRATION_THREADS = 1;
+        /**
+         * Runs the tasks on platform threads.
+         */
+        public static final String DEFAULT_EXECUTOR_TYPE = "platform";
+        /**
+         * Migrates the projects one after the other.
+         */
+        public static final int DEFAULT_PROJECT_CONCURRENCY = 1;
+        /**
+         * Extracts on as many threads as migrationThreads.
+         */
+        public static final int DEFAULT_EXTRACT_THREADS = 0;
+        /**
+         * Transforms on as many threads as migrationThreads.
+         */
+        public static final int DEFAULT_TRANSFORM_THREADS = 0;
+        /**
+         * Loads on as many threads as migrationThreads.
+         */
+        public static final int DEFAULT_LOAD_THREADS = 0;
+        /**
+         * Test cases waiting between two stages of the pipeline.
+         */
+        public static final int DEFAULT_STAGE_QUEUE_CAPACITY = 16;
+        /**
+         * Sends every request as soon as it is made.
+         */
+        public static final boolean DEFAULT_ADAPTIVE_CONCURRENCY = false;
+        /**
+         * Requests in flight per API once the adaptive concurrency has grown to its limit.
+         */
+        public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 32;
+
+        public static Concurrency defaults() {
+            return new Concurrency(DEFAULT_PAGE_PREFETCH_DEPTH, DEFAULT_TEST_CASE_CREATION_THREADS,
+                    DEFAULT_MIGRATION_THREADS, DEFAULT_EXECUTOR_TYPE, DEFAULT_PROJECT_CONCURRENCY,
+                    DEFAULT_EXTRACT_THREADS, DEFAULT_TRANSFORM_THREADS, DEFAULT_LOAD_THREADS,
+                    DEFAULT_STAGE_QUEUE_CAPACITY, DEFAULT_ADAPTIVE_CONCURRENCY, DEFAULT_MAX_CONCURRENT_REQUESTS);
+        }
+    }
+
+    /**
+     * Where the progress of a migration is kept, so an interrupted one can be resumed.
+     */
+    public record Journal(
+            String directory,
+            boolean resume,
+            String entityMapBackend,
+            String entityMapSpillDirectory,
+            boolean incrementalPostMigration) {
+
+        /**
+         * Keeps no journal.
+         */
+        public static final String DEFAULT_DIRECTORY = "";
+        /**
+         * Starts a new migration.
+         */
+        public static final boolean DEFAULT_RESUME = false;
+        /**
+         * Keeps the migrated entities on the heap.
+         */
+        public static final String DEFAULT_ENTITY_MAP_BACKEND = "heap";
+        /**
+         * Keeps the memory-mapped entity files in the system temporary folder.
+         */
+        public static final String DEFAULT_ENTITY_MAP_SPILL_DIRECTORY = "";
+        /**
+         * Copies the attachments and exports the mappings once at the end of each project.
+         */
+        public static final boolean DEFAULT_INCREMENTAL_POST_MIGRATION = false;
+
+        public static Journal defaults() {
+            return new Journal(DEFAULT_DIRECTORY, DEFAULT_RESUME, DEFAULT_ENTITY_MAP_BACKEND,
+                    DEFAULT_ENTITY_MAP_SPILL_DIRECTORY, DEFAULT_INCREMENTAL_POST_MIGRATION);
+        }
+    }
+
+    /**
+     * The HTTP transport shared by the APIs and how the requests are authenticated and encoded.
+     */
+    public record Http(
+            String authentication,
+            int executorThreads,
+            int maxConnections,
+            int maxStreams,
+            long keepAliveSeconds,
+            long connectTimeoutSeconds,
+            long requestTimeoutSeconds,
+            boolean streamingResponses,
+            String compressedResponses,
+            boolean compressScaleRequests,
+            long cassetteLatencyMillis) {
+
+        /**
+         * Sends the username and password with every request.
+         */
+        public static final String DEFAULT_AUTHENTICATION = "basic";
+        /**
+         * Threads of the executor handling the responses of every exchange.
+         */
+        public static final int DEFAULT_EXECUTOR_THREADS = 8;
+        /**
+         * Connections to the host over HTTP/1.1, in use or kept idle.
+         */
+        public static final int DEFAULT_MAX_CONNECTIONS = 32;
+        /**
+         * Streams in flight over HTTP/2.
+         */
+        public static final int DEFAULT_MAX_STREAMS = 100;
+        /**
+         * How long an idle connection is kept open.
+         */
+        public static final long DEFAULT_KEEP_ALIVE_SECONDS = 30;
+        /**
+         * How long to wait for a connection to the host.
+         */
+        public static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+        /**
+         * How long a request waits for the server to answer, 0 waits as long as it takes.
+         */
+        public static final long DEFAULT_REQUEST_TIMEOUT_SECONDS = 300;
+        /**
+         * Copies each response into memory before parsing it.
+         */
+        public static final boolean DEFAULT_STREAMING_RESPONSES = false;
+        /**
+         * Asks every API for uncompressed responses, as BaseApi does.
+         */
+        public static final String DEFAULT_COMPRESSED_RESPONSES = "";
+        /**
+         * Sends the Scale request bodies uncompressed.
+         */
+        public static final boolean DEFAULT_COMPRESS_SCALE_REQUESTS = false;
+        /**
+         * Answers a replayed request right away.
+         */
+        public static final long DEFAULT_CASSETTE_LATENCY_MILLIS = 0;
+
+        public static Http defaults() {
+            return new Http(DEFAULT_AUTHENTICATION, DEFAULT_EXECUTOR_THREADS, DEFAULT_MAX_CONNECTIONS,
+                    DEFAULT_MAX_STREAMS, DEFAULT_KEEP_ALIVE_SECONDS, DEFAULT_CONNECT_TIMEOUT_SECONDS,
+                    DEFAULT_REQUEST_TIMEOUT_SECONDS, DEFAULT_STREAMING_RESPONSES, DEFAULT_COMPRESSED_RESPONSES,
+                    DEFAULT_COMPRESS_SCALE_REQUESTS, DEFAULT_CASSETTE_LATENCY_MILLIS);
+        }
+    }
+
+    /**
+     * How a request failing with a transient error is sent again.
+     */
+    public record Retry(
+            int maxAttempts,
+            int baseDelayMillis,
+            String endpoints) {
+
+        /**
+         * Attempts of a request, the first one included.
+         */
+        public static final int DEFAULT_MAX_ATTEMPTS = 3;
+        /**
+         * Shortest wait before a retry.
+         */
+        public static final int DEFAULT_BASE_DELAY_MILLIS = 1000;
+        /**
+         * Gives no endpoint attempts of its own.
+         */
+        public static final String DEFAULT_ENDPOINTS = "";
+
+        public static Retry defaults() {
+            return new Retry(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_ENDPOINTS);
+        }
+    }
+
+    /**
+     * The cache of the Jira responses read more than once.
+     */
+    public record Cache(
+            int entries,
+            long ttlSeconds) {
+
+        /**
+         * Jira reads kept at most, 0 disables the cache.
+         */
+        public static final int DEFAULT_ENTRIES = 2000;
+        /**
+         * How long a cached Jira read is reused before it is read again.
+         */
+        public static final long DEFAULT_TTL_SECONDS = 300;
+
+        public static Cache defaults() {
+            return new Cache(DEFAULT_ENTRIES, DEFAULT_TTL_SECONDS);
+        }
+    }
+
+    /**
+     * Where and how often the request metrics are written.
+     */
+    public record Metrics(
+            String directory,
+            long intervalSeconds) {
+
+        /**
+         * Writes the metrics to the metrics folder, blank writes none.
+         */
+        public static final String DEFAULT_DIRECTORY = "metrics";
+        /**
+         * How often the metrics are written during the migration.
+         */
+        public static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+        public static Metrics defaults() {
+            return new Metrics(DEFAULT_DIRECTORY, DEFAULT_INTERVAL_SECONDS);
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleTestCaseMap;
+import com.atlassian.migration.app.zephyr.migration.service.ScaleCycleService;
+import com.atlassian.migration.app.zephyr.migration.service.ScaleTestExecutionPayloadFacade;
+import com.atlassian.migration.app.zephyr.migration.service.StagedPipeline;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleCustomFieldResponse;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleMigrationTestCasePriorityPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleMigrationTestCaseStatusPayload;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionStatusResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionTypeResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds everything learned or created while migrating a single project: the Scale statuses and priorities known
+ * for it, the Squad execution statuses, the custom fields to migrate, the Scale cycles created and the users
+ * already validated.
+ * <p>
+ * Each project gets its own context, so projects migrated at the same time never see each other's state and
+ * nothing has to be reset between projects. The collections are thread-safe because the test cases of a page
+ * are migrated concurrently. Closing the context closes the project journal and stops the threads of the test case
+ * migration stages, which are kept for the whole project.
+ */
+public class ProjectMigrationContext implements Closeable {
+
+    private final String projectKey;
+    private final MigrationJournal journal;
+    private final Set<String> testCaseStatuses = ConcurrentHashMap.newKeySet();
+    private final Set<String> testCasePriorities = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, SquadExecutionTypeResponse> executionTypes = new ConcurrentHashMap<>(SquadApi.EXECUTION_TYPES);
+    private final Map<Integer, SquadExecutionTypeResponse> stepExecutionTypes = new ConcurrentHashMap<>(SquadApi.STEP_EXECUTION_TYPES);
+    private final List<String> executionCustomFieldNames = new CopyOnWriteArrayList<>();
+    private final Map<String, ScaleCustomFieldResponse> testCaseCustomFields = new ConcurrentHashMap<>();
+    private final Map<String, ScaleCustomFieldResponse> testStepCustomFields = new ConcurrentHashMap<>();
+    private final ScaleCycleService scaleCycleService;
+    private final ScaleTestExecutionPayloadFacade scaleTestExecutionPayloadFacade;
+    private StagedPipeline<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>,
+            SquadToScaleMigrator.TestCaseMigrationResult> testCaseMigration;
+
+    public ProjectMigrationContext(String projectKey, MigrationJournal journal, ScaleCycleService scaleCycleService,
+                                   ScaleTestExecutionPayloadFacade scaleTestExecutionPayloadFacade) {
+        this.projectKey = projectKey;
+        this.journal = journal;
+        this.scaleCycleService = scaleCycleService;
+        this.scaleTestExecutionPayloadFacade = scaleTestExecutionPayloadFacade;
+        testCaseStatuses.addAll(ScaleMigrationTestCaseStatusPayload.MIGRATION_TESTCASE_STATUSES);
+        testCasePriorities.addAll(ScaleMigrationTestCasePriorityPayload.MIGRATION_TESTCASE_PRIORITIES);
+    }
+
+    public String projectKey() {
+        return projectKey;
+    }
+
+    public MigrationJournal journal() {
+        return journal;
+    }
+
+    public Set<String> testCaseStatuses() {
+        return testCaseStatuses;
+    }
+
+    public Set<String> testCasePriorities() {
+        return testCasePriorities;
+    }
+
+    public Map<Integer, SquadExecutionTypeResponse> executionTypes() {
+        return executionTypes;
+    }
+
+    public Map<Integer, SquadExecutionTypeResponse> stepExecutionTypes() {
+        return stepExecutionTypes;
+    }
+
+    public List<String> executionCustomFieldNames() {
+        return executionCustomFieldNames;
+    }
+
+    public Map<String, ScaleCustomFieldResponse> testCaseCustomFields() {
+        return testCaseCustomFields;
+    }
+
+    public Map<String, ScaleCustomFieldResponse> testStepCustomFields() {
+        return testStepCustomFields;
+    }
+
+    public ScaleCycleService scaleCycleService() {
+        return scaleCycleService;
+    }
+
+    public ScaleTestExecutionPayloadFacade scaleTestExecutionPayloadFacade() {
+        return scaleTestExecutionPayloadFacade;
+    }
+
+    public StagedPipeline<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>,
+            SquadToScaleMigrator.TestCaseMigrationResult> testCaseMigration() {
+        return testCaseMigration;
+    }
+
+    /**
+     * Migrates the steps and executions of the project's test cases through the given stages, whose metrics then
+     * add up over the whole project.
+     */
+    public void migrateTestCasesWith(StagedPipeline<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>,
+            SquadToScaleMigrator.TestCaseMigrationResult> testCaseMigration) {
+        this.testCaseMigration = testCaseMigration;
+    }
+
+    public void registerExecutionStatuses(List<SquadExecutionStatusResponse> allStatuses) {
+        registerStatuses(allStatuses, executionTypes);
+    }
+
+    public void registerExecutionStepStatuses(List<SquadExecutionStatusResponse> allStatuses) {
+        registerStatuses(allStatuses, stepExecutionTypes);
+    }
+
+    private static void registerStatuses(List<SquadExecutionStatusResponse> allStatuses,
+                                         Map<Integer, SquadExecutionTypeResponse> executionTypes) {
+        for (var executionStatusResponse : allStatuses) {
+            int statusId = Integer.parseInt(executionStatusResponse.id());
+            executionTypes.putIfAbsent(statusId, new SquadExecutionTypeResponse(statusId, executionStatusResponse.name()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (testCaseMigration != null) {
+                testCaseMigration.close();
+            }
+        } finally {
+            journal.close();
+        }
+    }
+}
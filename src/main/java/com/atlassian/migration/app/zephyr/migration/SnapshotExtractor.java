@@ -0,0 +1,146 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import com.atlassian.migration.app.zephyr.common.BaseApi;
+import com.atlassian.migration.app.zephyr.common.ProgressBarUtil;
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.migration.service.ParallelTaskRunner;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadExecutionStepParsedResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads from Jira and Squad everything a migration of a project reads, without touching Scale. Run with APIs
+ * recording to a {@link com.atlassian.migration.app.zephyr.common.SnapshotWriter}, it produces the snapshot a
+ * later migration replays instead of calling the source instance again.
+ * <p>
+ * Issue pages are requested exactly like the migration does, so the snapshot only matches runs with the same
+ * {@code batchSize} and {@code issuePagination}. A request the snapshot doesn't hold, like a defect that couldn't be read, still reaches the
+ * server during the replay.
+ */
+public class SnapshotExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotExtractor.class);
+
+    private final JiraApi jiraApi;
+    private final SquadApi squadApi;
+    private final MigrationConfiguration config;
+    private final ParallelTaskRunner issueExtractionRunner;
+    private final IssuePagination issuePagination;
+
+    public SnapshotExtractor(JiraApi jiraApi, SquadApi squadApi, MigrationConfiguration config) {
+        this.jiraApi = jiraApi;
+        this.squadApi = squadApi;
+        this.config = config;
+        var concurrency = config.concurrency();
+        this.issueExtractionRunner = new ParallelTaskRunner("snapshot-extract",
+                concurrency.extractThreads() > 0 ? concurrency.extractThreads() : concurrency.migrationThreads());
+        this.issuePagination = IssuePagination.getIssuePaginationByName(config.issuePagination())
+                .orElse(IssuePagination.OFFSET);
+    }
+
+    public void extractAllProjects() throws IOException {
+        var projects = squadApi.getAllProjects().options();
+        for (var option : projects) {
+            extractProject(jiraApi.getProjectById(option.value()).key());
+        }
+    }
+
+    public void extractProject(String projectKey) throws IOException {
+        logger.info("Extracting project " + projectKey + "...");
+        var issueCount = IssuePageFetcher.countIssues(jiraApi, projectKey, issuePagination, config.pageSteps());
+        var total = issueCount.total();
+        var projectResponse = jiraApi.getProjectByKey(projectKey);
+        if (total == 0) {
+            logger.info("Project doesn't have Squad Objects, skipping it");
+            return;
+        }
+
+        jiraApi.getProject(projectKey);
+        jiraApi.getProjectByKeyWithHistoricalKeys(projectKey);
+        squadApi.fetchLatestTestExecutionStatuses();
+        squadApi.fetchLatestTestStepExecutionStatuses();
+
+        var testIssueTypeId = SquadToScaleMigrator.getTestIssueTypeIdFrom(projectResponse.issueTypes());
+        if (testIssueTypeId != null) {
+            jiraApi.getIssueFieldsByIssuetype(projectResponse.id(), testIssueTypeId);
+        }
+        squadApi.fetchSquadCustomFieldResponse("EXECUTION", projectResponse.id());
+        squadApi.fetchSquadCustomFieldResponse("TESTSTEP", projectResponse.id());
+
+        Set<String> lookedUpUsers = ConcurrentHashMap.newKeySet();
+        long startTimeMillis = System.currentTimeMillis();
+
+        try (var pageFetcher = new IssuePageFetcher(jiraApi, projectKey, issueCount, config.pageSteps(),
+                config.concurrency().pagePrefetchDepth())) {
+            while (pageFetcher.hasNext()) {
+                var page = pageFetcher.next();
+                logger.info("Extract progress: " + ProgressBarUtil.getProgressBar(page.startAt(), total, startTimeMillis));
+
+                issueExtractionRunner.runAll(page.issues(), issue -> {
+                    extractIssue(issue, projectKey, lookedUpUsers);
+                    return issue.id();
+                });
+            }
+        }
+        logger.info("Extract progress: " + ProgressBarUtil.getProgressBar(total, total, startTimeMillis));
+    }
+
+    //every read of an issue is sent at once and awaited together, a few extract threads keep many requests in flight
+    private void extractIssue(JiraIssuesResponse issue, String projectKey, Set<String> lookedUpUsers) throws IOException {
+        List<CompletableFuture<?>> pendingReads = new ArrayList<>();
+        pendingReads.add(squadApi.fetchLatestTestStepByTestCaseIdAsync(issue.id()));
+        pendingReads.add(jiraApi.getIssueAttachmentsByIssueIdAsync(issue.id()));
+        //the migration renders the description only when the search didn't
+        var renderedBySearch = issue.renderedFields() != null && issue.renderedFields().description() != null;
+        if (!renderedBySearch && issue.fields() != null && issue.fields().description != null
+                && !issue.fields().description.isBlank()) {
+            pendingReads.add(jiraApi.convertJiraTextFormattingToHtmlAsync(issue.fields().description));
+        }
+
+        var executions = BaseApi.await(squadApi.fetchLatestExecutionByIssueIdAsync(issue.id(), SquadApi.EXECUTION_TYPES));
+        for (var execution : executions.executions()) {
+            pendingReads.add(squadApi.fetchSquadExecutionCustomFieldValueResponseAsync(execution.id()));
+            pendingReads.add(squadApi.fetchTestExecutionAttachmentByIdAsync(execution.id()));
+            for (var username : new Object[]{execution.executedBy(), execution.assignedToOrStr()}) {
+                if (username != null && !username.toString().isBlank() && lookedUpUsers.add(username.toString())) {
+                    pendingReads.add(jiraApi.fetchAssignableUserByUsernameAndProjectAsync(username.toString(), projectKey));
+                }
+            }
+            pendingReads.add(squadApi.fetchTestExecutionStepByIdAsync(execution.id(), SquadApi.STEP_EXECUTION_TYPES)
+                    .thenCompose(this::extractExecutionSteps));
+        }
+
+        BaseApi.await(CompletableFuture.allOf(pendingReads.toArray(CompletableFuture[]::new)));
+    }
+
+    private CompletableFuture<Void> extractExecutionSteps(FetchSquadExecutionStepParsedResponse executionSteps) {
+        List<CompletableFuture<?>> pendingReads = new ArrayList<>();
+        try {
+            for (var executionStep : executionSteps.executionSteps()) {
+                if (executionStep.attachmentCount() > 0) {
+                    pendingReads.add(squadApi.fetchExecutionStepAttachmentByIdAsync(String.valueOf(executionStep.id())));
+                }
+                for (var defect : executionStep.defects()) {
+                    //the migration skips defects it can't read, so does the extract
+                    pendingReads.add(jiraApi.getIssueByIssueKeyAsync(defect).exceptionally(failure -> {
+                        logger.warn("Unable to read defect " + defect + " of step result " + executionStep.id());
+                        return null;
+                    }));
+                }
+            }
+        } catch (ApiException e) {
+            pendingReads.add(CompletableFuture.failedFuture(e));
+        }
+        return CompletableFuture.allOf(pendingReads.toArray(CompletableFuture[]::new));
+    }
+}
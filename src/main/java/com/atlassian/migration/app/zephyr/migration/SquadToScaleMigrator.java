@@ -1,6 +1,7 @@
 package com.atlassian.migration.app.zephyr.migration;
 
 import com.atlassian.migration.app.zephyr.common.ApiException;
+import com.atlassian.migration.app.zephyr.common.ApiMetrics;
 import com.atlassian.migration.app.zephyr.common.DataSourceFactory;
 import com.atlassian.migration.app.zephyr.common.ProgressBarUtil;
 import com.atlassian.migration.app.zephyr.common.ZephyrApiException;
@@ -11,11 +12,16 @@ import com.atlassian.migration.app.zephyr.jira.model.JiraCustomFieldOptionValue;
 import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
 import com.atlassian.migration.app.zephyr.migration.database.DatabasePostRepository;
 import com.atlassian.migration.app.zephyr.migration.execution.TestExecutionPostMigrator;
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
 import com.atlassian.migration.app.zephyr.migration.model.*;
-import com.atlassian.migration.app.zephyr.migration.service.Resettable;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapBackend;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+import com.atlassian.migration.app.zephyr.migration.service.ExecutorType;
+import com.atlassian.migration.app.zephyr.migration.service.ParallelTaskRunner;
 import com.atlassian.migration.app.zephyr.migration.service.ScaleCycleService;
 import com.atlassian.migration.app.zephyr.migration.service.ScaleTestCasePayloadFacade;
 import com.atlassian.migration.app.zephyr.migration.service.ScaleTestExecutionPayloadFacade;
+import com.atlassian.migration.app.zephyr.migration.service.StagedPipeline;
 import com.atlassian.migration.app.zephyr.migration.testcase.TestCasePostMigrator;
 import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
 import com.atlassian.migration.app.zephyr.scale.database.ScaleTestCaseRepository;
@@ -26,7 +32,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -42,24 +51,29 @@ public class SquadToScaleMigrator {
             "com.atlassian.jira.plugin.system.customfieldtypes:multiselect"
     );
     private static final int SCALE_DEFECT_DEFAULT_TYPE = 3;
+    //pages migrated but not exported yet when the post migration runs page by page
+    private static final int POST_MIGRATION_QUEUE_CAPACITY = 2;
     private final MigrationConfiguration config;
     private final JiraApi jiraApi;
     private final ScaleApi scaleApi;
     private final SquadApi squadApi;
 
-    private final ScaleCycleService scaleCycleService;
-    private final ScaleTestExecutionPayloadFacade scaleTestExecutionPayloadFacade;
-
     private final ScaleTestCasePayloadFacade scaleTestCaseFacade;
 
     private final AttachmentsMigrator attachmentsMigrator;
     private final TestCasePostMigrator testCasePostMigrator;
     private final TestExecutionPostMigrator testExecutionPostMigrator;
-    private final List<Resettable> resettables = new ArrayList<>();
-
-    private List<String> projectExecutionCustomFieldNames = new ArrayList<>();
-    private Map<String, ScaleCustomFieldResponse> projectTestcaseCustomFieldNames = new HashMap();
-    private Map<String, ScaleCustomFieldResponse> projectTestStepCustomFields = new HashMap<>();
+    private final ExecutorType executorType;
+    private final ParallelTaskRunner testCaseCreationRunner;
+    private final int extractThreads;
+    private final int transformThreads;
+    private final int loadThreads;
+    private final ParallelTaskRunner projectMigrationRunner;
+    private final IssuePagination issuePagination;
+    private final EntityMapStorage entityMapStorage;
+    //the database post migration reads the whole mapping CSV files, so projects run it one at a time
+    private final Object databasePostMigrationLock = new Object();
+    private volatile ApiMetrics apiMetrics;
 
     public SquadToScaleMigrator(JiraApi jiraApi, SquadApi squadApi, ScaleApi scaleApi, AttachmentsMigrator attachmentsMigrator,
                                 TestCasePostMigrator testCasePostMigrator,
@@ -69,46 +83,89 @@ public class SquadToScaleMigrator {
         this.scaleApi = scaleApi;
         this.squadApi = squadApi;
         this.config = migConfig;
-
-        this.scaleTestExecutionPayloadFacade = new ScaleTestExecutionPayloadFacade(jiraApi);
-        this.scaleCycleService = new ScaleCycleService(scaleApi, config.cycleNamePlaceHolder());
-
-        resettables.addAll(List.of(scaleCycleService, scaleTestExecutionPayloadFacade));
+        //without a journal a resumed migration would start over and create every entity in Scale again
+        var journalDirectory = config.journal().directory();
+        if (config.journal().resume() && (journalDirectory == null || journalDirectory.isBlank())) {
+            throw new IllegalArgumentException("Resuming a migration needs the journalDirectory it was journaled to.");
+        }
 
         this.scaleTestCaseFacade = new ScaleTestCasePayloadFacade(jiraApi);
         this.attachmentsMigrator = attachmentsMigrator;
         this.testCasePostMigrator = testCasePostMigrator;
         this.testExecutionPostMigrator = testExecutionPostMigrator;
+
+        var concurrency = config.concurrency();
+        var executorType = ExecutorType.getExecutorTypeByName(concurrency.executorType()).orElseGet(() -> {
+            logger.warn("Unknown executor type '" + concurrency.executorType() + "', using " + ExecutorType.PLATFORM + " threads.");
+            return ExecutorType.PLATFORM;
+        });
+        this.executorType = executorType;
+        this.testCaseCreationRunner = new ParallelTaskRunner("testcase-creation", concurrency.testCaseCreationThreads(), executorType);
+        //a stage without its own thread count gets migrationThreads
+        this.extractThreads = concurrency.extractThreads() > 0 ? concurrency.extractThreads() : concurrency.migrationThreads();
+        this.transformThreads = concurrency.transformThreads() > 0 ? concurrency.transformThreads() : concurrency.migrationThreads();
+        this.loadThreads = concurrency.loadThreads() > 0 ? concurrency.loadThreads() : concurrency.migrationThreads();
+        this.projectMigrationRunner = new ParallelTaskRunner("project-migration", concurrency.projectConcurrency(), executorType);
+        this.issuePagination = IssuePagination.getIssuePaginationByName(config.issuePagination()).orElseGet(() -> {
+            logger.warn("Unknown issue pagination '" + config.issuePagination() + "', using " + IssuePagination.OFFSET + ".");
+            return IssuePagination.OFFSET;
+        });
+        this.entityMapStorage = createEntityMapStorage();
+    }
+
+    /**
+     * Writes the API metrics at the end of each project, null to not write them.
+     */
+    public void reportMetricsTo(ApiMetrics apiMetrics) {
+        this.apiMetrics = apiMetrics;
     }
 
+    /**
+     * Migrates every Squad project. A project that fails doesn't stop the others, which are migrated to the end; the
+     * failures are rethrown together once they are done.
+     */
     public void getProjectListAndRunMigration() {
+        Map<String, Exception> failedProjects = new ConcurrentHashMap<>();
         try {
             GetAllProjectsResponse getAllProjectsResponse = squadApi.getAllProjects();
             List<Option> projects = getAllProjectsResponse.options();
-            int projectIndex = 0;
+            var startedProjects = new AtomicInteger();
             long startTimeMillis = System.currentTimeMillis();
 
-            for (Option option : projects) {
-                logger.info("Project progress: " + ProgressBarUtil.getProgressBar(projectIndex++, projects.size(), startTimeMillis));
-                runMigration(jiraApi.getProjectById(option.value()).key());
-                reset();
-            }
+            //every project migrates with its own context, so with projectConcurrency > 1 several run side by side
+            projectMigrationRunner.runAll(projects, option -> {
+                logger.info("Project progress: " + ProgressBarUtil.getProgressBar(startedProjects.getAndIncrement(),
+                        projects.size(), startTimeMillis));
+                try {
+                    runMigration(jiraApi.getProjectById(option.value()).key());
+                } catch (IOException | RuntimeException exception) {
+                    logger.error("Failed to migrate project " + option.value() + ", going on with the other projects.",
+                            exception);
+                    failedProjects.put(option.value(), exception);
+                }
+                return option.value();
+            });
 
             logger.info("Project progress: " + ProgressBarUtil.getProgressBar(projects.size(), projects.size(), startTimeMillis));
         } catch (Exception exception) {
             logger.error("Failed to get project List " + exception.getMessage(), exception);
             throw new RuntimeException(exception);
         }
+
+        if (!failedProjects.isEmpty()) {
+            var failure = new RuntimeException("Failed to migrate projects " + String.join(", ",
+                    new TreeSet<>(failedProjects.keySet())));
+            failedProjects.values().forEach(failure::addSuppressed);
+            logger.error(failure.getMessage());
+            throw failure;
+        }
     }
 
     public void runMigration(String projectKey) {
         try {
             logger.info("Fetching total issues by project key...");
-            var total = jiraApi.fetchTotalIssuesByProjectName(projectKey);
-
-            //resetting the project custom fields.
-            projectExecutionCustomFieldNames = new ArrayList<String>();
-            projectTestStepCustomFields = new HashMap<>();
+            var issueCount = IssuePageFetcher.countIssues(jiraApi, projectKey, issuePagination, config.pageSteps());
+            var total = issueCount.total();
 
             var projectResponse = jiraApi.getProjectByKey(projectKey);
             if (total == 0) {
@@ -123,57 +180,122 @@ public class SquadToScaleMigrator {
             logger.info("Enabling project in Scale...");
             scaleApi.enableProject(new EnableProjectPayload(projectKey, true));
 
-            logger.info("updating priorities & Statuses.");
-            scaleApi.updateTestCasePriorities(projectResponse.id());
-            scaleApi.updateTestCaseStatuses(projectResponse.id());
-
-            logger.info("Creating migration Custom Fields...");
-            createMigrationCustomFields(projectKey, projectResponse.id(), testIssueTypeId);
-
-            logger.info("Creating migration Scale statuses Fields...");
-            createMigrationTestResultsStatuses(projectKey);
-
-            var startAt = 0;
             long startTimeMillis = System.currentTimeMillis();
 
-            SquadToScaleTestCaseMap testCaseMap = new SquadToScaleTestCaseMap();
-            SquadToScaleTestStepMap testStepMap = new SquadToScaleTestStepMap();
-            SquadToScaleTestExecutionMap testExecutionMap = new SquadToScaleTestExecutionMap();
-            SquadToScaleExecutionStepMap executionStepMap = new SquadToScaleExecutionStepMap();
-            SquadToScaleEntitiesMap squadToScaleEntitiesMap = new SquadToScaleEntitiesMap(testCaseMap, testStepMap, testExecutionMap, executionStepMap);
-
-            while (startAt < total) {
-                logger.info("Issue progress: "
-                        + ProgressBarUtil.getProgressBar(startAt, total, startTimeMillis));
+            try (var squadToScaleEntitiesMap = SquadToScaleEntitiesMap.create(entityMapStorage)) {
+                try (var context = createProjectContext(projectKey)) {
+                    logger.info("updating priorities & Statuses.");
+                    scaleApi.updateTestCasePriorities(projectResponse.id(), context.testCasePriorities());
+                    scaleApi.updateTestCaseStatuses(projectResponse.id(), context.testCaseStatuses());
+
+                    logger.info("Creating migration Custom Fields...");
+                    createMigrationCustomFields(context, projectResponse.id(), testIssueTypeId);
+
+                    logger.info("Creating migration Scale statuses Fields...");
+                    createMigrationTestResultsStatuses(context);
+
+                    //the custom fields without a Scale counterpart are skipped while the issue pages are parsed
+                    jiraApi.keepCustomFields(projectKey, context.testCaseCustomFields().keySet());
+
+                    try (var pageFetcher = new IssuePageFetcher(jiraApi, projectKey, issueCount, config.pageSteps(),
+                            config.concurrency().pagePrefetchDepth());
+                         var pageExporter = config.journal().incrementalPostMigration()
+                                 ? new IncrementalPostMigrationExporter(projectKey, POST_MIGRATION_QUEUE_CAPACITY,
+                                         pageEntities -> exportEntities(pageEntities, projectKey))
+                                 : null) {
+                        while (pageFetcher.hasNext()) {
+                            var page = pageFetcher.next();
+
+                            logger.info("Issue progress: "
+                                    + ProgressBarUtil.getProgressBar(page.startAt(), total, startTimeMillis));
+
+                            var pageEntities = processPage(page, context, projectResponse.id());
+                            if (pageExporter != null) {
+                                pageExporter.submit(pageEntities);
+                            } else {
+                                mergePageEntities(squadToScaleEntitiesMap, pageEntities);
+                            }
+                        }
 
-                processPage(startAt, projectKey, projectResponse.id(), squadToScaleEntitiesMap);
+                        if (pageExporter != null) {
+                            logger.info("Waiting for the post migration of the last pages.");
+                            pageExporter.awaitCompletion();
+                        }
+                    }
+                } finally {
+                    jiraApi.keepCustomFields(projectKey, null);
+                }
 
-                startAt += config.pageSteps();
-            }
+                if (!config.journal().incrementalPostMigration()) {
+                    logger.info("Post migrion steps started, attachments copy and export of mappings.");
+                    exportEntities(squadToScaleEntitiesMap, projectKey);
+                }
 
-            logger.info("Post migrion steps started, attachments copy and export of mappings.");
-            attachmentsMigrator.export(squadToScaleEntitiesMap, projectKey);
-            testCasePostMigrator.export(squadToScaleEntitiesMap, projectKey);
-            testExecutionPostMigrator.export(squadToScaleEntitiesMap, projectKey);
-
-            if(config.updateDatabaseFieldsPostMigration()) {
-                var dataSourceFactory = new DataSourceFactory();
-                var dataSource = dataSourceFactory.createDataSourceFromDatabaseName(config.databaseType());
-                DatabasePostRepository databasePostRepository = new DatabasePostRepository(dataSource,
-                        config.testCaseCSVFile(), config.testExecutionCSVFile(), config.databaseType());
-                databasePostRepository.updateTestCaseFields();
-                databasePostRepository.updateTestResultsFields();
-                databasePostRepository.updateAttachmentRecords(config.attachmentsMappedCsvFile());
+                if(config.updateDatabaseFieldsPostMigration()) {
+                    updateDatabaseFieldsPostMigration();
+                }
             }
             logger.info("Issue progress: "
                     + ProgressBarUtil.getProgressBar(total, total, startTimeMillis));
         } catch (Exception exception) {
             logger.error("Failed to run migration " + exception.getMessage(), exception);
             throw new RuntimeException(exception);
+        } finally {
+            var metrics = apiMetrics;
+            if (metrics != null) {
+                metrics.dumpForProject(projectKey);
+            }
         }
     }
 
-    private String getTestIssueTypeIdFrom(List<IssueType> issueTypes) {
+    private EntityMapStorage createEntityMapStorage() {
+        var journalSettings = config.journal();
+        var backend = EntityMapBackend.getEntityMapBackendByName(journalSettings.entityMapBackend()).orElseGet(() -> {
+            logger.warn("Unknown entity map backend '" + journalSettings.entityMapBackend() + "', keeping the entities on the heap.");
+            return EntityMapBackend.HEAP;
+        });
+        var spillDirectory = journalSettings.entityMapSpillDirectory() == null || journalSettings.entityMapSpillDirectory().isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"))
+                : Path.of(journalSettings.entityMapSpillDirectory());
+        return new EntityMapStorage(backend, spillDirectory);
+    }
+
+    private ProjectMigrationContext createProjectContext(String projectKey) throws IOException {
+        var journalSettings = config.journal();
+        var journal = journalSettings.directory() == null || journalSettings.directory().isBlank()
+                ? MigrationJournal.disabled()
+                : MigrationJournal.open(Path.of(journalSettings.directory()), projectKey, journalSettings.resume());
+
+        var context = new ProjectMigrationContext(projectKey, journal,
+                new ScaleCycleService(scaleApi, config.cycleNamePlaceHolder(), journal),
+                new ScaleTestExecutionPayloadFacade(jiraApi));
+        context.migrateTestCasesWith(createTestCaseMigration(context));
+        return context;
+    }
+
+    //Squad reads, payload building and Scale writes run as separate stages, each test case flowing through all three
+    private StagedPipeline<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>, TestCaseMigrationResult> createTestCaseMigration(
+            ProjectMigrationContext context) {
+        return StagedPipeline.<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>, ExtractedTestCase>of(
+                        "testcase-migration", config.concurrency().stageQueueCapacity(), executorType,
+                        "extract", extractThreads, testCaseItem -> extractTestCase(testCaseItem, context))
+                .then("transform", transformThreads, extracted -> transformTestCase(extracted, context))
+                .then("load", loadThreads, transformed -> loadTestCase(transformed, context));
+    }
+
+    private void updateDatabaseFieldsPostMigration() throws IOException {
+        synchronized (databasePostMigrationLock) {
+            var dataSourceFactory = new DataSourceFactory();
+            var dataSource = dataSourceFactory.createDataSourceFromDatabaseName(config.databaseType());
+            DatabasePostRepository databasePostRepository = new DatabasePostRepository(dataSource,
+                    config.testCaseCSVFile(), config.testExecutionCSVFile(), config.databaseType());
+            databasePostRepository.updateTestCaseFields();
+            databasePostRepository.updateTestResultsFields();
+            databasePostRepository.updateAttachmentRecords(config.attachmentsMappedCsvFile());
+        }
+    }
+
+    static String getTestIssueTypeIdFrom(List<IssueType> issueTypes) {
         if(issueTypes == null || issueTypes.size() <= 0){
             return null;
         }
@@ -185,30 +307,35 @@ public class SquadToScaleMigrator {
         return null;
     }
 
-    private void processPage(int startAt, String projectKey, String projectId, SquadToScaleEntitiesMap squadToScaleEntitiesMap) {
-        try {
-
-            logger.info("Fetching issues starting at " + startAt + "...");
-
-            var issues = jiraApi.fetchIssuesOrderedByCreatedDate(
-                    projectKey,
-                    startAt,
-                    config.pageSteps());
+    private void exportEntities(SquadToScaleEntitiesMap entitiesMap, String projectKey) throws IOException {
+        attachmentsMigrator.export(entitiesMap, projectKey);
+        testCasePostMigrator.export(entitiesMap, projectKey);
+        testExecutionPostMigrator.export(entitiesMap, projectKey);
+    }
 
-            logger.info("Fetched " + issues.size() + " issues.");
+    private static void mergePageEntities(SquadToScaleEntitiesMap squadToScaleEntitiesMap, SquadToScaleEntitiesMap pageEntities) {
+        squadToScaleEntitiesMap.testStepMap().putAll(pageEntities.testStepMap());
+        squadToScaleEntitiesMap.testExecutionMap().putAll(pageEntities.testExecutionMap());
+        squadToScaleEntitiesMap.executionStepMap().putAll(pageEntities.executionStepMap());
+        squadToScaleEntitiesMap.testCaseMap().putAll(pageEntities.testCaseMap());
+    }
 
-            var testCaseMap = createScaleTestCases(issues, projectKey, projectId);
-            updateStepsAndPostExecution(testCaseMap, projectKey, squadToScaleEntitiesMap);
-            squadToScaleEntitiesMap.testCaseMap().putAll(testCaseMap);
+    private SquadToScaleEntitiesMap processPage(IssuePageFetcher.IssuePage page, ProjectMigrationContext context, String projectId) {
+        try {
+            var testCaseMap = createScaleTestCases(page.issues(), context, projectId);
+            var pageEntities = new SquadToScaleEntitiesMap(testCaseMap, new SquadToScaleTestStepMap(),
+                    new SquadToScaleTestExecutionMap(), new SquadToScaleExecutionStepMap());
+            updateStepsAndPostExecution(testCaseMap, context, pageEntities);
+            return pageEntities;
         } catch (IOException exception) {
-            logger.error("Failed to process page with start at: " + startAt + " " + exception.getMessage(), exception);
+            logger.error("Failed to process page with start at: " + page.startAt() + " " + exception.getMessage(), exception);
             throw new RuntimeException(exception);
         }
     }
 
-    private void createMigrationTestResultsStatuses(String projectKey) {
+    private void createMigrationTestResultsStatuses(ProjectMigrationContext context) {
         try {
-            GetProjectResponse projectResponse = jiraApi.getProject(projectKey);
+            GetProjectResponse projectResponse = jiraApi.getProject(context.projectKey());
             FetchSquadStatusResponse squadExecutionStatuses = squadApi.fetchLatestTestExecutionStatuses();
             FetchSquadStatusResponse squadStepResultsStatuses = squadApi.fetchLatestTestStepExecutionStatuses();
 
@@ -223,7 +350,7 @@ public class SquadToScaleMigrator {
             }
             // checking for SQUAD Execution statuses which are not part of scale test results statuses
             if(squadExecutionStatuses != null && squadExecutionStatuses.data() != null){
-                squadApi.updateExecutionStatusTypes(squadExecutionStatuses.data());
+                context.registerExecutionStatuses(squadExecutionStatuses.data());
                 squadExecutionStatuses.data().forEach( executionStatus -> {
                     String statusName = executionStatus.name();
                     if(!IGNORABLE_SQUAD_STATUSES.contains(statusName) && !scaleTestResultsStatuses.containsKey(statusName)) {
@@ -234,7 +361,7 @@ public class SquadToScaleMigrator {
 
             // checking for SQAUD Step Execution statuses which are not part of scale test results statuses
             if(squadStepResultsStatuses != null && squadStepResultsStatuses.data() != null){
-                squadApi.updateExecutionStepStatusTypes(squadStepResultsStatuses.data());
+                context.registerExecutionStepStatuses(squadStepResultsStatuses.data());
                 squadStepResultsStatuses.data().forEach( executionStatus -> {
                     String statusName = executionStatus.name();
                     if(!IGNORABLE_SQUAD_STATUSES.contains(statusName) && !scaleTestResultsStatuses.containsKey(statusName)) {
@@ -287,7 +414,7 @@ public class SquadToScaleMigrator {
         }
     }*/
 
-    private void createMigrationCustomFields(String projectKey, String projectId, String testIssueTypeId) {
+    private void createMigrationCustomFields(ProjectMigrationContext context, String projectId, String testIssueTypeId) {
         try {
 
             Map<String, List<String>> mapCustomFieldsToCreate = Map.of(
@@ -308,7 +435,7 @@ public class SquadToScaleMigrator {
                             new ScaleCustomFieldPayload(
                                     customFieldName,
                                     customFieldToCreate.getKey(),
-                                    projectKey,
+                                    context.projectKey(),
                                     customFieldToType.get(customFieldName)
                             )
                     );
@@ -316,13 +443,13 @@ public class SquadToScaleMigrator {
                 }
             }
             //create Migration CustomFields for Testcase
-            migrateTestCaseCustomFields(projectKey, projectId, testIssueTypeId);
+            migrateTestCaseCustomFields(context, projectId, testIssueTypeId);
 
             // create Migration CustomFields for Execution.
-            migrateTestExecutionCustomFields(projectKey, projectId);
+            migrateTestExecutionCustomFields(context, projectId);
 
             // create Migration CustomFields for TestSteo.
-            migrateTeststepCustomFields(projectKey, projectId);
+            migrateTeststepCustomFields(context, projectId);
         } catch (IOException exception) {
             logger.error("Failed to create migration custom fields " + exception.getMessage(),
                     exception);
@@ -330,7 +457,7 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private void migrateTestCaseCustomFields(String projectKey, String projectId, String testIssueTypeId) throws IOException {
+    private void migrateTestCaseCustomFields(ProjectMigrationContext context, String projectId, String testIssueTypeId) throws IOException {
         var issueFieldsResponse = jiraApi.getIssueFieldsByIssuetype(projectId, testIssueTypeId);
         List<GetJiraIssueFieldResponse> mandatoryCustomFields = new LinkedList<>();
         Map<String, String> tobeMigrateFieldsNameandId = new LinkedHashMap<>();
@@ -362,7 +489,7 @@ public class SquadToScaleMigrator {
                         new ScaleCustomFieldPayload(
                                 customFieldName,
                                 ScaleMigrationTestCaseCustomFieldPayload.ENTITY_TYPE,
-                                projectKey,
+                                context.projectKey(),
                                 ScaleCustomFieldPayload.JIRA_SCALE_CUSTOM_FIELD_TYPE.get(jiraissueField.schema().custom())
                         )
                 );
@@ -381,7 +508,7 @@ public class SquadToScaleMigrator {
                 }
                 for(String fieldName:tobeMigrateFieldsNameandId.keySet()){
                     if(tempCustomFieldsMap.containsKey(fieldName)){
-                        projectTestcaseCustomFieldNames.put(tobeMigrateFieldsNameandId.get(fieldName), tempCustomFieldsMap.get(fieldName));
+                        context.testCaseCustomFields().put(tobeMigrateFieldsNameandId.get(fieldName), tempCustomFieldsMap.get(fieldName));
                     }
                 }
                 logger.info("Migration Custom Field " + customFieldName + " created successfully.");
@@ -389,7 +516,7 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private void migrateTestExecutionCustomFields(String projectKey, String projectId) throws ApiException, ZephyrApiException {
+    private void migrateTestExecutionCustomFields(ProjectMigrationContext context, String projectId) throws ApiException, ZephyrApiException {
         FetchSquadCustomFieldResponse fetchSquadCustomFieldResponse = squadApi.fetchSquadCustomFieldResponse("EXECUTION", projectId);
         if(fetchSquadCustomFieldResponse != null && fetchSquadCustomFieldResponse.data().size() > 0){
             for(SquadCustomFieldResponse squadCustomFieldResponse:fetchSquadCustomFieldResponse.data()){
@@ -411,7 +538,7 @@ public class SquadToScaleMigrator {
                             new ScaleCustomFieldPayload(
                                     customFieldName,
                                     ScaleMigrationExecutionCustomFieldPayload.ENTITY_TYPE,
-                                    projectKey,
+                                    context.projectKey(),
                                     ScaleCustomFieldPayload.SQUAD_SCALE_CUSTOM_FIELD_TYPE.get(squadCustomFieldResponse.fieldType())
                             )
                     );
@@ -420,8 +547,8 @@ public class SquadToScaleMigrator {
                             scaleApi.addOptionToCustomField(customFieldId, option);
                         }
                     }
-                    if(!projectExecutionCustomFieldNames.contains(customFieldName)) {
-                        projectExecutionCustomFieldNames.add(customFieldName);
+                    if(!context.executionCustomFieldNames().contains(customFieldName)) {
+                        context.executionCustomFieldNames().add(customFieldName);
                     }
                     logger.info("Migration Custom Field " + customFieldName + " created successfully.");
                 }
@@ -429,7 +556,7 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private void migrateTeststepCustomFields(String projectKey, String projectId) throws ApiException, ZephyrApiException {
+    private void migrateTeststepCustomFields(ProjectMigrationContext context, String projectId) throws ApiException, ZephyrApiException {
         FetchSquadCustomFieldResponse fetchSquadStepCustomFieldResponse = squadApi.fetchSquadCustomFieldResponse("TESTSTEP", projectId);
         List<String> tobeMigratedStepFields = new ArrayList<>();
         if(fetchSquadStepCustomFieldResponse != null && fetchSquadStepCustomFieldResponse.data().size() > 0){
@@ -452,7 +579,7 @@ public class SquadToScaleMigrator {
                             new ScaleCustomFieldPayload(
                                     customFieldName,
                                     ScaleMigrationTestStepCustomFieldPayload.ENTITY_TYPE,
-                                    projectKey,
+                                    context.projectKey(),
                                     ScaleCustomFieldPayload.SQUAD_SCALE_CUSTOM_FIELD_TYPE.get(squadCustomFieldResponse.fieldType())
                             )
                     );
@@ -468,17 +595,32 @@ public class SquadToScaleMigrator {
         }
         List<ScaleCustomFieldResponse> scaleTestStepCustomFields = scaleApi.fetchScaleCustomFields("teststep", projectId);
         if(scaleTestStepCustomFields != null && scaleTestStepCustomFields.size() > 0) {
-            projectTestStepCustomFields.putAll(scaleTestStepCustomFields.stream().filter(e -> tobeMigratedStepFields.contains(e.name())).collect(Collectors.toMap(ScaleCustomFieldResponse::name, Function.identity())));
+            context.testStepCustomFields().putAll(scaleTestStepCustomFields.stream().filter(e -> tobeMigratedStepFields.contains(e.name())).collect(Collectors.toMap(ScaleCustomFieldResponse::name, Function.identity())));
         }
     }
 
-    private SquadToScaleTestCaseMap createScaleTestCases(List<JiraIssuesResponse> issues, String
-            projectKey, String projectId) throws IOException {
+    private SquadToScaleTestCaseMap createScaleTestCases(List<JiraIssuesResponse> issues,
+            ProjectMigrationContext context, String projectId) throws IOException {
         try {
             var map = new SquadToScaleTestCaseMap();
 
-            for (var issue : issues) {
-                var scaleTestCaseKey = createTestCaseForIssue(issue, projectKey, projectId);
+            //test cases created before an interrupted run are reused when resuming
+            var issuesToCreate = issues.stream()
+                    .filter(issue -> context.journal().findTestCase(issue.id()) == null).toList();
+            if (issuesToCreate.size() < issues.size()) {
+                logger.info((issues.size() - issuesToCreate.size()) + " test cases of this page were already migrated, skipping them...");
+            }
+
+            //statuses and priorities are shared by the whole page, so they are created before the test cases
+            createMissingTestCaseStatusesAndPriorities(issuesToCreate, context, projectId);
+
+            var createdTestCaseKeys = testCaseCreationRunner.runAll(issuesToCreate,
+                    issue -> createTestCaseForIssue(issue, context, projectId));
+
+            for (int i = 0, created = 0; i < issues.size(); i++) {
+                var issue = issues.get(i);
+                var journaledTestCaseKey = context.journal().findTestCase(issue.id());
+                var scaleTestCaseKey = journaledTestCaseKey != null ? journaledTestCaseKey : createdTestCaseKeys.get(created++);
 //                map.put(new SquadToScaleTestCaseMap.TestCaseMapKey(issue.id(), issue.key()), scaleTestCaseKey);
                 String creatorKey = (issue.fields().creator != null && issue.fields().creator.key() != null)
                         ? issue.fields().creator.key()
@@ -492,24 +634,31 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private String createTestCaseForIssue(JiraIssuesResponse issue, String projectKey, String projectId) throws
-            IOException {
-
-        try {
+    private void createMissingTestCaseStatusesAndPriorities(List<JiraIssuesResponse> issues, ProjectMigrationContext context,
+                                                            String projectId) throws IOException {
+        for (var issue : issues) {
             String sanitizeStatus = scaleTestCaseFacade.sanitizeStatus(issue.fields().status);
-            if(sanitizeStatus != null && !sanitizeStatus.isEmpty() && !ScaleMigrationTestCaseStatusPayload.MIGRATION_TESTCASE_STATUSES.contains(sanitizeStatus)){
+            if(sanitizeStatus != null && !sanitizeStatus.isEmpty() && !context.testCaseStatuses().contains(sanitizeStatus)){
                 String id = scaleApi.CreateScaleTestcaseStatus(projectId, sanitizeStatus);
-                ScaleMigrationTestCaseStatusPayload.MIGRATION_TESTCASE_STATUSES.add(sanitizeStatus);
+                context.testCaseStatuses().add(sanitizeStatus);
             }
 
             String sanitizepriority = scaleTestCaseFacade.sanitizePriority(issue.fields().priority);
-            if(sanitizepriority != null && !sanitizepriority.isEmpty() && !ScaleMigrationTestCasePriorityPayload.MIGRATION_TESTCASE_PRIORITIES.contains(sanitizepriority)){
+            if(sanitizepriority != null && !sanitizepriority.isEmpty() && !context.testCasePriorities().contains(sanitizepriority)){
                 String id = scaleApi.CreateScaleTestcasePriority(projectId, sanitizepriority);
-                ScaleMigrationTestCasePriorityPayload.MIGRATION_TESTCASE_PRIORITIES.add(sanitizepriority);
+                context.testCasePriorities().add(sanitizepriority);
             }
+        }
+    }
+
+    private String createTestCaseForIssue(JiraIssuesResponse issue, ProjectMigrationContext context, String projectId) throws
+            IOException {
+        var projectKey = context.projectKey();
 
-            ScaleTestCaseCreationPayload testCasePayload = this.scaleTestCaseFacade.createTestCasePayload(issue, projectKey, projectTestcaseCustomFieldNames);
+        try {
+            ScaleTestCaseCreationPayload testCasePayload = this.scaleTestCaseFacade.createTestCasePayload(issue, projectKey, context.testCaseCustomFields());
             var scaleTestCaseKey = scaleApi.createTestCases(testCasePayload);
+            context.journal().recordTestCase(issue.id(), scaleTestCaseKey);
 
             String issueSummary = issue.fields().summary != null ? issue.fields().summary : "N/A";
             String components = issue.fields().components != null && !issue.fields().components.isEmpty()
@@ -537,25 +686,29 @@ public class SquadToScaleMigrator {
     }
 
     private void updateStepsAndPostExecution(SquadToScaleTestCaseMap
-                                                                        testCaseMap, String projectKey, SquadToScaleEntitiesMap squadToScaleEntitiesMap) throws IOException {
+                                                                        testCaseMap, ProjectMigrationContext context, SquadToScaleEntitiesMap pageEntities) throws IOException {
         try {
             var orderedIssueList = testCaseMap.getListOfAllEntriesOrdered();
 
 
             logger.info("Updating steps and posting execution for " + orderedIssueList.size() + " issues...");
 
+            //every test case is migrated into its own maps, which are merged in order once the page is done
+            var testCaseResults = context.testCaseMigration().runAll(orderedIssueList);
+
             var testStepMap = new SquadToScaleTestStepMap();
             var testExecutionMap = new SquadToScaleTestExecutionMap();
             var squadToScaleExecutionStepMap = new SquadToScaleExecutionStepMap();
-            for (var testCaseItem : orderedIssueList) {
-                testStepMap.putAll(updateStepsForTestCase(testCaseItem));
-                testExecutionMap.putAll(createTestExecutionForTestCase(testCaseItem, projectKey, squadToScaleExecutionStepMap));
+            for (var testCaseResult : testCaseResults) {
+                testStepMap.putAll(testCaseResult.testStepMap());
+                testExecutionMap.putAll(testCaseResult.testExecutionMap());
+                squadToScaleExecutionStepMap.putAll(testCaseResult.executionStepMap());
             }
 
             logger.info("Updated steps and created test executions for " + orderedIssueList.size() + " issues.");
-            squadToScaleEntitiesMap.testStepMap().putAll(testStepMap);
-            squadToScaleEntitiesMap.testExecutionMap().putAll(testExecutionMap);
-            squadToScaleEntitiesMap.executionStepMap().putAll(squadToScaleExecutionStepMap);
+            pageEntities.testStepMap().putAll(testStepMap);
+            pageEntities.testExecutionMap().putAll(testExecutionMap);
+            pageEntities.executionStepMap().putAll(squadToScaleExecutionStepMap);
 
         } catch (IOException exception) {
             logger.error("Failed to update steps and post execution " + exception.getMessage(), exception);
@@ -563,69 +716,166 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private SquadToScaleTestStepMap updateStepsForTestCase
-            (Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String> testCaseItem)
-            throws IOException {
+    /**
+     * Extract stage: reads from Squad everything needed to migrate the steps and executions of a test case,
+     * leaving out what the journal says is already migrated.
+     */
+    private ExtractedTestCase extractTestCase(Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String> testCaseItem,
+                                              ProjectMigrationContext context) {
+        var testCaseId = testCaseItem.getKey().testCaseId();
+        try {
+            var journaledTestSteps = context.journal().findTestSteps(testCaseItem.getValue());
+            FetchSquadTestStepResponse squadTestSteps = null;
+            if (journaledTestSteps != null) {
+                logger.info("Steps of test case " + testCaseId + " already migrated, skipping...");
+            } else {
+                logger.info("Fetching latest Squad test step from " + testCaseId + "...");
+                squadTestSteps = squadApi.fetchLatestTestStepByTestCaseId(testCaseId);
+            }
+
+            logger.info("Fetching latest Squad execution for test case " + testCaseId + "...");
+            var executions = squadApi.fetchLatestExecutionByIssueId(testCaseId, context.executionTypes()).executions();
+
+            List<ExtractedExecution> extractedExecutions = new ArrayList<>(executions.size());
+            for (var execution : executions) {
+                var journaledTestExecutionId = context.journal().findTestExecution(execution.id());
+                var journaledExecutionSteps = context.journal().findExecutionSteps(execution.id());
+
+                if (journaledTestExecutionId != null && journaledExecutionSteps != null) {
+                    extractedExecutions.add(new ExtractedExecution(execution, journaledTestExecutionId,
+                            journaledExecutionSteps, null, null));
+                    continue;
+                }
+
+                var testExectuionStepResponse = squadApi.fetchTestExecutionStepById(execution.id(), context.stepExecutionTypes());
+                //custom field values only go into the creation payload, an execution created by an interrupted run doesn't need them
+                var testExecutionCfValueResponse = journaledTestExecutionId == null
+                        ? squadApi.fetchSquadExecutionCustomFieldValueResponse(execution.id())
+                        : null;
+                extractedExecutions.add(new ExtractedExecution(execution, journaledTestExecutionId, null,
+                        testExectuionStepResponse, testExecutionCfValueResponse));
+            }
+
+            return new ExtractedTestCase(testCaseItem, journaledTestSteps, squadTestSteps, extractedExecutions);
+        } catch (IOException exception) {
+            logger.error("Failed to fetch Squad steps and executions of test case with test case id: " + testCaseId + " " + exception.getMessage(), exception);
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Transform stage: builds the Scale payloads of the steps and executions of a test case.
+     */
+    private TransformedTestCase transformTestCase(ExtractedTestCase extracted, ProjectMigrationContext context) {
+        var testCaseItem = extracted.testCaseItem();
         try {
-            logger.info("Fetching latest Squad test step from " + testCaseItem.getKey().testCaseId() + "...");
+            var testStepsUpdate = buildTestStepsUpdate(extracted, context);
+
+            List<TransformedExecution> transformedExecutions = new ArrayList<>(extracted.executions().size());
+            for (var extractedExecution : extracted.executions()) {
+                ScaleExecutionCreationPayload testExecutionPayload = null;
+                if (extractedExecution.journaledTestExecutionId() == null) {
+                    testExecutionPayload = context.scaleTestExecutionPayloadFacade()
+                            .buildPayload(extractedExecution.execution(), testCaseItem.getValue(), context.projectKey(),
+                                    extractedExecution.testExectuionStepResponse(),
+                                    extractedExecution.testExecutionCfValueResponse(), context.executionCustomFieldNames());
+                }
+                transformedExecutions.add(new TransformedExecution(extractedExecution, testExecutionPayload));
+            }
+
+            return new TransformedTestCase(testCaseItem, testStepsUpdate, transformedExecutions);
+        } catch (IOException exception) {
+            logger.error("Failed to build Scale payloads for test case with test case id: " + testCaseItem.getKey().testCaseId() + " " + exception.getMessage(), exception);
+            throw new RuntimeException(exception);
+        }
+    }
 
+    private TestStepsUpdate buildTestStepsUpdate(ExtractedTestCase extracted, ProjectMigrationContext context) {
+        var squadTestSteps = extracted.squadTestSteps();
+        if (extracted.journaledTestSteps() != null) {
+            return new TestStepsUpdate(null, null, null, extracted.journaledTestSteps(), true);
+        }
+        if (squadTestSteps.stepBeanCollection().isEmpty()) {
+            return null;
+        }
+
+        Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>> stepMapping =
+                squadTestSteps.stepBeanCollection().stream().collect(Collectors
+                        .toMap(testStepResponse -> new SquadToScaleTestStepMap.TestStepMapKey(
+                                testStepResponse.id(), testStepResponse.orderId()
+                        ), SquadTestStepResponse::attachmentsMap));
+
+        if(attachmentsMigrator.getDataSource() != null) {
+            var scaleRepo = new ScaleTestCaseRepository(attachmentsMigrator.getDataSource());
+            var testCaseEntity = scaleRepo.getByKey(extracted.testCaseItem().getValue());
+            if (testCaseEntity != null || testCaseEntity.isPresent()) {
+                var steps = new SquadUpdateStepPayload(testCaseEntity.get().id(), new ScaleStepByStepScript(new SquadGETStepItemPayload()));
+
+                List<ScaleGETStepItemPayload> scaleSteps = new LinkedList<>();
+                int index = 0;
+                for(var squadStep: squadTestSteps.stepBeanCollection()){
+                    scaleSteps.add(ScaleGETStepItemPayload.createScaleGETStepItemPayloadForCreation(
+                            squadStep.htmlStep(),
+                            squadStep.htmlData(),
+                            squadStep.htmlResult(),
+                            squadStep.customFields(),
+                            testCaseEntity,
+                            context.testStepCustomFields(),
+                            index++
+                    ));
+                }
+                steps.testScript().stepByStepScript().steps = scaleSteps;
+                return new TestStepsUpdate(String.valueOf(testCaseEntity.get().id()), steps, null, stepMapping, false);
+            }
+        }
+        var steps = new SquadUpdateStepPayloadKey(new SquadGETStepItemPayloadKey());
+
+        steps.testScript().steps = squadTestSteps.stepBeanCollection().stream()
+                .map(e -> ScaleGETStepItemPayload.createScaleGETStepItemPayloadForCreation(
+                        e.htmlStep(),
+                        e.htmlData(),
+                        e.htmlResult(),
+                        null,
+                        null,
+                        null, null)).toList();
+        return new TestStepsUpdate(null, null, steps, stepMapping, false);
+    }
+
+    /**
+     * Load stage: writes the steps and executions of a test case to Scale and maps them, recording each write
+     * in the journal as soon as it succeeds.
+     */
+    private TestCaseMigrationResult loadTestCase(TransformedTestCase transformed, ProjectMigrationContext context) {
+        var executionStepMap = new SquadToScaleExecutionStepMap();
+        var testStepMap = updateStepsForTestCase(transformed, context);
+        var testExecutionMap = createTestExecutionForTestCase(transformed, context, executionStepMap);
+        return new TestCaseMigrationResult(testStepMap, testExecutionMap, executionStepMap);
+    }
+
+    private SquadToScaleTestStepMap updateStepsForTestCase(TransformedTestCase transformed, ProjectMigrationContext context) {
+        var testCaseItem = transformed.testCaseItem();
+        var testStepsUpdate = transformed.testStepsUpdate();
+        try {
             var testStepMap = new SquadToScaleTestStepMap();
-            var squadTestSteps = squadApi.fetchLatestTestStepByTestCaseId(testCaseItem.getKey().testCaseId());
 
-            if (squadTestSteps.stepBeanCollection().isEmpty()) {
+            if (testStepsUpdate == null) {
+                return testStepMap;
+            }
+            if (testStepsUpdate.journaled()) {
+                testStepMap.put(testCaseItem.getValue(), testStepsUpdate.stepMapping());
                 return testStepMap;
             }
-            if(attachmentsMigrator.getDataSource() != null) {
-                var scaleRepo = new ScaleTestCaseRepository(attachmentsMigrator.getDataSource());
-                var testCaseEntity = scaleRepo.getByKey(testCaseItem.getValue());
-                if (testCaseEntity != null || testCaseEntity.isPresent()) {
-                    var steps = new SquadUpdateStepPayload(testCaseEntity.get().id(), new ScaleStepByStepScript(new SquadGETStepItemPayload()));
-
-                    List<ScaleGETStepItemPayload> scaleSteps = new LinkedList<>();
-                    int index = 0;
-                    for(var squadStep: squadTestSteps.stepBeanCollection()){
-                        scaleSteps.add(ScaleGETStepItemPayload.createScaleGETStepItemPayloadForCreation(
-                                squadStep.htmlStep(),
-                                squadStep.htmlData(),
-                                squadStep.htmlResult(),
-                                squadStep.customFields(),
-                                testCaseEntity,
-                                projectTestStepCustomFields,
-                                index++
-                        ));
-                    }
-                    steps.testScript().stepByStepScript().steps = scaleSteps;
-                    logger.info("Updating steps for scale test case...");
-                    scaleApi.updateTestStep(String.valueOf(testCaseEntity.get().id()), steps);
-
-                    //only mapping if updateTestStep was successful
-                    testStepMap.put(testCaseItem.getValue(),
-                            squadTestSteps.stepBeanCollection().stream().collect(Collectors
-                                    .toMap(testStepResponse -> new SquadToScaleTestStepMap.TestStepMapKey(
-                                            testStepResponse.id(), testStepResponse.orderId()
-                                    ), SquadTestStepResponse::attachmentsMap)));
-                    return testStepMap;
 
-                }
+            if (testStepsUpdate.payload() != null) {
+                logger.info("Updating steps for scale test case...");
+                scaleApi.updateTestStep(testStepsUpdate.scaleTestCaseId(), testStepsUpdate.payload());
+            } else {
+                scaleApi.updateTestStepByKey(testCaseItem.getValue(), testStepsUpdate.payloadByKey());
             }
-            var steps = new SquadUpdateStepPayloadKey(new SquadGETStepItemPayloadKey());
-
-            steps.testScript().steps = squadTestSteps.stepBeanCollection().stream()
-                    .map(e -> ScaleGETStepItemPayload.createScaleGETStepItemPayloadForCreation(
-                            e.htmlStep(),
-                            e.htmlData(),
-                            e.htmlResult(),
-                            null,
-                            null,
-                            null, null)).toList();
-            scaleApi.updateTestStepByKey(testCaseItem.getValue(), steps);
 
             //only mapping if updateTestStep was successful
-            testStepMap.put(testCaseItem.getValue(),
-                    squadTestSteps.stepBeanCollection().stream().collect(Collectors
-                            .toMap(testStepResponse -> new SquadToScaleTestStepMap.TestStepMapKey(
-                                    testStepResponse.id(), testStepResponse.orderId()
-                            ), SquadTestStepResponse::attachmentsMap)));
+            testStepMap.put(testCaseItem.getValue(), testStepsUpdate.stepMapping());
+            context.journal().recordTestSteps(testCaseItem.getValue(), testStepsUpdate.stepMapping());
             return testStepMap;
 
         } catch (IOException exception) {
@@ -634,45 +884,55 @@ public class SquadToScaleMigrator {
         }
     }
 
-    private SquadToScaleTestExecutionMap createTestExecutionForTestCase
-            (Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey,
-                    String> item, String projectKey, SquadToScaleExecutionStepMap squadToScaleExecutionStepMap) throws IOException {
+    private SquadToScaleTestExecutionMap createTestExecutionForTestCase(TransformedTestCase transformed,
+            ProjectMigrationContext context, SquadToScaleExecutionStepMap squadToScaleExecutionStepMap) {
+        var item = transformed.testCaseItem();
         try {
-            logger.info("Fetching latest Squad execution for test case " + item.getKey().testCaseId() + "...");
-            var execData = squadApi.fetchLatestExecutionByIssueId(item.getKey().testCaseId());
-
-            var executions = execData.executions();
-
             var testExecutionMap = new SquadToScaleTestExecutionMap();
 
 
-            if (executions.isEmpty()) {
+            if (transformed.executions().isEmpty()) {
                 logger.info("Test case " + item.getKey().testCaseId() + " doesn't have executions, skipping...");
                 return testExecutionMap;
             }
 
-            for (var execution : executions) {
-
-                SquadToScaleExecutionStepMap executionStepMap = new SquadToScaleExecutionStepMap();
-                var scaleCycleKey = scaleCycleService.getCycleKeyBySquadCycleName(execution.cycleName(),
-                        projectKey, execution.versionName());
+            for (var transformedExecution : transformed.executions()) {
+                var extractedExecution = transformedExecution.extracted();
+                var execution = extractedExecution.execution();
 
-                logger.info("Creating test executions...");
+                var testExecutionMapKey = new SquadToScaleTestExecutionMap.TestExecutionMapKey(execution.id(), execution.createdBy(), execution.createdOn(), null, null, execution.executedOn() == null ? null : execution.executedOn().toString());
 
-                var testExectuionStepResponse = squadApi.fetchTestExecutionStepById(execution.id());
-                var testExecutionCfValueResponse = squadApi.fetchSquadExecutionCustomFieldValueResponse(execution.id());
-                var testExecutionPayload = scaleTestExecutionPayloadFacade
-                        .buildPayload(execution, item.getValue(), projectKey, testExectuionStepResponse,
-                                testExecutionCfValueResponse, projectExecutionCustomFieldNames);
+                if (extractedExecution.journaledExecutionSteps() != null) {
+                    logger.info("Test execution " + execution.id() + " already migrated, skipping...");
+                    testExecutionMap.put(testExecutionMapKey, extractedExecution.journaledTestExecutionId());
+                    squadToScaleExecutionStepMap.putAll(extractedExecution.journaledExecutionSteps());
+                    continue;
+                }
 
-                var scaleTestExecutionCreatedPayload = scaleApi.createTestExecution(scaleCycleKey,
-                        testExecutionPayload);
+                SquadToScaleExecutionStepMap executionStepMap = new SquadToScaleExecutionStepMap();
+                var testExectuionStepResponse = extractedExecution.testExectuionStepResponse();
+                String scaleTestExecutionId;
+
+                if (extractedExecution.journaledTestExecutionId() != null) {
+                    //created by an interrupted run, only its step results still have to be mapped
+                    logger.info("Test execution " + execution.id() + " already created, mapping its step results...");
+                    scaleTestExecutionId = extractedExecution.journaledTestExecutionId();
+                } else {
+                    var scaleCycleKey = context.scaleCycleService().getCycleKeyBySquadCycleName(execution.cycleName(),
+                            context.projectKey(), execution.versionName());
+
+                    logger.info("Creating test executions...");
+
+                    var scaleTestExecutionCreatedPayload = scaleApi.createTestExecution(scaleCycleKey,
+                            transformedExecution.testExecutionPayload());
+                    scaleTestExecutionId = scaleTestExecutionCreatedPayload.id();
+                    context.journal().recordTestExecution(execution.id(), scaleTestExecutionId);
+                }
 //                testExecutionMap.put(new SquadToScaleTestExecutionMap.TestExecutionMapKey(execution.id()),
-                testExecutionMap.put(new SquadToScaleTestExecutionMap.TestExecutionMapKey(execution.id(), execution.createdBy(), execution.createdOn(), null, null, execution.executedOn() == null ? null : execution.executedOn().toString()),
-                        scaleTestExecutionCreatedPayload.id());
+                testExecutionMap.put(testExecutionMapKey, scaleTestExecutionId);
 
                 // fetching Step Results or Execution Step Mapping
-                var fetchScaleTestResults = scaleApi.fetchTestResultsbyId(scaleTestExecutionCreatedPayload.id());
+                var fetchScaleTestResults = scaleApi.fetchTestResultsbyId(scaleTestExecutionId);
                 if(testExectuionStepResponse != null &&
                         testExectuionStepResponse.executionSteps() !=null &&
                         testExectuionStepResponse.executionSteps().size() > 0){
@@ -692,7 +952,7 @@ public class SquadToScaleMigrator {
 
                            var scaleTestScriptResults = scaleTestScriptResultsMap.get(index);
                            var squadExecutionStep = new SquadToScaleExecutionStepMap.SquadExecutionStepMapKey(executionStepRespone.id(), execution.id(), executionStepRespone.attachmentCount(), executionStepRespone.defects());
-                           var scaleExecutionStep = new SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue(scaleTestScriptResults.id(), scaleTestExecutionCreatedPayload.id());
+                           var scaleExecutionStep = new SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue(scaleTestScriptResults.id(), scaleTestExecutionId);
                            executionStepMap.put(squadExecutionStep, scaleExecutionStep);
                            index++;
                         }
@@ -709,6 +969,7 @@ public class SquadToScaleMigrator {
                         scaleApi.updateTestStepdefects(defectsPayloads);
                     }
                 }
+                context.journal().recordExecutionSteps(execution.id(), executionStepMap);
                 squadToScaleExecutionStepMap.putAll(executionStepMap);
             }
 
@@ -736,9 +997,38 @@ public class SquadToScaleMigrator {
         return defectsPayloads;
     }
 
-    //clearing per project caches to avoid heavy memory usage and conflicts
-    private void reset() {
-        resettables.forEach(Resettable::reset);
+    private record ExtractedTestCase(Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String> testCaseItem,
+                                     Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>> journaledTestSteps,
+                                     FetchSquadTestStepResponse squadTestSteps,
+                                     List<ExtractedExecution> executions) {
+    }
+
+    private record ExtractedExecution(SquadExecutionItemParsedResponse execution,
+                                      String journaledTestExecutionId,
+                                      Map<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+                                              SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue> journaledExecutionSteps,
+                                      FetchSquadExecutionStepParsedResponse testExectuionStepResponse,
+                                      FetchSquadCustomFieldValueResponse testExecutionCfValueResponse) {
     }
 
-}
\ No newline at end of file
+    private record TransformedTestCase(Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String> testCaseItem,
+                                       TestStepsUpdate testStepsUpdate,
+                                       List<TransformedExecution> executions) {
+    }
+
+    //either payload, sent by Scale test case id, or payloadByKey, sent by Scale test case key
+    private record TestStepsUpdate(String scaleTestCaseId,
+                                   SquadUpdateStepPayload payload,
+                                   SquadUpdateStepPayloadKey payloadByKey,
+                                   Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>> stepMapping,
+                                   boolean journaled) {
+    }
+
+    private record TransformedExecution(ExtractedExecution extracted, ScaleExecutionCreationPayload testExecutionPayload) {
+    }
+
+    record TestCaseMigrationResult(SquadToScaleTestStepMap testStepMap,
+                                           SquadToScaleTestExecutionMap testExecutionMap,
+                                           SquadToScaleExecutionStepMap executionStepMap) {
+    }
+}
@@ -27,7 +27,7 @@ public class TestExecutionCsvExporter {
         this.fileName = fileName;
     }
 
-    public void dump(List<TestExecutionAssociatedData> testExecutionsMap, String[] headers, String[] headerMapping) throws URISyntaxException, IOException {
+    public synchronized void dump(List<TestExecutionAssociatedData> testExecutionsMap, String[] headers, String[] headerMapping) throws URISyntaxException, IOException {
 
         if (destinationPath == null) {
             destinationPath = setupFile(this.fileName, headers);
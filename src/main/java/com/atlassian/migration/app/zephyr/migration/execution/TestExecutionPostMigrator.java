@@ -13,8 +13,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.HashMap;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class TestExecutionPostMigrator {
@@ -27,7 +27,7 @@ public class TestExecutionPostMigrator {
 
     private static final String[] csvMapping = {"id", "mappedScaleId", "createdBy", "createdOn", "modifiedBy", "modifiedOn", "executedOn"};
 
-    private final Map<String, GetProjectResponse> projectMetadata = new HashMap<>();
+    private final Map<String, GetProjectResponse> projectMetadata = new ConcurrentHashMap<>();
 
     public TestExecutionPostMigrator(JiraApi jiraApi,
                                      TestExecutionCsvExporter testExecutionCsvExporter) {
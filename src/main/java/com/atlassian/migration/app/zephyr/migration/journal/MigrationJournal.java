@@ -0,0 +1,235 @@
+package com.atlassian.migration.app.zephyr.migration.journal;
+
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleExecutionStepMap;
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleTestStepMap;
+import com.atlassian.migration.app.zephyr.squad.model.SquadAttachmentItemResponse;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of every Squad to Scale mapping of a project, written as soon as the Scale call creating
+ * the entity succeeds. When a migration is resumed the journal is read back and the entities it lists are reused
+ * instead of being created again.
+ * <p>
+ * Each entry is one JSON line. Entries are written to the file right away, so they survive the JVM dying, while
+ * the costlier fsync is batched: it runs every {@value #SYNC_BATCH_SIZE} entries, once a second and on close.
+ * A line torn by a crash is ignored on replay.
+ */
+public class MigrationJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationJournal.class);
+    private static final String JOURNAL_FILE_EXTENSION = ".journal";
+    private static final int SYNC_BATCH_SIZE = 64;
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Type TEST_STEPS_TYPE = new TypeToken<Map<SquadToScaleTestStepMap.TestStepMapKey,
+            List<SquadAttachmentItemResponse>>>() {}.getType();
+    private static final Type EXECUTION_STEPS_TYPE = new TypeToken<Map<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+            SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue>>() {}.getType();
+
+    private final Gson gson = new GsonBuilder().enableComplexMapKeySerialization().create();
+    private final FileChannel channel;
+    private final Map<String, String> cycles = new ConcurrentHashMap<>();
+    private final Map<String, String> testCases = new ConcurrentHashMap<>();
+    private final Map<String, Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>>> testSteps = new ConcurrentHashMap<>();
+    private final Map<String, String> testExecutions = new ConcurrentHashMap<>();
+    private final Map<String, Map<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+            SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue>> executionSteps = new ConcurrentHashMap<>();
+
+    private int unsyncedEntries = 0;
+    private long lastSyncNanos = System.nanoTime();
+
+    private MigrationJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static MigrationJournal disabled() {
+        return new MigrationJournal(null);
+    }
+
+    /**
+     * Opens the journal of a project. When resuming, the existing entries are replayed and new ones are appended,
+     * otherwise the journal starts empty.
+     */
+    public static MigrationJournal open(Path directory, String projectKey, boolean resume) throws IOException {
+        Files.createDirectories(directory);
+        var journalFile = directory.resolve(projectKey + JOURNAL_FILE_EXTENSION);
+
+        if (!resume || !Files.exists(journalFile)) {
+            logger.info("Writing migration journal to " + journalFile);
+            return new MigrationJournal(FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        }
+
+        var journal = new MigrationJournal(FileChannel.open(journalFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+        journal.replay(journalFile);
+        journal.trimTornEntry();
+        logger.info("Resuming from migration journal " + journalFile + ": " + journal.testCases.size()
+                + " test cases, " + journal.testExecutions.size() + " test executions and "
+                + journal.cycles.size() + " cycles already migrated.");
+        return journal;
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    public Map<String, String> getCycles() {
+        return Collections.unmodifiableMap(cycles);
+    }
+
+    public String findTestCase(String squadTestCaseId) {
+        return testCases.get(squadTestCaseId);
+    }
+
+    public Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>> findTestSteps(String scaleTestCaseKey) {
+        return testSteps.get(scaleTestCaseKey);
+    }
+
+    public String findTestExecution(String squadExecutionId) {
+        return testExecutions.get(squadExecutionId);
+    }
+
+    public Map<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+            SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue> findExecutionSteps(String squadExecutionId) {
+        return executionSteps.get(squadExecutionId);
+    }
+
+    public void recordCycle(String squadCycleName, String scaleCycleKey) throws IOException {
+        append(new JournalEntry(EntryType.CYCLE, squadCycleName, scaleCycleKey, null));
+    }
+
+    public void recordTestCase(String squadTestCaseId, String scaleTestCaseKey) throws IOException {
+        append(new JournalEntry(EntryType.TEST_CASE, squadTestCaseId, scaleTestCaseKey, null));
+    }
+
+    public void recordTestSteps(String scaleTestCaseKey,
+                                Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>> steps) throws IOException {
+        append(new JournalEntry(EntryType.TEST_STEPS, null, scaleTestCaseKey, gson.toJsonTree(steps, TEST_STEPS_TYPE)));
+    }
+
+    public void recordTestExecution(String squadExecutionId, String scaleTestExecutionId) throws IOException {
+        append(new JournalEntry(EntryType.TEST_EXECUTION, squadExecutionId, scaleTestExecutionId, null));
+    }
+
+    /**
+     * Records the step results of an execution. It is written once the execution is complete, defects included,
+     * so a resumed migration skips the execution entirely only when this entry exists.
+     */
+    public void recordExecutionSteps(String squadExecutionId,
+                                     Map<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+                                             SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue> steps) throws IOException {
+        append(new JournalEntry(EntryType.EXECUTION_STEPS, squadExecutionId, null,
+                gson.toJsonTree(steps, EXECUTION_STEPS_TYPE)));
+    }
+
+    private synchronized void append(JournalEntry entry) throws IOException {
+        if (channel == null) {
+            return;
+        }
+
+        var buffer = ByteBuffer.wrap((gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        unsyncedEntries++;
+        if (unsyncedEntries >= SYNC_BATCH_SIZE || System.nanoTime() - lastSyncNanos >= SYNC_INTERVAL_NANOS) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        unsyncedEntries = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private void replay(Path journalFile) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    apply(gson.fromJson(line, JournalEntry.class));
+                } catch (JsonParseException | NullPointerException e) {
+                    logger.warn("Ignoring unreadable journal entry at line " + lineNumber + " of " + journalFile);
+                }
+            }
+        }
+    }
+
+    //drops a trailing partial line and moves to the end, so the entries appended from now on start on a line of their own
+    private void trimTornEntry() throws IOException {
+        var size = channel.size();
+        var lastByte = ByteBuffer.allocate(1);
+        var position = size;
+        while (position > 0) {
+            lastByte.clear();
+            channel.read(lastByte, position - 1);
+            if (lastByte.get(0) == '\n') {
+                break;
+            }
+            position--;
+        }
+        if (position < size) {
+            logger.warn("Discarding " + (size - position) + " bytes of an incomplete journal entry.");
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry.type()) {
+            case CYCLE -> cycles.put(entry.squadId(), entry.scaleId());
+            case TEST_CASE -> testCases.put(entry.squadId(), entry.scaleId());
+            case TEST_STEPS -> testSteps.put(entry.scaleId(), gson.fromJson(entry.data(), TEST_STEPS_TYPE));
+            case TEST_EXECUTION -> testExecutions.put(entry.squadId(), entry.scaleId());
+            case EXECUTION_STEPS -> executionSteps.put(entry.squadId(), gson.fromJson(entry.data(), EXECUTION_STEPS_TYPE));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        sync();
+        channel.close();
+    }
+
+    enum EntryType {
+        CYCLE,
+        TEST_CASE,
+        TEST_STEPS,
+        TEST_EXECUTION,
+        EXECUTION_STEPS
+    }
+
+    record JournalEntry(EntryType type, String squadId, String scaleId, JsonElement data) {
+    }
+}
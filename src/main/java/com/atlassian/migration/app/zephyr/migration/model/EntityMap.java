@@ -0,0 +1,62 @@
+package com.atlassian.migration.app.zephyr.migration.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base of the Squad to Scale entity maps. The entries live in a backing map chosen by the
+ * {@link com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage}, on the heap by default.
+ */
+public abstract class EntityMap<K, V> extends AbstractMap<K, V> implements Closeable {
+
+    private final Map<K, V> entries;
+
+    protected EntityMap(Map<K, V> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return entries.put(key, value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return entries.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entries.entrySet();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (entries instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
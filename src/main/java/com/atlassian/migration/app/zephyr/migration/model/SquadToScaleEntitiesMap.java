@@ -1,5 +1,10 @@
 package com.atlassian.migration.app.zephyr.migration.model;
 
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+
+import java.io.Closeable;
+import java.io.IOException;
+
 public record SquadToScaleEntitiesMap (
         SquadToScaleTestCaseMap testCaseMap,
 
@@ -8,4 +13,18 @@ public record SquadToScaleEntitiesMap (
         SquadToScaleTestExecutionMap testExecutionMap,
 
         SquadToScaleExecutionStepMap executionStepMap
-){}
+) implements Closeable {
+
+    public static SquadToScaleEntitiesMap create(EntityMapStorage storage) throws IOException {
+        return new SquadToScaleEntitiesMap(new SquadToScaleTestCaseMap(storage), new SquadToScaleTestStepMap(storage),
+                new SquadToScaleTestExecutionMap(storage), new SquadToScaleExecutionStepMap(storage));
+    }
+
+    @Override
+    public void close() throws IOException {
+        testCaseMap.close();
+        testStepMap.close();
+        testExecutionMap.close();
+        executionStepMap.close();
+    }
+}
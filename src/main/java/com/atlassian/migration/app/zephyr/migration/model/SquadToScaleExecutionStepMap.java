@@ -1,13 +1,55 @@
 package com.atlassian.migration.app.zephyr.migration.model;
 
-import java.util.Comparator;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityCodec;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class SquadToScaleExecutionStepMap extends HashMap<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
+public class SquadToScaleExecutionStepMap extends EntityMap<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
             SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue> {
 
+    static final EntityCodec<SquadExecutionStepMapKey> KEY_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, SquadExecutionStepMapKey key) throws IOException {
+            out.writeInt(key.executionStepId());
+            EntityCodec.writeNullableString(out, key.testExecutionId());
+            out.writeInt(key.attchmentCount());
+            EntityCodec.writeList(out, key.defects(), EntityCodec.STRING);
+        }
+
+        @Override
+        public SquadExecutionStepMapKey read(DataInput in) throws IOException {
+            return new SquadExecutionStepMapKey(in.readInt(), EntityCodec.readNullableString(in), in.readInt(),
+                    EntityCodec.readList(in, EntityCodec.STRING));
+        }
+    };
+
+    static final EntityCodec<ScaleExecutionStepMapValue> VALUE_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, ScaleExecutionStepMapValue value) throws IOException {
+            out.writeInt(value.testScriptResultId());
+            EntityCodec.writeNullableString(out, value.testResultId());
+        }
+
+        @Override
+        public ScaleExecutionStepMapValue read(DataInput in) throws IOException {
+            return new ScaleExecutionStepMapValue(in.readInt(), EntityCodec.readNullableString(in));
+        }
+    };
+
+    public SquadToScaleExecutionStepMap() {
+        super(new HashMap<>());
+    }
+
+    public SquadToScaleExecutionStepMap(EntityMapStorage storage) throws IOException {
+        super(storage.newMap("executionsteps", KEY_CODEC, VALUE_CODEC));
+    }
+
     public List<Map.Entry<SquadToScaleExecutionStepMap.SquadExecutionStepMapKey,
             SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue>> getExecutionStepMapHasAttachments(){
         return this.entrySet().stream().filter( e -> e.getKey().attchmentCount > 0).toList();
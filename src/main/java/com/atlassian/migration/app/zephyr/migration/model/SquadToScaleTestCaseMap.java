@@ -1,11 +1,45 @@
 package com.atlassian.migration.app.zephyr.migration.model;
 
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityCodec;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class SquadToScaleTestCaseMap extends HashMap<SquadToScaleTestCaseMap.TestCaseMapKey,String> {
+public class SquadToScaleTestCaseMap extends EntityMap<SquadToScaleTestCaseMap.TestCaseMapKey, String> {
+
+    //createdBy is only ever read through toString(), so it is stored as its string form
+    static final EntityCodec<TestCaseMapKey> KEY_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, TestCaseMapKey key) throws IOException {
+            EntityCodec.writeNullableString(out, key.testCaseId());
+            EntityCodec.writeNullableString(out, key.testCaseKey());
+            EntityCodec.writeNullableString(out, key.createdBy() == null ? null : key.createdBy().toString());
+            EntityCodec.writeNullableString(out, key.createdOn());
+            EntityCodec.writeNullableString(out, key.modifiedBy());
+            EntityCodec.writeNullableString(out, key.modifiedOn());
+        }
+
+        @Override
+        public TestCaseMapKey read(DataInput in) throws IOException {
+            return new TestCaseMapKey(EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in));
+        }
+    };
+
+    public SquadToScaleTestCaseMap() {
+        super(new HashMap<>());
+    }
+
+    public SquadToScaleTestCaseMap(EntityMapStorage storage) throws IOException {
+        super(storage.newMap("testcases", KEY_CODEC, EntityCodec.STRING));
+    }
 
     public List<Map.Entry<SquadToScaleTestCaseMap.TestCaseMapKey, String>> getListOfAllEntriesOrdered(){
         return this.entrySet().stream().sorted(Map.Entry.comparingByKey(
@@ -1,8 +1,42 @@
 package com.atlassian.migration.app.zephyr.migration.model;
 
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityCodec;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 
-public class SquadToScaleTestExecutionMap extends HashMap<SquadToScaleTestExecutionMap.TestExecutionMapKey, String> {
+public class SquadToScaleTestExecutionMap extends EntityMap<SquadToScaleTestExecutionMap.TestExecutionMapKey, String> {
+
+    //createdBy is only ever read through toString(), so it is stored as its string form
+    static final EntityCodec<TestExecutionMapKey> KEY_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, TestExecutionMapKey key) throws IOException {
+            EntityCodec.writeNullableString(out, key.testExecutionId());
+            EntityCodec.writeNullableString(out, key.createdBy() == null ? null : key.createdBy().toString());
+            EntityCodec.writeNullableString(out, key.createdOn());
+            EntityCodec.writeNullableString(out, key.modifiedBy());
+            EntityCodec.writeNullableString(out, key.modifiedOn());
+            EntityCodec.writeNullableString(out, key.executedOn());
+        }
+
+        @Override
+        public TestExecutionMapKey read(DataInput in) throws IOException {
+            return new TestExecutionMapKey(EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in));
+        }
+    };
+
+    public SquadToScaleTestExecutionMap() {
+        super(new HashMap<>());
+    }
+
+    public SquadToScaleTestExecutionMap(EntityMapStorage storage) throws IOException {
+        super(storage.newMap("testexecutions", KEY_CODEC, EntityCodec.STRING));
+    }
 
     public record TestExecutionMapKey(
             String testExecutionId,
@@ -1,12 +1,74 @@
 package com.atlassian.migration.app.zephyr.migration.model;
 
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityCodec;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
 import com.atlassian.migration.app.zephyr.squad.model.SquadAttachmentItemResponse;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 
-public class SquadToScaleTestStepMap extends HashMap<String, Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>>> {
+public class SquadToScaleTestStepMap extends EntityMap<String, Map<SquadToScaleTestStepMap.TestStepMapKey, List<SquadAttachmentItemResponse>>> {
+
+    static final EntityCodec<SquadAttachmentItemResponse> ATTACHMENT_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, SquadAttachmentItemResponse attachment) throws IOException {
+            EntityCodec.writeNullableString(out, attachment.fileName());
+            EntityCodec.writeNullableString(out, attachment.dateCreated());
+            EntityCodec.writeNullableString(out, attachment.htmlComment());
+            EntityCodec.writeNullableString(out, attachment.fileSize());
+            EntityCodec.writeNullableString(out, attachment.fileIcon());
+            EntityCodec.writeNullableString(out, attachment.author());
+            EntityCodec.writeNullableString(out, attachment.fileIconAltText());
+            EntityCodec.writeNullableString(out, attachment.comment());
+            EntityCodec.writeNullableString(out, attachment.fileId());
+        }
+
+        @Override
+        public SquadAttachmentItemResponse read(DataInput in) throws IOException {
+            return new SquadAttachmentItemResponse(EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in), EntityCodec.readNullableString(in),
+                    EntityCodec.readNullableString(in));
+        }
+    };
+
+    static final EntityCodec<Map<TestStepMapKey, List<SquadAttachmentItemResponse>>> VALUE_CODEC = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, Map<TestStepMapKey, List<SquadAttachmentItemResponse>> steps) throws IOException {
+            out.writeInt(steps.size());
+            for (var step : steps.entrySet()) {
+                EntityCodec.writeNullableString(out, step.getKey().stepId());
+                EntityCodec.writeNullableString(out, step.getKey().stepOrder());
+                EntityCodec.writeList(out, step.getValue(), ATTACHMENT_CODEC);
+            }
+        }
+
+        @Override
+        public Map<TestStepMapKey, List<SquadAttachmentItemResponse>> read(DataInput in) throws IOException {
+            var size = in.readInt();
+            Map<TestStepMapKey, List<SquadAttachmentItemResponse>> steps = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                var stepKey = new TestStepMapKey(EntityCodec.readNullableString(in), EntityCodec.readNullableString(in));
+                steps.put(stepKey, EntityCodec.readList(in, ATTACHMENT_CODEC));
+            }
+            return steps;
+        }
+    };
+
+    public SquadToScaleTestStepMap() {
+        super(new HashMap<>());
+    }
+
+    public SquadToScaleTestStepMap(EntityMapStorage storage) throws IOException {
+        super(storage.newMap("teststeps", EntityCodec.STRING, VALUE_CODEC));
+    }
+
     public record TestStepMapKey(String stepId, String stepOrder){}
 }
@@ -0,0 +1,73 @@
+package com.atlassian.migration.app.zephyr.migration.model.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of an entity map key or value, used when the entity maps are spilled to disk.
+ * Fields are written in declaration order; strings and lists carry a length prefix, -1 standing for null.
+ */
+public interface EntityCodec<T> {
+
+    EntityCodec<String> STRING = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            writeNullableString(out, value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return readNullableString(in);
+        }
+    };
+
+    void write(DataOutput out, T value) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    //length prefixed UTF-8 rather than writeUTF, which is capped at 64KB and comments can be longer
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        var length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static <E> void writeList(DataOutput out, List<E> values, EntityCodec<E> elementCodec) throws IOException {
+        out.writeInt(values == null ? -1 : values.size());
+        if (values != null) {
+            for (var value : values) {
+                elementCodec.write(out, value);
+            }
+        }
+    }
+
+    static <E> List<E> readList(DataInput in, EntityCodec<E> elementCodec) throws IOException {
+        var size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<E> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(elementCodec.read(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,24 @@
+package com.atlassian.migration.app.zephyr.migration.model.store;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum EntityMapBackend {
+    HEAP("heap"),
+    MAPPED("mmap");
+
+    private final String backendName;
+
+    EntityMapBackend(String value) {
+        this.backendName = value;
+    }
+
+    public static Optional<EntityMapBackend> getEntityMapBackendByName(String name) {
+        return Arrays.stream(values()).filter(backend -> backend.backendName.equalsIgnoreCase(name)).findFirst();
+    }
+
+    @Override
+    public String toString() {
+        return backendName;
+    }
+}
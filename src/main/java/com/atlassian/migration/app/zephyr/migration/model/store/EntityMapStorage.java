@@ -0,0 +1,24 @@
+package com.atlassian.migration.app.zephyr.migration.model.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where the entity maps of a project keep their entries: on the heap, or in memory-mapped files under
+ * {@code spillDirectory} for projects too large to hold every migrated entity in memory until the export.
+ */
+public record EntityMapStorage(EntityMapBackend backend, Path spillDirectory) {
+
+    public static EntityMapStorage heap() {
+        return new EntityMapStorage(EntityMapBackend.HEAP, null);
+    }
+
+    public <K, V> Map<K, V> newMap(String name, EntityCodec<K> keyCodec, EntityCodec<V> valueCodec) throws IOException {
+        if (backend == EntityMapBackend.MAPPED) {
+            return new MappedEntityStore<>(spillDirectory, name, keyCodec, valueCodec);
+        }
+        return new HashMap<>();
+    }
+}
@@ -0,0 +1,306 @@
+package com.atlassian.migration.app.zephyr.migration.model.store;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Map keeping its entries in a memory-mapped, append-only file instead of on the heap. Only a small index from
+ * the hash of each encoded key to the file offset of its record stays in memory, so a project with millions of
+ * test steps and step results does not need millions of key and value objects alive until the export.
+ * <p>
+ * Each record is the encoded key followed by the encoded value, both length prefixed. The file is mapped in
+ * segments of fixed size and a record never spans two of them. Replacing or removing an entry leaves the old
+ * record behind as garbage, which is fine for the entity maps: they are written once per entity and read once
+ * by the post migration. Keys are compared on their encoded bytes.
+ * <p>
+ * The file is deleted on close.
+ */
+public class MappedEntityStore<K, V> extends AbstractMap<K, V> implements Closeable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final EntityCodec<K> keyCodec;
+    private final EntityCodec<V> valueCodec;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    //hash of the encoded key -> offsets of the live records having it, more than one only on collisions
+    private final Map<Integer, long[]> index = new HashMap<>();
+    private final EntrySet entrySet = new EntrySet();
+
+    private long writePosition = 0;
+    private int size = 0;
+
+    public MappedEntityStore(Path directory, String name, EntityCodec<K> keyCodec, EntityCodec<V> valueCodec) throws IOException {
+        this(directory, name, keyCodec, valueCodec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappedEntityStore(Path directory, String name, EntityCodec<K> keyCodec, EntityCodec<V> valueCodec,
+                      int segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        this.file = Files.createTempFile(directory, name + "-", ".entities");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmentSize = segmentSize;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        var keyBytes = encode(keyCodec, key);
+        var valueBytes = encode(valueCodec, value);
+        var hash = Arrays.hashCode(keyBytes);
+        var offset = append(keyBytes, valueBytes);
+
+        var offsets = index.get(hash);
+        if (offsets == null) {
+            index.put(hash, new long[]{offset});
+            size++;
+            return null;
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            if (Arrays.equals(readKeyBytes(offsets[i]), keyBytes)) {
+                var previous = readValue(offsets[i]);
+                offsets[i] = offset;
+                return previous;
+            }
+        }
+        var grown = Arrays.copyOf(offsets, offsets.length + 1);
+        grown[offsets.length] = offset;
+        index.put(hash, grown);
+        size++;
+        return null;
+    }
+
+    @Override
+    public synchronized V get(Object key) {
+        var offset = find(key);
+        return offset < 0 ? null : readValue(offset);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        var keyBytes = encodeKey(key);
+        if (keyBytes == null) {
+            return null;
+        }
+        var hash = Arrays.hashCode(keyBytes);
+        var offsets = index.get(hash);
+        if (offsets == null) {
+            return null;
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            if (Arrays.equals(readKeyBytes(offsets[i]), keyBytes)) {
+                var previous = readValue(offsets[i]);
+                if (offsets.length == 1) {
+                    index.remove(hash);
+                } else {
+                    var shrunk = new long[offsets.length - 1];
+                    System.arraycopy(offsets, 0, shrunk, 0, i);
+                    System.arraycopy(offsets, i + 1, shrunk, i, offsets.length - i - 1);
+                    index.put(hash, shrunk);
+                }
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        size = 0;
+        writePosition = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        index.clear();
+        segments.clear();
+        size = 0;
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    private long find(Object key) {
+        var keyBytes = encodeKey(key);
+        if (keyBytes == null) {
+            return -1;
+        }
+        var offsets = index.get(Arrays.hashCode(keyBytes));
+        if (offsets == null) {
+            return -1;
+        }
+        for (var offset : offsets) {
+            if (Arrays.equals(readKeyBytes(offset), keyBytes)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] encodeKey(Object key) {
+        try {
+            return encode(keyCodec, (K) key);
+        } catch (ClassCastException e) {
+            return null;
+        }
+    }
+
+    private long append(byte[] keyBytes, byte[] valueBytes) {
+        var recordSize = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Entity of " + recordSize + " bytes does not fit in a "
+                    + segmentSize + " bytes segment of " + file);
+        }
+        if (writePosition % segmentSize + recordSize > segmentSize) {
+            writePosition = (writePosition / segmentSize + 1) * segmentSize;
+        }
+
+        var offset = writePosition;
+        var segment = segment(offset);
+        var position = (int) (offset % segmentSize);
+        segment.putInt(position, keyBytes.length);
+        segment.putInt(position + Integer.BYTES, valueBytes.length);
+        segment.put(position + RECORD_HEADER_SIZE, keyBytes);
+        segment.put(position + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+        writePosition += recordSize;
+        return offset;
+    }
+
+    private MappedByteBuffer segment(long offset) {
+        var segmentIndex = (int) (offset / segmentSize);
+        try {
+            while (segments.size() <= segmentIndex) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map a new segment of " + file, e);
+        }
+        return segments.get(segmentIndex);
+    }
+
+    private byte[] readKeyBytes(long offset) {
+        var segment = segment(offset);
+        var position = (int) (offset % segmentSize);
+        var keyBytes = new byte[segment.getInt(position)];
+        segment.get(position + RECORD_HEADER_SIZE, keyBytes);
+        return keyBytes;
+    }
+
+    private V readValue(long offset) {
+        var segment = segment(offset);
+        var position = (int) (offset % segmentSize);
+        var keyLength = segment.getInt(position);
+        var valueBytes = new byte[segment.getInt(position + Integer.BYTES)];
+        segment.get(position + RECORD_HEADER_SIZE + keyLength, valueBytes);
+        return decode(valueCodec, valueBytes);
+    }
+
+    private synchronized Entry<K, V> readEntry(long offset) {
+        return new SimpleImmutableEntry<>(decode(keyCodec, readKeyBytes(offset)), readValue(offset));
+    }
+
+    //offsets of every live record in file order, which is also the order the entries were last written in
+    private synchronized long[] liveOffsets() {
+        var offsets = new long[size];
+        var i = 0;
+        for (var hashOffsets : index.values()) {
+            for (var offset : hashOffsets) {
+                offsets[i++] = offset;
+            }
+        }
+        Arrays.sort(offsets);
+        return offsets;
+    }
+
+    private static <T> byte[] encode(EntityCodec<T> codec, T value) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            codec.write(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T decode(EntityCodec<T> codec, byte[] bytes) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            var offsets = liveOffsets();
+            return new Iterator<>() {
+                private int next = 0;
+                private Entry<K, V> last;
+
+                @Override
+                public boolean hasNext() {
+                    return next < offsets.length;
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = readEntry(offsets[next++]);
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    MappedEntityStore.this.remove(last.getKey());
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return MappedEntityStore.this.size();
+        }
+
+        @Override
+        public void clear() {
+            MappedEntityStore.this.clear();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.atlassian.migration.app.zephyr.migration.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ExecutorType {
+    PLATFORM("platform"),
+    VIRTUAL("virtual");
+
+    private final String executorTypeName;
+
+    ExecutorType(String value) {
+        this.executorTypeName = value;
+    }
+
+    public static Optional<ExecutorType> getExecutorTypeByName(String name) {
+        return Arrays.stream(values()).filter(executorType -> executorType.executorTypeName.equalsIgnoreCase(name)).findFirst();
+    }
+
+    @Override
+    public String toString() {
+        return executorTypeName;
+    }
+}
@@ -0,0 +1,188 @@
+package com.atlassian.migration.app.zephyr.migration.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one task per item on a bounded number of worker threads and returns the results in the order of the items.
+ * <p>
+ * The first failing task cancels every task still pending or running and its exception is rethrown to the caller,
+ * so a batch either completes entirely or fails as a whole. With a parallelism of one the tasks run serially on the
+ * caller thread.
+ * <p>
+ * Workers are either pooled platform threads or, when the running JDK provides them, one virtual thread per task.
+ * In both cases no more than {@code parallelism} tasks run at the same time.
+ */
+public class ParallelTaskRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelTaskRunner.class);
+    private static final long IDLE_WORKER_TIMEOUT_SECONDS = 60L;
+
+    private final String name;
+    private final int parallelism;
+    private final ExecutorType executorType;
+    private final Semaphore runningTasks;
+    private ExecutorService executor;
+
+    public ParallelTaskRunner(String name, int parallelism) {
+        this(name, parallelism, ExecutorType.PLATFORM);
+    }
+
+    public ParallelTaskRunner(String name, int parallelism, ExecutorType executorType) {
+        this.name = name;
+        this.parallelism = Math.max(parallelism, 1);
+        this.executorType = availableExecutorType(name, executorType);
+        this.runningTasks = new Semaphore(this.parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public <T, R> List<R> runAll(List<T> items, Task<T, R> task) throws IOException {
+        if (parallelism == 1 || items.size() <= 1) {
+            List<R> results = new ArrayList<>(items.size());
+            for (var item : items) {
+                results.add(task.run(item));
+            }
+            return results;
+        }
+
+        CompletionService<IndexedResult<R>> completionService = new ExecutorCompletionService<>(getExecutor());
+        List<Future<IndexedResult<R>>> futures = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            var index = i;
+            var item = items.get(i);
+            futures.add(completionService.submit(() -> runBounded(index, item, task)));
+        }
+
+        Object[] results = new Object[items.size()];
+        try {
+            for (int completed = 0; completed < items.size(); completed++) {
+                var result = completionService.take().get();
+                results[result.index()] = result.value();
+            }
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + name + " tasks", e);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> orderedResults = (List<R>) Arrays.asList(results);
+        return orderedResults;
+    }
+
+    private <T, R> IndexedResult<R> runBounded(int index, T item, Task<T, R> task) throws IOException, InterruptedException {
+        runningTasks.acquire();
+        try {
+            return new IndexedResult<>(index, task.run(item));
+        } finally {
+            runningTasks.release();
+        }
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        var cancelled = futures.stream().filter(future -> future.cancel(true)).count();
+        if (cancelled > 0) {
+            logger.warn("Cancelled " + cancelled + " pending " + name + " tasks after a failure.");
+        }
+    }
+
+    private IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = createExecutor(name, parallelism, executorType);
+        }
+        return executor;
+    }
+
+    /**
+     * The executor the workers of {@code name} run on: a pool of {@code threads} platform threads, which end after
+     * a minute idle, or a new virtual thread per task.
+     */
+    static ExecutorService createExecutor(String name, int threads, ExecutorType executorType) {
+        return executorType == ExecutorType.VIRTUAL ? createVirtualThreadExecutor() : createPlatformThreadPool(name, threads);
+    }
+
+    /**
+     * The given executor type, or platform threads when virtual ones are asked for but not available.
+     */
+    static ExecutorType availableExecutorType(String name, ExecutorType executorType) {
+        return executorType == ExecutorType.VIRTUAL && !isVirtualThreadSupported()
+                ? fallbackToPlatform(name)
+                : executorType;
+    }
+
+    private static ExecutorService createPlatformThreadPool(String name, int threads) {
+        var threadCounter = new AtomicInteger();
+        var threadPool = new ThreadPoolExecutor(threads, threads,
+                IDLE_WORKER_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    var thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    //Virtual threads are looked up reflectively so the tool still compiles and runs on Java 17
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create a virtual thread executor", e);
+        }
+    }
+
+    static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorType fallbackToPlatform(String name) {
+        logger.warn("Virtual threads are not available on Java " + Runtime.version().feature()
+                + ", " + name + " tasks will run on platform threads.");
+        return ExecutorType.PLATFORM;
+    }
+
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R run(T item) throws IOException;
+    }
+
+    private record IndexedResult<R>(int index, R value) {
+    }
+}
@@ -1,41 +1,70 @@
 package com.atlassian.migration.app.zephyr.migration.service;
 
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
 import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class ScaleCycleService implements Resettable {
+public class ScaleCycleService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScaleCycleService.class);
 
-    private final Map<String, String> mapCreatedScaleCycles = new HashMap<>();
+    //a cycle being created is a pending future, so concurrent executions of its Squad cycle wait for the one creation
+    private final Map<String, CompletableFuture<String>> mapCreatedScaleCycles = new ConcurrentHashMap<>();
     private final ScaleApi scaleApi;
     private final String defaultCycleKey;
+    private final MigrationJournal journal;
 
     public ScaleCycleService(ScaleApi scaleApi, String defaultCycleKey) {
-        this.scaleApi = scaleApi;
-        this.defaultCycleKey = defaultCycleKey;
+        this(scaleApi, defaultCycleKey, MigrationJournal.disabled());
     }
 
-    @Override
-    public void reset() {
-        mapCreatedScaleCycles.clear();
+    public ScaleCycleService(ScaleApi scaleApi, String defaultCycleKey, MigrationJournal journal) {
+        this.scaleApi = scaleApi;
+        this.defaultCycleKey = defaultCycleKey;
+        this.journal = journal;
+        //cycles created by an interrupted run are reused when resuming
+        journal.getCycles().forEach((squadCycleName, scaleCycleKey) ->
+                mapCreatedScaleCycles.put(squadCycleName, CompletableFuture.completedFuture(scaleCycleKey)));
     }
 
     public String getCycleKeyBySquadCycleName(String squadCycleName, String projectKey, String versionName) {
 
         var squadCycleVersion = translateSquadToScaleVersion(versionName);
 
-        if (!mapCreatedScaleCycles.containsKey(squadCycleName)) {
-            var newScaleCycleKey = createNewScaleCycle(squadCycleName, projectKey, squadCycleVersion);
-            mapCreatedScaleCycles.put(squadCycleName, newScaleCycleKey);
+        var pendingCycle = new CompletableFuture<String>();
+        var knownCycle = mapCreatedScaleCycles.putIfAbsent(squadCycleName, pendingCycle);
+        if (knownCycle != null) {
+            return awaitCycle(knownCycle);
+        }
+
+        //the cycle is created outside the map, a failed creation is forgotten so that the next execution tries again
+        try {
+            var scaleCycleKey = createNewScaleCycle(squadCycleName, projectKey, squadCycleVersion);
+            pendingCycle.complete(scaleCycleKey);
+            return scaleCycleKey;
+        } catch (RuntimeException exception) {
+            mapCreatedScaleCycles.remove(squadCycleName, pendingCycle);
+            pendingCycle.completeExceptionally(exception);
+            throw exception;
         }
+    }
 
-        return mapCreatedScaleCycles.get(squadCycleName);
+    private static String awaitCycle(CompletableFuture<String> cycle) {
+        try {
+            return cycle.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
     }
 
     private String translateSquadToScaleVersion(String versionName) {
@@ -55,6 +84,10 @@ public class ScaleCycleService implements Resettable {
 
             logger.info("Test Cycle created successfully");
 
+            if (scaleCycleKey != null) {
+                journal.recordCycle(squadCycleName, scaleCycleKey);
+            }
+
             return scaleCycleKey;
         } catch (IOException exception) {
             logger.error("Failed to create new Scale cycle." + exception.getMessage(), exception);
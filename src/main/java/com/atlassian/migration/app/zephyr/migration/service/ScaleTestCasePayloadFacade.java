@@ -85,7 +85,7 @@ public class ScaleTestCasePayloadFacade {
         return new ScaleTestCaseCreationPayload(
                 projectKey,
                 issue.fields().summary,
-                convertJiraTextFormattingToHtml(issue.fields().description),
+                getDescriptionHtml(issue),
                 issue.fields().labels,
                 reporterKey, // Use the potentially null reporterKey
                 getIssueLinksIds(issue),
@@ -250,6 +250,14 @@ public class ScaleTestCasePayloadFacade {
         }
     }
 
+    //the description rendered by the search if it was asked for, rendering it here otherwise
+    private String getDescriptionHtml(JiraIssuesResponse issue) {
+        if (issue.renderedFields() != null && issue.renderedFields().description() != null) {
+            return issue.renderedFields().description();
+        }
+        return convertJiraTextFormattingToHtml(issue.fields().description);
+    }
+
     private String convertJiraTextFormattingToHtml(String textToFormat) {
         if (textToFormat == null || textToFormat.isBlank()) {
             return textToFormat;
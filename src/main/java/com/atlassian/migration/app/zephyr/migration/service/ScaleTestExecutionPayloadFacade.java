@@ -14,8 +14,9 @@ import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionItemParsedRe
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class ScaleTestExecutionPayloadFacade implements Resettable {
+public class ScaleTestExecutionPayloadFacade {
 
     private static final String DEFAULT_NONE_USER = "None";
 
@@ -31,20 +32,18 @@ public class ScaleTestExecutionPayloadFacade implements Resettable {
             SQUAD_STATUS_UNEXECUTED, SCALE_EXEC_STATUS_NOT_EXECUTED
     );
 
-    private final Set<String> assignableUsers = new HashSet<>();
-    private final Set<String> unassignableUsers = new HashSet<>(Set.of(DEFAULT_NONE_USER));
+    private final Set<String> assignableUsers = ConcurrentHashMap.newKeySet();
+    private final Set<String> unassignableUsers = newUnassignableUsers();
     private final JiraApi jiraApi;
 
-    public ScaleTestExecutionPayloadFacade(JiraApi jiraApi) {
-        this.jiraApi = jiraApi;
+    private static Set<String> newUnassignableUsers() {
+        Set<String> users = ConcurrentHashMap.newKeySet();
+        users.add(DEFAULT_NONE_USER);
+        return users;
     }
 
-    @Override
-    public void reset() {
-        assignableUsers.clear();
-
-        unassignableUsers.clear();
-        unassignableUsers.add(DEFAULT_NONE_USER);
+    public ScaleTestExecutionPayloadFacade(JiraApi jiraApi) {
+        this.jiraApi = jiraApi;
     }
 
     public ScaleExecutionCreationPayload buildPayload(
@@ -0,0 +1,297 @@
+package com.atlassian.migration.app.zephyr.migration.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a list of items through a chain of stages, each with its own worker threads, connected by bounded queues.
+ * A stage whose output queue is full blocks until the next stage catches up, so a slow stage holds back the ones
+ * before it instead of letting work pile up in memory.
+ * <p>
+ * Results are returned in the order of the items. As with {@link ParallelTaskRunner}, the first failure stops every
+ * stage and is rethrown to the caller. A list of at most one item runs on the caller thread.
+ * <p>
+ * The workers of a stage run on platform or virtual threads, like those of a {@link ParallelTaskRunner}, and the
+ * executors are kept from one run to the next until the pipeline is closed.
+ * <p>
+ * Every stage measures the time spent working, waiting for input and blocked on a full output queue. The busiest
+ * stage is the bottleneck: the stages before it show up blocked, the ones after it waiting.
+ */
+public class StagedPipeline<I, O> implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StagedPipeline.class);
+    private static final Object END_OF_ITEMS = new Object();
+
+    private final String name;
+    private final int queueCapacity;
+    private final ExecutorType executorType;
+    private final List<Stage> stages;
+
+    private StagedPipeline(String name, int queueCapacity, ExecutorType executorType, List<Stage> stages) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.executorType = executorType;
+        this.stages = stages;
+    }
+
+    public static <I, O> StagedPipeline<I, O> of(String name, int queueCapacity, String stageName, int threads,
+                                                 ParallelTaskRunner.Task<I, O> task) {
+        return of(name, queueCapacity, ExecutorType.PLATFORM, stageName, threads, task);
+    }
+
+    public static <I, O> StagedPipeline<I, O> of(String name, int queueCapacity, ExecutorType executorType,
+                                                 String stageName, int threads, ParallelTaskRunner.Task<I, O> task) {
+        return new StagedPipeline<>(name, Math.max(queueCapacity, 1),
+                ParallelTaskRunner.availableExecutorType(name, executorType),
+                List.of(new Stage(stageName, threads, task)));
+    }
+
+    public <N> StagedPipeline<I, N> then(String stageName, int threads, ParallelTaskRunner.Task<O, N> task) {
+        List<Stage> chainedStages = new ArrayList<>(stages);
+        chainedStages.add(new Stage(stageName, threads, task));
+        return new StagedPipeline<>(name, queueCapacity, executorType, List.copyOf(chainedStages));
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public List<StageMetrics> getMetrics() {
+        return stages.stream().map(Stage::metrics).toList();
+    }
+
+    public List<O> runAll(List<I> items) throws IOException {
+        List<O> results = items.size() <= 1 ? runOnCallerThread(items) : runStaged(items);
+        logger.info(name + " stages: " + getMetrics().stream().map(StageMetrics::toString)
+                .collect(Collectors.joining(" | ")));
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<O> runOnCallerThread(List<I> items) throws IOException {
+        List<O> results = new ArrayList<>(items.size());
+        for (var item : items) {
+            Object value = item;
+            for (var stage : stages) {
+                var startNanos = System.nanoTime();
+                value = stage.task.run(value);
+                stage.busyNanos.addAndGet(System.nanoTime() - startNanos);
+                stage.items.incrementAndGet();
+            }
+            results.add((O) value);
+        }
+        return results;
+    }
+
+    private List<O> runStaged(List<I> items) throws IOException {
+        List<BlockingQueue<Object>> queues = new ArrayList<>(stages.size());
+        queues.add(new LinkedBlockingQueue<>());
+        for (int i = 1; i < stages.size(); i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+
+        Object[] results = new Object[items.size()];
+        var failure = new AtomicReference<Throwable>();
+        List<Future<?>> workers = new CopyOnWriteArrayList<>();
+
+        var firstQueue = queues.get(0);
+        for (int i = 0; i < items.size(); i++) {
+            firstQueue.add(new IndexedItem(i, items.get(i)));
+        }
+        for (int t = 0; t < stages.get(0).threads; t++) {
+            firstQueue.add(END_OF_ITEMS);
+        }
+
+        for (int i = 0; i < stages.size(); i++) {
+            var stage = stages.get(i);
+            var input = queues.get(i);
+            var output = i + 1 < stages.size() ? queues.get(i + 1) : null;
+            var downstreamThreads = i + 1 < stages.size() ? stages.get(i + 1).threads : 0;
+            var runningWorkers = new AtomicInteger(stage.threads);
+            var executor = stage.executor(name, executorType);
+
+            for (int t = 1; t <= stage.threads; t++) {
+                var workerName = name + "-" + stage.name + "-" + t;
+                workers.add(executor.submit(() -> runWorker(workerName, stage, input, output, downstreamThreads,
+                        runningWorkers, results, failure, workers)));
+            }
+        }
+        //a worker failing before every worker was submitted couldn't stop the later ones
+        if (failure.get() != null) {
+            workers.forEach(worker -> worker.cancel(true));
+        }
+
+        try {
+            for (var worker : workers) {
+                awaitWorker(worker);
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(worker -> worker.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + name + " stages", e);
+        }
+
+        if (failure.get() != null) {
+            throw unwrap(failure.get());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<O> orderedResults = (List<O>) Arrays.asList(results);
+        return orderedResults;
+    }
+
+    //failures are collected by the workers themselves, a cancelled worker is one stopped after a failure
+    private static void awaitWorker(Future<?> worker) throws InterruptedException {
+        try {
+            worker.get();
+        } catch (CancellationException | ExecutionException e) {
+            logger.debug("Stage worker ended early: " + e);
+        }
+    }
+
+    private void runWorker(String workerName, Stage stage, BlockingQueue<Object> input, BlockingQueue<Object> output,
+                           int downstreamThreads, AtomicInteger runningWorkers, Object[] results,
+                           AtomicReference<Throwable> failure, List<Future<?>> workers) {
+        //pooled and virtual threads are named after the stage they work for while they do
+        var thread = Thread.currentThread();
+        var threadName = thread.getName();
+        thread.setName(workerName);
+        try {
+            while (true) {
+                var waitStartNanos = System.nanoTime();
+                var next = input.take();
+                stage.starvedNanos.addAndGet(System.nanoTime() - waitStartNanos);
+
+                if (next == END_OF_ITEMS) {
+                    //the last worker of a stage tells every worker of the next one that nothing else is coming
+                    if (runningWorkers.decrementAndGet() == 0 && output != null) {
+                        for (int t = 0; t < downstreamThreads; t++) {
+                            output.put(END_OF_ITEMS);
+                        }
+                    }
+                    return;
+                }
+
+                var item = (IndexedItem) next;
+                var startNanos = System.nanoTime();
+                var value = stage.task.run(item.value());
+                stage.busyNanos.addAndGet(System.nanoTime() - startNanos);
+                stage.items.incrementAndGet();
+
+                if (output == null) {
+                    results[item.index()] = value;
+                } else {
+                    var blockStartNanos = System.nanoTime();
+                    output.put(new IndexedItem(item.index(), value));
+                    stage.blockedNanos.addAndGet(System.nanoTime() - blockStartNanos);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.debug(name + " " + stage.name + " worker stopped.");
+        } catch (Exception | Error e) {
+            if (failure.compareAndSet(null, e)) {
+                logger.warn("Stopping " + name + " stages after a failure in " + stage.name + ".");
+                workers.forEach(worker -> worker.cancel(true));
+            }
+        } finally {
+            thread.setName(threadName);
+        }
+    }
+
+    /**
+     * Stops the threads of every stage.
+     */
+    @Override
+    public void close() {
+        stages.forEach(Stage::shutdown);
+    }
+
+    private static IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    private static class Stage {
+        private final String name;
+        private final int threads;
+        private final ParallelTaskRunner.Task<Object, Object> task;
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong starvedNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+        private ExecutorService executor;
+
+        @SuppressWarnings("unchecked")
+        private Stage(String name, int threads, ParallelTaskRunner.Task<?, ?> task) {
+            this.name = name;
+            this.threads = Math.max(threads, 1);
+            this.task = (ParallelTaskRunner.Task<Object, Object>) task;
+        }
+
+        private synchronized ExecutorService executor(String pipelineName, ExecutorType executorType) {
+            if (executor == null) {
+                executor = ParallelTaskRunner.createExecutor(pipelineName + "-" + name, threads, executorType);
+            }
+            return executor;
+        }
+
+        private synchronized void shutdown() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+
+        private StageMetrics metrics() {
+            return new StageMetrics(name, threads, items.get(), busyNanos.get(), starvedNanos.get(), blockedNanos.get());
+        }
+    }
+
+    private record IndexedItem(int index, Object value) {
+    }
+
+    /**
+     * Totals of a stage over every run of the pipeline. Times are summed over its threads.
+     */
+    public record StageMetrics(String stage, int threads, long items, long busyNanos, long starvedNanos,
+                               long blockedNanos) {
+
+        @Override
+        public String toString() {
+            return stage + " (" + threads + " threads) " + items + " items, busy " + millis(busyNanos)
+                    + " ms, waiting for input " + millis(starvedNanos) + " ms, blocked on output "
+                    + millis(blockedNanos) + " ms";
+        }
+
+        private static long millis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
@@ -12,9 +12,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class TestCasePostMigrator {
@@ -27,7 +27,7 @@ public class TestCasePostMigrator {
 
     private static final String[] csvMapping = {"id", "mappedScaleId", "createdBy", "createdOn", "modifiedBy", "modifiedOn"};
 
-    private final Map<String, GetProjectResponse> projectMetadata = new HashMap<>();
+    private final Map<String, GetProjectResponse> projectMetadata = new ConcurrentHashMap<>();
 
     public TestCasePostMigrator(JiraApi jiraApi,
                                 TestCaseCsvExporter testCaseCsvExporter) {
@@ -3,6 +3,7 @@ package com.atlassian.migration.app.zephyr.scale.api;
 import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
 import com.atlassian.migration.app.zephyr.common.ApiException;
 import com.atlassian.migration.app.zephyr.common.BaseApi;
+import com.atlassian.migration.app.zephyr.common.HttpTransport;
 import com.atlassian.migration.app.zephyr.common.ZephyrApiException;
 import com.atlassian.migration.app.zephyr.scale.model.*;
 import com.atlassian.migration.app.zephyr.squad.model.FetchSquadStatusResponse;
@@ -13,7 +14,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
 
 public class ScaleApi extends BaseApi {
     private static final Logger logger = LoggerFactory.getLogger(ScaleApi.class);
@@ -36,10 +41,38 @@ public class ScaleApi extends BaseApi {
     public static final String CREATE_SCALE_TEST_SCRIPT_RESULT_DEFECT_ENDPOINT = "/rest/tests/1.0/tracelink/testresult/bulk/create";
     public static final String CUSTOM_FIELD_DUPLICATED_EXPECTED_MESSAGE = "Custom field name is duplicated";
 
+    //test result batches and test step updates are the large payloads, the only ones worth compressing
+    private static final List<Pattern> COMPRESSIBLE_REQUEST_PATHS = List.of(
+            Pattern.compile("/rest/atm/1\\.0/testrun/[^/]+/testresults$"),
+            Pattern.compile("/rest/tests/1\\.0/testcase/[^/]+$"));
+
+    private volatile boolean compressRequestBodies = false;
+
     public ScaleApi(ApiConfiguration config) {
         super(config);
     }
 
+    public ScaleApi(ApiConfiguration config, HttpTransport transport) {
+        super(config, transport);
+    }
+
+    /**
+     * Gzip compresses the test result batches and test step updates sent to Scale. Only for servers, or proxies in
+     * front of them, that decompress request bodies.
+     */
+    public void compressRequestBodies(boolean compressRequestBodies) {
+        this.compressRequestBodies = compressRequestBodies;
+    }
+
+    @Override
+    protected boolean compressesRequestBody(URI uri) {
+        if (!compressRequestBodies) {
+            return false;
+        }
+        var path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        return COMPRESSIBLE_REQUEST_PATHS.stream().anyMatch(pattern -> pattern.matcher(path).find());
+    }
+
     public String createTestCases(ScaleTestCaseCreationPayload testCaseCreationPayload) throws ZephyrApiException {
         String response = "";
         Map<String, Object> result = new HashMap<>();
@@ -70,6 +103,12 @@ public class ScaleApi extends BaseApi {
         }
     }
 
+    public CompletableFuture<Void> updateTestStepAsync(String key, SquadUpdateStepPayload step) {
+        return logFailure(sendHttpPutAsync(String.format(SCALE_TEST_STEP_ENDPOINT, key), step),
+                String.format(ScaleApiErrorLogger.ERROR_CREATE_TEST_STEP, key),
+                String.format(SCALE_TEST_STEP_ENDPOINT, key), gson.toJson(step));
+    }
+
     public void updateTestStepByKey(String key, SquadUpdateStepPayloadKey step) throws ZephyrApiException {
         try {
             sendHttpPut(String.format(FETCH_SCALE_TEST_CASE_BYKEY_ENDPOINT, key), step);
@@ -125,6 +164,13 @@ public class ScaleApi extends BaseApi {
         return null;
     }
 
+    public CompletableFuture<FetchScaleTestResults> fetchTestResultsbyIdAsync(String testResultId) throws ApiException {
+        var response = sendHttpGetAsync(getUri(urlPath(FETCH_SCALE_TEST_RESULTS_ENDPOINT, testResultId)))
+                .thenApply(body -> gson.fromJson(body, FetchScaleTestResults.class));
+        return logFailure(response, String.format(ScaleApiErrorLogger.ERROR_FETCHING_TESTRESULTS_STATUS, testResultId),
+                String.format(FETCH_SCALE_TEST_RESULTS_ENDPOINT, testResultId), "");
+    }
+
     public String createScaleTestResultsStatus(String projectId, String statusName, String statusDescription, String statusColor) throws ZephyrApiException{
         Map<String, Object> params = new HashMap<>();
         params.put("projectId", Integer.parseInt(projectId));
@@ -144,12 +190,12 @@ public class ScaleApi extends BaseApi {
         return result.get("id").toString();
     }
 
-    public void updateTestCaseStatuses(String projectId) throws ZephyrApiException {
+    public void updateTestCaseStatuses(String projectId, Set<String> testCaseStatuses) throws ZephyrApiException {
         try {
             var response = sendHttpGet(getUri(urlPath(FETCH_SCALE_TESTCASE_STATUSES, projectId)));
             List<ScaleMigrationTestCaseStatusPayload> listOfScaleTestcaseStatuses = gson.fromJson(response, new TypeToken<List<ScaleMigrationTestCaseStatusPayload>>(){}.getType());
             listOfScaleTestcaseStatuses.forEach(testCaseStatusPayload -> {
-                ScaleMigrationTestCaseStatusPayload.MIGRATION_TESTCASE_STATUSES.add(testCaseStatusPayload.name());
+                testCaseStatuses.add(testCaseStatusPayload.name());
             });
         } catch (ApiException e) {
             ScaleApiErrorLogger.logAndThrow(String.format(ScaleApiErrorLogger.ERROR_FETCHING_TESTCASE_STATUS, projectId),
@@ -186,12 +232,12 @@ public class ScaleApi extends BaseApi {
         return result.get("id").toString();
     }
 
-    public void updateTestCasePriorities(String projectId) throws ZephyrApiException {
+    public void updateTestCasePriorities(String projectId, Set<String> testCasePriorities) throws ZephyrApiException {
         try {
             var response = sendHttpGet(getUri(urlPath(FETCH_SCALE_TESTCASE_PRIORITY, projectId)));
             List<ScaleMigrationTestCasePriorityPayload> listofScaleResultsStatus = gson.fromJson(response, new TypeToken<List<ScaleMigrationTestCasePriorityPayload>>(){}.getType());
             listofScaleResultsStatus.forEach(priotiy -> {
-                ScaleMigrationTestCasePriorityPayload.MIGRATION_TESTCASE_PRIORITIES.add(priotiy.name());
+                testCasePriorities.add(priotiy.name());
             });
         } catch (ApiException e) {
             ScaleApiErrorLogger.logAndThrow(String.format(ScaleApiErrorLogger.ERROR_FETCHING_TESTCASE_PRIORITY, projectId),
@@ -250,6 +296,15 @@ public class ScaleApi extends BaseApi {
         return new ScalePOSTTestResultPayload(Collections.emptyList());
     }
 
+    public CompletableFuture<ScalePOSTTestResultPayload> createTestResultsAsync(String cycleKey, List<ScaleExecutionCreationPayload> datas) {
+        Type testResultCreatedPayload = new TypeToken<List<ScaleTestResultCreatedPayload>>() {
+        }.getType();
+        var response = sendHttpPostAsync(String.format(CREATE_SCALE_TEST_RESULTS_ENDPOINT, cycleKey), datas)
+                .thenApply(body -> new ScalePOSTTestResultPayload(gson.<List<ScaleTestResultCreatedPayload>>fromJson(body, testResultCreatedPayload)));
+        return logFailure(response, String.format(ScaleApiErrorLogger.ERROR_CREATE_TEST_RESULTS, cycleKey),
+                String.format(CREATE_SCALE_TEST_RESULTS_ENDPOINT, cycleKey), gson.toJson(datas));
+    }
+
     public ScaleTestResultCreatedPayload createTestExecution(String cycleKey, ScaleExecutionCreationPayload data)
             throws ZephyrApiException {
         //Test Results creation endpoint only accepts a List of Test Results as payload
@@ -301,6 +356,22 @@ public class ScaleApi extends BaseApi {
         }
     }
 
+    //an asynchronous call fails with the same ZephyrApiException, logged the same way, as its blocking version
+    private static <T> CompletableFuture<T> logFailure(CompletableFuture<T> response, String message, String apiEndpoint,
+                                                      String requestBody) {
+        return response.exceptionallyCompose(failure -> {
+            var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof ApiException apiException) {
+                try {
+                    ScaleApiErrorLogger.logAndThrow(message, apiEndpoint, requestBody, apiException);
+                } catch (ZephyrApiException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
     private static class ScaleApiErrorLogger {
 
         public static final String ERROR_CREATE_TEST_CASE = "Error while creating Test Case at " +
@@ -0,0 +1,323 @@
+package com.atlassian.migration.app.zephyr.scale.api;
+
+import com.atlassian.migration.app.zephyr.scale.model.FetchScaleTestResults;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionCreationPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionStepPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleTestCaseCreationPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleTestResultCreatedPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleTestScriptResults;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextInt;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextString;
+
+/**
+ * Hand-written adapters for the Scale records written and read once per migrated test case: the test case and test
+ * result payloads, and the created and fetched test results. They write the properties in the order Gson would and
+ * leave out the null ones the same way.
+ */
+public class ScaleModelAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        var rawType = type.getRawType();
+        TypeAdapter<?> adapter;
+        if (rawType == ScaleTestCaseCreationPayload.class) {
+            adapter = new TestCaseAdapter(stringsAdapter(gson),
+                    gson.getAdapter(new TypeToken<Map<String, Object>>() {
+                    }));
+        } else if (rawType == ScaleExecutionCreationPayload.class) {
+            adapter = new TestResultAdapter(gson.getAdapter(Object.class), stringsAdapter(gson),
+                    gson.getAdapter(new TypeToken<List<ScaleExecutionStepPayload>>() {
+                    }),
+                    gson.getAdapter(new TypeToken<Map<String, String>>() {
+                    }));
+        } else if (rawType == ScaleExecutionStepPayload.class) {
+            adapter = new ScriptResultAdapter();
+        } else if (rawType == ScaleTestResultCreatedPayload.class) {
+            adapter = new CreatedTestResultAdapter();
+        } else if (rawType == FetchScaleTestResults.class) {
+            adapter = new FetchedTestResultAdapter(gson.getAdapter(new TypeToken<List<ScaleTestScriptResults>>() {
+            }));
+        } else if (rawType == ScaleTestScriptResults.class) {
+            adapter = new FetchedScriptResultAdapter();
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    private static TypeAdapter<List<String>> stringsAdapter(Gson gson) {
+        return gson.getAdapter(new TypeToken<List<String>>() {
+        });
+    }
+
+    private static class TestCaseAdapter extends TypeAdapter<ScaleTestCaseCreationPayload> {
+
+        private final TypeAdapter<List<String>> stringsAdapter;
+        private final TypeAdapter<Map<String, Object>> customFieldsAdapter;
+
+        private TestCaseAdapter(TypeAdapter<List<String>> stringsAdapter,
+                                TypeAdapter<Map<String, Object>> customFieldsAdapter) {
+            this.stringsAdapter = stringsAdapter;
+            this.customFieldsAdapter = customFieldsAdapter;
+        }
+
+        @Override
+        public ScaleTestCaseCreationPayload read(JsonReader in) throws IOException {
+            String projectKey = null;
+            String name = null;
+            String objective = null;
+            List<String> labels = null;
+            String owner = null;
+            List<String> issueLinks = null;
+            String priority = null;
+            String status = null;
+            String component = null;
+            Map<String, Object> customFields = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "projectKey" -> projectKey = nextString(in);
+                    case "name" -> name = nextString(in);
+                    case "objective" -> objective = nextString(in);
+                    case "labels" -> labels = stringsAdapter.read(in);
+                    case "owner" -> owner = nextString(in);
+                    case "issueLinks" -> issueLinks = stringsAdapter.read(in);
+                    case "priority" -> priority = nextString(in);
+                    case "status" -> status = nextString(in);
+                    case "component" -> component = nextString(in);
+                    case "customFields" -> customFields = customFieldsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ScaleTestCaseCreationPayload(projectKey, name, objective, labels, owner, issueLinks, priority,
+                    status, component, customFields);
+        }
+
+        @Override
+        public void write(JsonWriter out, ScaleTestCaseCreationPayload testCase) throws IOException {
+            out.beginObject();
+            out.name("projectKey").value(testCase.projectKey());
+            out.name("name").value(testCase.name());
+            out.name("objective").value(testCase.objective());
+            out.name("labels");
+            stringsAdapter.write(out, testCase.labels());
+            out.name("owner").value(testCase.owner());
+            out.name("issueLinks");
+            stringsAdapter.write(out, testCase.issueLinks());
+            out.name("priority").value(testCase.priority());
+            out.name("status").value(testCase.status());
+            out.name("component").value(testCase.component());
+            out.name("customFields");
+            customFieldsAdapter.write(out, testCase.customFields());
+            out.endObject();
+        }
+    }
+
+    private static class TestResultAdapter extends TypeAdapter<ScaleExecutionCreationPayload> {
+
+        private final TypeAdapter<Object> objectAdapter;
+        private final TypeAdapter<List<String>> stringsAdapter;
+        private final TypeAdapter<List<ScaleExecutionStepPayload>> scriptResultsAdapter;
+        private final TypeAdapter<Map<String, String>> customFieldsAdapter;
+
+        private TestResultAdapter(TypeAdapter<Object> objectAdapter, TypeAdapter<List<String>> stringsAdapter,
+                                  TypeAdapter<List<ScaleExecutionStepPayload>> scriptResultsAdapter,
+                                  TypeAdapter<Map<String, String>> customFieldsAdapter) {
+            this.objectAdapter = objectAdapter;
+            this.stringsAdapter = stringsAdapter;
+            this.scriptResultsAdapter = scriptResultsAdapter;
+            this.customFieldsAdapter = customFieldsAdapter;
+        }
+
+        @Override
+        public ScaleExecutionCreationPayload read(JsonReader in) throws IOException {
+            String status = null;
+            String testCaseKey = null;
+            Object executedBy = null;
+            Object executionDate = null;
+            Object assignedTo = null;
+            Object comment = null;
+            String version = null;
+            List<String> issueLinks = null;
+            List<ScaleExecutionStepPayload> scriptResults = null;
+            Map<String, String> customFields = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "status" -> status = nextString(in);
+                    case "testCaseKey" -> testCaseKey = nextString(in);
+                    case "executedBy" -> executedBy = objectAdapter.read(in);
+                    case "executionDate" -> executionDate = objectAdapter.read(in);
+                    case "assignedTo" -> assignedTo = objectAdapter.read(in);
+                    case "comment" -> comment = objectAdapter.read(in);
+                    case "version" -> version = nextString(in);
+                    case "issueLinks" -> issueLinks = stringsAdapter.read(in);
+                    case "scriptResults" -> scriptResults = scriptResultsAdapter.read(in);
+                    case "customFields" -> customFields = customFieldsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ScaleExecutionCreationPayload(status, testCaseKey, executedBy, executionDate, assignedTo,
+                    comment, version, issueLinks, scriptResults, customFields);
+        }
+
+        @Override
+        public void write(JsonWriter out, ScaleExecutionCreationPayload testResult) throws IOException {
+            out.beginObject();
+            out.name("status").value(testResult.status());
+            out.name("testCaseKey").value(testResult.testCaseKey());
+            out.name("executedBy");
+            objectAdapter.write(out, testResult.executedBy());
+            out.name("executionDate");
+            objectAdapter.write(out, testResult.executionDate());
+            out.name("assignedTo");
+            objectAdapter.write(out, testResult.assignedTo());
+            out.name("comment");
+            objectAdapter.write(out, testResult.comment());
+            out.name("version").value(testResult.version());
+            out.name("issueLinks");
+            stringsAdapter.write(out, testResult.issueLinks());
+            out.name("scriptResults");
+            scriptResultsAdapter.write(out, testResult.scriptResults());
+            out.name("customFields");
+            customFieldsAdapter.write(out, testResult.customFields());
+            out.endObject();
+        }
+    }
+
+    private static class ScriptResultAdapter extends TypeAdapter<ScaleExecutionStepPayload> {
+
+        @Override
+        public ScaleExecutionStepPayload read(JsonReader in) throws IOException {
+            int index = 0;
+            String status = null;
+            String comment = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "index" -> index = nextInt(in);
+                    case "status" -> status = nextString(in);
+                    case "comment" -> comment = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ScaleExecutionStepPayload(index, status, comment);
+        }
+
+        @Override
+        public void write(JsonWriter out, ScaleExecutionStepPayload scriptResult) throws IOException {
+            out.beginObject();
+            out.name("index").value(scriptResult.index());
+            out.name("status").value(scriptResult.status());
+            out.name("comment").value(scriptResult.comment());
+            out.endObject();
+        }
+    }
+
+    private static class CreatedTestResultAdapter extends TypeAdapter<ScaleTestResultCreatedPayload> {
+
+        @Override
+        public ScaleTestResultCreatedPayload read(JsonReader in) throws IOException {
+            String id = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("id")) {
+                    id = nextString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ScaleTestResultCreatedPayload(id);
+        }
+
+        @Override
+        public void write(JsonWriter out, ScaleTestResultCreatedPayload testResult) throws IOException {
+            out.beginObject();
+            out.name("id").value(testResult.id());
+            out.endObject();
+        }
+    }
+
+    private static class FetchedTestResultAdapter extends TypeAdapter<FetchScaleTestResults> {
+
+        private final TypeAdapter<List<ScaleTestScriptResults>> scriptResultsAdapter;
+
+        private FetchedTestResultAdapter(TypeAdapter<List<ScaleTestScriptResults>> scriptResultsAdapter) {
+            this.scriptResultsAdapter = scriptResultsAdapter;
+        }
+
+        @Override
+        public FetchScaleTestResults read(JsonReader in) throws IOException {
+            int id = 0;
+            String key = null;
+            List<ScaleTestScriptResults> testScriptResults = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "key" -> key = nextString(in);
+                    case "testScriptResults" -> testScriptResults = scriptResultsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FetchScaleTestResults(id, key, testScriptResults);
+        }
+
+        @Override
+        public void write(JsonWriter out, FetchScaleTestResults testResult) throws IOException {
+            out.beginObject();
+            out.name("id").value(testResult.id());
+            out.name("key").value(testResult.key());
+            out.name("testScriptResults");
+            scriptResultsAdapter.write(out, testResult.testScriptResults());
+            out.endObject();
+        }
+    }
+
+    private static class FetchedScriptResultAdapter extends TypeAdapter<ScaleTestScriptResults> {
+
+        @Override
+        public ScaleTestScriptResults read(JsonReader in) throws IOException {
+            int id = 0;
+            int index = 0;
+            int sourceScriptId = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "index" -> index = nextInt(in);
+                    case "sourceScriptId" -> sourceScriptId = nextInt(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ScaleTestScriptResults(id, index, sourceScriptId);
+        }
+
+        @Override
+        public void write(JsonWriter out, ScaleTestScriptResults scriptResult) throws IOException {
+            out.beginObject();
+            out.name("id").value(scriptResult.id());
+            out.name("index").value(scriptResult.index());
+            out.name("sourceScriptId").value(scriptResult.sourceScriptId());
+            out.endObject();
+        }
+    }
+}
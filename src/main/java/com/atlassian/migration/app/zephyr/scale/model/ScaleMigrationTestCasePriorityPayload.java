@@ -1,6 +1,5 @@
 package com.atlassian.migration.app.zephyr.scale.model;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,7 +14,8 @@ public record ScaleMigrationTestCasePriorityPayload(
 
 ) {
 
+    //defaults of every Scale project, the ones found in Scale are tracked per project while migrating
     public static final Set<String> MIGRATION_TESTCASE_PRIORITIES = Stream.of("High", "Low", "Normal")
-            .collect(Collectors.toCollection(HashSet::new));
+            .collect(Collectors.toUnmodifiableSet());
 
 }
\ No newline at end of file
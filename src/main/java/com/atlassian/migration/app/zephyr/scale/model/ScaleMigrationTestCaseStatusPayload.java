@@ -1,6 +1,5 @@
 package com.atlassian.migration.app.zephyr.scale.model;
 
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -11,8 +10,9 @@ public record ScaleMigrationTestCaseStatusPayload(
 
 ) {
 
+    //defaults of every Scale project, the ones found in Scale are tracked per project while migrating
     public static final Set<String> MIGRATION_TESTCASE_STATUSES = Stream.of("Draft", "Deprecated", "Approved")
-            .collect(Collectors.toCollection(HashSet::new));
+            .collect(Collectors.toUnmodifiableSet());
 
 }
 
@@ -3,12 +3,14 @@ package com.atlassian.migration.app.zephyr.squad.api;
 import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
 import com.atlassian.migration.app.zephyr.common.ApiException;
 import com.atlassian.migration.app.zephyr.common.BaseApi;
+import com.atlassian.migration.app.zephyr.common.HttpTransport;
 import com.atlassian.migration.app.zephyr.scale.model.GetAllProjectsResponse;
 import com.atlassian.migration.app.zephyr.squad.model.*;
 import com.google.gson.reflect.TypeToken;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,13 +30,14 @@ public class SquadApi extends BaseApi {
     public static final String ENTITY_TYPE_TEST_STEP = "TESTSTEP";
 
 
+    //default statuses, every project extends its own copy with the statuses fetched from Squad
     public static final Map<Integer, SquadExecutionTypeResponse> EXECUTION_TYPES = Stream.of(
             new SquadExecutionTypeResponse(-1, "Unexecuted"),
             new SquadExecutionTypeResponse(1, "Pass"),
             new SquadExecutionTypeResponse(2, "Fail"),
             new SquadExecutionTypeResponse(3, "WIP"),
             new SquadExecutionTypeResponse(4, "Blocked")
-    ).collect(Collectors.toMap(SquadExecutionTypeResponse::id, e -> e));
+    ).collect(Collectors.toUnmodifiableMap(SquadExecutionTypeResponse::id, e -> e));
 
     public static final Map<Integer, SquadExecutionTypeResponse> STEP_EXECUTION_TYPES = Stream.of(
             new SquadExecutionTypeResponse(-1, "Unexecuted"),
@@ -42,12 +45,16 @@ public class SquadApi extends BaseApi {
             new SquadExecutionTypeResponse(2, "Fail"),
             new SquadExecutionTypeResponse(3, "WIP"),
             new SquadExecutionTypeResponse(4, "Blocked")
-    ).collect(Collectors.toMap(SquadExecutionTypeResponse::id, e -> e));
+    ).collect(Collectors.toUnmodifiableMap(SquadExecutionTypeResponse::id, e -> e));
 
     public SquadApi(ApiConfiguration config) {
         super(config);
     }
 
+    public SquadApi(ApiConfiguration config, HttpTransport transport) {
+        super(config, transport);
+    }
+
     public GetAllProjectsResponse getAllProjects() throws java.io.IOException {
         var response = sendHttpGet(getUri(urlPath(GET_ALL_PROJECTS_ENDPOINT)));
         return gson.fromJson(response, GetAllProjectsResponse.class);
@@ -67,6 +74,15 @@ public class SquadApi extends BaseApi {
 
     public FetchSquadCustomFieldValueResponse fetchSquadExecutionCustomFieldValueResponse(String entityId) throws ApiException {
         var response = sendHttpGet(getUri(urlPath(FETCH_SQUAD_EXECUTION_CUSTOM_FIELD_VALUE_ENDPOINT, entityId)));
+        return parseCustomFieldValues(response);
+    }
+
+    public CompletableFuture<FetchSquadCustomFieldValueResponse> fetchSquadExecutionCustomFieldValueResponseAsync(String entityId) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_SQUAD_EXECUTION_CUSTOM_FIELD_VALUE_ENDPOINT, entityId)))
+                .thenApply(this::parseCustomFieldValues);
+    }
+
+    private FetchSquadCustomFieldValueResponse parseCustomFieldValues(String response) {
         Map<String, SquadCustomFieldValueResponse> listofExecutionStatus = gson.fromJson(response, new TypeToken<Map<String, SquadCustomFieldValueResponse>>(){}.getType());
         return new FetchSquadCustomFieldValueResponse(listofExecutionStatus);
     }
@@ -76,15 +92,36 @@ public class SquadApi extends BaseApi {
         return gson.fromJson(response, FetchSquadTestStepResponse.class);
     }
 
+    public CompletableFuture<FetchSquadTestStepResponse> fetchLatestTestStepByTestCaseIdAsync(String testCaseId) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_SQUAD_TEST_STEP_ENDPOINT, testCaseId)))
+                .thenApply(response -> gson.fromJson(response, FetchSquadTestStepResponse.class));
+    }
+
     public FetchSquadExecutionParsedResponse fetchLatestExecutionByIssueId(String issueId) throws ApiException {
+        return fetchLatestExecutionByIssueId(issueId, EXECUTION_TYPES);
+    }
+
+    public FetchSquadExecutionParsedResponse fetchLatestExecutionByIssueId(String issueId,
+                                                                           Map<Integer, SquadExecutionTypeResponse> executionTypes) throws ApiException {
 
         var response = sendHttpGet(getUri(urlPath(FETCH_SQUAD_EXECUTION_ENDPOINT, issueId)));
+        return parseExecutions(response, executionTypes);
+    }
+
+    public CompletableFuture<FetchSquadExecutionParsedResponse> fetchLatestExecutionByIssueIdAsync(String issueId,
+                                                                                                 Map<Integer, SquadExecutionTypeResponse> executionTypes) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_SQUAD_EXECUTION_ENDPOINT, issueId)))
+                .thenApply(response -> parseExecutions(response, executionTypes));
+    }
+
+    private FetchSquadExecutionParsedResponse parseExecutions(String response,
+                                                              Map<Integer, SquadExecutionTypeResponse> executionTypes) {
         var data = gson.fromJson(response, FetchSquadExecutionResponse.class);
 
         var executions = data.executions().stream()
                 .map(e -> new SquadExecutionItemParsedResponse(
                         e.id(),
-                        EXECUTION_TYPES.get(e.executionStatus()),
+                        executionTypes.get(e.executionStatus()),
                         e.createdOn(),
                         e.createdBy(),
                         e.createdByUserName(),
@@ -109,49 +146,55 @@ public class SquadApi extends BaseApi {
                 executions);
     }
 
-    public void updateExecutionStatusTypes(List<SquadExecutionStatusResponse> allStatuses) {
-        for(var executionStatusResponse:allStatuses){
-            int statusId = Integer.parseInt(executionStatusResponse.id());
-            if(!EXECUTION_TYPES.containsKey(statusId)){
-                EXECUTION_TYPES.put(statusId,
-                        new SquadExecutionTypeResponse(statusId, executionStatusResponse.name()));
-            }
-        }
-    }
-
     public FetchSquadCustomFieldResponse fetchSquadCustomFieldResponse(String entityType, String projectId) throws ApiException {
         var response = sendHttpGet(getUri(urlPath(FETCH_SQUAD_EXECUTION_STEP_CUSTOM_FIELDS, entityType, projectId)));
         List<SquadCustomFieldResponse> data = gson.fromJson(response, new TypeToken<List<SquadCustomFieldResponse>>(){}.getType());
         return new FetchSquadCustomFieldResponse(data);
     }
 
-    public void updateExecutionStepStatusTypes(List<SquadExecutionStatusResponse> allStatuses) {
-        for(var executionStatusResponse:allStatuses){
-            int statusId = Integer.parseInt(executionStatusResponse.id());
-            if(!STEP_EXECUTION_TYPES.containsKey(statusId)){
-                STEP_EXECUTION_TYPES.put(statusId,
-                        new SquadExecutionTypeResponse(statusId, executionStatusResponse.name()));
-            }
-        }
-    }
-
     public FetchSquadAttachmentResponse fetchTestExecutionAttachmentById(String testExecutionId) throws ApiException {
         return fetchAttachmentByEntityType(testExecutionId, ENTITY_TYPE_TEST_EXECUTION);
     }
 
+    public CompletableFuture<FetchSquadAttachmentResponse> fetchTestExecutionAttachmentByIdAsync(String testExecutionId) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_ATTACHMENT_ENDPOINT, testExecutionId, ENTITY_TYPE_TEST_EXECUTION)))
+                .thenApply(response -> gson.fromJson(response, FetchSquadAttachmentResponse.class));
+    }
+
     public FetchSquadAttachmentResponse fetchExecutionStepAttachmentById(String executionStepId) throws ApiException {
         return fetchAttachmentByEntityType(executionStepId, ENTITY_TYPE_TEST_STEP_RESULT);
     }
 
+    public CompletableFuture<FetchSquadAttachmentResponse> fetchExecutionStepAttachmentByIdAsync(String executionStepId) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_ATTACHMENT_ENDPOINT, executionStepId, ENTITY_TYPE_TEST_STEP_RESULT)))
+                .thenApply(response -> gson.fromJson(response, FetchSquadAttachmentResponse.class));
+    }
+
     public FetchSquadExecutionStepParsedResponse fetchTestExecutionStepById(String testExecutionId) throws ApiException {
+        return fetchTestExecutionStepById(testExecutionId, STEP_EXECUTION_TYPES);
+    }
+
+    public FetchSquadExecutionStepParsedResponse fetchTestExecutionStepById(String testExecutionId,
+                                                                            Map<Integer, SquadExecutionTypeResponse> stepExecutionTypes) throws ApiException {
         var response = sendHttpGet(getUri(urlPath(FETCH_SQUAD_STEPRESULTS_ENDPOINT, testExecutionId)));
+        return parseExecutionSteps(response, stepExecutionTypes);
+    }
+
+    public CompletableFuture<FetchSquadExecutionStepParsedResponse> fetchTestExecutionStepByIdAsync(String testExecutionId,
+                                                                                                  Map<Integer, SquadExecutionTypeResponse> stepExecutionTypes) throws ApiException {
+        return sendHttpGetAsync(getUri(urlPath(FETCH_SQUAD_STEPRESULTS_ENDPOINT, testExecutionId)))
+                .thenApply(response -> parseExecutionSteps(response, stepExecutionTypes));
+    }
+
+    private FetchSquadExecutionStepParsedResponse parseExecutionSteps(String response,
+                                                                      Map<Integer, SquadExecutionTypeResponse> stepExecutionTypes) {
         List<SquadExecutionStepResponse> listofExecutionSteps = gson.fromJson(response, new TypeToken<List<SquadExecutionStepResponse>>(){}.getType());
         var data = new FetchSquadExecutionStepResponse(listofExecutionSteps);
         var executionSteps = data.executionsteps().stream()
                 .map(e -> new SquadExecutionStepParsedResponse(
                         e.id(),
                         e.orderId()-1,
-                        STEP_EXECUTION_TYPES.get(e.status()),
+                        stepExecutionTypes.get(e.status()),
                         e.comment(),
                         e.stepResultAttachmentCount(),
                         e.defects().stream().map(def -> def.key()).toList())).toList();
@@ -0,0 +1,519 @@
+package com.atlassian.migration.app.zephyr.squad.api;
+
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadAttachmentResponse;
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadExecutionResponse;
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadTestStepResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadAttachmentItemResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadCustomFieldValueResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionDefectResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionItemResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionStatusResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionStepResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadTestStepResponse;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextBoolean;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextInt;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextInteger;
+import static com.atlassian.migration.app.zephyr.common.JsonUtils.nextString;
+
+/**
+ * Hand-written adapters for the ZAPI records read for every test case: its steps, its executions and their step
+ * results, defects, custom field values and attachments. An execution carries several dozen properties the model
+ * doesn't keep; they are skipped token by token instead of being bound or built into a tree.
+ */
+public class SquadModelAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        var rawType = type.getRawType();
+        TypeAdapter<?> adapter;
+        if (rawType == FetchSquadExecutionResponse.class) {
+            adapter = new ExecutionsAdapter(
+                    gson.getAdapter(new TypeToken<Map<String, SquadExecutionStatusResponse>>() {
+                    }),
+                    gson.getAdapter(new TypeToken<List<SquadExecutionItemResponse>>() {
+                    }));
+        } else if (rawType == SquadExecutionItemResponse.class) {
+            adapter = new ExecutionAdapter(gson.getAdapter(Object.class), defectsAdapter(gson));
+        } else if (rawType == SquadExecutionStepResponse.class) {
+            adapter = new StepResultAdapter(defectsAdapter(gson));
+        } else if (rawType == SquadExecutionDefectResponse.class) {
+            adapter = new DefectAdapter();
+        } else if (rawType == SquadExecutionStatusResponse.class) {
+            adapter = new StatusAdapter();
+        } else if (rawType == FetchSquadTestStepResponse.class) {
+            adapter = new TestStepsAdapter(gson.getAdapter(new TypeToken<List<SquadTestStepResponse>>() {
+            }));
+        } else if (rawType == SquadTestStepResponse.class) {
+            adapter = new TestStepAdapter(attachmentsAdapter(gson),
+                    gson.getAdapter(new TypeToken<Map<String, SquadCustomFieldValueResponse>>() {
+                    }));
+        } else if (rawType == SquadCustomFieldValueResponse.class) {
+            adapter = new CustomFieldValueAdapter();
+        } else if (rawType == FetchSquadAttachmentResponse.class) {
+            adapter = new AttachmentsAdapter(attachmentsAdapter(gson));
+        } else if (rawType == SquadAttachmentItemResponse.class) {
+            adapter = new AttachmentAdapter();
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    private static TypeAdapter<List<SquadExecutionDefectResponse>> defectsAdapter(Gson gson) {
+        return gson.getAdapter(new TypeToken<List<SquadExecutionDefectResponse>>() {
+        });
+    }
+
+    private static TypeAdapter<List<SquadAttachmentItemResponse>> attachmentsAdapter(Gson gson) {
+        return gson.getAdapter(new TypeToken<List<SquadAttachmentItemResponse>>() {
+        });
+    }
+
+    private static class ExecutionsAdapter extends TypeAdapter<FetchSquadExecutionResponse> {
+
+        private final TypeAdapter<Map<String, SquadExecutionStatusResponse>> statusAdapter;
+        private final TypeAdapter<List<SquadExecutionItemResponse>> executionsAdapter;
+
+        private ExecutionsAdapter(TypeAdapter<Map<String, SquadExecutionStatusResponse>> statusAdapter,
+                                  TypeAdapter<List<SquadExecutionItemResponse>> executionsAdapter) {
+            this.statusAdapter = statusAdapter;
+            this.executionsAdapter = executionsAdapter;
+        }
+
+        @Override
+        public FetchSquadExecutionResponse read(JsonReader in) throws IOException {
+            Map<String, SquadExecutionStatusResponse> status = null;
+            String issueId = null;
+            int recordsCount = 0;
+            int executionsToBeLogged = 0;
+            boolean isExecutionWorkflowEnabledForProject = false;
+            boolean isTimeTrackingEnabled = false;
+            List<SquadExecutionItemResponse> executions = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "status" -> status = statusAdapter.read(in);
+                    case "issueId" -> issueId = nextString(in);
+                    case "recordsCount" -> recordsCount = nextInt(in);
+                    case "executionsToBeLogged" -> executionsToBeLogged = nextInt(in);
+                    case "isExecutionWorkflowEnabledForProject" -> isExecutionWorkflowEnabledForProject = nextBoolean(in);
+                    case "isTimeTrackingEnabled" -> isTimeTrackingEnabled = nextBoolean(in);
+                    case "executions" -> executions = executionsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FetchSquadExecutionResponse(status, issueId, recordsCount, executionsToBeLogged,
+                    isExecutionWorkflowEnabledForProject, isTimeTrackingEnabled, executions);
+        }
+
+        @Override
+        public void write(JsonWriter out, FetchSquadExecutionResponse response) throws IOException {
+            out.beginObject();
+            out.name("status");
+            statusAdapter.write(out, response.status());
+            out.name("issueId").value(response.issueId());
+            out.name("recordsCount").value(response.recordsCount());
+            out.name("executionsToBeLogged").value(response.executionsToBeLogged());
+            out.name("isExecutionWorkflowEnabledForProject").value(response.isExecutionWorkflowEnabledForProject());
+            out.name("isTimeTrackingEnabled").value(response.isTimeTrackingEnabled());
+            out.name("executions");
+            executionsAdapter.write(out, response.executions());
+            out.endObject();
+        }
+    }
+
+    private static class ExecutionAdapter extends TypeAdapter<SquadExecutionItemResponse> {
+
+        private final TypeAdapter<Object> objectAdapter;
+        private final TypeAdapter<List<SquadExecutionDefectResponse>> defectsAdapter;
+
+        private ExecutionAdapter(TypeAdapter<Object> objectAdapter,
+                                 TypeAdapter<List<SquadExecutionDefectResponse>> defectsAdapter) {
+            this.objectAdapter = objectAdapter;
+            this.defectsAdapter = defectsAdapter;
+        }
+
+        @Override
+        public SquadExecutionItemResponse read(JsonReader in) throws IOException {
+            String id = null;
+            int executionStatus = 0;
+            String createdOn = null;
+            Object createdBy = null;
+            String createdByUserName = null;
+            String versionName = null;
+            String htmlComment = null;
+            String cycleName = null;
+            String folderName = null;
+            String executedOn = null;
+            String executedBy = null;
+            String assignedTo = null;
+            String assignedToDisplay = null;
+            String assignedToUserName = null;
+            List<SquadExecutionDefectResponse> defects = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "executionStatus" -> executionStatus = nextInt(in);
+                    case "createdOn" -> createdOn = nextString(in);
+                    case "createdBy" -> createdBy = objectAdapter.read(in);
+                    case "createdByUserName" -> createdByUserName = nextString(in);
+                    case "versionName" -> versionName = nextString(in);
+                    case "htmlComment" -> htmlComment = nextString(in);
+                    case "cycleName" -> cycleName = nextString(in);
+                    case "folderName" -> folderName = nextString(in);
+                    case "executedOn" -> executedOn = nextString(in);
+                    case "executedBy" -> executedBy = nextString(in);
+                    case "assignedTo" -> assignedTo = nextString(in);
+                    case "assignedToDisplay" -> assignedToDisplay = nextString(in);
+                    case "assignedToUserName" -> assignedToUserName = nextString(in);
+                    case "defects" -> defects = defectsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadExecutionItemResponse(id, executionStatus, createdOn, createdBy, createdByUserName,
+                    versionName, htmlComment, cycleName, folderName, executedOn, executedBy, assignedTo,
+                    assignedToDisplay, assignedToUserName, defects);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadExecutionItemResponse execution) throws IOException {
+            out.beginObject();
+            out.name("id").value(execution.id());
+            out.name("executionStatus").value(execution.executionStatus());
+            out.name("createdOn").value(execution.createdOn());
+            out.name("createdBy");
+            objectAdapter.write(out, execution.createdBy());
+            out.name("createdByUserName").value(execution.createdByUserName());
+            out.name("versionName").value(execution.versionName());
+            out.name("htmlComment").value(execution.htmlComment());
+            out.name("cycleName").value(execution.cycleName());
+            out.name("folderName").value(execution.folderName());
+            out.name("executedOn").value(execution.executedOn());
+            out.name("executedBy").value(execution.executedBy());
+            out.name("assignedTo").value(execution.assignedTo());
+            out.name("assignedToDisplay").value(execution.assignedToDisplay());
+            out.name("assignedToUserName").value(execution.assignedToUserName());
+            out.name("defects");
+            defectsAdapter.write(out, execution.defects());
+            out.endObject();
+        }
+    }
+
+    private static class StepResultAdapter extends TypeAdapter<SquadExecutionStepResponse> {
+
+        private final TypeAdapter<List<SquadExecutionDefectResponse>> defectsAdapter;
+
+        private StepResultAdapter(TypeAdapter<List<SquadExecutionDefectResponse>> defectsAdapter) {
+            this.defectsAdapter = defectsAdapter;
+        }
+
+        @Override
+        public SquadExecutionStepResponse read(JsonReader in) throws IOException {
+            int id = 0;
+            int orderId = 0;
+            int status = 0;
+            String comment = null;
+            int stepResultAttachmentCount = 0;
+            List<SquadExecutionDefectResponse> defects = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "orderId" -> orderId = nextInt(in);
+                    case "status" -> status = nextInt(in);
+                    case "comment" -> comment = nextString(in);
+                    case "stepResultAttachmentCount" -> stepResultAttachmentCount = nextInt(in);
+                    case "defects" -> defects = defectsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadExecutionStepResponse(id, orderId, status, comment, stepResultAttachmentCount, defects);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadExecutionStepResponse stepResult) throws IOException {
+            out.beginObject();
+            out.name("id").value(stepResult.id());
+            out.name("orderId").value(stepResult.orderId());
+            out.name("status").value(stepResult.status());
+            out.name("comment").value(stepResult.comment());
+            out.name("stepResultAttachmentCount").value(stepResult.stepResultAttachmentCount());
+            out.name("defects");
+            defectsAdapter.write(out, stepResult.defects());
+            out.endObject();
+        }
+    }
+
+    private static class DefectAdapter extends TypeAdapter<SquadExecutionDefectResponse> {
+
+        @Override
+        public SquadExecutionDefectResponse read(JsonReader in) throws IOException {
+            String key = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("key")) {
+                    key = nextString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadExecutionDefectResponse(key);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadExecutionDefectResponse defect) throws IOException {
+            out.beginObject();
+            out.name("key").value(defect.key());
+            out.endObject();
+        }
+    }
+
+    private static class StatusAdapter extends TypeAdapter<SquadExecutionStatusResponse> {
+
+        @Override
+        public SquadExecutionStatusResponse read(JsonReader in) throws IOException {
+            String id = null;
+            String name = null;
+            String description = null;
+            String color = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "name" -> name = nextString(in);
+                    case "description" -> description = nextString(in);
+                    case "color" -> color = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadExecutionStatusResponse(id, name, description, color);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadExecutionStatusResponse status) throws IOException {
+            out.beginObject();
+            out.name("id").value(status.id());
+            out.name("name").value(status.name());
+            out.name("description").value(status.description());
+            out.name("color").value(status.color());
+            out.endObject();
+        }
+    }
+
+    private static class TestStepsAdapter extends TypeAdapter<FetchSquadTestStepResponse> {
+
+        private final TypeAdapter<List<SquadTestStepResponse>> stepsAdapter;
+
+        private TestStepsAdapter(TypeAdapter<List<SquadTestStepResponse>> stepsAdapter) {
+            this.stepsAdapter = stepsAdapter;
+        }
+
+        @Override
+        public FetchSquadTestStepResponse read(JsonReader in) throws IOException {
+            List<SquadTestStepResponse> steps = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("stepBeanCollection")) {
+                    steps = stepsAdapter.read(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FetchSquadTestStepResponse(steps);
+        }
+
+        @Override
+        public void write(JsonWriter out, FetchSquadTestStepResponse response) throws IOException {
+            out.beginObject();
+            out.name("stepBeanCollection");
+            stepsAdapter.write(out, response.stepBeanCollection());
+            out.endObject();
+        }
+    }
+
+    private static class TestStepAdapter extends TypeAdapter<SquadTestStepResponse> {
+
+        private final TypeAdapter<List<SquadAttachmentItemResponse>> attachmentsAdapter;
+        private final TypeAdapter<Map<String, SquadCustomFieldValueResponse>> customFieldsAdapter;
+
+        private TestStepAdapter(TypeAdapter<List<SquadAttachmentItemResponse>> attachmentsAdapter,
+                                TypeAdapter<Map<String, SquadCustomFieldValueResponse>> customFieldsAdapter) {
+            this.attachmentsAdapter = attachmentsAdapter;
+            this.customFieldsAdapter = customFieldsAdapter;
+        }
+
+        @Override
+        public SquadTestStepResponse read(JsonReader in) throws IOException {
+            String id = null;
+            String orderId = null;
+            String htmlStep = null;
+            String htmlData = null;
+            String htmlResult = null;
+            List<SquadAttachmentItemResponse> attachmentsMap = null;
+            Map<String, SquadCustomFieldValueResponse> customFields = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextString(in);
+                    case "orderId" -> orderId = nextString(in);
+                    case "htmlStep" -> htmlStep = nextString(in);
+                    case "htmlData" -> htmlData = nextString(in);
+                    case "htmlResult" -> htmlResult = nextString(in);
+                    case "attachmentsMap" -> attachmentsMap = attachmentsAdapter.read(in);
+                    case "customFields" -> customFields = customFieldsAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadTestStepResponse(id, orderId, htmlStep, htmlData, htmlResult, attachmentsMap, customFields);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadTestStepResponse step) throws IOException {
+            out.beginObject();
+            out.name("id").value(step.id());
+            out.name("orderId").value(step.orderId());
+            out.name("htmlStep").value(step.htmlStep());
+            out.name("htmlData").value(step.htmlData());
+            out.name("htmlResult").value(step.htmlResult());
+            out.name("attachmentsMap");
+            attachmentsAdapter.write(out, step.attachmentsMap());
+            out.name("customFields");
+            customFieldsAdapter.write(out, step.customFields());
+            out.endObject();
+        }
+    }
+
+    private static class CustomFieldValueAdapter extends TypeAdapter<SquadCustomFieldValueResponse> {
+
+        @Override
+        public SquadCustomFieldValueResponse read(JsonReader in) throws IOException {
+            Integer customFieldId = null;
+            String customFieldName = null;
+            String customFieldType = null;
+            String value = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "customFieldId" -> customFieldId = nextInteger(in);
+                    case "customFieldName" -> customFieldName = nextString(in);
+                    case "customFieldType" -> customFieldType = nextString(in);
+                    case "value" -> value = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadCustomFieldValueResponse(customFieldId, customFieldName, customFieldType, value);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadCustomFieldValueResponse customFieldValue) throws IOException {
+            out.beginObject();
+            out.name("customFieldId").value(customFieldValue.customFieldId());
+            out.name("customFieldName").value(customFieldValue.customFieldName());
+            out.name("customFieldType").value(customFieldValue.customFieldType());
+            out.name("value").value(customFieldValue.value());
+            out.endObject();
+        }
+    }
+
+    private static class AttachmentsAdapter extends TypeAdapter<FetchSquadAttachmentResponse> {
+
+        private final TypeAdapter<List<SquadAttachmentItemResponse>> attachmentsAdapter;
+
+        private AttachmentsAdapter(TypeAdapter<List<SquadAttachmentItemResponse>> attachmentsAdapter) {
+            this.attachmentsAdapter = attachmentsAdapter;
+        }
+
+        @Override
+        public FetchSquadAttachmentResponse read(JsonReader in) throws IOException {
+            List<SquadAttachmentItemResponse> data = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("data")) {
+                    data = attachmentsAdapter.read(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new FetchSquadAttachmentResponse(data);
+        }
+
+        @Override
+        public void write(JsonWriter out, FetchSquadAttachmentResponse response) throws IOException {
+            out.beginObject();
+            out.name("data");
+            attachmentsAdapter.write(out, response.data());
+            out.endObject();
+        }
+    }
+
+    private static class AttachmentAdapter extends TypeAdapter<SquadAttachmentItemResponse> {
+
+        @Override
+        public SquadAttachmentItemResponse read(JsonReader in) throws IOException {
+            String fileName = null;
+            String dateCreated = null;
+            String htmlComment = null;
+            String fileSize = null;
+            String fileIcon = null;
+            String author = null;
+            String fileIconAltText = null;
+            String comment = null;
+            String fileId = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "fileName" -> fileName = nextString(in);
+                    case "dateCreated" -> dateCreated = nextString(in);
+                    case "htmlComment" -> htmlComment = nextString(in);
+                    case "fileSize" -> fileSize = nextString(in);
+                    case "fileIcon" -> fileIcon = nextString(in);
+                    case "author" -> author = nextString(in);
+                    case "fileIconAltText" -> fileIconAltText = nextString(in);
+                    case "comment" -> comment = nextString(in);
+                    case "fileId" -> fileId = nextString(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SquadAttachmentItemResponse(fileName, dateCreated, htmlComment, fileSize, fileIcon, author,
+                    fileIconAltText, comment, fileId);
+        }
+
+        @Override
+        public void write(JsonWriter out, SquadAttachmentItemResponse attachment) throws IOException {
+            out.beginObject();
+            out.name("fileName").value(attachment.fileName());
+            out.name("dateCreated").value(attachment.dateCreated());
+            out.name("htmlComment").value(attachment.htmlComment());
+            out.name("fileSize").value(attachment.fileSize());
+            out.name("fileIcon").value(attachment.fileIcon());
+            out.name("author").value(attachment.author());
+            out.name("fileIconAltText").value(attachment.fileIconAltText());
+            out.name("comment").value(attachment.comment());
+            out.name("fileId").value(attachment.fileId());
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void shouldMakeRequestsOverTheLimitWaitForARelease() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 2, 2);
+
+        var first = limiter.acquire();
+        var second = limiter.acquire();
+        var third = limiter.acquire();
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+
+        assertTrue(third.isDone());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldCutTheLimitWhenTheServerIsOverloaded() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 10, 10);
+        limiter.acquire();
+
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.OVERLOADED);
+
+        assertEquals(7, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldGrowTheLimitWhileResponsesStayFast() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 2, 4);
+
+        for (int i = 0; i < 10; i++) {
+            var currentLimit = limiter.getLimit();
+            for (int r = 0; r < currentLimit; r++) {
+                limiter.acquire();
+            }
+            for (int r = 0; r < currentLimit; r++) {
+                limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+            }
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowTheLimitWhenResponsesSlowDown() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 1, 4);
+        limiter.acquire();
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        var grownLimit = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            for (int r = 0; r < grownLimit; r++) {
+                limiter.acquire();
+            }
+            for (int r = 0; r < grownLimit; r++) {
+                limiter.release(SLOW, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+            }
+        }
+
+        assertEquals(grownLimit, limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowTheLimitWhenItIsNotReached() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 4, 8);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void shouldLeaveTheLimitAsItIsOnOtherFailures() {
+        var limiter = new AdaptiveConcurrencyLimiter("test", 3, 3);
+        limiter.acquire();
+
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldKeepALimiterPerApiFamily() {
+        var limits = new ApiConcurrencyLimits(8);
+
+        var jira = limits.limiterFor(URI.create("https://jira.local/rest/api/2/search"));
+        var zapi = limits.limiterFor(URI.create("https://jira.local/rest/zapi/latest/execution"));
+        var scale = limits.limiterFor(URI.create("https://jira.local/rest/atm/1.0/testcase"));
+
+        assertSame(limits.limiterFor(ApiFamily.JIRA), jira);
+        assertSame(limits.limiterFor(ApiFamily.ZAPI), zapi);
+        assertSame(limits.limiterFor(ApiFamily.SCALE), scale);
+        assertNotSame(jira, zapi);
+        assertEquals(4, jira.getLimit());
+    }
+}
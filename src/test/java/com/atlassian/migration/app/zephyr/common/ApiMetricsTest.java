@@ -0,0 +1,93 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiMetricsTest {
+
+    @TempDir
+    Path metricsDirectory;
+
+    @Test
+    void shouldNameRequestsAfterTheEndpointConstantTheyWereBuiltFrom() {
+        var scale = EndpointTemplates.of(ScaleApi.class);
+        var squad = EndpointTemplates.of(SquadApi.class);
+        var jira = EndpointTemplates.of(JiraApi.class);
+
+        assertEquals("SCALE_TEST_STEP_ENDPOINT", scale.nameOf(URI.create("https://jira/rest/tests/1.0/testcase/PRJ-T1")));
+        assertEquals("FETCH_SCALE_TEST_CASE_BYKEY_ENDPOINT", scale.nameOf(URI.create("https://jira/rest/atm/1.0/testcase/PRJ-T1")));
+        assertEquals("CREATE_SCALE_TEST_CASE_ENDPOINT", scale.nameOf(URI.create("https://jira/rest/atm/1.0/testcase")));
+        assertEquals("CREATE_SCALE_TEST_RESULTS_ENDPOINT", scale.nameOf(URI.create("https://jira/rest/atm/1.0/testrun/PRJ-C1/testresults")));
+        assertEquals("FETCH_SQUAD_EXECUTION_ENDPOINT", squad.nameOf(URI.create("https://jira/rest/zapi/latest/execution?issueId=10001")));
+        assertEquals("GET_PROJECT_WITH_HISTORICAL_KEYS", jira.nameOf(URI.create("https://jira/rest/api/2/project/PRJ?expand=projectKeys")));
+        assertEquals("GET_PROJECT_BY_KEY_OR_ID_ENDPOINT", jira.nameOf(URI.create("https://jira/rest/api/2/project/PRJ")));
+        assertEquals(EndpointTemplates.OTHER, jira.nameOf(URI.create("https://jira/rest/unknown/1")));
+    }
+
+    @Test
+    void shouldCountTheExchangesOfEachEndpoint() throws IOException {
+        var attempts = new AtomicInteger();
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/project/", exchange -> {
+            var body = "{\"key\":\"PRJ\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            exchange.sendResponseHeaders(attempts.incrementAndGet() == 1 ? 503 : 200, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            var jiraApi = new JiraApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+            jiraApi.retryWith(RetryPolicy.withDefaults(3, 1));
+            var apiMetrics = new ApiMetrics(metricsDirectory);
+            jiraApi.recordMetricsIn(apiMetrics);
+
+            jiraApi.getProject("PRJ");
+
+            var metrics = apiMetrics.endpoint("GET", "GET_PROJECT_BY_KEY_OR_ID_ENDPOINT");
+            assertEquals(2, metrics.getRequests());
+            assertEquals(1, metrics.getRetries());
+            assertEquals(1, metrics.getStatusCount(503));
+            assertEquals(1, metrics.getStatusCount(200));
+            assertEquals(26, metrics.getBytesIn());
+            assertEquals(2, metrics.getLatencies().getCount());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldWriteTheTableOfAllEndpointsAndOneForEachProject() throws IOException {
+        var apiMetrics = new ApiMetrics(metricsDirectory);
+        var request = HttpRequest.newBuilder(URI.create("https://jira/rest/atm/1.0/testcase"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"test\"}")).build();
+        var metrics = apiMetrics.endpoint("POST", "CREATE_SCALE_TEST_CASE_ENDPOINT");
+        metrics.recordResponse(request, 201, 12_000_000);
+
+        apiMetrics.dump();
+        apiMetrics.dumpForProject("PRJ");
+
+        var table = Files.readString(metricsDirectory.resolve(ApiMetrics.METRICS_FILE));
+        assertTrue(table.contains("POST CREATE_SCALE_TEST_CASE_ENDPOINT"));
+        assertTrue(table.contains("201:1"));
+        assertEquals(15, metrics.getBytesOut());
+        assertTrue(Files.exists(metricsDirectory.resolve("api-metrics-PRJ.txt")));
+    }
+}
@@ -0,0 +1,243 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthStrategyTest {
+
+    private HttpServer server;
+    private ApiConfiguration config;
+    private final AtomicInteger logins = new AtomicInteger();
+    private volatile String validSession;
+    private volatile boolean rejectLogins;
+    private final List<String> receivedAuthorizations = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(SessionCookieAuth.SESSION_ENDPOINT, exchange -> {
+            var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (rejectLogins || !body.contains("\"password\":\"secret\"")) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            validSession = "session-" + logins.incrementAndGet();
+            respond(exchange, 200, "{\"session\":{\"name\":\"JSESSIONID\",\"value\":\"" + validSession + "\"}}");
+        });
+        server.createContext("/rest/api/2/project/", exchange -> {
+            var authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            receivedAuthorizations.add(authorization == null ? "" : authorization);
+            var cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            if (authorization == null && !("JSESSIONID=" + validSession).equals(cookie)) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            respond(exchange, 200, "{\"key\":\"PRJ\",\"id\":\"10000\"}");
+        });
+        server.createContext("/rest/api/2/issue/", exchange -> {
+            if (!("JSESSIONID=" + validSession).equals(exchange.getRequestHeaders().getFirst("Cookie"))) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            respond(exchange, 200, "{\"key\":\"PRJ-1\",\"id\":\"10001\"}");
+        });
+        server.start();
+        config = new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                "user", "secret".toCharArray(), "1.1");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldSendTheSameBasicHeaderAsBefore() throws IOException {
+        var jiraApi = new JiraApi(config);
+
+        jiraApi.getProject("PRJ");
+
+        assertEquals(List.of("Basic dXNlcjpzZWNyZXQ="), receivedAuthorizations);
+    }
+
+    @Test
+    void shouldSendThePasswordAsBearerToken() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.TOKEN.createStrategy(config));
+
+        jiraApi.getProject("PRJ");
+
+        assertEquals(List.of("Bearer secret"), receivedAuthorizations);
+    }
+
+    @Test
+    void shouldLogInOnceAndReuseTheSession() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.SESSION.createStrategy(config));
+
+        jiraApi.getProject("PRJ");
+        jiraApi.getProject("PRJ");
+
+        assertEquals(1, logins.get());
+        assertEquals(List.of("", ""), receivedAuthorizations);
+    }
+
+    @Test
+    void shouldLogInAgainWhenTheSessionExpires() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.SESSION.createStrategy(config));
+        jiraApi.getProject("PRJ");
+
+        validSession = "expired";
+        var project = jiraApi.getProject("PRJ");
+
+        assertEquals("PRJ", project.key());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void shouldLogInOnlyOnceForRequestsRejectedWithTheSameSession() throws ApiException {
+        var sessionCookieAuth = SessionCookieAuth.login(config);
+        var expiredSession = sessionCookieAuth.headerValue();
+
+        assertTrue(sessionCookieAuth.renewAfterUnauthorized(expiredSession));
+        assertTrue(sessionCookieAuth.renewAfterUnauthorized(expiredSession));
+
+        assertEquals(2, logins.get());
+        assertEquals("JSESSIONID=session-2", sessionCookieAuth.headerValue());
+    }
+
+    @Test
+    void shouldLogInThroughTheSharedTransportAndCassette(@TempDir Path cassetteFolder) throws IOException {
+        var transport = HttpTransport.create(new HttpTransport.Settings("1.1", 2, 4, 10, 30, 10, 0));
+        try (var cassette = HttpCassette.recordingTo(new SnapshotWriter(cassetteFolder))) {
+            SessionCookieAuth.login(config, transport, cassette);
+        }
+        server.stop(0);
+
+        try (var cassette = HttpCassette.replayingFrom(new SnapshotReader(cassetteFolder), 0)) {
+            var sessionCookieAuth = SessionCookieAuth.login(config, transport, cassette);
+
+            assertEquals("JSESSIONID=session-1", sessionCookieAuth.headerValue());
+            assertEquals(0, cassette.getMisses());
+        }
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void shouldEndTheProbeOfAHalfOpenBreakerWhenTheSessionIsRenewed() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.SESSION.createStrategy(config));
+        jiraApi.retryWith(halfOpenRetryPolicy());
+        validSession = "expired";
+
+        var project = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> jiraApi.getProject("PRJ"));
+
+        assertEquals("PRJ", project.key());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void shouldEndTheProbeOfAHalfOpenBreakerWhenTheSessionIsRenewedAsynchronously() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.SESSION.createStrategy(config));
+        jiraApi.retryWith(halfOpenRetryPolicy());
+        validSession = "expired";
+
+        var issue = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> jiraApi.getIssueByIssueKeyAsync("PRJ-1").get());
+
+        assertEquals("PRJ-1", issue.key());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    void shouldRenewTheCredentialsOfAnAsynchronousRequestOffTheCommonPool() throws Exception {
+        var jiraApi = new JiraApi(config);
+        var session = SessionCookieAuth.login(config);
+        var renewingThreads = new CopyOnWriteArrayList<String>();
+        jiraApi.authenticateWith(new AuthStrategy() {
+            @Override
+            public String headerName() {
+                return session.headerName();
+            }
+
+            @Override
+            public String headerValue() {
+                return session.headerValue();
+            }
+
+            @Override
+            public boolean renewAfterUnauthorized(String rejectedHeaderValue) throws ApiException {
+                renewingThreads.add(Thread.currentThread().getName());
+                return session.renewAfterUnauthorized(rejectedHeaderValue);
+            }
+        });
+        validSession = "expired";
+
+        assertEquals("PRJ-1", jiraApi.getIssueByIssueKeyAsync("PRJ-1").get(5, TimeUnit.SECONDS).key());
+
+        assertEquals(List.of("credentials-renewal"), renewingThreads);
+    }
+
+    @Test
+    void shouldEndTheProbeOfAHalfOpenBreakerWhenTheSessionCantBeRenewed() throws IOException {
+        var jiraApi = new JiraApi(config);
+        jiraApi.authenticateWith(AuthenticationType.SESSION.createStrategy(config));
+        jiraApi.retryWith(halfOpenRetryPolicy());
+        validSession = "expired";
+        rejectLogins = true;
+
+        assertThrows(ApiException.class, () -> jiraApi.getProject("PRJ"));
+
+        rejectLogins = false;
+        var project = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> jiraApi.getProject("PRJ"));
+        assertEquals("PRJ", project.key());
+    }
+
+    @Test
+    void shouldFailRightAwayWhenTheLoginIsRejected() {
+        var wrongPassword = new ApiConfiguration(config.host(), "user", "wrong".toCharArray(), "1.1");
+
+        var exception = assertThrows(ApiException.class, () -> SessionCookieAuth.login(wrongPassword));
+
+        assertEquals(401, exception.code);
+    }
+
+    //a breaker whose pause is already over, the next request to go through is its probe
+    private RetryPolicy halfOpenRetryPolicy() {
+        var retryPolicy = new RetryPolicy(new RetryPolicy.Settings(3, 1, 10), new RetryBudget(0.2, 50), 0);
+        var circuitBreaker = retryPolicy.circuitBreakerFor(URI.create(config.host() + "/rest/api/2/project/PRJ"));
+        for (int i = 0; i < CircuitBreaker.WINDOW; i++) {
+            circuitBreaker.recordFailure();
+        }
+        return retryPolicy;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clockMillis = new AtomicLong(1_000_000);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 30_000, clockMillis::get);
+
+    @Test
+    void shouldStayClosedWhileMostRequestsSucceed() {
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 == 0) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+        }
+
+        assertFalse(circuitBreaker.isOpen());
+        assertEquals(0, circuitBreaker.pauseMillis());
+    }
+
+    @Test
+    void shouldPauseRequestsOnceHalfOfTheWindowFailed() {
+        openCircuitBreaker();
+
+        assertTrue(circuitBreaker.isOpen());
+        assertEquals(30_000, circuitBreaker.pauseMillis());
+
+        clockMillis.addAndGet(10_000);
+
+        assertEquals(20_000, circuitBreaker.pauseMillis());
+    }
+
+    @Test
+    void shouldLetASingleProbeThroughAfterThePauseAndCloseWhenItSucceeds() {
+        openCircuitBreaker();
+        clockMillis.addAndGet(30_000);
+
+        assertEquals(0, circuitBreaker.pauseMillis());
+        assertTrue(circuitBreaker.pauseMillis() > 0);
+
+        circuitBreaker.recordSuccess();
+
+        assertFalse(circuitBreaker.isOpen());
+        assertEquals(0, circuitBreaker.pauseMillis());
+    }
+
+    @Test
+    void shouldPauseAgainWhenTheProbeFails() {
+        openCircuitBreaker();
+        clockMillis.addAndGet(30_000);
+        circuitBreaker.pauseMillis();
+
+        circuitBreaker.recordFailure();
+
+        assertEquals(30_000, circuitBreaker.pauseMillis());
+    }
+
+    private void openCircuitBreaker() {
+        for (int i = 0; i < CircuitBreaker.WINDOW; i++) {
+            if (i % 2 == 1) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.model.FetchJiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.scale.model.FetchScaleTestResults;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionCreationPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionStepPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleTestCaseCreationPayload;
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadExecutionResponse;
+import com.atlassian.migration.app.zephyr.squad.model.FetchSquadTestStepResponse;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionStepResponse;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GsonFactoryTest {
+
+    private static final String SQUAD_EXECUTIONS = """
+            {"status":{"1":{"id":1,"name":"PASS","description":"Passed","color":"#75B000","type":0}},
+             "issueId":10001,"recordsCount":2,"executionsToBeLogged":0,
+             "isExecutionWorkflowEnabledForProject":"true","isTimeTrackingEnabled":false,
+             "executions":[
+               {"id":7,"orderId":1,"executionStatus":"1","cycleId":-1,"cycleName":"Ad hoc","versionId":-1,
+                "versionName":"Unscheduled","projectKey":"PRJ","createdBy":{"name":"admin","active":true},
+                "createdByUserName":"admin","createdOn":"15/Jan/24 10:00 AM","htmlComment":"",
+                "executedOn":"16/Jan/24 9:00 AM","executedBy":"admin","assignedTo":null,
+                "defects":[{"key":"PRJ-9","status":"Open","summary":"broken"}],
+                "executionDefectCount":1,"stepDefectCount":0,"totalDefectCount":1,
+                "customFields":"{}","executionWorkflowStatus":null,"canViewIssue":true},
+               {"id":8,"executionStatus":2,"createdBy":"admin","defects":[]}]}
+            """;
+
+    private static final String JIRA_SEARCH_PAGE = """
+            {"expand":"schema,names","startAt":0,"maxResults":50,"total":1,
+             "issues":[{"expand":"operations","id":"10001","self":"https://jira/rest/api/2/issue/10001","key":"PRJ-1",
+               "fields":{"summary":"Login works","labels":["smoke"],"created":"2024-01-15T10:00:00.000+0000",
+                 "issuetype":{"self":"https://jira/issuetype/10100","id":"10100","name":"Test","subtask":false},
+                 "status":{"self":"https://jira/status/1","id":"1","name":"Open",
+                   "statusCategory":{"id":2,"key":"new","colorName":"blue-gray"}},
+                 "priority":{"id":"3","name":"Medium","iconUrl":"https://jira/priority.svg"},
+                 "reporter":{"key":"admin","name":"admin","avatarUrls":{"48x48":"https://jira/avatar"}},
+                 "attachment":[{"id":"900","filename":"log.txt","size":12,"mimetype":"text/plain",
+                   "author":{"name":"admin","key":"admin","active":true,"timeZone":"UTC"}}]},
+               "renderedFields":{"summary":null,"description":"<p>Opens the login page</p>","created":"15/Jan/24"}}]}
+            """;
+
+    private final Gson reflective = new Gson();
+    private final Gson handWritten = GsonFactory.gson();
+
+    @Test
+    void shouldReadSquadResponsesAsGsonDoes() {
+        assertEquals(reflective.fromJson(SQUAD_EXECUTIONS, FetchSquadExecutionResponse.class),
+                handWritten.fromJson(SQUAD_EXECUTIONS, FetchSquadExecutionResponse.class));
+
+        var steps = """
+                {"stepBeanCollection":[{"id":3,"orderId":1,"step":"raw","htmlStep":"<p>open</p>","htmlData":null,
+                  "htmlResult":"<p>done</p>","attachmentsMap":[{"fileId":"5","fileName":"a.png","fileSize":"1 kB"}],
+                  "customFields":{"1":{"customFieldId":"1","customFieldName":"Env","customFieldType":"TEXT","value":"QA"}}}],
+                 "prevTestStepId":null}
+                """;
+        assertEquals(reflective.fromJson(steps, FetchSquadTestStepResponse.class),
+                handWritten.fromJson(steps, FetchSquadTestStepResponse.class));
+
+        var stepResults = """
+                [{"id":11,"orderId":2,"status":"2","comment":null,"stepResultAttachmentCount":1,
+                  "defects":[{"key":"PRJ-9"}],"htmlComment":""}]
+                """;
+        var type = new TypeToken<List<SquadExecutionStepResponse>>() {
+        }.getType();
+        assertEquals((List<?>) reflective.fromJson(stepResults, type), handWritten.fromJson(stepResults, type));
+    }
+
+    @Test
+    void shouldReadJiraSearchPagesAsGsonDoes() {
+        var expected = reflective.fromJson(JIRA_SEARCH_PAGE, FetchJiraIssuesResponse.class);
+        var actual = handWritten.fromJson(JIRA_SEARCH_PAGE, FetchJiraIssuesResponse.class);
+
+        assertEquals(expected, actual);
+        assertEquals("Test", actual.issues().get(0).fields().issuetype.name());
+        assertEquals("12", actual.issues().get(0).fields().attachment.get(0).size());
+    }
+
+    @Test
+    void shouldWriteScalePayloadsAsGsonDoes() {
+        Map<String, Object> customFields = new LinkedHashMap<>();
+        customFields.put("Environment", "QA");
+        customFields.put("Estimate", 3);
+        customFields.put("Components", List.of("api", "ui"));
+        var testCase = new ScaleTestCaseCreationPayload("PRJ", "Login works", null, List.of("smoke"), "admin",
+                List.of("PRJ-1"), "Normal", "Draft", null, customFields);
+        var testResult = new ScaleExecutionCreationPayload("Pass", "PRJ-T1", "admin", "2024-01-16T09:00:00Z", null,
+                Map.of("html", "<p>ok</p>"), "Unscheduled", List.of(),
+                Arrays.asList(new ScaleExecutionStepPayload(0, "Pass", null), null), Map.of("Sprint", "1"));
+
+        assertEquals(reflective.toJson(testCase), handWritten.toJson(testCase));
+        assertEquals(reflective.toJson(testResult), handWritten.toJson(testResult));
+        assertEquals(reflective.toJson(List.of(testResult)), handWritten.toJson(List.of(testResult)));
+    }
+
+    @Test
+    void shouldReadBackWhatItWrites() {
+        var testResult = new FetchScaleTestResults(12, "PRJ-E1", List.of());
+        var page = handWritten.fromJson(JIRA_SEARCH_PAGE, FetchJiraIssuesResponse.class);
+        var executions = handWritten.fromJson(SQUAD_EXECUTIONS, FetchSquadExecutionResponse.class);
+
+        assertEquals(testResult, handWritten.fromJson(handWritten.toJson(testResult), FetchScaleTestResults.class));
+        assertEquals(page, handWritten.fromJson(handWritten.toJson(page), FetchJiraIssuesResponse.class));
+        assertEquals(executions, handWritten.fromJson(handWritten.toJson(executions), FetchSquadExecutionResponse.class));
+        assertNull(handWritten.fromJson("null", FetchSquadExecutionResponse.class));
+    }
+}
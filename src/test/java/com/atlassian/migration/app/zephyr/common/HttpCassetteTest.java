@@ -0,0 +1,153 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCassetteTest {
+
+    @TempDir
+    Path cassetteFolder;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final HttpTransport transport = HttpTransport.forVersion("1.1");
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/project/", exchange -> {
+            var body = gzip("{\"key\":\"PRJ\"}");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/rest/atm/1.0/testcase", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            var body = ("{\"key\":\"PRJ-T" + calls.incrementAndGet() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(201, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReplayTheRecordedResponseWithoutTheServer() throws Exception {
+        try (var cassette = HttpCassette.recordingTo(new SnapshotWriter(cassetteFolder))) {
+            cassette.send(get("/rest/api/2/project/PRJ?expand=projectKeys&b=1"), HttpResponse.BodyHandlers.ofByteArray(),
+                    transport);
+        }
+        server.stop(0);
+
+        try (var cassette = HttpCassette.replayingFrom(new SnapshotReader(cassetteFolder), 0)) {
+            var response = cassette.send(get("/rest/api/2/project/PRJ?b=1&expand=projectKeys"),
+                    HttpResponse.BodyHandlers.ofByteArray(), transport);
+
+            assertEquals(200, response.statusCode());
+            assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+            assertEquals("{\"key\":\"PRJ\"}", gunzip(response.body()));
+            assertEquals(0, cassette.getMisses());
+        }
+    }
+
+    @Test
+    void shouldReplayRepeatedRequestsInTheOrderTheyWereRecorded() throws Exception {
+        try (var cassette = HttpCassette.recordingTo(new SnapshotWriter(cassetteFolder))) {
+            cassette.send(post("{\"name\":\"test\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+            cassette.send(post("{\"name\":\"test\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+        }
+
+        try (var cassette = HttpCassette.replayingFrom(new SnapshotReader(cassetteFolder), 0)) {
+            var first = cassette.send(post("{\"name\":\"test\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+            var second = cassette.sendAsync(post("{\"name\":\"test\"}"), HttpResponse.BodyHandlers.ofString(), transport)
+                    .get();
+            var third = cassette.send(post("{\"name\":\"test\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+
+            assertEquals(201, first.statusCode());
+            assertEquals("{\"key\":\"PRJ-T1\"}", first.body());
+            assertEquals("{\"key\":\"PRJ-T2\"}", second.body());
+            assertEquals("{\"key\":\"PRJ-T1\"}", third.body());
+            assertEquals(2, calls.get());
+        }
+    }
+
+    @Test
+    void shouldFallBackToARecordingOfTheSameRequestWithAnotherBody() throws Exception {
+        try (var cassette = HttpCassette.recordingTo(new SnapshotWriter(cassetteFolder))) {
+            cassette.send(post("{\"name\":\"recorded\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+        }
+
+        try (var cassette = HttpCassette.replayingFrom(new SnapshotReader(cassetteFolder), 0)) {
+            var response = cassette.send(post("{\"name\":\"changed\"}"), HttpResponse.BodyHandlers.ofString(), transport);
+
+            assertEquals("{\"key\":\"PRJ-T1\"}", response.body());
+            assertEquals(1, cassette.getApproximateMatches());
+        }
+    }
+
+    @Test
+    void shouldFailARequestThatWasNotRecorded() throws Exception {
+        try (var cassette = HttpCassette.recordingTo(new SnapshotWriter(cassetteFolder))) {
+            cassette.send(get("/rest/api/2/project/PRJ"), HttpResponse.BodyHandlers.ofString(), transport);
+        }
+
+        try (var cassette = HttpCassette.replayingFrom(new SnapshotReader(cassetteFolder), 0)) {
+            assertThrows(IOException.class, () -> cassette.send(get("/rest/api/2/project/OTHER"),
+                    HttpResponse.BodyHandlers.ofString(), transport));
+            assertEquals(1, cassette.getMisses());
+        }
+    }
+
+    private HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(uriOf(pathAndQuery)).GET().build();
+    }
+
+    private HttpRequest post(String body) {
+        return HttpRequest.newBuilder(uriOf("/rest/atm/1.0/testcase"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private URI uriOf(String pathAndQuery) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + pathAndQuery);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(compressed)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTransportTest {
+
+    private HttpServer server;
+    private String host;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/slow", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            var body = "{\"key\":\"PRJ\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        host = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldCapTheExchangesInFlight() throws Exception {
+        var transport = HttpTransport.create(settings(2, 0));
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(transport.sendAsync(HttpRequest.newBuilder(URI.create(host + "/slow/" + i)).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        waitFor(() -> inFlight.get() == 2);
+        Thread.sleep(200);
+
+        assertEquals(2, inFlight.get());
+        assertEquals(2, transport.getExchangesInFlight());
+
+        release.countDown();
+        for (var response : responses) {
+            assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+        }
+        assertEquals(2, maxInFlight.get());
+        assertEquals(0, transport.getExchangesInFlight());
+    }
+
+    @Test
+    void shouldFailARequestWaitingLongerThanTheRequestTimeout() {
+        var jiraApi = new JiraApi(new ApiConfiguration(host, "user", "password".toCharArray(), "1.1"),
+                HttpTransport.create(settings(0, 1)));
+
+        var startMillis = System.currentTimeMillis();
+        assertThrows(ApiException.class, () -> jiraApi.getProject("slow"));
+
+        assertTrue(System.currentTimeMillis() - startMillis < 4000);
+    }
+
+    @Test
+    void shouldSendThroughTheTransportTheApiWasGiven() {
+        var transport = HttpTransport.create(settings(0, 0));
+
+        var jiraApi = new JiraApi(new ApiConfiguration(host, "user", "password".toCharArray(), "1.1"), transport);
+
+        assertSame(transport.client(), jiraApi.client);
+    }
+
+    @Test
+    void shouldBuildTheClientOfTheConfiguredVersion() {
+        var transport = HttpTransport.create(new HttpTransport.Settings("2", 2, 4, 10, 30, 10, 0));
+
+        assertEquals(HttpClient.Version.HTTP_2, transport.client().version());
+        assertTrue(transport.client().executor().isPresent());
+        assertNull(transport.requestTimeout());
+    }
+
+    @Test
+    void shouldRejectAnUnsupportedVersion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HttpTransport.create(new HttpTransport.Settings("3", 2, 4, 10, 30, 10, 0)));
+    }
+
+    private HttpTransport.Settings settings(int maxConnections, long requestTimeoutSeconds) {
+        return new HttpTransport.Settings("1.1", 2, maxConnections, 0, 30, 10, requestTimeoutSeconds);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -4,22 +4,34 @@ import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
 import com.atlassian.migration.app.zephyr.jira.model.*;
 import com.atlassian.migration.app.zephyr.scale.model.GetProjectResponse;
 import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -125,8 +137,6 @@ class JiraApiTest {
             doReturn(mockPayload).when(jiraApiSpy)
                     .sendHttpGet(any());
 
-            doReturn(gson.fromJson(mockPayload, FetchJiraIssuesResponse.class))
-                    .when(jiraApiSpy).extractCustomFieldsFromResponse(any(), any());
 
             int totalIssues = jiraApiSpy.fetchTotalIssuesByProjectName("project");
 
@@ -185,8 +195,6 @@ class JiraApiTest {
 
             doReturn(RESPONSE_WITH_TWO_ISSUES_MOCK).when(jiraApiSpy).sendHttpGet(any());
 
-            doReturn(gson.fromJson(RESPONSE_WITH_TWO_ISSUES_MOCK, FetchJiraIssuesResponse.class))
-                    .when(jiraApiSpy).extractCustomFieldsFromResponse(any(), any());
 
             var issuesFetched = jiraApiSpy.fetchIssuesOrderedByCreatedDate("project", 0, 100);
 
@@ -201,8 +209,6 @@ class JiraApiTest {
 
             doReturn(RESPONSE_WITH_TWO_ISSUES_MOCK).when(jiraApiSpy).sendHttpGet(any());
 
-            doReturn(gson.fromJson(RESPONSE_WITH_TWO_ISSUES_MOCK, FetchJiraIssuesResponse.class))
-                    .when(jiraApiSpy).extractCustomFieldsFromResponse(any(), any());
 
             var issuesFetched = jiraApiSpy.fetchIssuesOrderedByCreatedDate("project", 0, 100);
 
@@ -211,6 +217,21 @@ class JiraApiTest {
         }
 
 
+        @Test
+        void shouldFetchIssuesAfterLastSeenIdOrderedById() throws IOException {
+            var uriCaptor = ArgumentCaptor.forClass(URI.class);
+            doReturn(RESPONSE_WITH_TWO_ISSUES_MOCK).when(jiraApiSpy).sendHttpGet(uriCaptor.capture());
+
+            var firstPage = jiraApiSpy.fetchTestIssuesAfterId("project", null, 100);
+            jiraApiSpy.fetchTestIssuesAfterId("project", "10102", 100);
+
+            assertEquals(2, firstPage.total());
+            assertEquals(List.of(issueExpected_1, issueExpected_2), firstPage.issues());
+            assertTrue(uriCaptor.getAllValues().get(0).getQuery().contains("jql=project = project AND issuetype = Test ORDER BY id ASC"));
+            assertTrue(uriCaptor.getAllValues().get(1).getQuery().contains("jql=project = project AND issuetype = Test AND id > 10102 ORDER BY id ASC"));
+            assertTrue(uriCaptor.getAllValues().get(1).getQuery().contains("startAt=0"));
+        }
+
         @Test
         void shouldFetchIssuesAndReadCustomFields() throws IOException {
 
@@ -226,6 +247,71 @@ class JiraApiTest {
 
 
         }
+
+        @Test
+        void shouldCaptureCustomFieldsWhileParsingTheSearchPage() throws IOException {
+            var responseMock = "{startAt:0,total:1,issues:[{id:10101,key:JIRA-1,fields:{summary:summary," +
+                    "customfield_100:text,customfield_200:{value:option},customfield_300:[1,2]}}]}";
+            doReturn(responseMock).when(jiraApiSpy).sendHttpGet(any());
+
+            var issue = jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10).issues().get(0);
+
+            assertEquals("summary", issue.fields().summary);
+            assertEquals(Map.of("customfield_100", "text", "customfield_200", Map.of("value", "option"),
+                    "customfield_300", List.of(1.0, 2.0)), issue.fields().customFields);
+        }
+
+        @Test
+        void shouldKeepOnlyTheCustomFieldsSetForTheProject() throws IOException {
+            var responseMock = "{startAt:0,total:1,issues:[{id:10101,key:JIRA-1,fields:{summary:summary," +
+                    "customfield_100:text,customfield_200:{value:option,children:[{value:child}]}}}]}";
+            doReturn(responseMock).when(jiraApiSpy).sendHttpGet(any());
+
+            jiraApiSpy.keepCustomFields("PROJECT", Set.of("customfield_100"));
+            var keptIssue = jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10).issues().get(0);
+            var otherProjectIssue = jiraApiSpy.fetchTestCreatedOrderEntry("OTHER", 0, 10).issues().get(0);
+            jiraApiSpy.keepCustomFields("PROJECT", null);
+            var allFieldsIssue = jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10).issues().get(0);
+
+            assertEquals(Map.of("customfield_100", "text"), keptIssue.fields().customFields);
+            assertEquals("summary", keptIssue.fields().summary);
+            assertEquals(2, otherProjectIssue.fields().customFields.size());
+            assertEquals(2, allFieldsIssue.fields().customFields.size());
+        }
+
+        @Test
+        void shouldAskOnlyForTheTestCaseFieldsAndTheKeptCustomFields() throws IOException {
+            var responseMock = "{startAt:0,total:0,issues:[]}";
+            var uriCaptor = ArgumentCaptor.forClass(URI.class);
+            doReturn(responseMock).when(jiraApiSpy).sendHttpGet(uriCaptor.capture());
+
+            jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10);
+            jiraApiSpy.keepCustomFields("PROJECT", Set.of("customfield_200", "customfield_100"));
+            jiraApiSpy.fetchTestIssuesAfterId("PROJECT", "10101", 10);
+            jiraApiSpy.keepCustomFields("PROJECT", null);
+            jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10);
+
+            var uris = uriCaptor.getAllValues();
+            assertFalse(uris.get(0).getQuery().contains("fields="));
+            assertTrue(uris.get(1).getQuery().contains("fields=summary,description,labels,components,priority," +
+                    "status,reporter,creator,created,updated,issuelinks,attachment,customfield_100,customfield_200"));
+            assertFalse(uris.get(2).getQuery().contains("fields="));
+        }
+
+        @Test
+        void shouldReadTheRenderedFieldsWhenExpandingThem() throws IOException {
+            var responseMock = "{startAt:0,total:1,issues:[{id:10101,key:JIRA-1,fields:{description:'*bold*'}," +
+                    "renderedFields:{description:'<p><b>bold</b></p>',summary:null}}]}";
+            var uriCaptor = ArgumentCaptor.forClass(URI.class);
+            doReturn(responseMock).when(jiraApiSpy).sendHttpGet(uriCaptor.capture());
+
+            jiraApiSpy.expandRenderedFields(true);
+            var issue = jiraApiSpy.fetchTestCreatedOrderEntry("PROJECT", 0, 10).issues().get(0);
+
+            assertTrue(uriCaptor.getValue().getQuery().contains("expand=renderedFields"));
+            assertEquals("*bold*", issue.fields().description);
+            assertEquals(new JiraRenderedFieldsResponse("<p><b>bold</b></p>"), issue.renderedFields());
+        }
     }
 
     @Nested
@@ -276,6 +362,24 @@ class JiraApiTest {
             assertEquals(testData, decodedData);
         }
 
+        @Test
+        void shouldDecodeZlibWrappedAndRawDeflatedData() throws IOException {
+
+            var testData = "test data";
+
+            var zlibWrapped = new ByteArrayOutputStream();
+            try (var deflater = new DeflaterOutputStream(zlibWrapped)) {
+                deflater.write(testData.getBytes());
+            }
+            var raw = new ByteArrayOutputStream();
+            try (var deflater = new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+                deflater.write(testData.getBytes());
+            }
+
+            assertEquals(testData, jiraApiSpy.decodeBody(zlibWrapped.toByteArray(), "deflate"));
+            assertEquals(testData, jiraApiSpy.decodeBody(raw.toByteArray(), "deflate"));
+        }
+
         @Test
         void shouldKeepDataOriginalIfNotGzipped() throws IOException {
 
@@ -291,4 +395,61 @@ class JiraApiTest {
         }
     }
 
+    @Nested
+    class WhenStreamingResponses {
+
+        private static final String SEARCH_RESPONSE = "{\"startAt\":0,\"total\":1,\"issues\":[{\"id\":\"10\"," +
+                "\"key\":\"PRJ-1\",\"fields\":{\"summary\":\"Login works\",\"customfield_100\":\"value\"}}]}";
+
+        private HttpServer server;
+        private JiraApi jiraApi;
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/rest/api/2/search", exchange -> {
+                var compressed = new ByteArrayOutputStream();
+                try (var gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(SEARCH_RESPONSE.getBytes(StandardCharsets.UTF_8));
+                }
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(200, compressed.size());
+                exchange.getResponseBody().write(compressed.toByteArray());
+                exchange.close();
+            });
+            server.createContext("/rest/api/2/issue/PRJ-2", exchange -> {
+                exchange.sendResponseHeaders(404, 9);
+                exchange.getResponseBody().write("not found".getBytes());
+                exchange.close();
+            });
+            server.start();
+
+            jiraApi = new JiraApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+            jiraApi.streamResponses(true);
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+        }
+
+        @Test
+        void shouldReadGzippedSearchPageWithCustomFields() throws IOException {
+            var page = jiraApi.fetchTestCreatedOrderEntry("PRJ", 0, 10);
+
+            assertEquals(1, page.total());
+            assertEquals("PRJ-1", page.issues().get(0).key());
+            assertEquals("Login works", page.issues().get(0).fields().summary);
+            assertEquals("value", page.issues().get(0).fields().customFields.get("customfield_100"));
+        }
+
+        @Test
+        void shouldFailWithApiExceptionOfTheResponse() {
+            var exception = assertThrows(ApiException.class, () -> jiraApi.getIssueByIssueKey("PRJ-2"));
+
+            assertEquals(404, exception.code);
+            assertEquals("not found", exception.message);
+        }
+    }
 }
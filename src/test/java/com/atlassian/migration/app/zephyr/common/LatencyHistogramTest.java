@@ -0,0 +1,55 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldPutEveryValueInABucketBoundingIt() {
+        for (long micros : new long[]{0, 1, 15, 16, 17, 100, 1_000, 123_456, 10_000_000, Long.MAX_VALUE / 1000}) {
+            var bucket = LatencyHistogram.bucketOf(micros);
+
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= micros);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < micros);
+        }
+    }
+
+    @Test
+    void shouldEstimatePercentilesWithinAnEighth() {
+        var histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithinAnEighth(500_000, histogram.getPercentileMicros(0.5));
+        assertWithinAnEighth(900_000, histogram.getPercentileMicros(0.9));
+        assertWithinAnEighth(990_000, histogram.getPercentileMicros(0.99));
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_500, histogram.getMeanMicros());
+    }
+
+    @Test
+    void shouldNotReportAPercentileAboveTheMaximum() {
+        var histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1_000_001));
+
+        assertEquals(1_000_001, histogram.getPercentileMicros(0.99));
+    }
+
+    @Test
+    void shouldReportZeroWhenEmpty() {
+        var histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileMicros(0.5));
+        assertEquals(0, histogram.getMeanMicros());
+    }
+
+    private static void assertWithinAnEighth(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8, "expected ~" + expected + " but was " + actual);
+    }
+}
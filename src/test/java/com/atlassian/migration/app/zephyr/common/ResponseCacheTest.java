@@ -0,0 +1,152 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ResponseCache.Loader loader(String body) {
+        return () -> {
+            loads.incrementAndGet();
+            return body;
+        };
+    }
+
+    @Test
+    void shouldAnswerFromTheCacheUntilTheResponseExpires() throws ApiException {
+        var cache = new ResponseCache(10, 1000, nanos::get);
+
+        cache.get("/issue/1", loader("first"));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals("first", cache.get("/issue/1", loader("second")));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals("second", cache.get("/issue/1", loader("second")));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedResponse() throws ApiException {
+        var cache = new ResponseCache(2, 1000, nanos::get);
+        cache.get("/issue/1", loader("1"));
+        cache.get("/issue/2", loader("2"));
+        cache.get("/issue/1", loader("1"));
+
+        cache.get("/issue/3", loader("3"));
+        cache.get("/issue/1", loader("1"));
+        cache.get("/issue/2", loader("2"));
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void shouldSendIdenticalRequestsInFlightOnlyOnce() throws Exception {
+        var cache = new ResponseCache(10, 1000, nanos::get);
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.get("/issue/1", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new ApiException(e);
+                    }
+                    return "body";
+                });
+            } catch (ApiException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        var follower = cache.getAsync("/issue/1", () -> CompletableFuture.completedFuture("other"));
+
+        assertFalse(follower.isDone());
+        release.countDown();
+
+        assertEquals("body", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("body", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCoalesced());
+    }
+
+    @Test
+    void shouldKeepCoalescedCallersWaitingWhenOneCancels() throws Exception {
+        var cache = new ResponseCache(10, 1000, nanos::get);
+        var response = new CompletableFuture<String>();
+
+        var first = cache.getAsync("/issue/1", () -> response);
+        var second = cache.getAsync("/issue/1", () -> CompletableFuture.completedFuture("other"));
+        first.cancel(true);
+        response.complete("body");
+
+        assertTrue(first.isCancelled());
+        assertEquals("body", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, cache.getCoalesced());
+    }
+
+    @Test
+    void shouldNotKeepFailures() throws ApiException {
+        var cache = new ResponseCache(10, 1000, nanos::get);
+
+        assertThrows(ApiException.class, () -> cache.get("/issue/1", () -> {
+            throw new ApiException(404, "Issue does not exist");
+        }));
+        var failedAsync = cache.getAsync("/issue/1",
+                () -> CompletableFuture.failedFuture(new ApiException(503, "Unavailable")));
+
+        assertTrue(failedAsync.isCompletedExceptionally());
+        assertEquals("body", cache.get("/issue/1", loader("body")));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void shouldReadACacheableJiraEndpointOnce() throws IOException {
+        var requests = new AtomicInteger();
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/", exchange -> {
+            requests.incrementAndGet();
+            var body = "{\"id\":\"10001\",\"key\":\"PRJ-1\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            var jiraApi = new JiraApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+            jiraApi.cacheResponses(new ResponseCache(10, 60_000));
+
+            assertEquals("PRJ-1", jiraApi.getIssueByIssueKey("PRJ-1").key());
+            assertEquals("PRJ-1", BaseApi.await(jiraApi.getIssueByIssueKeyAsync("PRJ-1")).key());
+            jiraApi.fetchIssuesOrderedByCreatedDate("PRJ", 0, 10);
+            jiraApi.fetchIssuesOrderedByCreatedDate("PRJ", 0, 10);
+
+            assertEquals(3, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    private static final URI SEARCH_URI = URI.create("https://jira.local/rest/api/2/search");
+    private static final URI TEST_RUN_URI = URI.create("https://jira.local/rest/atm/1.0/testrun/123");
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    @Test
+    void shouldRetryRetryableStatusesWithJitterBetweenBaseAndThreeTimesThePreviousDelay() {
+        var policy = new RetryPolicy(new RetryPolicy.Settings(10, 100, 10_000), new RetryBudget(0.2, 50), 30_000);
+        var attempts = policy.start(SEARCH_URI);
+
+        long previousDelay = 100;
+        for (int i = 0; i < 5; i++) {
+            var delay = attempts.retryAfterResponse(503, NO_HEADERS).orElseThrow();
+
+            assertTrue(delay >= 100 && delay < previousDelay * 3, "delay " + delay + " after " + previousDelay);
+            previousDelay = delay;
+        }
+    }
+
+    @Test
+    void shouldNotRetryOtherStatusesOrFailures() {
+        var attempts = RetryPolicy.withDefaults(3, 10).start(SEARCH_URI);
+
+        assertTrue(attempts.retryAfterResponse(404, NO_HEADERS).isEmpty());
+        assertTrue(attempts.retryAfterFailure(new IOException("reset")).isEmpty());
+    }
+
+    @Test
+    void shouldRetryConnectTimeoutsAndRateLimitsUntilTheMaximumAttempts() {
+        var attempts = RetryPolicy.withDefaults(3, 10).start(SEARCH_URI);
+
+        assertTrue(attempts.retryAfterFailure(new HttpConnectTimeoutException("timed out")).isPresent());
+        assertTrue(attempts.retryAfterResponse(429, NO_HEADERS).isPresent());
+        assertTrue(attempts.retryAfterResponse(429, NO_HEADERS).isEmpty());
+        assertEquals(3, attempts.attempts());
+    }
+
+    @Test
+    void shouldWaitAtLeastAsLongAsRetryAfter() {
+        var attempts = RetryPolicy.withDefaults(3, 10).start(SEARCH_URI);
+        var headers = HttpHeaders.of(Map.of("Retry-After", List.of("7")), (name, value) -> true);
+
+        assertEquals(7_000, attempts.retryAfterResponse(429, headers).orElseThrow());
+    }
+
+    @Test
+    void shouldReadRetryAfterGivenAsDate() {
+        var now = Instant.parse("2024-05-01T10:00:00Z");
+        var date = DateTimeFormatter.RFC_1123_DATE_TIME.format(now.plusSeconds(20).atZone(ZoneOffset.UTC));
+        var headers = HttpHeaders.of(Map.of("Retry-After", List.of(date)), (name, value) -> true);
+
+        assertEquals(20_000, RetryPolicy.retryAfterMillis(headers, now.toEpochMilli()));
+        assertEquals(0, RetryPolicy.retryAfterMillis(NO_HEADERS, now.toEpochMilli()));
+    }
+
+    @Test
+    void shouldUseMaxAttemptsOfTheLongestMatchingEndpoint() {
+        var policy = RetryPolicy.withDefaults(3, 10).withEndpoints("/rest/atm/1.0=5, /rest/atm/1.0/testrun=1");
+
+        assertEquals(1, policy.settingsFor(TEST_RUN_URI).maxAttempts());
+        assertEquals(5, policy.settingsFor(URI.create("https://jira.local/rest/atm/1.0/testcase")).maxAttempts());
+        assertEquals(3, policy.settingsFor(SEARCH_URI).maxAttempts());
+        assertTrue(policy.start(TEST_RUN_URI).retryAfterResponse(503, NO_HEADERS).isEmpty());
+    }
+
+    @Test
+    void shouldStopRetryingOnceTheBudgetIsSpent() {
+        var policy = new RetryPolicy(new RetryPolicy.Settings(10, 1, 10), new RetryBudget(0.1, 2), 30_000);
+
+        assertTrue(policy.start(SEARCH_URI).retryAfterResponse(503, NO_HEADERS).isPresent());
+        assertTrue(policy.start(SEARCH_URI).retryAfterResponse(503, NO_HEADERS).isPresent());
+        assertTrue(policy.start(SEARCH_URI).retryAfterResponse(503, NO_HEADERS).isEmpty());
+    }
+
+    @Test
+    void shouldShareCircuitBreakerAcrossRequestsOfTheSameApiFamily() {
+        var policy = RetryPolicy.defaultPolicy();
+
+        assertSame(policy.circuitBreakerFor(SEARCH_URI),
+                policy.circuitBreakerFor(URI.create("https://jira.local/rest/api/2/project")));
+        assertNotSame(policy.circuitBreakerFor(SEARCH_URI), policy.circuitBreakerFor(TEST_RUN_URI));
+    }
+}
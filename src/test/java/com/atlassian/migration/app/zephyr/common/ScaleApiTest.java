@@ -3,6 +3,8 @@ package com.atlassian.migration.app.zephyr.common;
 
 import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
 import com.atlassian.migration.app.zephyr.scale.model.*;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -10,8 +12,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -306,4 +316,90 @@ public class ScaleApiTest {
             assertThrows(ZephyrApiException.class, () -> scaleApiSpy.createCustomField(scaleCustomFieldPayload));
         }
     }
+
+    @Nested
+    class WhenCompressingTransfers {
+
+        private HttpServer server;
+        private ScaleApi scaleApi;
+        private final Map<String, String> receivedHeaders = new ConcurrentHashMap<>();
+        private final AtomicReference<String> receivedBody = new AtomicReference<>();
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/rest/tests/1.0/testcase/", exchange -> {
+                var contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                receivedHeaders.put("Content-Encoding", contentEncoding == null ? "" : contentEncoding);
+                var body = exchange.getRequestBody();
+                receivedBody.set(new String(("gzip".equals(contentEncoding) ? new GZIPInputStream(body) : body)
+                        .readAllBytes(), StandardCharsets.UTF_8));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            server.createContext("/rest/atm/1.0/testcase/", exchange -> {
+                var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                receivedHeaders.put("Accept-Encoding", acceptEncoding);
+                var body = "{\"key\":\"PRJ-T1\"}".getBytes(StandardCharsets.UTF_8);
+                if (acceptEncoding.contains("deflate")) {
+                    var compressed = new ByteArrayOutputStream();
+                    try (var deflater = new DeflaterOutputStream(compressed)) {
+                        deflater.write(body);
+                    }
+                    body = compressed.toByteArray();
+                    exchange.getResponseHeaders().add("Content-Encoding", "deflate");
+                }
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+
+            scaleApi = new ScaleApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+        }
+
+        @Test
+        void shouldGzipTestStepUpdatesWhenEnabled() throws ZephyrApiException {
+            scaleApi.compressRequestBodies(true);
+
+            scaleApi.updateTestStep("PRJ-T1", new SquadUpdateStepPayload(1L, null));
+
+            assertEquals("gzip", receivedHeaders.get("Content-Encoding"));
+            assertEquals("{\"id\":1}", receivedBody.get());
+        }
+
+        @Test
+        void shouldSendUncompressedBodiesByDefault() throws ZephyrApiException {
+            scaleApi.updateTestStep("PRJ-T1", new SquadUpdateStepPayload(1L, null));
+
+            assertEquals("", receivedHeaders.get("Content-Encoding"));
+            assertEquals("{\"id\":1}", receivedBody.get());
+        }
+
+        @Test
+        void shouldNegotiateAndDecodeCompressedResponsesWhenEnabled() throws ZephyrApiException {
+            scaleApi.compressResponses(Set.of(ApiFamily.SCALE));
+
+            var steps = scaleApi.fetchTestStepsFromTestCaseKey("PRJ-T1");
+
+            assertTrue(receivedHeaders.get("Accept-Encoding").contains("gzip"));
+            assertEquals("PRJ-T1", steps.key());
+        }
+
+        @Test
+        void shouldAskForUncompressedResponsesByDefault() throws ZephyrApiException {
+            scaleApi.compressResponses(Set.of(ApiFamily.JIRA));
+
+            var steps = scaleApi.fetchTestStepsFromTestCaseKey("PRJ-T1");
+
+            assertEquals("identity;q=1.0", receivedHeaders.get("Accept-Encoding"));
+            assertEquals("PRJ-T1", steps.key());
+        }
+    }
 }
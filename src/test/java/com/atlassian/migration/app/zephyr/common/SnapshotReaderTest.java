@@ -0,0 +1,69 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotReaderTest {
+
+    @TempDir
+    Path snapshotFolder;
+
+    @Test
+    void shouldReadBackEveryResponseAcrossChunks() throws IOException {
+        try (var writer = new SnapshotWriter(snapshotFolder, 256)) {
+            for (int i = 0; i < 200; i++) {
+                writer.write("GET /rest/zapi/latest/teststep/" + i, "{\"steps\":\"" + "step ".repeat(i % 7) + i + "\"}");
+            }
+        }
+
+        try (var reader = new SnapshotReader(snapshotFolder)) {
+            assertEquals(200, reader.size());
+            for (int i = 199; i >= 0; i--) {
+                assertEquals(Optional.of("{\"steps\":\"" + "step ".repeat(i % 7) + i + "\"}"),
+                        reader.find("GET /rest/zapi/latest/teststep/" + i));
+            }
+            assertEquals(Optional.empty(), reader.find("GET /rest/zapi/latest/teststep/200"));
+        }
+    }
+
+    @Test
+    void shouldKeepLastResponseOfARequestWrittenTwice() throws IOException {
+        try (var writer = new SnapshotWriter(snapshotFolder, 16)) {
+            writer.write("GET /rest/api/2/issue/1", "first");
+            writer.write("GET /rest/api/2/issue/2", "other");
+            writer.write("GET /rest/api/2/issue/1", "second");
+            assertEquals(2, writer.size());
+        }
+
+        try (var reader = new SnapshotReader(snapshotFolder)) {
+            assertEquals(Optional.of("second"), reader.find("GET /rest/api/2/issue/1"));
+        }
+    }
+
+    @Test
+    void shouldCompressTheResponses() throws IOException {
+        var body = "{\"description\":\"" + "the same text again and again ".repeat(1000) + "\"}";
+        try (var writer = new SnapshotWriter(snapshotFolder)) {
+            writer.write("GET /rest/api/2/issue/1", body);
+        }
+
+        assertTrue(Files.size(snapshotFolder.resolve(SnapshotWriter.RECORDS_FILE)) < body.length() / 10);
+    }
+
+    @Test
+    void shouldRefuseSnapshotWithoutIndex() throws IOException {
+        var writer = new SnapshotWriter(snapshotFolder);
+        writer.write("GET /rest/api/2/issue/1", "body");
+
+        assertThrows(FileNotFoundException.class, () -> new SnapshotReader(snapshotFolder));
+        writer.close();
+    }
+}
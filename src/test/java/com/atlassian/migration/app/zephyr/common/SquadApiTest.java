@@ -5,22 +5,29 @@ import com.atlassian.migration.app.zephyr.scale.model.Option;
 import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
 import com.atlassian.migration.app.zephyr.squad.model.*;
 import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -107,6 +114,109 @@ public class SquadApiTest {
         }
     }
 
+    @Nested
+    class WhenFetchingAsynchronously {
+
+        private HttpServer server;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/rest/zapi/latest/teststep/1", exchange -> {
+                //the first attempt is throttled, the retry succeeds
+                var status = requests.getAndIncrement() == 0 ? 503 : 200;
+                var body = "{\"stepBeanCollection\":[]}".getBytes();
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.createContext("/rest/zapi/latest/teststep/3", exchange -> {
+                //the first attempt is rate limited and told to come back in a second
+                var status = requests.getAndIncrement() == 0 ? 429 : 200;
+                var body = "{\"stepBeanCollection\":[]}".getBytes();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.createContext("/rest/zapi/latest/teststep/2", exchange -> {
+                exchange.sendResponseHeaders(404, 9);
+                exchange.getResponseBody().write("not found".getBytes());
+                exchange.close();
+            });
+            server.start();
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+        }
+
+        @Test
+        void shouldRetryWithoutBlockingAndCompleteWithResponse() throws IOException {
+            var squadApi = new SquadApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+
+            var testSteps = squadApi.fetchLatestTestStepByTestCaseIdAsync("1");
+
+            assertEquals(new FetchSquadTestStepResponse(List.of()), BaseApi.await(testSteps));
+            assertEquals(2, requests.get());
+        }
+
+        @Test
+        void shouldWaitAsLongAsRetryAfterBeforeRetryingRateLimitedRequest() throws IOException {
+            var squadApi = new SquadApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+            squadApi.retryWith(RetryPolicy.withDefaults(3, 10));
+
+            var startMillis = System.currentTimeMillis();
+            var testSteps = squadApi.fetchLatestTestStepByTestCaseId("3");
+
+            assertEquals(new FetchSquadTestStepResponse(List.of()), testSteps);
+            assertEquals(2, requests.get());
+            assertTrue(System.currentTimeMillis() - startMillis >= 1000);
+        }
+
+        @Test
+        void shouldFailWithApiExceptionOfTheResponse() throws IOException {
+            var squadApi = new SquadApi(new ApiConfiguration("http://localhost:" + server.getAddress().getPort(),
+                    "user", "password".toCharArray(), "1.1"));
+
+            var testSteps = squadApi.fetchLatestTestStepByTestCaseIdAsync("2");
+
+            var exception = assertThrows(ApiException.class, () -> BaseApi.await(testSteps));
+            assertEquals(404, exception.code);
+        }
+    }
+
+    @Nested
+    class WhenReplayingASnapshot {
+
+        @TempDir
+        Path snapshotFolder;
+
+        @Test
+        void shouldAnswerFromSnapshotWithoutCallingTheServer() throws IOException {
+            when(apiConfMock.host()).thenReturn("http://jira.local");
+            try (var writer = new SnapshotWriter(snapshotFolder)) {
+                writer.write("GET /rest/zapi/latest/util/project-list",
+                        "{options:[{hasAccessToSoftware:true,label:some_label,type:some_type, value:some_value}]}");
+            }
+
+            try (var snapshot = new SnapshotReader(snapshotFolder)) {
+                var squadApi = new SquadApi(apiConfMock);
+                squadApi.replayFrom(snapshot);
+
+                var projectsFetched = squadApi.getAllProjects();
+
+                assertEquals(new GetAllProjectsResponse(List.of(new Option("true", "some_label", "some_type", "some_value"))),
+                        projectsFetched);
+                assertEquals(0, squadApi.getSnapshotMisses());
+            }
+        }
+    }
+
     @Nested
     class WhenFetchingTestSteps {
 
@@ -0,0 +1,514 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Answers the Jira, Squad and Scale endpoints the migration calls from a {@link SyntheticDataset}, so the APIs can
+ * be exercised over real HTTP: pagination, concurrency, retries and compression included. Scale writes are kept in
+ * memory and can be read back. Every request can be delayed, and a share of them failed with a 500 or throttled
+ * with a 429, as a loaded instance would.
+ */
+public class StandInServer implements Closeable {
+
+    private static final Pattern JQL_PROJECT = Pattern.compile("project = (\\S+)");
+    private static final Pattern JQL_AFTER_ID = Pattern.compile("id > (\\d+)");
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final SyntheticDataset dataset;
+    private final Settings settings;
+    private final Random random;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "stand-in-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Route> routes = new ArrayList<>();
+    private final Gson gson = new Gson();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlightSeen = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<String, JsonObject> testCases = new ConcurrentHashMap<>();
+    private final Map<String, JsonArray> testSteps = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> testResults = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> testCaseCountByProject = new ConcurrentHashMap<>();
+    private final AtomicInteger testCycles = new AtomicInteger();
+
+    private StandInServer(SyntheticDataset dataset, Settings settings) throws IOException {
+        this.dataset = dataset;
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        registerJiraRoutes();
+        registerSquadRoutes();
+        registerScaleRoutes();
+    }
+
+    public static StandInServer start(SyntheticDataset dataset, Settings settings) throws IOException {
+        var standInServer = new StandInServer(dataset, settings);
+        standInServer.server.start();
+        return standInServer;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public ApiConfiguration apiConfiguration(String httpVersion) {
+        return new ApiConfiguration(baseUrl(), "admin", "admin".toCharArray(), httpVersion);
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlightSeen.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getThrottled() {
+        return throttled.get();
+    }
+
+    public Map<String, JsonObject> getTestCases() {
+        return testCases;
+    }
+
+    public Map<String, JsonArray> getTestSteps() {
+        return testSteps;
+    }
+
+    public Map<String, JsonObject> getTestResults() {
+        return testResults;
+    }
+
+    public int getTestCycles() {
+        return testCycles.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void registerJiraRoutes() {
+        route("POST", SessionCookieAuth.SESSION_ENDPOINT, (request, path) ->
+                Map.of("session", Map.of("name", "JSESSIONID", "value", "stand-in-" + nextId.getAndIncrement())));
+        route("GET", "/rest/api/2/search", (request, path) -> search(request));
+        route("GET", "/rest/api/2/project/([^/]+)", (request, path) -> dataset.project(path.group(1))
+                .map(this::jiraProject).orElseThrow(() -> new NotFound("project " + path.group(1))));
+        route("GET", "/rest/api/2/issue/([^/]+)", (request, path) -> dataset.test(path.group(1))
+                .map(this::jiraIssue).orElseThrow(() -> new NotFound("issue " + path.group(1))));
+        route("POST", "/rest/api/1.0/render", (request, path) ->
+                new Raw("<p>" + request.json().getAsJsonObject().get("unrenderedMarkup").getAsString() + "</p>"));
+        route("GET", "/rest/api/2/user/assignable/search", (request, path) -> {
+            var username = request.parameter("username", "user");
+            return List.of(Map.of("key", username, "name", username, "emailAddress", username + "@example.com",
+                    "displayName", username));
+        });
+        route("GET", "/rest/api/2/customFields", (request, path) ->
+                Map.of("maxResults", 50, "startAt", 0, "total", 0, "isLast", true, "values", List.of()));
+        route("GET", "/rest/api/latest/issue/createmeta/[^/]+/issuetypes/[^/]+", (request, path) ->
+                Map.of("startAt", 0, "total", 0, "values", List.of()));
+    }
+
+    private void registerSquadRoutes() {
+        route("GET", "/rest/zapi/latest/util/project-list", (request, path) -> Map.of("options",
+                dataset.projects().stream().map(project -> Map.of("label", project.name(), "value", project.id(),
+                        "type", "software", "hasAccessToSoftware", "true")).toList()));
+        route("GET", "/rest/zapi/latest/util/testExecutionStatus", (request, path) -> squadStatuses());
+        route("GET", "/rest/zapi/latest/util/teststepExecutionStatus", (request, path) -> squadStatuses());
+        route("GET", "/rest/zapi/latest/teststep/([^/]+)", (request, path) -> {
+            var test = dataset.test(path.group(1)).orElseThrow(() -> new NotFound("issue " + path.group(1)));
+            return Map.of("stepBeanCollection", test.steps().stream().map(step -> Map.of("id", step.id(),
+                    "orderId", String.valueOf(step.orderId()), "htmlStep", step.step(), "htmlData", step.data(),
+                    "htmlResult", step.result(), "attachmentsMap", List.of(), "customFields", Map.of())).toList());
+        });
+        route("GET", "/rest/zapi/latest/execution", (request, path) -> {
+            var issueId = request.parameter("issueId", "");
+            var test = dataset.test(issueId).orElseThrow(() -> new NotFound("issue " + issueId));
+            var executions = test.executions().stream().map(this::squadExecution).toList();
+            var response = new LinkedHashMap<String, Object>();
+            response.put("status", Map.of());
+            response.put("issueId", issueId);
+            response.put("recordsCount", executions.size());
+            response.put("executionsToBeLogged", 0);
+            response.put("isExecutionWorkflowEnabledForProject", false);
+            response.put("isTimeTrackingEnabled", false);
+            response.put("executions", executions);
+            return response;
+        });
+        route("GET", "/rest/zapi/latest/stepResult", (request, path) -> {
+            var executionId = request.parameter("executionId", "");
+            var execution = dataset.execution(executionId).orElseThrow(() -> new NotFound("execution " + executionId));
+            return execution.stepResults().stream().map(stepResult -> {
+                var result = new LinkedHashMap<String, Object>();
+                result.put("id", stepResult.id());
+                result.put("orderId", stepResult.orderId());
+                result.put("status", stepResult.status());
+                result.put("comment", stepResult.comment());
+                result.put("stepResultAttachmentCount", 0);
+                result.put("defects", List.of());
+                return result;
+            }).toList();
+        });
+        route("GET", "/rest/zapi/latest/customfieldvalue/EXECUTION/[^/]+", (request, path) -> Map.of());
+        route("GET", "/rest/zapi/latest/attachment/attachmentsByEntity", (request, path) -> Map.of("data", List.of()));
+        route("GET", "/rest/zapi/latest/customfield/globalCustomFieldsByEntityTypeAndProject", (request, path) -> List.of());
+    }
+
+    private void registerScaleRoutes() {
+        route("POST", "/rest/atm/1.0/project", (request, path) -> new Raw(""));
+        route("POST", "/rest/atm/1.0/customfield", (request, path) -> Map.of("id", nextId.getAndIncrement()));
+        route("POST", "/rest/atm/1.0/customfield/[^/]+/option", (request, path) -> Map.of("id", nextId.getAndIncrement()));
+        route("POST", "/rest/atm/1.0/testcase", (request, path) -> {
+            var testCase = request.json().getAsJsonObject();
+            var projectKey = testCase.get("projectKey").getAsString();
+            var key = projectKey + "-T" + testCaseCountByProject
+                    .computeIfAbsent(projectKey, ignored -> new AtomicInteger()).incrementAndGet();
+            testCase.addProperty("key", key);
+            testCases.put(key, testCase);
+            return Map.of("key", key);
+        });
+        route("PUT", "/rest/tests/1.0/testcase/([^/]+)", (request, path) -> {
+            var key = path.group(1);
+            if (!testCases.containsKey(key)) {
+                throw new NotFound("test case " + key);
+            }
+            var testScript = request.json().getAsJsonObject().getAsJsonObject("testScript");
+            testSteps.put(key, testScript == null || !testScript.has("stepByStepScript")
+                    ? new JsonArray() : testScript.getAsJsonObject("stepByStepScript").getAsJsonArray("steps"));
+            return new Raw("");
+        });
+        route("GET", "/rest/atm/1.0/testcase/([^/]+)", (request, path) -> {
+            var testCase = testCases.get(path.group(1));
+            if (testCase == null) {
+                throw new NotFound("test case " + path.group(1));
+            }
+            return Map.of("key", path.group(1), "projectKey", testCase.get("projectKey").getAsString(),
+                    "testScript", Map.of("steps", List.of()));
+        });
+        route("PUT", "/rest/atm/1.0/testcase/([^/]+)", (request, path) -> new Raw(""));
+        route("POST", "/rest/atm/1.0/testrun", (request, path) ->
+                Map.of("key", request.json().getAsJsonObject().get("projectKey").getAsString() + "-C"
+                        + testCycles.incrementAndGet()));
+        route("POST", "/rest/atm/1.0/testrun/([^/]+)/testresults", (request, path) -> {
+            List<Map<String, String>> created = new ArrayList<>();
+            for (var testResult : request.json().getAsJsonArray()) {
+                var id = String.valueOf(nextId.getAndIncrement());
+                testResults.put(id, testResult.getAsJsonObject());
+                created.add(Map.of("id", id));
+            }
+            return created;
+        });
+        route("GET", "/rest/tests/1.0/testresult/([^/]+)", (request, path) -> {
+            var testResult = testResults.get(path.group(1));
+            if (testResult == null) {
+                throw new NotFound("test result " + path.group(1));
+            }
+            var scriptResults = testResult.has("scriptResults") ? testResult.getAsJsonArray("scriptResults").size() : 0;
+            List<Map<String, Integer>> testScriptResults = new ArrayList<>();
+            for (int index = 0; index < scriptResults; index++) {
+                testScriptResults.add(Map.of("id", nextId.getAndIncrement(), "index", index, "sourceScriptId", index));
+            }
+            return Map.of("id", Integer.parseInt(path.group(1)), "key", "TR-" + path.group(1),
+                    "testScriptResults", testScriptResults);
+        });
+        route("GET", "/rest/tests/1.0/testresultstatus", (request, path) -> Arrays.stream(
+                new String[]{"Not Executed", "In Progress", "Pass", "Fail", "Blocked"}).map(name -> {
+            var status = new LinkedHashMap<String, Object>();
+            status.put("name", name);
+            status.put("id", name.hashCode() & 0xffff);
+            status.put("projectId", Integer.parseInt(request.parameter("projectId", "0")));
+            return status;
+        }).toList());
+        route("POST", "/rest/tests/1.0/testresultstatus", (request, path) -> Map.of("id", nextId.getAndIncrement()));
+        route("GET", "/rest/tests/1.0/testcasestatus", (request, path) ->
+                namesOf(request, "Draft", "Deprecated", "Approved"));
+        route("POST", "/rest/tests/1.0/testcasestatus", (request, path) -> Map.of("id", nextId.getAndIncrement()));
+        route("GET", "/rest/tests/1.0/testcasepriority", (request, path) -> namesOf(request, "High", "Normal", "Low"));
+        route("POST", "/rest/tests/1.0/testcasepriority", (request, path) -> Map.of("id", nextId.getAndIncrement()));
+        route("GET", "/rest/tests/1.0/project/[^/]+/customfields/[^/]+", (request, path) -> List.of());
+        route("POST", "/rest/tests/1.0/tracelink/testresult/bulk/create", (request, path) -> List.of());
+    }
+
+    private Object search(Request request) {
+        var jql = request.parameter("jql", "");
+        var projectMatcher = JQL_PROJECT.matcher(jql);
+        if (!projectMatcher.find()) {
+            throw new BadRequest("jql without a project: " + jql);
+        }
+        var project = dataset.project(projectMatcher.group(1))
+                .orElseThrow(() -> new BadRequest("unknown project in jql: " + jql));
+        var afterIdMatcher = JQL_AFTER_ID.matcher(jql);
+        var afterId = afterIdMatcher.find() ? Long.parseLong(afterIdMatcher.group(1)) : Long.MIN_VALUE;
+        var matching = project.tests().stream()
+                .filter(test -> Long.parseLong(test.id()) > afterId)
+                .sorted(jql.contains("ORDER BY createdDate") ? Comparator.comparing(SyntheticDataset.TestIssue::created)
+                        : Comparator.comparing(test -> Long.parseLong(test.id())))
+                .toList();
+        var startAt = Integer.parseInt(request.parameter("startAt", "0"));
+        var maxResults = Integer.parseInt(request.parameter("maxResults", String.valueOf(DEFAULT_PAGE_SIZE)));
+        var page = matching.subList(Math.min(startAt, matching.size()), Math.min(startAt + maxResults, matching.size()));
+        return Map.of("startAt", startAt, "maxResults", maxResults, "total", matching.size(),
+                "issues", page.stream().map(this::jiraIssue).toList());
+    }
+
+    private Map<String, Object> jiraProject(SyntheticDataset.Project project) {
+        return Map.of("id", project.id(), "key", project.key(), "name", project.name(),
+                "projectKeys", List.of(project.key()),
+                "issueTypes", List.of(Map.of("id", "10100", "name", "Test", "subtask", false, "avatarId", 0)));
+    }
+
+    private Map<String, Object> jiraIssue(SyntheticDataset.TestIssue test) {
+        var user = Map.of("id", 1, "key", "admin", "name", "admin");
+        var fields = new LinkedHashMap<String, Object>();
+        fields.put("issuetype", Map.of("id", 10100, "name", "Test"));
+        fields.put("summary", test.summary());
+        fields.put("description", "Description of " + test.summary());
+        fields.put("labels", List.of("synthetic"));
+        fields.put("reporter", user);
+        fields.put("creator", user);
+        fields.put("created", test.created());
+        fields.put("updated", test.created());
+        fields.put("status", Map.of("id", "1", "name", "Open"));
+        fields.put("priority", Map.of("id", 3, "name", "Medium"));
+        fields.put("issuelinks", List.of());
+        fields.put("components", List.of());
+        fields.put("attachment", List.of());
+        return Map.of("id", test.id(), "key", test.key(), "fields", fields);
+    }
+
+    private Map<String, Object> squadExecution(SyntheticDataset.Execution execution) {
+        var response = new LinkedHashMap<String, Object>();
+        response.put("id", execution.id());
+        response.put("executionStatus", execution.status());
+        response.put("createdOn", execution.executedOn());
+        response.put("createdBy", "admin");
+        response.put("createdByUserName", "admin");
+        response.put("versionName", "Unscheduled");
+        response.put("htmlComment", "");
+        response.put("cycleName", execution.cycleName());
+        response.put("executedOn", execution.status() == -1 ? null : execution.executedOn());
+        response.put("executedBy", execution.status() == -1 ? null : "admin");
+        response.put("assignedTo", "admin");
+        response.put("assignedToDisplay", "admin");
+        response.put("assignedToUserName", "admin");
+        response.put("defects", List.of());
+        return response;
+    }
+
+    private static List<Map<String, String>> squadStatuses() {
+        return List.of(
+                Map.of("id", "-1", "name", "UNEXECUTED", "description", "The test has not yet been executed.", "color", "#A0A0A0"),
+                Map.of("id", "1", "name", "PASS", "description", "Test was executed and passed successfully.", "color", "#75B000"),
+                Map.of("id", "2", "name", "FAIL", "description", "Test was executed and failed.", "color", "#CC3300"),
+                Map.of("id", "3", "name", "WIP", "description", "Test execution is a work-in-progress.", "color", "#F2B000"),
+                Map.of("id", "4", "name", "BLOCKED", "description", "The test execution of this test was blocked for some reason.", "color", "#6693B0"));
+    }
+
+    private static List<Map<String, Object>> namesOf(Request request, String... names) {
+        var projectId = Integer.parseInt(request.parameter("projectId", "0"));
+        return Arrays.stream(names).map(name -> Map.<String, Object>of("projectId", projectId, "name", name)).toList();
+    }
+
+    private void route(String method, String pathRegex, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(pathRegex), handler));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        var current = inFlight.incrementAndGet();
+        maxInFlightSeen.accumulateAndGet(current, Math::max);
+        try {
+            if (settings.latencyMillis() > 0) {
+                Thread.sleep(settings.latencyMillis());
+            }
+            if (settings.maxInFlight() > 0 && current > settings.maxInFlight() || chance(settings.throttleRate())) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 429, "{\"message\":\"Too many requests\"}");
+                return;
+            }
+            if (chance(settings.errorRate())) {
+                failed.incrementAndGet();
+                respond(exchange, 500, "{\"message\":\"Stand-in failure\"}");
+                return;
+            }
+            dispatch(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        var path = exchange.getRequestURI().getRawPath();
+        var pathFound = false;
+        for (var route : routes) {
+            var matcher = route.path().matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathFound = true;
+            if (!route.method().equals(exchange.getRequestMethod())) {
+                continue;
+            }
+            try {
+                var response = route.handler().handle(new Request(exchange), matcher);
+                var body = response instanceof Raw raw ? raw.body() : gson.toJson(response);
+                //Scale answers its creations with a 201, Jira and Squad with a 200
+                respond(exchange, "POST".equals(route.method()) && path.startsWith("/rest/atm/") ? 201 : 200, body);
+            } catch (NotFound e) {
+                respond(exchange, 404, "{\"errorMessages\":[\"Not found: " + e.getMessage() + "\"]}");
+            } catch (BadRequest | IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+                respond(exchange, 400, "{\"errorMessages\":[\"" + e.getMessage() + "\"]}");
+            }
+            return;
+        }
+        respond(exchange, pathFound ? 405 : 404, "{\"errorMessages\":[\"No stand-in for " + exchange.getRequestMethod()
+                + " " + path + "\"]}");
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(UTF_8);
+        var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && bytes.length >= GZIP_MIN_BYTES) {
+            var compressed = new ByteArrayOutputStream();
+            try (var out = new GZIPOutputStream(compressed)) {
+                out.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private boolean chance(double rate) {
+        if (rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    /**
+     * How the stand-in behaves under load.
+     *
+     * @param latencyMillis delay before each response
+     * @param errorRate     share of the requests failed with a 500
+     * @param throttleRate  share of the requests throttled with a 429
+     * @param maxInFlight   requests served at once before the others are throttled with a 429, 0 for no limit
+     * @param seed          seed of the failures and throttling
+     */
+    public record Settings(long latencyMillis, double errorRate, double throttleRate, int maxInFlight, long seed) {
+
+        public static Settings healthy() {
+            return new Settings(0, 0, 0, 0, 0);
+        }
+    }
+
+    private record Route(String method, Pattern path, Handler handler) {
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Request request, Matcher path) throws IOException;
+    }
+
+    //returned by a handler whose response isn't JSON, or is empty
+    private record Raw(String body) {
+    }
+
+    private static class NotFound extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFound(String message) {
+            super(message);
+        }
+    }
+
+    private static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    private static class Request {
+
+        private final HttpExchange exchange;
+        private final Map<String, String> parameters;
+
+        private Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            var query = exchange.getRequestURI().getRawQuery();
+            this.parameters = query == null || query.isEmpty() ? Map.of() : Arrays.stream(query.split("&"))
+                    .map(parameter -> parameter.split("=", 2))
+                    .collect(Collectors.toMap(pair -> URLDecoder.decode(pair[0], UTF_8),
+                            pair -> pair.length < 2 ? "" : URLDecoder.decode(pair[1], UTF_8), (first, second) -> first));
+        }
+
+        private String parameter(String name, String defaultValue) {
+            return parameters.getOrDefault(name, defaultValue);
+        }
+
+        private JsonElement json() throws IOException {
+            var gzipped = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            try (InputStream body = gzipped ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+                return JsonParser.parseString(new String(body.readAllBytes(), UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionCreationPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleExecutionStepPayload;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleTestCaseCreationPayload;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandInServerTest {
+
+    @Test
+    void shouldGenerateTheSameDataFromTheSameSeed() {
+        var first = SyntheticDataset.generate(42, 2, 10, 3, 2);
+        var second = SyntheticDataset.generate(42, 2, 10, 3, 2);
+
+        assertEquals(first.projects(), second.projects());
+        assertEquals(20, first.testCount());
+        var test = first.test("PRJ2-10").orElseThrow();
+        assertEquals(3, test.steps().size());
+        assertEquals(2, test.executions().size());
+        assertEquals(3, test.executions().get(0).stepResults().size());
+        assertNotEquals(first.projects(), SyntheticDataset.generate(7, 2, 10, 3, 2).projects());
+    }
+
+    @Test
+    void shouldPageThroughTheTestIssuesOfAProject() throws Exception {
+        var dataset = SyntheticDataset.generate(1, 2, 23, 1, 1);
+        try (var server = StandInServer.start(dataset, StandInServer.Settings.healthy())) {
+            var jiraApi = new JiraApi(server.apiConfiguration("1.1"));
+
+            var project = jiraApi.getProjectByKey("PRJ2");
+            List<JiraIssuesResponse> issues = new ArrayList<>();
+            String lastSeenId = null;
+            int total = -1;
+            do {
+                var page = jiraApi.fetchTestIssuesAfterId("PRJ2", lastSeenId, 10);
+                total = lastSeenId == null ? page.total() : total;
+                issues.addAll(page.issues());
+                lastSeenId = page.issues().isEmpty() ? lastSeenId : page.issues().get(page.issues().size() - 1).id();
+            } while (issues.size() < total);
+
+            assertEquals("10001", project.id());
+            assertEquals(23, total);
+            assertEquals(dataset.project("PRJ2").orElseThrow().tests().stream().map(SyntheticDataset.TestIssue::key).toList(),
+                    issues.stream().map(JiraIssuesResponse::key).toList());
+            assertEquals("Test", issues.get(0).fields().issuetype.name());
+            assertEquals(4, server.getRequests());
+        }
+    }
+
+    @Test
+    void shouldServeTheStepsExecutionsAndStepResultsOfATest() throws Exception {
+        var dataset = SyntheticDataset.generate(3, 1, 2, 4, 3);
+        var test = dataset.test("PRJ1-2").orElseThrow();
+        try (var server = StandInServer.start(dataset, StandInServer.Settings.healthy())) {
+            var squadApi = new SquadApi(server.apiConfiguration("1.1"));
+
+            var steps = squadApi.fetchLatestTestStepByTestCaseId(test.id()).stepBeanCollection();
+            var executions = squadApi.fetchLatestExecutionByIssueId(test.id()).executions();
+            var execution = executions.get(1);
+            var stepResults = squadApi.fetchTestExecutionStepById(execution.id()).executionSteps();
+
+            assertEquals(4, steps.size());
+            assertEquals(test.steps().get(0).step(), steps.get(0).htmlStep());
+            assertEquals(3, executions.size());
+            assertEquals(SquadApi.EXECUTION_TYPES.get(test.executions().get(1).status()), execution.status());
+            assertEquals(4, stepResults.size());
+            assertEquals(0, stepResults.get(0).index());
+            assertEquals(1, squadApi.getAllProjects().options().size());
+        }
+    }
+
+    @Test
+    void shouldMigrateConcurrentlyThroughThrottlingAndFailures() throws Exception {
+        var dataset = SyntheticDataset.generate(5, 1, 40, 2, 1);
+        var settings = new StandInServer.Settings(5, 0.1, 0.15, 6, 11);
+        var executor = Executors.newFixedThreadPool(8);
+        try (var server = StandInServer.start(dataset, settings)) {
+            var scaleApi = new ScaleApi(server.apiConfiguration("1.1"));
+            scaleApi.retryWith(RetryPolicy.withDefaults(8, 1));
+            var cycleKey = scaleApi.createMigrationTestCycle("PRJ1", "Zephyr Squad migration", null);
+
+            var migrations = dataset.project("PRJ1").orElseThrow().tests().stream()
+                    .map(test -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            var key = scaleApi.createTestCases(new ScaleTestCaseCreationPayload("PRJ1", test.summary(),
+                                    null, List.of(), null, List.of(), "Normal", "Draft", null, Map.of()));
+                            var scriptResults = IntStream.range(0, test.steps().size())
+                                    .mapToObj(index -> new ScaleExecutionStepPayload(index, "Pass", null)).toList();
+                            return scaleApi.createTestExecution(cycleKey, new ScaleExecutionCreationPayload("Pass",
+                                    key, null, null, null, null, null, List.of(), scriptResults, Map.of())).id();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }, executor))
+                    .toList();
+            var testResultIds = migrations.stream().map(CompletableFuture::join).toList();
+
+            assertEquals(40, server.getTestCases().size());
+            assertEquals(40, server.getTestResults().size());
+            assertEquals(2, scaleApi.fetchTestResultsbyId(testResultIds.get(0)).testScriptResults().size());
+            assertEquals("PRJ1-C1", cycleKey);
+            assertTrue(server.getThrottled() > 0);
+            assertTrue(server.getFailed() > 0);
+            assertTrue(server.getMaxInFlight() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldFailWhenEveryRequestFails() throws Exception {
+        var dataset = SyntheticDataset.generate(1, 1, 1, 1, 1);
+        try (var server = StandInServer.start(dataset, new StandInServer.Settings(0, 1.0, 0, 0, 1))) {
+            var jiraApi = new JiraApi(server.apiConfiguration("1.1"));
+            jiraApi.retryWith(RetryPolicy.withDefaults(2, 1));
+
+            var exception = assertThrows(ApiException.class, () -> jiraApi.getProjectByKey("PRJ1"));
+
+            assertEquals(500, exception.code);
+            assertEquals(2, server.getFailed());
+        }
+    }
+}
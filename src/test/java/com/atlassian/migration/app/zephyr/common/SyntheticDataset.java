@@ -0,0 +1,127 @@
+package com.atlassian.migration.app.zephyr.common;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Squad projects made up for the {@link StandInServer}, sized by projects, test issues per project, steps per test
+ * and executions per test. The same seed always gives the same data, so a run against it can be compared with the
+ * previous one.
+ */
+public class SyntheticDataset {
+
+    private static final DateTimeFormatter JIRA_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.ENGLISH);
+    private static final DateTimeFormatter SQUAD_FORMAT = DateTimeFormatter.ofPattern("dd/MMM/yy h:mm a", Locale.ENGLISH);
+    private static final LocalDateTime FIRST_CREATED = LocalDateTime.of(2020, 1, 1, 9, 0);
+    private static final String[] CYCLES = {"Ad hoc", "Sprint 1", "Sprint 2", "Regression"};
+    private static final int[] EXECUTION_STATUSES = {-1, 1, 2, 3, 4};
+    private static final int[] STEP_STATUSES = {-1, 1, 2, 3, 4};
+    private static final int FIRST_PROJECT_ID = 10000;
+    private static final int FIRST_ISSUE_ID = 100000;
+
+    private final List<Project> projects;
+    private final Map<String, Project> projectsByIdOrKey = new HashMap<>();
+    private final Map<String, TestIssue> testsByIdOrKey = new HashMap<>();
+    private final Map<String, Execution> executionsById = new HashMap<>();
+
+    private SyntheticDataset(List<Project> projects) {
+        this.projects = projects;
+        for (var project : projects) {
+            projectsByIdOrKey.put(project.id(), project);
+            projectsByIdOrKey.put(project.key(), project);
+            for (var test : project.tests()) {
+                testsByIdOrKey.put(test.id(), test);
+                testsByIdOrKey.put(test.key(), test);
+                test.executions().forEach(execution -> executionsById.put(execution.id(), execution));
+            }
+        }
+    }
+
+    public static SyntheticDataset generate(long seed, int projectCount, int testsPerProject, int stepsPerTest,
+                                            int executionsPerTest) {
+        var random = new Random(seed);
+        var issueId = FIRST_ISSUE_ID;
+        var stepId = 1;
+        var executionId = 1;
+        var stepResultId = 1;
+
+        List<Project> projects = new ArrayList<>();
+        for (int p = 0; p < projectCount; p++) {
+            var projectKey = "PRJ" + (p + 1);
+            List<TestIssue> tests = new ArrayList<>();
+            for (int t = 0; t < testsPerProject; t++) {
+                var created = FIRST_CREATED.plusMinutes(random.nextInt(60 * 24 * 365));
+
+                List<Step> steps = new ArrayList<>();
+                for (int s = 0; s < stepsPerTest; s++) {
+                    steps.add(new Step(String.valueOf(stepId++), s + 1, "Step " + (s + 1) + " of " + projectKey + "-" + (t + 1),
+                            "data " + random.nextInt(1000), "expected " + random.nextInt(1000)));
+                }
+
+                List<Execution> executions = new ArrayList<>();
+                for (int e = 0; e < executionsPerTest; e++) {
+                    List<StepResult> stepResults = new ArrayList<>();
+                    for (int s = 0; s < stepsPerTest; s++) {
+                        stepResults.add(new StepResult(stepResultId++, s + 1,
+                                STEP_STATUSES[random.nextInt(STEP_STATUSES.length)],
+                                random.nextInt(4) == 0 ? "comment " + random.nextInt(1000) : null));
+                    }
+                    var executedOn = created.plusDays(1 + random.nextInt(30));
+                    executions.add(new Execution(String.valueOf(executionId++),
+                            EXECUTION_STATUSES[random.nextInt(EXECUTION_STATUSES.length)],
+                            SQUAD_FORMAT.format(executedOn), CYCLES[random.nextInt(CYCLES.length)], stepResults));
+                }
+
+                tests.add(new TestIssue(String.valueOf(issueId++), projectKey + "-" + (t + 1),
+                        "Synthetic test " + (t + 1) + " of " + projectKey,
+                        JIRA_FORMAT.format(created.atZone(ZoneOffset.UTC)), steps, executions));
+            }
+            projects.add(new Project(String.valueOf(FIRST_PROJECT_ID + p), projectKey, "Project " + (p + 1), tests));
+        }
+        return new SyntheticDataset(List.copyOf(projects));
+    }
+
+    public List<Project> projects() {
+        return projects;
+    }
+
+    public Optional<Project> project(String idOrKey) {
+        return Optional.ofNullable(projectsByIdOrKey.get(idOrKey));
+    }
+
+    public Optional<TestIssue> test(String idOrKey) {
+        return Optional.ofNullable(testsByIdOrKey.get(idOrKey));
+    }
+
+    public Optional<Execution> execution(String executionId) {
+        return Optional.ofNullable(executionsById.get(executionId));
+    }
+
+    public int testCount() {
+        return projects.stream().mapToInt(project -> project.tests().size()).sum();
+    }
+
+    public record Project(String id, String key, String name, List<TestIssue> tests) {
+    }
+
+    public record TestIssue(String id, String key, String summary, String created, List<Step> steps,
+                            List<Execution> executions) {
+    }
+
+    public record Step(String id, int orderId, String step, String data, String result) {
+    }
+
+    public record Execution(String id, int status, String executedOn, String cycleName, List<StepResult> stepResults) {
+    }
+
+    public record StepResult(int id, int orderId, int status, String comment) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleEntitiesMap;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalPostMigrationExporterTest {
+
+    @Test
+    void shouldExportPagesInSubmissionOrder() throws IOException {
+        List<SquadToScaleEntitiesMap> exported = new CopyOnWriteArrayList<>();
+        var pages = List.of(newPage(), newPage(),
+                newPage());
+
+        try (var exporter = new IncrementalPostMigrationExporter("PROJECT", 1, exported::add)) {
+            for (var page : pages) {
+                exporter.submit(page);
+            }
+            exporter.awaitCompletion();
+        }
+
+        assertEquals(pages.size(), exported.size());
+        for (int i = 0; i < pages.size(); i++) {
+            assertSame(pages.get(i), exported.get(i));
+        }
+    }
+
+    @Test
+    void shouldExportWhileNextPagesAreSubmitted() throws IOException, InterruptedException {
+        var firstPageExported = new CountDownLatch(1);
+
+        try (var exporter = new IncrementalPostMigrationExporter("PROJECT", 2, page -> firstPageExported.countDown())) {
+            exporter.submit(newPage());
+
+            assertTrue(firstPageExported.await(5, TimeUnit.SECONDS));
+            exporter.submit(newPage());
+            exporter.awaitCompletion();
+        }
+    }
+
+    @Test
+    void shouldRethrowFailedExport() throws IOException {
+        var failure = new IOException("disk full");
+
+        try (var exporter = new IncrementalPostMigrationExporter("PROJECT", 1, page -> {
+            throw failure;
+        })) {
+            exporter.submit(newPage());
+
+            var thrown = assertThrows(IOException.class, () -> {
+                for (int i = 0; i < 10; i++) {
+                    exporter.submit(newPage());
+                }
+                exporter.awaitCompletion();
+            });
+            assertSame(failure, thrown.getCause());
+        }
+    }
+
+    private static SquadToScaleEntitiesMap newPage() throws IOException {
+        return SquadToScaleEntitiesMap.create(EntityMapStorage.heap());
+    }
+}
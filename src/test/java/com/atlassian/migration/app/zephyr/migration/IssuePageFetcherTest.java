@@ -0,0 +1,123 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.jira.model.FetchJiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IssuePageFetcherTest {
+
+    @Mock
+    private JiraApi jiraApiMock;
+
+    @Test
+    void shouldFetchPagesInOrderWithoutPrefetch() throws IOException {
+        mockPages();
+
+        var startAts = readAllPages(0);
+
+        assertEquals(List.of(0, 5, 10), startAts);
+        verify(jiraApiMock, times(3)).fetchIssuesOrderedByCreatedDate(eq("PROJECT"), any(), eq(5));
+    }
+
+    @Test
+    void shouldFetchPagesInOrderWithPrefetch() throws IOException {
+        mockPages();
+
+        var startAts = readAllPages(2);
+
+        assertEquals(List.of(0, 5, 10), startAts);
+        verify(jiraApiMock, times(3)).fetchIssuesOrderedByCreatedDate(eq("PROJECT"), any(), eq(5));
+    }
+
+    @Test
+    void shouldRethrowPrefetchFailureWhenPageIsRequested() throws IOException {
+        when(jiraApiMock.fetchIssuesOrderedByCreatedDate("PROJECT", 0, 5))
+                .thenReturn(List.of(new JiraIssuesResponse("1", "KEY-1", null)));
+        when(jiraApiMock.fetchIssuesOrderedByCreatedDate("PROJECT", 5, 5))
+                .thenThrow(new ApiException(500, "boom"));
+
+        try (var fetcher = new IssuePageFetcher(jiraApiMock, "PROJECT", 10, 5, 1)) {
+            assertEquals(0, fetcher.next().startAt());
+            assertThrows(ApiException.class, fetcher::next);
+        }
+    }
+
+    @Test
+    void shouldPageByIdAfterLastSeenIssueWithKeyset() throws IOException {
+        when(jiraApiMock.fetchTestIssuesAfterId("PROJECT", null, 2)).thenReturn(keysetPage(5, "11", "12"));
+        when(jiraApiMock.fetchTestIssuesAfterId("PROJECT", "12", 2)).thenReturn(keysetPage(5, "20", "25"));
+        when(jiraApiMock.fetchTestIssuesAfterId("PROJECT", "25", 2)).thenReturn(keysetPage(5, "31"));
+
+        var issueCount = IssuePageFetcher.countIssues(jiraApiMock, "PROJECT", IssuePagination.KEYSET, 2);
+
+        assertEquals(5, issueCount.total());
+        verify(jiraApiMock, never()).fetchTotalIssuesByProjectName(any());
+        for (var prefetchDepth : List.of(0, 2)) {
+            assertEquals(List.of("0:11,12", "2:20,25", "4:31"), readAllKeysetPages(issueCount, prefetchDepth));
+        }
+        //the first page came with the count and is not requested again
+        verify(jiraApiMock, times(1)).fetchTestIssuesAfterId("PROJECT", null, 2);
+    }
+
+    @Test
+    void shouldStopKeysetAtShortPageWhenIssuesWereDeleted() throws IOException {
+        when(jiraApiMock.fetchTestIssuesAfterId("PROJECT", null, 2)).thenReturn(keysetPage(6, "11", "12"));
+        when(jiraApiMock.fetchTestIssuesAfterId("PROJECT", "12", 2)).thenReturn(keysetPage(6, "20"));
+
+        var issueCount = IssuePageFetcher.countIssues(jiraApiMock, "PROJECT", IssuePagination.KEYSET, 2);
+
+        assertEquals(List.of("0:11,12", "2:20"), readAllKeysetPages(issueCount, 0));
+        verify(jiraApiMock, never()).fetchTestIssuesAfterId("PROJECT", "20", 2);
+    }
+
+    private static FetchJiraIssuesResponse keysetPage(int total, String... ids) {
+        return new FetchJiraIssuesResponse(0, total, Arrays.stream(ids)
+                .map(id -> new JiraIssuesResponse(id, "KEY-" + id, null)).toList());
+    }
+
+    private List<String> readAllKeysetPages(IssuePageFetcher.IssueCount issueCount, int prefetchDepth) throws IOException {
+        List<String> pages = new ArrayList<>();
+        try (var fetcher = new IssuePageFetcher(jiraApiMock, "PROJECT", issueCount, 2, prefetchDepth)) {
+            while (fetcher.hasNext()) {
+                var page = fetcher.next();
+                pages.add(page.startAt() + ":" + String.join(",", page.issues().stream().map(JiraIssuesResponse::id).toList()));
+            }
+        }
+        return pages;
+    }
+
+    private void mockPages() throws IOException {
+        for (int startAt = 0; startAt < 12; startAt += 5) {
+            when(jiraApiMock.fetchIssuesOrderedByCreatedDate("PROJECT", startAt, 5))
+                    .thenReturn(List.of(new JiraIssuesResponse(String.valueOf(startAt), "KEY-" + startAt, null)));
+        }
+    }
+
+    private List<Integer> readAllPages(int prefetchDepth) throws IOException {
+        List<Integer> startAts = new ArrayList<>();
+        try (var fetcher = new IssuePageFetcher(jiraApiMock, "PROJECT", 12, 5, prefetchDepth)) {
+            while (fetcher.hasNext()) {
+                var page = fetcher.next();
+                assertEquals(String.valueOf(page.startAt()), page.issues().get(0).id());
+                startAts.add(page.startAt());
+            }
+        }
+        return startAts;
+    }
+}
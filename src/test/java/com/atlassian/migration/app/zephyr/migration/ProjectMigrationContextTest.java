@@ -0,0 +1,50 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
+import com.atlassian.migration.app.zephyr.scale.model.ScaleMigrationTestCaseStatusPayload;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import com.atlassian.migration.app.zephyr.squad.model.SquadExecutionStatusResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectMigrationContextTest {
+
+    @Test
+    void shouldStartFromDefaultStatusesAndPriorities() {
+        var context = new ProjectMigrationContext("PROJECT", MigrationJournal.disabled(), null, null);
+
+        assertTrue(context.testCaseStatuses().containsAll(List.of("Draft", "Deprecated", "Approved")));
+        assertTrue(context.testCasePriorities().containsAll(List.of("High", "Low", "Normal")));
+        assertEquals("Pass", context.executionTypes().get(1).name());
+        assertEquals("Blocked", context.stepExecutionTypes().get(4).name());
+    }
+
+    @Test
+    void shouldKeepStateOfEachProjectIsolated() {
+        var firstProject = new ProjectMigrationContext("FIRST", MigrationJournal.disabled(), null, null);
+        var secondProject = new ProjectMigrationContext("SECOND", MigrationJournal.disabled(), null, null);
+
+        firstProject.testCaseStatuses().add("In Review");
+        firstProject.registerExecutionStatuses(List.of(new SquadExecutionStatusResponse("7", "Retest", "", "#fff")));
+
+        assertTrue(firstProject.testCaseStatuses().contains("In Review"));
+        assertEquals("Retest", firstProject.executionTypes().get(7).name());
+
+        assertFalse(secondProject.testCaseStatuses().contains("In Review"));
+        assertFalse(secondProject.executionTypes().containsKey(7));
+        assertFalse(ScaleMigrationTestCaseStatusPayload.MIGRATION_TESTCASE_STATUSES.contains("In Review"));
+        assertFalse(SquadApi.EXECUTION_TYPES.containsKey(7));
+    }
+
+    @Test
+    void shouldNotOverrideKnownStatusesWhenRegistering() {
+        var context = new ProjectMigrationContext("PROJECT", MigrationJournal.disabled(), null, null);
+
+        context.registerExecutionStepStatuses(List.of(new SquadExecutionStatusResponse("1", "Passed", "", "#0f0")));
+
+        assertEquals("Pass", context.stepExecutionTypes().get(1).name());
+    }
+}
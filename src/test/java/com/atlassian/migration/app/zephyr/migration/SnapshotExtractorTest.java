@@ -0,0 +1,170 @@
+package com.atlassian.migration.app.zephyr.migration;
+
+import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import com.atlassian.migration.app.zephyr.common.SnapshotReader;
+import com.atlassian.migration.app.zephyr.common.SnapshotWriter;
+import com.atlassian.migration.app.zephyr.common.StandInServer;
+import com.atlassian.migration.app.zephyr.common.SyntheticDataset;
+import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
+import com.atlassian.migration.app.zephyr.jira.model.IssueType;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssueFieldResponse;
+import com.atlassian.migration.app.zephyr.jira.model.JiraIssuesResponse;
+import com.atlassian.migration.app.zephyr.scale.model.GetProjectResponse;
+import com.atlassian.migration.app.zephyr.squad.api.SquadApi;
+import com.atlassian.migration.app.zephyr.squad.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SnapshotExtractorTest {
+
+    @Mock
+    private JiraApi jiraApiMock;
+    @Mock
+    private SquadApi squadApiMock;
+    @Mock
+    private ApiConfiguration apiConfigurationMock;
+
+    private SnapshotExtractor extractor;
+
+    @BeforeEach
+    void setup() throws IOException {
+        MockitoAnnotations.openMocks(this);
+
+        var migConfig = new MigrationConfiguration(apiConfigurationMock, 5, "CYCLE", "attachments_mapped.csv",
+                "test_cases_Mapped.csv", "test_executions_Mapped.csv", "dd/MMM/yy h:mm a", "postgresql",
+                false, "/home/ubuntu");
+        extractor = new SnapshotExtractor(jiraApiMock, squadApiMock, migConfig);
+
+        var testIssueType = new IssueType("self", "10", "Test", "icon", "Test", false, 0);
+        when(jiraApiMock.getProjectByKey("PROJECT"))
+                .thenReturn(new GetProjectResponse("PROJECT", "1", Collections.emptyList(), List.of(testIssueType)));
+        when(squadApiMock.fetchSquadCustomFieldResponse(anyString(), anyString()))
+                .thenReturn(new FetchSquadCustomFieldResponse(Collections.emptyList()));
+
+        when(squadApiMock.fetchLatestTestStepByTestCaseIdAsync(any())).thenReturn(completedFuture(null));
+        when(jiraApiMock.getIssueAttachmentsByIssueIdAsync(any())).thenReturn(completedFuture(List.of()));
+        when(jiraApiMock.convertJiraTextFormattingToHtmlAsync(any())).thenReturn(completedFuture("html"));
+        when(squadApiMock.fetchSquadExecutionCustomFieldValueResponseAsync(any())).thenReturn(completedFuture(null));
+        when(squadApiMock.fetchTestExecutionAttachmentByIdAsync(any())).thenReturn(completedFuture(null));
+        when(squadApiMock.fetchExecutionStepAttachmentByIdAsync(any())).thenReturn(completedFuture(null));
+        when(jiraApiMock.fetchAssignableUserByUsernameAndProjectAsync(any(), any())).thenReturn(completedFuture(List.of()));
+    }
+
+    @Test
+    void shouldReadEverythingTheMigrationReadsForEachIssue() throws IOException {
+        var fields = new JiraIssueFieldResponse();
+        fields.description = "*bold*";
+        when(jiraApiMock.fetchTotalIssuesByProjectName("PROJECT")).thenReturn(2);
+        when(jiraApiMock.fetchIssuesOrderedByCreatedDate("PROJECT", 0, 5)).thenReturn(List.of(
+                new JiraIssuesResponse("100", "PROJECT-1", fields),
+                new JiraIssuesResponse("101", "PROJECT-2", new JiraIssueFieldResponse())));
+        when(squadApiMock.fetchLatestExecutionByIssueIdAsync(eq("100"), any())).thenReturn(completedFuture(executions(execution("200"))));
+        when(squadApiMock.fetchLatestExecutionByIssueIdAsync(eq("101"), any())).thenReturn(completedFuture(executions(execution("201"))));
+        when(squadApiMock.fetchTestExecutionStepByIdAsync(eq("200"), any())).thenReturn(completedFuture(
+                new FetchSquadExecutionStepParsedResponse(List.of(
+                        new SquadExecutionStepParsedResponse(300, 0, null, "comment", 1, List.of("PROJECT-9", "PROJECT-10")),
+                        new SquadExecutionStepParsedResponse(301, 1, null, "comment", 0, Collections.emptyList())))));
+        when(squadApiMock.fetchTestExecutionStepByIdAsync(eq("201"), any()))
+                .thenReturn(completedFuture(new FetchSquadExecutionStepParsedResponse(Collections.emptyList())));
+        when(jiraApiMock.getIssueByIssueKeyAsync("PROJECT-9")).thenReturn(completedFuture(null));
+        //a defect that can't be read doesn't stop the extract
+        when(jiraApiMock.getIssueByIssueKeyAsync("PROJECT-10")).thenReturn(failedFuture(new ApiException(404, "not found")));
+
+        extractor.extractProject("PROJECT");
+
+        verify(jiraApiMock).getIssueFieldsByIssuetype("1", "10");
+        verify(squadApiMock).fetchSquadCustomFieldResponse("EXECUTION", "1");
+        verify(squadApiMock).fetchSquadCustomFieldResponse("TESTSTEP", "1");
+        verify(squadApiMock).fetchLatestTestStepByTestCaseIdAsync("100");
+        verify(squadApiMock).fetchLatestTestStepByTestCaseIdAsync("101");
+        verify(jiraApiMock).getIssueAttachmentsByIssueIdAsync("101");
+        verify(jiraApiMock).convertJiraTextFormattingToHtmlAsync("*bold*");
+        verify(squadApiMock).fetchSquadExecutionCustomFieldValueResponseAsync("200");
+        verify(squadApiMock).fetchTestExecutionAttachmentByIdAsync("201");
+        verify(squadApiMock).fetchExecutionStepAttachmentByIdAsync("300");
+        verify(squadApiMock, never()).fetchExecutionStepAttachmentByIdAsync("301");
+        verify(jiraApiMock).getIssueByIssueKeyAsync("PROJECT-9");
+        //both executions have the same users, each is looked up once
+        verify(jiraApiMock).fetchAssignableUserByUsernameAndProjectAsync("executor", "PROJECT");
+        verify(jiraApiMock).fetchAssignableUserByUsernameAndProjectAsync("assignee", "PROJECT");
+    }
+
+    @Test
+    void shouldSkipProjectWithoutIssues() throws IOException {
+        when(jiraApiMock.fetchTotalIssuesByProjectName("PROJECT")).thenReturn(0);
+
+        extractor.extractProject("PROJECT");
+
+        verify(jiraApiMock, never()).fetchIssuesOrderedByCreatedDate(any(), any(), any());
+        verifyNoInteractions(squadApiMock);
+    }
+
+    @Test
+    void shouldAnswerTheIssuePagesOfTheLoadFromTheExtractedSnapshot(@TempDir Path snapshotDirectory) throws IOException {
+        var dataset = SyntheticDataset.generate(1, 1, 12, 1, 1);
+        try (var server = StandInServer.start(dataset, StandInServer.Settings.healthy())) {
+            var recordingJiraApi = new JiraApi(server.apiConfiguration("1.1"));
+            var recordingSquadApi = new SquadApi(server.apiConfiguration("1.1"));
+            try (var snapshotWriter = new SnapshotWriter(snapshotDirectory)) {
+                recordingJiraApi.recordTo(snapshotWriter);
+                recordingSquadApi.recordTo(snapshotWriter);
+                new SnapshotExtractor(recordingJiraApi, recordingSquadApi, migrationConfiguration()).extractProject("PRJ1");
+            }
+            var requestsOfTheExtract = server.getRequests();
+
+            var replayingJiraApi = new JiraApi(server.apiConfiguration("1.1"));
+            try (var snapshotReader = new SnapshotReader(snapshotDirectory)) {
+                replayingJiraApi.replayFrom(snapshotReader);
+                //the load narrows the search to the fields it migrates, unlike the extract
+                replayingJiraApi.keepCustomFields("PRJ1", Set.of("customfield_100"));
+                var issueCount = IssuePageFetcher.countIssues(replayingJiraApi, "PRJ1", IssuePagination.OFFSET, 5);
+                List<JiraIssuesResponse> issues = new ArrayList<>();
+                try (var pageFetcher = new IssuePageFetcher(replayingJiraApi, "PRJ1", issueCount, 5, 0)) {
+                    while (pageFetcher.hasNext()) {
+                        issues.addAll(pageFetcher.next().issues());
+                    }
+                }
+
+                assertEquals(12, issues.size());
+                assertEquals(0, replayingJiraApi.getSnapshotMisses());
+                assertEquals(requestsOfTheExtract, server.getRequests());
+            }
+        }
+    }
+
+    private MigrationConfiguration migrationConfiguration() {
+        return new MigrationConfiguration(apiConfigurationMock, 5, "CYCLE", "attachments_mapped.csv",
+                "test_cases_Mapped.csv", "test_executions_Mapped.csv", "dd/MMM/yy h:mm a", "postgresql",
+                false, "/home/ubuntu");
+    }
+
+    private static FetchSquadExecutionParsedResponse executions(SquadExecutionItemParsedResponse... executions) {
+        return new FetchSquadExecutionParsedResponse(Collections.emptyMap(), "issue", executions.length, 0,
+                false, false, List.of(executions));
+    }
+
+    private static SquadExecutionItemParsedResponse execution(String id) {
+        return new SquadExecutionItemParsedResponse(id, new SquadExecutionTypeResponse(1, "Pass"), "createdOn",
+                "author", "author", "version", "html_content", "21/Jan/25 1:05 PM", "executor", "assignee",
+                "assignee", "assignee", "cycle", "folder", Collections.emptyList());
+    }
+}
@@ -4,6 +4,7 @@ import com.atlassian.migration.app.zephyr.common.ApiConfiguration;
 import com.atlassian.migration.app.zephyr.jira.api.JiraApi;
 import com.atlassian.migration.app.zephyr.jira.model.*;
 import com.atlassian.migration.app.zephyr.migration.execution.TestExecutionPostMigrator;
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
 import com.atlassian.migration.app.zephyr.migration.testcase.TestCasePostMigrator;
 import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
 import com.atlassian.migration.app.zephyr.scale.database.ScaleTestCaseRepository;
@@ -13,15 +14,20 @@ import com.atlassian.migration.app.zephyr.squad.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class SquadToScaleMigratorTest {
@@ -50,6 +56,8 @@ class SquadToScaleMigratorTest {
     private ApiConfiguration apiConfigurationMock;
 
     private MigrationConfiguration migConfigSpy;
+    private MigrationConfiguration.Concurrency concurrencySpy;
+    private MigrationConfiguration.Journal journalSpy;
 
     private SquadToScaleMigrator migratorSpy;
     private final JiraIssueFieldResponse fieldsMock = new JiraIssueFieldResponse();
@@ -76,6 +84,10 @@ class SquadToScaleMigratorTest {
                 "postgresql",
                 false,
                 "/home/ubuntu"));
+        concurrencySpy = spy(migConfigSpy.concurrency());
+        journalSpy = spy(migConfigSpy.journal());
+        doReturn(concurrencySpy).when(migConfigSpy).concurrency();
+        doReturn(journalSpy).when(migConfigSpy).journal();
 
         migratorSpy = spy(new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock, attachmentsMigratorMock,
                 testCasePostMigratorMock,
@@ -139,6 +151,76 @@ class SquadToScaleMigratorTest {
 
         }
 
+        @Test
+        void shouldRunMigrationForEveryProjectWhenProjectsRunConcurrently() throws IOException {
+
+            var projectsMock = List.of(
+                    new Option("true", "label", "PROJECT", "1"),
+                    new Option("true", "label", "PROJECT", "2"),
+                    new Option("true", "label", "PROJECT", "3"),
+                    new Option("true", "label", "PROJECT", "4")
+            );
+
+            doReturn(3).when(concurrencySpy).projectConcurrency();
+            var concurrentMigratorSpy = spy(new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock,
+                    attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy));
+
+            doReturn(new GetAllProjectsResponse(projectsMock)).when(squadApiMock).getAllProjects();
+            when(jiraApiMock.getProjectById(any())).thenAnswer(invocation -> new GetProjectResponse(
+                    "PROJECT-" + invocation.getArgument(0), invocation.getArgument(0), Collections.emptyList(), Collections.emptyList()));
+            doNothing().when(concurrentMigratorSpy).runMigration(any());
+
+            concurrentMigratorSpy.getProjectListAndRunMigration();
+
+            for (var project : projectsMock) {
+                verify(concurrentMigratorSpy).runMigration("PROJECT-" + project.value());
+            }
+        }
+
+        @Test
+        void shouldMigrateTheOtherProjectsToTheEndWhenOneFails() throws IOException {
+
+            var projectsMock = List.of(
+                    new Option("true", "label", "PROJECT", "1"),
+                    new Option("true", "label", "PROJECT", "2"),
+                    new Option("true", "label", "PROJECT", "3")
+            );
+
+            doReturn(3).when(concurrencySpy).projectConcurrency();
+            var concurrentMigratorSpy = spy(new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock,
+                    attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy));
+
+            doReturn(new GetAllProjectsResponse(projectsMock)).when(squadApiMock).getAllProjects();
+            when(jiraApiMock.getProjectById(any())).thenAnswer(invocation -> new GetProjectResponse(
+                    "PROJECT-" + invocation.getArgument(0), invocation.getArgument(0), Collections.emptyList(), Collections.emptyList()));
+            var completedProjects = ConcurrentHashMap.<String>newKeySet();
+            doAnswer(invocation -> {
+                String projectKey = invocation.getArgument(0);
+                if (projectKey.equals("PROJECT-2")) {
+                    throw new RuntimeException("failed " + projectKey);
+                }
+                //still migrating when the other project fails
+                Thread.sleep(200);
+                completedProjects.add(projectKey);
+                return null;
+            }).when(concurrentMigratorSpy).runMigration(any());
+
+            var exception = assertThrows(RuntimeException.class, concurrentMigratorSpy::getProjectListAndRunMigration);
+
+            assertEquals(Set.of("PROJECT-1", "PROJECT-3"), completedProjects);
+            assertEquals("Failed to migrate projects 2", exception.getMessage());
+            assertEquals("failed PROJECT-2", exception.getSuppressed()[0].getMessage());
+        }
+
+        @Test
+        void shouldRefuseToResumeWithoutJournalDirectory() {
+            doReturn(true).when(journalSpy).resume();
+            doReturn("").when(journalSpy).directory();
+
+            assertThrows(IllegalArgumentException.class, () -> new SquadToScaleMigrator(jiraApiMock, squadApiMock,
+                    scaleApiMock, attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy));
+        }
+
         @Test
         void shouldSkipProjectIfThereAreNoIssuesWhenRunMigration() throws IOException, ExecutionException, InterruptedException {
 
@@ -166,6 +248,26 @@ class SquadToScaleMigratorTest {
             verify(attachmentsMigratorMock, times(1)).export(any(), any());
 
         }
+
+        @Test
+        void shouldExportEveryPageWhenPostMigrationIsIncremental() throws IOException {
+
+            var totalIssuesMock = 10;
+            var pagesExpected = totalIssuesMock / migConfigSpy.pageSteps();
+            var projectResponseMock = new GetProjectResponse("PROJECT", "10000", null, null);
+            doReturn(true).when(journalSpy).incrementalPostMigration();
+            var incrementalMigrator = new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock,
+                    attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy);
+
+            when(jiraApiMock.fetchTotalIssuesByProjectName(any())).thenReturn(totalIssuesMock);
+            when(jiraApiMock.fetchIssuesOrderedByCreatedDate(any(), any(), any())).thenReturn(Collections.emptyList());
+            when(jiraApiMock.getProject(any())).thenReturn(projectResponseMock);
+            incrementalMigrator.runMigration("PROJECT-1");
+
+            verify(attachmentsMigratorMock, times(pagesExpected)).export(any(), eq("PROJECT-1"));
+            verify(testCasePostMigratorMock, times(pagesExpected)).export(any(), eq("PROJECT-1"));
+            verify(testExecutionPostMigrator, times(pagesExpected)).export(any(), eq("PROJECT-1"));
+        }
     }
 
     @Nested
@@ -191,7 +293,7 @@ class SquadToScaleMigratorTest {
 
             when(squadApiMock.fetchLatestTestStepByTestCaseId(any())).thenReturn(new FetchSquadTestStepResponse(Collections.emptyList()));
 
-            when(squadApiMock.fetchLatestExecutionByIssueId(any())).thenReturn(emptyExecutionsMock);
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(emptyExecutionsMock);
 
             when(jiraApiMock.getProject(any())).thenReturn(projectResponseMock);
 
@@ -221,7 +323,7 @@ class SquadToScaleMigratorTest {
 
             when(squadApiMock.fetchLatestTestStepByTestCaseId(any())).thenReturn(fetchSquadTestStepResponseMock);
 
-            when(squadApiMock.fetchLatestExecutionByIssueId(any())).thenReturn(emptyExecutionsMock);
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(emptyExecutionsMock);
 
             when(jiraApiMock.getProject(any())).thenReturn(projectResponseMock);
 //            when(attachmentsMigratorMock.getDataSource()).thenReturn(driverManagerDataSourceMock);
@@ -270,7 +372,7 @@ class SquadToScaleMigratorTest {
                     executionsMock);
             var projectResponseMock = new GetProjectResponse("PROJECT", "10000", null, null);
 
-            when(squadApiMock.fetchLatestExecutionByIssueId(any())).thenReturn(fetchSquadExecutionParsedResponseMock);
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(fetchSquadExecutionParsedResponseMock);
             when(scaleApiMock.createTestExecution(any(), any())).thenReturn(new ScaleTestResultCreatedPayload("1"));
             when(jiraApiMock.getProject(any())).thenReturn(projectResponseMock);
             migratorSpy.runMigration("PROJECT");
@@ -280,6 +382,89 @@ class SquadToScaleMigratorTest {
 
         }
 
+        @Test
+        void shouldNotCreateTestCasesAgainWhenResumingFromJournal(@TempDir Path journalDirectory) throws IOException {
+
+            try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", false)) {
+                journal.recordTestCase("1", "PROJECT-T1");
+                journal.recordTestCase("2", "PROJECT-T2");
+            }
+            doReturn(journalDirectory.toString()).when(journalSpy).directory();
+            doReturn(true).when(journalSpy).resume();
+
+            when(squadApiMock.fetchLatestTestStepByTestCaseId(any())).thenReturn(new FetchSquadTestStepResponse(Collections.emptyList()));
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(emptyExecutionsMock);
+            when(jiraApiMock.getProject(any())).thenReturn(new GetProjectResponse("PROJECT", "10000", null, null));
+
+            migratorSpy.runMigration("PROJECT");
+
+            verify(scaleApiMock, times(issuesMock.size() - 2)).createTestCases(any());
+        }
+
+        @Test
+        void shouldMigrateTestCasesConcurrentlyAndCreateEachCycleOnce() throws IOException {
+
+            doReturn(4).when(concurrencySpy).migrationThreads();
+            var concurrentMigrator = new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock,
+                    attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy);
+
+            when(squadApiMock.fetchLatestTestStepByTestCaseId(any())).thenReturn(new FetchSquadTestStepResponse(Collections.emptyList()));
+
+            var statusMock = new SquadExecutionTypeResponse(1, "wip");
+            var executionsMock = List.of(
+                    new SquadExecutionItemParsedResponse("1",
+                            statusMock, "createdOn", null, null,
+                            "versionName", "comment", null, "executedBy",
+                            "assignedTo", "assignedTo", "assigneeTo", "CYCLE-1", "folder",
+                            Collections.emptyList()),
+                    new SquadExecutionItemParsedResponse("2",
+                            statusMock, "createdOn", null, null,
+                            "versionName", "comment", null, "executedBy",
+                            "assignedTo", "assignedTo", "assigneeTo", "CYCLE-2", "folder",
+                            Collections.emptyList())
+            );
+
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(new FetchSquadExecutionParsedResponse(
+                    Collections.emptyMap(), "10100", 0, 0, false, false, executionsMock));
+            when(scaleApiMock.createMigrationTestCycle(any(), any(), any())).thenReturn("SCALE-CYCLE");
+            when(scaleApiMock.createTestExecution(any(), any())).thenReturn(new ScaleTestResultCreatedPayload("1"));
+            when(jiraApiMock.getProject(any())).thenReturn(new GetProjectResponse("PROJECT", "10000", null, null));
+
+            concurrentMigrator.runMigration("PROJECT");
+
+            verify(scaleApiMock, times(issuesMock.size() * executionsMock.size())).createTestExecution(any(), any());
+            verify(scaleApiMock, times(executionsMock.size())).createMigrationTestCycle(any(), any(), any());
+        }
+
+        @Test
+        void shouldMigrateEveryTestCaseWithOwnThreadCountPerStage() throws IOException {
+
+            doReturn(4).when(concurrencySpy).extractThreads();
+            doReturn(2).when(concurrencySpy).transformThreads();
+            doReturn(1).when(concurrencySpy).loadThreads();
+            var stagedMigrator = new SquadToScaleMigrator(jiraApiMock, squadApiMock, scaleApiMock,
+                    attachmentsMigratorMock, testCasePostMigratorMock, testExecutionPostMigrator, migConfigSpy);
+
+            when(squadApiMock.fetchLatestTestStepByTestCaseId(any())).thenReturn(new FetchSquadTestStepResponse(Collections.emptyList()));
+            var executionsMock = List.of(
+                    new SquadExecutionItemParsedResponse("1",
+                            new SquadExecutionTypeResponse(1, "wip"), "createdOn", null, null,
+                            "versionName", "comment", null, "executedBy",
+                            "assignedTo", "assignedTo", "assigneeTo", "CYCLE-1", "folder",
+                            Collections.emptyList()));
+            when(squadApiMock.fetchLatestExecutionByIssueId(any(), any())).thenReturn(new FetchSquadExecutionParsedResponse(
+                    Collections.emptyMap(), "10100", 0, 0, false, false, executionsMock));
+            when(scaleApiMock.createMigrationTestCycle(any(), any(), any())).thenReturn("SCALE-CYCLE");
+            when(scaleApiMock.createTestExecution(any(), any())).thenReturn(new ScaleTestResultCreatedPayload("1"));
+            when(jiraApiMock.getProject(any())).thenReturn(new GetProjectResponse("PROJECT", "10000", null, null));
+
+            stagedMigrator.runMigration("PROJECT");
+
+            verify(squadApiMock, times(issuesMock.size())).fetchLatestTestStepByTestCaseId(any());
+            verify(squadApiMock, times(issuesMock.size())).fetchTestExecutionStepById(any(), any());
+            verify(scaleApiMock, times(issuesMock.size())).createTestExecution(any(), any());
+        }
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.atlassian.migration.app.zephyr.migration.journal;
+
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleExecutionStepMap;
+import com.atlassian.migration.app.zephyr.migration.model.SquadToScaleTestStepMap;
+import com.atlassian.migration.app.zephyr.squad.model.SquadAttachmentItemResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationJournalTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void shouldReplayRecordedEntriesWhenResuming() throws IOException {
+        var stepKey = new SquadToScaleTestStepMap.TestStepMapKey("10", "1");
+        var executionStepKey = new SquadToScaleExecutionStepMap.SquadExecutionStepMapKey(5, "300", 1, List.of("BUG-1"));
+        var executionStepValue = new SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue(7, "900");
+
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", false)) {
+            journal.recordCycle("Sprint 1", "PROJECT-R1");
+            journal.recordTestCase("100", "PROJECT-T1");
+            journal.recordTestSteps("PROJECT-T1", Map.of(stepKey, List.<SquadAttachmentItemResponse>of()));
+            journal.recordTestExecution("300", "900");
+            journal.recordExecutionSteps("300", Map.of(executionStepKey, executionStepValue));
+        }
+
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            assertEquals("PROJECT-R1", journal.getCycles().get("Sprint 1"));
+            assertEquals("PROJECT-T1", journal.findTestCase("100"));
+            assertEquals(Map.of(stepKey, List.of()), journal.findTestSteps("PROJECT-T1"));
+            assertEquals("900", journal.findTestExecution("300"));
+            assertEquals(Map.of(executionStepKey, executionStepValue), journal.findExecutionSteps("300"));
+            assertNull(journal.findTestCase("101"));
+        }
+    }
+
+    @Test
+    void shouldKeepAppendingWhenResuming() throws IOException {
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", false)) {
+            journal.recordTestCase("100", "PROJECT-T1");
+        }
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            journal.recordTestCase("101", "PROJECT-T2");
+        }
+
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            assertEquals("PROJECT-T1", journal.findTestCase("100"));
+            assertEquals("PROJECT-T2", journal.findTestCase("101"));
+        }
+    }
+
+    @Test
+    void shouldStartEmptyWhenNotResuming() throws IOException {
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", false)) {
+            journal.recordTestCase("100", "PROJECT-T1");
+        }
+
+        try (var restarted = MigrationJournal.open(journalDirectory, "PROJECT", false);
+             var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            assertNull(restarted.findTestCase("100"));
+            assertNull(journal.findTestCase("100"));
+        }
+    }
+
+    @Test
+    void shouldIgnoreEntryTornByCrash() throws IOException {
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", false)) {
+            journal.recordTestCase("100", "PROJECT-T1");
+        }
+        Files.writeString(journalDirectory.resolve("PROJECT.journal"), "{\"type\":\"TEST_CA",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            assertEquals("PROJECT-T1", journal.findTestCase("100"));
+            journal.recordTestCase("101", "PROJECT-T2");
+        }
+
+        try (var journal = MigrationJournal.open(journalDirectory, "PROJECT", true)) {
+            assertEquals("PROJECT-T1", journal.findTestCase("100"));
+            assertEquals("PROJECT-T2", journal.findTestCase("101"));
+        }
+    }
+
+    @Test
+    void shouldNotWriteAnythingWhenDisabled() throws IOException {
+        try (var journal = MigrationJournal.disabled()) {
+            journal.recordTestCase("100", "PROJECT-T1");
+
+            assertFalse(journal.isEnabled());
+            assertNull(journal.findTestCase("100"));
+        }
+    }
+}
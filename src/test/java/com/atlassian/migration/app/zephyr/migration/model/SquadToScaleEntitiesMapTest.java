@@ -0,0 +1,70 @@
+package com.atlassian.migration.app.zephyr.migration.model;
+
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapBackend;
+import com.atlassian.migration.app.zephyr.migration.model.store.EntityMapStorage;
+import com.atlassian.migration.app.zephyr.squad.model.SquadAttachmentItemResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SquadToScaleEntitiesMapTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void shouldKeepSameContentOnEveryBackend() throws IOException {
+        try (var heap = SquadToScaleEntitiesMap.create(EntityMapStorage.heap());
+             var mapped = SquadToScaleEntitiesMap.create(new EntityMapStorage(EntityMapBackend.MAPPED, spillDirectory))) {
+            fill(heap);
+            fill(mapped);
+
+            assertEquals(heap.testCaseMap(), mapped.testCaseMap());
+            assertEquals(heap.testStepMap(), mapped.testStepMap());
+            assertEquals(heap.testExecutionMap(), mapped.testExecutionMap());
+            assertEquals(heap.executionStepMap(), mapped.executionStepMap());
+        }
+    }
+
+    @Test
+    void shouldKeepIterationApisOnMappedBackend() throws IOException {
+        try (var mapped = SquadToScaleEntitiesMap.create(new EntityMapStorage(EntityMapBackend.MAPPED, spillDirectory))) {
+            fill(mapped);
+
+            assertEquals(List.of("9", "10"), mapped.testCaseMap().getListOfAllEntriesOrdered().stream()
+                    .map(entry -> entry.getKey().testCaseId()).toList());
+            assertEquals(List.of(2), mapped.executionStepMap().getExecutionStepMapHasAttachments().stream()
+                    .map(entry -> entry.getKey().executionStepId()).toList());
+            assertEquals(List.of(1), mapped.executionStepMap().getExecutionStepMapHasDefects().stream()
+                    .map(entry -> entry.getKey().executionStepId()).toList());
+            assertEquals("user", mapped.testExecutionMap().keySet().iterator().next().createdBy().toString());
+        }
+    }
+
+    private static void fill(SquadToScaleEntitiesMap entitiesMap) {
+        entitiesMap.testCaseMap().put(new SquadToScaleTestCaseMap.TestCaseMapKey("10", "PROJECT-10", "user",
+                "2024-01-01", null, "2024-01-02"), "PROJECT-T2");
+        entitiesMap.testCaseMap().put(new SquadToScaleTestCaseMap.TestCaseMapKey("9", "PROJECT-9", "user",
+                "2024-01-01", null, "2024-01-02"), "PROJECT-T1");
+
+        var attachment = new SquadAttachmentItemResponse("file.txt", "2024-01-01", null, "10", "icon",
+                "user", "alt", "a comment", "300");
+        entitiesMap.testStepMap().put("PROJECT-T1", Map.of(
+                new SquadToScaleTestStepMap.TestStepMapKey("1", "1"), List.of(attachment),
+                new SquadToScaleTestStepMap.TestStepMapKey("2", "2"), List.of()));
+
+        entitiesMap.testExecutionMap().put(new SquadToScaleTestExecutionMap.TestExecutionMapKey("500", "user",
+                "2024-01-01", null, null, null), "900");
+
+        entitiesMap.executionStepMap().put(new SquadToScaleExecutionStepMap.SquadExecutionStepMapKey(1, "500", 0,
+                List.of("BUG-1")), new SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue(7, "900"));
+        entitiesMap.executionStepMap().put(new SquadToScaleExecutionStepMap.SquadExecutionStepMapKey(2, "500", 1,
+                List.of()), new SquadToScaleExecutionStepMap.ScaleExecutionStepMapValue(8, "900"));
+    }
+}
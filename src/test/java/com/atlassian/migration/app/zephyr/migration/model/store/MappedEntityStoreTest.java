@@ -0,0 +1,85 @@
+package com.atlassian.migration.app.zephyr.migration.model.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEntityStoreTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void shouldBehaveLikeAMap() throws IOException {
+        try (var store = new MappedEntityStore<>(spillDirectory, "test", EntityCodec.STRING, EntityCodec.STRING)) {
+            assertNull(store.put("100", "PROJECT-T1"));
+            assertNull(store.put("101", null));
+            assertEquals("PROJECT-T1", store.put("100", "PROJECT-T2"));
+
+            assertEquals(2, store.size());
+            assertEquals("PROJECT-T2", store.get("100"));
+            assertTrue(store.containsKey("101"));
+            assertNull(store.get("101"));
+            assertNull(store.get("102"));
+            assertNull(store.get(42));
+
+            assertEquals("PROJECT-T2", store.remove("100"));
+            assertFalse(store.containsKey("100"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void shouldSpreadEntriesOverSeveralSegments() throws IOException {
+        Map<String, String> expected = new HashMap<>();
+        try (var store = new MappedEntityStore<>(spillDirectory, "test", EntityCodec.STRING, EntityCodec.STRING, 64)) {
+            for (int i = 0; i < 500; i++) {
+                expected.put(String.valueOf(i), "PROJECT-T" + i);
+                store.put(String.valueOf(i), "PROJECT-T" + i);
+            }
+
+            assertEquals(expected, store);
+            assertEquals(expected, new HashMap<>(store));
+        }
+    }
+
+    @Test
+    void shouldIterateInWriteOrderAndRemoveThroughIterator() throws IOException {
+        try (var store = new MappedEntityStore<>(spillDirectory, "test", EntityCodec.STRING, EntityCodec.STRING)) {
+            store.put("3", "c");
+            store.put("1", "a");
+            store.put("2", "b");
+
+            assertEquals(List.of("3", "1", "2"), store.keySet().stream().toList());
+
+            store.entrySet().removeIf(entry -> entry.getValue().equals("a"));
+            assertEquals(Map.of("3", "c", "2", "b"), store);
+        }
+    }
+
+    @Test
+    void shouldRejectEntityLargerThanASegment() throws IOException {
+        try (var store = new MappedEntityStore<>(spillDirectory, "test", EntityCodec.STRING, EntityCodec.STRING, 16)) {
+            assertThrows(IllegalArgumentException.class, () -> store.put("100", "a value longer than the segment"));
+        }
+    }
+
+    @Test
+    void shouldDeleteFileOnClose() throws IOException {
+        var store = new MappedEntityStore<>(spillDirectory, "test", EntityCodec.STRING, EntityCodec.STRING);
+        store.put("100", "PROJECT-T1");
+        store.close();
+
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.atlassian.migration.app.zephyr.migration.service;
+
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelTaskRunnerTest {
+
+    @Test
+    void shouldReturnResultsInItemOrder() throws IOException {
+        var runner = new ParallelTaskRunner("test", 4);
+        var items = IntStream.range(0, 50).boxed().toList();
+
+        var results = runner.runAll(items, item -> {
+            sleepQuietly((50 - item) % 7);
+            return "KEY-" + item;
+        });
+
+        assertEquals(items.stream().map(item -> "KEY-" + item).toList(), results);
+    }
+
+    @Test
+    void shouldUseSeveralWorkerThreads() throws IOException {
+        var runner = new ParallelTaskRunner("test", 4);
+        var threadNames = ConcurrentHashMap.<String>newKeySet();
+
+        runner.runAll(IntStream.range(0, 20).boxed().toList(), item -> {
+            threadNames.add(Thread.currentThread().getName());
+            sleepQuietly(20);
+            return item;
+        });
+
+        assertTrue(threadNames.size() > 1);
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("test-")));
+    }
+
+    @Test
+    void shouldRunOnCallerThreadWhenParallelismIsOne() throws IOException {
+        var runner = new ParallelTaskRunner("test", 1);
+        var callerThread = Thread.currentThread().getName();
+
+        var threadNames = runner.runAll(List.of(1, 2, 3), item -> Thread.currentThread().getName());
+
+        assertEquals(List.of(callerThread, callerThread, callerThread), threadNames);
+    }
+
+    @Test
+    void shouldRethrowFirstFailure() {
+        var runner = new ParallelTaskRunner("test", 4);
+
+        var exception = assertThrows(ApiException.class, () -> runner.runAll(List.of(1, 2, 3, 4), item -> {
+            if (item == 3) {
+                throw new ApiException(500, "failed " + item);
+            }
+            return item;
+        }));
+
+        assertEquals("failed 3", exception.message);
+    }
+
+    @Test
+    void shouldRethrowRuntimeExceptionsAsIs() {
+        var runner = new ParallelTaskRunner("test", 2);
+
+        assertThrows(IllegalStateException.class, () -> runner.runAll(List.of(1, 2), item -> {
+            throw new IllegalStateException("failed");
+        }));
+    }
+
+    @Test
+    void shouldNotRunMoreTasksThanParallelism() throws IOException {
+        for (var executorType : ExecutorType.values()) {
+            var runner = new ParallelTaskRunner("test", 3, executorType);
+            var running = new AtomicInteger();
+            var maxRunning = new AtomicInteger();
+
+            runner.runAll(IntStream.range(0, 30).boxed().toList(), item -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleepQuietly(5);
+                running.decrementAndGet();
+                return item;
+            });
+
+            assertTrue(maxRunning.get() <= 3, "more than 3 tasks ran at once on " + executorType + " threads");
+        }
+    }
+
+    @Test
+    void shouldUseVirtualThreadsOnlyWhenSupported() {
+        var runner = new ParallelTaskRunner("test", 2, ExecutorType.VIRTUAL);
+
+        var expected = ParallelTaskRunner.isVirtualThreadSupported() ? ExecutorType.VIRTUAL : ExecutorType.PLATFORM;
+        assertEquals(expected, runner.getExecutorType());
+    }
+
+    @Test
+    void shouldResolveExecutorTypeByName() {
+        assertEquals(ExecutorType.VIRTUAL, ExecutorType.getExecutorTypeByName("Virtual").orElseThrow());
+        assertEquals(ExecutorType.PLATFORM, ExecutorType.getExecutorTypeByName("platform").orElseThrow());
+        assertTrue(ExecutorType.getExecutorTypeByName("green").isEmpty());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,14 +2,23 @@ package com.atlassian.migration.app.zephyr.migration.service;
 
 
 import com.atlassian.migration.app.zephyr.common.ZephyrApiException;
+import com.atlassian.migration.app.zephyr.migration.journal.MigrationJournal;
 import com.atlassian.migration.app.zephyr.scale.api.ScaleApi;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -66,4 +75,70 @@ public class ScaleCycleServiceTest {
 
 
     }
+
+    @Test
+    void shouldRememberCycleCreatedWithoutKey() throws ZephyrApiException {
+
+        when(scaleApi.createMigrationTestCycle(testCaseKeyMock, "SQUAD_CYCLE", "VERSION")).thenReturn(null);
+
+        sutScaleCycleService.getCycleKeyBySquadCycleName("SQUAD_CYCLE", testCaseKeyMock, "VERSION");
+        var receivedScaleCycleKey = sutScaleCycleService
+                .getCycleKeyBySquadCycleName("SQUAD_CYCLE", testCaseKeyMock, "VERSION");
+
+        assertNull(receivedScaleCycleKey);
+        verify(scaleApi, times(1)).createMigrationTestCycle(testCaseKeyMock, "SQUAD_CYCLE", "VERSION");
+    }
+
+    @Test
+    void shouldCreateOtherCyclesWhileOneIsBeingCreated() throws Exception {
+
+        var creationStarted = new CountDownLatch(1);
+        var releaseCreation = new CountDownLatch(1);
+        when(scaleApi.createMigrationTestCycle(testCaseKeyMock, "SLOW_CYCLE", "VERSION")).thenAnswer(invocation -> {
+            creationStarted.countDown();
+            releaseCreation.await();
+            return "CYCLE-1";
+        });
+        when(scaleApi.createMigrationTestCycle(testCaseKeyMock, "OTHER_CYCLE", "VERSION")).thenReturn("CYCLE-2");
+
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var slowCycle = executor.submit(() -> sutScaleCycleService
+                    .getCycleKeyBySquadCycleName("SLOW_CYCLE", testCaseKeyMock, "VERSION"));
+            creationStarted.await();
+            var sameSlowCycle = executor.submit(() -> sutScaleCycleService
+                    .getCycleKeyBySquadCycleName("SLOW_CYCLE", testCaseKeyMock, "VERSION"));
+
+            var otherCycleKey = sutScaleCycleService
+                    .getCycleKeyBySquadCycleName("OTHER_CYCLE", testCaseKeyMock, "VERSION");
+            releaseCreation.countDown();
+
+            assertEquals("CYCLE-2", otherCycleKey);
+            assertEquals("CYCLE-1", slowCycle.get(5, TimeUnit.SECONDS));
+            assertEquals("CYCLE-1", sameSlowCycle.get(5, TimeUnit.SECONDS));
+            verify(scaleApi, times(1)).createMigrationTestCycle(testCaseKeyMock, "SLOW_CYCLE", "VERSION");
+        } finally {
+            releaseCreation.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReuseCyclesFromJournalWhenResuming(@TempDir Path journalDirectory) throws IOException {
+
+        try (var journal = MigrationJournal.open(journalDirectory, testCaseKeyMock, false)) {
+            when(scaleApi.createMigrationTestCycle(testCaseKeyMock, "SQUAD_CYCLE", "VERSION")).thenReturn("CYCLE-1");
+            new ScaleCycleService(scaleApi, "", journal)
+                    .getCycleKeyBySquadCycleName("SQUAD_CYCLE", testCaseKeyMock, "VERSION");
+        }
+
+        try (var journal = MigrationJournal.open(journalDirectory, testCaseKeyMock, true)) {
+            var receivedScaleCycleKey = new ScaleCycleService(scaleApi, "", journal)
+                    .getCycleKeyBySquadCycleName("SQUAD_CYCLE", testCaseKeyMock, "VERSION");
+
+            assertEquals("CYCLE-1", receivedScaleCycleKey);
+        }
+
+        verify(scaleApi, times(1)).createMigrationTestCycle(testCaseKeyMock, "SQUAD_CYCLE", "VERSION");
+    }
 }
@@ -195,5 +195,19 @@ public class ScaleTestCasePayloadFacadeTest {
                 .createTestCasePayload(jiraIssuesResponseCompleteMock, projectKeyMock, new HashMap<>());
         verify(jiraApiMock, never()).convertJiraTextFormattingToHtml(any());
         assertEquals(expectedPayload, receivedPayload);
-    }}
+    }
+
+    @Test
+    void shouldUseTheDescriptionRenderedBySearch() throws IOException {
+
+        var renderedIssue = new JiraIssuesResponse("10100", "JIRA-1", jiraIssueFieldResponseMock,
+                new JiraRenderedFieldsResponse("<p>description</p>"));
+
+        var receivedPayload = sutScaleTestCasePayloadFacade
+                .createTestCasePayload(renderedIssue, projectKeyMock, new HashMap<>());
+
+        verify(jiraApiMock, never()).convertJiraTextFormattingToHtml(any());
+        assertEquals("<p>description</p>", receivedPayload.objective());
+    }
+}
     
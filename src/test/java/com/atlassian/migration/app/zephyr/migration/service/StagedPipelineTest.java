@@ -0,0 +1,153 @@
+package com.atlassian.migration.app.zephyr.migration.service;
+
+import com.atlassian.migration.app.zephyr.common.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedPipelineTest {
+
+    @Test
+    void shouldRunEveryStageAndReturnResultsInItemOrder() throws IOException {
+        var pipeline = StagedPipeline.<Integer, Integer>of("test", 2, "extract", 3, item -> {
+                    sleepQuietly((30 - item) % 5);
+                    return item * 10;
+                })
+                .then("transform", 2, value -> "KEY-" + value)
+                .then("load", 4, key -> {
+                    sleepQuietly(key.length() % 3);
+                    return key + "-LOADED";
+                });
+        var items = IntStream.range(0, 30).boxed().toList();
+
+        var results = pipeline.runAll(items);
+
+        assertEquals(items.stream().map(item -> "KEY-" + item * 10 + "-LOADED").toList(), results);
+        assertEquals(List.of(30L, 30L, 30L), pipeline.getMetrics().stream().map(StagedPipeline.StageMetrics::items).toList());
+    }
+
+    @Test
+    void shouldRunEachStageOnItsOwnThreads() throws IOException {
+        var extractThreads = ConcurrentHashMap.<String>newKeySet();
+        var loadThreads = ConcurrentHashMap.<String>newKeySet();
+        var pipeline = StagedPipeline.<Integer, Integer>of("test", 1, "extract", 4, item -> {
+                    extractThreads.add(Thread.currentThread().getName());
+                    sleepQuietly(10);
+                    return item;
+                })
+                .then("load", 1, item -> {
+                    loadThreads.add(Thread.currentThread().getName());
+                    return item;
+                });
+
+        pipeline.runAll(IntStream.range(0, 20).boxed().toList());
+
+        assertTrue(extractThreads.size() > 1);
+        assertTrue(extractThreads.stream().allMatch(name -> name.startsWith("test-extract-")));
+        assertEquals(1, loadThreads.size());
+        assertTrue(loadThreads.iterator().next().startsWith("test-load-"));
+    }
+
+    @Test
+    void shouldHoldBackFasterStageWhenQueueIsFull() throws IOException {
+        var extracted = new AtomicInteger();
+        var loaded = new AtomicInteger();
+        var maxAhead = new AtomicInteger();
+        var pipeline = StagedPipeline.<Integer, Integer>of("test", 2, "extract", 1, item -> {
+                    maxAhead.accumulateAndGet(extracted.incrementAndGet() - loaded.get(), Math::max);
+                    return item;
+                })
+                .then("load", 1, item -> {
+                    sleepQuietly(5);
+                    loaded.incrementAndGet();
+                    return item;
+                });
+
+        pipeline.runAll(IntStream.range(0, 20).boxed().toList());
+
+        //two waiting in the queue, one being loaded and one extracted and waiting to be queued
+        assertTrue(maxAhead.get() <= 4, "extract ran " + maxAhead.get() + " items ahead of load");
+        assertTrue(pipeline.getMetrics().get(0).blockedNanos() > 0);
+    }
+
+    @Test
+    void shouldRethrowFirstFailureAndStopEveryStage() {
+        var loaded = new AtomicInteger();
+        var pipeline = StagedPipeline.<Integer, Integer>of("test", 2, "extract", 2, item -> {
+                    if (item == 3) {
+                        throw new ApiException(500, "failed " + item);
+                    }
+                    return item;
+                })
+                .then("load", 2, item -> {
+                    loaded.incrementAndGet();
+                    return item;
+                });
+
+        var exception = assertThrows(ApiException.class, () -> pipeline.runAll(IntStream.range(0, 100).boxed().toList()));
+
+        assertEquals(500, exception.code);
+        assertTrue(loaded.get() < 100);
+    }
+
+    @Test
+    void shouldKeepStageThreadsAndMetricsAcrossRuns() throws IOException {
+        var extractThreads = ConcurrentHashMap.<Thread>newKeySet();
+        try (var pipeline = StagedPipeline.<Integer, Integer>of("test", 2, ExecutorType.PLATFORM, "extract", 2, item -> {
+                    extractThreads.add(Thread.currentThread());
+                    return item;
+                })
+                .then("load", 1, item -> item)) {
+
+            for (int run = 0; run < 5; run++) {
+                pipeline.runAll(IntStream.range(0, 10).boxed().toList());
+            }
+
+            assertEquals(2, extractThreads.size());
+            assertEquals(List.of(50L, 50L), pipeline.getMetrics().stream().map(StagedPipeline.StageMetrics::items).toList());
+        }
+    }
+
+    @Test
+    void shouldRunStagesOnTheConfiguredExecutorType() throws IOException {
+        var virtualThreads = new AtomicInteger();
+        try (var pipeline = StagedPipeline.<Integer, Integer>of("test", 2, ExecutorType.VIRTUAL, "extract", 2, item -> {
+                    if (Thread.currentThread().toString().startsWith("VirtualThread")) {
+                        virtualThreads.incrementAndGet();
+                    }
+                    return item;
+                })
+                .then("load", 1, item -> item)) {
+
+            var results = pipeline.runAll(IntStream.range(0, 10).boxed().toList());
+
+            var expected = ParallelTaskRunner.isVirtualThreadSupported() ? ExecutorType.VIRTUAL : ExecutorType.PLATFORM;
+            assertEquals(expected, pipeline.getExecutorType());
+            assertEquals(expected == ExecutorType.VIRTUAL ? 10 : 0, virtualThreads.get());
+            assertEquals(IntStream.range(0, 10).boxed().toList(), results);
+        }
+    }
+
+    @Test
+    void shouldRunSingleItemOnCallerThread() throws IOException {
+        var callerThread = Thread.currentThread().getName();
+        var pipeline = StagedPipeline.<Integer, String>of("test", 2, "extract", 4, item -> Thread.currentThread().getName())
+                .then("load", 4, extractThread -> extractThread + "/" + Thread.currentThread().getName());
+
+        assertEquals(List.of(callerThread + "/" + callerThread), pipeline.runAll(List.of(1)));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}